@@ -0,0 +1,144 @@
+package Bench;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import AST.Program;
+import AST.Visitor.ResolveVisitor;
+import AST.Visitor.SymTableVisitor;
+import Parser.parser;
+import Scanner.scanner;
+import Symtab.SymbolTable;
+import java_cup.runtime.ComplexSymbolFactory;
+
+/**
+ * Source text for the benchmarks.  An input is either the name of one of
+ * the sample programs ("BinarySearch"), "synthetic-<n>", a generated
+ * program with n classes of loops, arrays, conditionals and calls, or
+ * "comments-<n>", the same program with block comments all through it.
+ *
+ * Samples are read from the directory given by the minijava.samples
+ * system property, SamplePrograms/SampleMiniJavaPrograms by default.
+ */
+public class BenchInputs {
+
+	public static final String SAMPLES =
+		System.getProperty("minijava.samples", "SamplePrograms/SampleMiniJavaPrograms");
+
+	/** Diagnostics from the compiler phases are thrown away. */
+	public static final PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+
+	public static String load(String input) throws IOException
+	{
+		if ( input.startsWith("synthetic-") )
+			return synthetic(Integer.parseInt(input.substring("synthetic-".length())));
+		if ( input.startsWith("comments-") )
+			return comments(Integer.parseInt(input.substring("comments-".length())));
+		return new String(Files.readAllBytes(Paths.get(SAMPLES, input + ".java")),
+						  StandardCharsets.UTF_8);
+	}
+
+	public static Program parse(String source) throws Exception
+	{
+		ComplexSymbolFactory sf = new ComplexSymbolFactory();
+		scanner s = new scanner(new StringReader(source), sf);
+		s.setDiagnostics(discard);
+		return (Program)new parser(s, sf).parse().value;
+	}
+
+	public static SymTableVisitor symtab(Program program)
+	{
+		SymTableVisitor st = new SymTableVisitor();
+		st.setDiagnostics(discard);
+		program.accept(st);
+		return st;
+	}
+
+	/** Bind the names in program, as the semantic and codegen passes need. */
+	public static ResolveVisitor resolve(Program program, SymbolTable symtab)
+	{
+		ResolveVisitor rv = new ResolveVisitor();
+		rv.setSymtab(symtab);
+		program.accept(rv);
+		return rv;
+	}
+
+	/**
+	 * A program of n classes, each about 50 lines, that the code
+	 * generator can translate.  Only C0 is run from main; the rest are
+	 * there to be compiled.
+	 */
+	public static String synthetic(int n)
+	{
+		StringBuilder b = new StringBuilder();
+		b.append("class Synthetic {\n")
+		 .append("    public static void main(String[] a) {\n")
+		 .append("\tSystem.out.println(new C0().Run(10));\n")
+		 .append("    }\n")
+		 .append("}\n");
+		for ( int i = 0; i < n; i++ ) {
+			b.append("\n// synthetic class ").append(i).append("\n")
+			 .append("class C").append(i).append(" {\n")
+			 .append("    int[] data ;\n")
+			 .append("    int size ;\n")
+			 .append("\n")
+			 .append("    public int Init(int sz) {\n")
+			 .append("\tint j ;\n")
+			 .append("\tsize = sz ;\n")
+			 .append("\tdata = new int[sz] ;\n")
+			 .append("\tj = 0 ;\n")
+			 .append("\twhile (j < sz) {\n")
+			 .append("\t    data[j] = (j * ").append(i % 7 + 2).append(") - (sz * 3) ;\n")
+			 .append("\t    j = j + 1 ;\n")
+			 .append("\t}\n")
+			 .append("\treturn data.length ;\n")
+			 .append("    }\n")
+			 .append("\n")
+			 .append("    public int Max() {\n")
+			 .append("\tint j ;\n")
+			 .append("\tint max ;\n")
+			 .append("\tint cur ;\n")
+			 .append("\tj = 1 ;\n")
+			 .append("\tmax = data[0] ;\n")
+			 .append("\twhile (j < size) {\n")
+			 .append("\t    cur = data[j] ;\n")
+			 .append("\t    if ((max < cur) && !(cur < 0))\n")
+			 .append("\t\tmax = cur ;\n")
+			 .append("\t    else\n")
+			 .append("\t\tmax = max + 0 ;\n")
+			 .append("\t    j = j + 1 ;\n")
+			 .append("\t}\n")
+			 .append("\treturn max ;\n")
+			 .append("    }\n")
+			 .append("\n")
+			 .append("    public int Run(int sz) {\n")
+			 .append("\tint r ;\n")
+			 .append("\tr = this.Init(sz) ;\n")
+			 .append("\tr = r + this.Max() ;\n")
+			 .append("\tSystem.out.println(r) ;\n")
+			 .append("\treturn r ;\n")
+			 .append("    }\n")
+			 .append("}\n");
+		}
+		return b.toString();
+	}
+
+	/**
+	 * synthetic(n) with a block comment before each class and one at the
+	 * start of each statement line, about 20 per class.  Time to scan it
+	 * should grow linearly with n.
+	 */
+	public static String comments(int n)
+	{
+		return synthetic(n)
+			.replace("\n// synthetic class",
+					 "\n/**\n * A class made up for the benchmarks; the scanner\n" +
+					 " * skips this ** comment / and the next one.\n */\n// synthetic class")
+			.replace("\n\t", "\n\t/* step */ ");
+	}
+}
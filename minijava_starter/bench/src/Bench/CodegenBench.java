@@ -0,0 +1,54 @@
+package Bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import AST.Program;
+import AST.Visitor.CodeTranslateVisitor;
+import Codegen.AsmEmitter;
+import Codegen.MemorySink;
+import Symtab.FrozenSymbolTable;
+import Symtab.SymbolTable;
+
+/**
+ * CodeTranslateVisitor into an in-memory sink, over an AST and symbol
+ * table built and resolved once in setup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodegenBench {
+
+	@Param({ "BinarySearch", "BinaryTree", "BubbleSort", "Factorial", "LinearSearch",
+			 "LinkedList", "QuickSort", "TreeVisitor", "synthetic-10", "synthetic-100" })
+	public String input;
+
+	Program program;
+	FrozenSymbolTable symtab;
+	MemorySink sink = new MemorySink();
+
+	@Setup
+	public void setup() throws Exception
+	{
+		program = BenchInputs.parse(BenchInputs.load(input));
+		SymbolTable st = BenchInputs.symtab(program).getSymtab();
+		BenchInputs.resolve(program, st);
+		symtab = st.freeze();
+	}
+
+	@Benchmark
+	public int codegen()
+	{
+		sink.reset();
+		CodeTranslateVisitor ctv = new CodeTranslateVisitor();
+		ctv.setSymtab(symtab);
+		ctv.setOutput(new AsmEmitter(sink));
+		ctv.setDiagnostics(BenchInputs.discard);
+		program.accept(ctv);
+		return sink.size();
+	}
+}
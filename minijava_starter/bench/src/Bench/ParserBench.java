@@ -0,0 +1,80 @@
+package Bench;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import AST.ASTCache;
+import AST.ASTFile;
+import AST.Program;
+import Parser.DescentParser;
+import Parser.parser;
+import Scanner.TokenBuffer;
+import Scanner.TokenPipeline;
+import Scanner.scanner;
+import java_cup.runtime.ComplexSymbolFactory;
+
+/**
+ * Scanning plus Parser.parser.parse, giving the AST, the same with the
+ * scanner on its own thread (-X:pipeline), and with Parser.DescentParser
+ * on a TokenBuffer (-X:descent); and hashing the source and reading its
+ * AST from an in-memory ASTFile instead, as -X:astcache does on a hit.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBench {
+
+	@Param({ "BinarySearch", "BinaryTree", "BubbleSort", "Factorial", "LinearSearch",
+			 "LinkedList", "QuickSort", "TreeVisitor", "synthetic-10", "synthetic-100" })
+	public String input;
+
+	String source;
+	ByteBuffer astFile;
+
+	@Setup
+	public void setup() throws Exception
+	{
+		source = BenchInputs.load(input);
+		astFile = ByteBuffer.wrap(ASTFile.write(BenchInputs.parse(source)));
+	}
+
+	@Benchmark
+	public Program parse() throws Exception
+	{
+		return BenchInputs.parse(source);
+	}
+
+	@Benchmark
+	public Program pipeline() throws Exception
+	{
+		ComplexSymbolFactory sf = new ComplexSymbolFactory();
+		scanner s = new scanner(new StringReader(source), sf);
+		TokenPipeline p = TokenPipeline.start(s, sf, BenchInputs.discard);
+		try {
+			return (Program)new parser(p, sf).parse().value;
+		} finally {
+			p.close();
+		}
+	}
+
+	@Benchmark
+	public Program descent() throws Exception
+	{
+		scanner s = new scanner(new StringReader(source), new ComplexSymbolFactory());
+		s.setDiagnostics(BenchInputs.discard);
+		return new DescentParser(s.scan(new TokenBuffer())).parse();
+	}
+
+	@Benchmark
+	public Program cached() throws Exception
+	{
+		ASTCache.key(source.toCharArray());
+		return ASTFile.of(astFile).program();
+	}
+}
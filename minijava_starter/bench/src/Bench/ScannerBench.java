@@ -0,0 +1,50 @@
+package Bench;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import Parser.sym;
+import Scanner.scanner;
+import java_cup.runtime.ComplexSymbolFactory;
+import java_cup.runtime.Symbol;
+
+/**
+ * Scanner.scanner.next_token over each whole input, up to EOF: the score
+ * is inputs scanned per second, not tokens.  The token count is returned
+ * so that the scan isn't optimized away; multiply the score by it for
+ * tokens per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScannerBench {
+
+	@Param({ "BinarySearch", "BinaryTree", "BubbleSort", "Factorial", "LinearSearch",
+			 "LinkedList", "QuickSort", "TreeVisitor", "synthetic-10", "synthetic-100",
+			 "comments-10", "comments-100", "comments-1000" })
+	public String input;
+
+	String source;
+
+	@Setup
+	public void setup() throws Exception
+	{
+		source = BenchInputs.load(input);
+	}
+
+	@Benchmark
+	public int scan() throws Exception
+	{
+		scanner s = new scanner(new StringReader(source), new ComplexSymbolFactory());
+		s.setDiagnostics(BenchInputs.discard);
+		int tokens = 0;
+		for ( Symbol t = s.next_token(); t.sym != sym.EOF; t = s.next_token() )
+			++tokens;
+		return tokens;
+	}
+}
@@ -0,0 +1,49 @@
+package Bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import AST.Program;
+import AST.Visitor.SemanticAnalysisVisitor;
+import Symtab.FrozenSymbolTable;
+import Symtab.SymbolTable;
+
+/**
+ * SemanticAnalysisVisitor over an AST and symbol table built and
+ * resolved once in setup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SemanticBench {
+
+	@Param({ "BinarySearch", "BinaryTree", "BubbleSort", "Factorial", "LinearSearch",
+			 "LinkedList", "QuickSort", "TreeVisitor", "synthetic-10", "synthetic-100" })
+	public String input;
+
+	Program program;
+	FrozenSymbolTable symtab;
+
+	@Setup
+	public void setup() throws Exception
+	{
+		program = BenchInputs.parse(BenchInputs.load(input));
+		SymbolTable st = BenchInputs.symtab(program).getSymtab();
+		BenchInputs.resolve(program, st);
+		symtab = st.freeze();
+	}
+
+	@Benchmark
+	public int semantic()
+	{
+		SemanticAnalysisVisitor sa = new SemanticAnalysisVisitor();
+		sa.setSymtab(symtab);
+		sa.setDiagnostics(BenchInputs.discard);
+		program.accept(sa);
+		return sa.errors;
+	}
+}
@@ -0,0 +1,49 @@
+package Bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import AST.Program;
+import AST.Visitor.ResolveVisitor;
+import AST.Visitor.SymTableVisitor;
+import Symtab.SymbolTable;
+
+/**
+ * SymTableVisitor over an AST parsed once in setup, and ResolveVisitor
+ * over that AST and a symbol table also built in setup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SymTableBench {
+
+	@Param({ "BinarySearch", "BinaryTree", "BubbleSort", "Factorial", "LinearSearch",
+			 "LinkedList", "QuickSort", "TreeVisitor", "synthetic-10", "synthetic-100" })
+	public String input;
+
+	Program program;
+	SymbolTable symtab;
+
+	@Setup
+	public void setup() throws Exception
+	{
+		program = BenchInputs.parse(BenchInputs.load(input));
+		symtab = BenchInputs.symtab(program).getSymtab();
+	}
+
+	@Benchmark
+	public SymTableVisitor symtab()
+	{
+		return BenchInputs.symtab(program);
+	}
+
+	@Benchmark
+	public ResolveVisitor resolve()
+	{
+		return BenchInputs.resolve(program, symtab);
+	}
+}
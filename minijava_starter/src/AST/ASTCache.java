@@ -0,0 +1,159 @@
+package AST;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Set;
+
+/**
+ * A directory of parsed programs in ASTFile form, named by the SHA-256 of
+ * their source, for -X:astcache.  A source that is the same as one parsed
+ * before is loaded from its file instead of being scanned and parsed
+ * again.
+ *
+ * Only programs that parsed without errors are stored, so there are no
+ * diagnostics to repeat.  Files are written under a temporary name and
+ * renamed, so compiles running at the same time, in one process or
+ * several, never see half of one.  A file that can't be read is a miss.
+ *
+ * A program loaded from the cache is compiled as it is, so the directory
+ * must be one nobody else can write to.  It is made readable and
+ * writable by its owner only, and one that is a link, belongs to another
+ * user or can be written by others is not used at all: every load is a
+ * miss and nothing is stored.
+ */
+public final class ASTCache {
+
+	private final Path dir;
+
+	public ASTCache(Path dir) {
+		this.dir = dir;
+	}
+
+	/**
+	 * The cache in the default place, a directory of the user's own under
+	 * java.io.tmpdir.
+	 */
+	public static ASTCache inTempDir() {
+		return new ASTCache(Paths.get(System.getProperty("java.io.tmpdir"),
+									  "minijava-ast-" + System.getProperty("user.name")));
+	}
+
+	public Path dir() {
+		return dir;
+	}
+
+	/** The key of a source: the hex SHA-256 of its characters. */
+	public static String key(char[] source) {
+		MessageDigest md;
+		try {
+			md = MessageDigest.getInstance("SHA-256");
+		} catch ( NoSuchAlgorithmException e ) {
+			// every Java platform has it
+			throw new IllegalStateException(e);
+		}
+		byte[] b = new byte[8192];
+		for ( int i = 0; i < source.length; ) {
+			int n = 0;
+			for ( ; n < b.length && i < source.length; i++ ) {
+				b[n++] = (byte)(source[i] >>> 8);
+				b[n++] = (byte)source[i];
+			}
+			md.update(b, 0, n);
+		}
+		StringBuilder sb = new StringBuilder(64);
+		for ( byte x : md.digest() ) {
+			sb.append(Character.forDigit((x >> 4) & 0xf, 16)).append(Character.forDigit(x & 0xf, 16));
+		}
+		return sb.toString();
+	}
+
+	private Path file(String key) {
+		return dir.resolve(key + ".v" + ASTFile.VERSION + ".ast");
+	}
+
+	private static final Set<PosixFilePermission> OWNER_ONLY =
+		PosixFilePermissions.fromString("rwx------");
+
+	/**
+	 * Whether dir is there, or has just been made, and is the user's own:
+	 * not a link, owned by the user and, where the file system has POSIX
+	 * permissions, not writable by the group or others.
+	 */
+	private boolean trusted(boolean create) throws IOException {
+		PosixFileAttributeView posix = Files.getFileAttributeView(
+			dir, PosixFileAttributeView.class, LinkOption.NOFOLLOW_LINKS);
+		if ( create && !Files.exists(dir, LinkOption.NOFOLLOW_LINKS) ) {
+			if ( dir.getParent() != null ) Files.createDirectories(dir.getParent());
+			try {
+				if ( posix != null ) {
+					Files.createDirectory(dir, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+				}
+				else {
+					Files.createDirectory(dir);
+				}
+			} catch ( FileAlreadyExistsException e ) {
+				// made at the same time by someone else; checked below
+			}
+		}
+		if ( !Files.isDirectory(dir, LinkOption.NOFOLLOW_LINKS) ) return false;
+		UserPrincipal me = dir.getFileSystem().getUserPrincipalLookupService()
+			.lookupPrincipalByName(System.getProperty("user.name"));
+		if ( !me.equals(Files.getOwner(dir, LinkOption.NOFOLLOW_LINKS)) ) return false;
+		if ( posix != null ) {
+			Set<PosixFilePermission> perms = posix.readAttributes().permissions();
+			if ( perms.contains(PosixFilePermission.GROUP_WRITE)
+				 || perms.contains(PosixFilePermission.OTHERS_WRITE) ) return false;
+		}
+		return true;
+	}
+
+	/** The program stored under key, or null. */
+	public Program load(String key) {
+		try {
+			if ( !trusted(false) ) return null;
+			return ASTFile.map(file(key)).program();
+		} catch ( NoSuchFileException e ) {
+			return null;
+		} catch ( IOException | RuntimeException | StackOverflowError | OutOfMemoryError e ) {
+			// unreadable; it is replaced when the program is stored
+			return null;
+		}
+	}
+
+	/**
+	 * Store p under key.  Failing to is not an error, only a miss next
+	 * time, so it is quiet, whatever the failure: the compile goes on with
+	 * the program it has.
+	 */
+	public void store(String key, Program p) {
+		Path tmp = null;
+		try {
+			if ( !trusted(true) ) return;
+			tmp = Files.createTempFile(dir, key, ".tmp");
+			Files.write(tmp, ASTFile.write(p));
+			Files.move(tmp, file(key), StandardCopyOption.ATOMIC_MOVE,
+					   StandardCopyOption.REPLACE_EXISTING);
+			tmp = null;
+		} catch ( IOException | RuntimeException | StackOverflowError | OutOfMemoryError e ) {
+		} finally {
+			if ( tmp != null ) {
+				try {
+					Files.deleteIfExists(tmp);
+				} catch ( IOException e ) {
+				}
+			}
+		}
+	}
+}
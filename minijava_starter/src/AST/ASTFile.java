@@ -0,0 +1,360 @@
+package AST;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import Symtab.Name;
+import Symtab.NamePool;
+import java_cup.runtime.ComplexSymbolFactory.Location;
+
+/**
+ * A Program in a compact binary form, for the parse cache (-X:astcache).
+ * The file is
+ *
+ *     "MJAST" VERSION
+ *     identifier count, then each as a varint length and UTF-8 bytes
+ *     class count, then where each class starts in the nodes, 4 bytes each
+ *     the nodes
+ *
+ * The nodes are in preorder, each a varint code: 0 for a missing child,
+ * 1 + kind for a node with a line, followed by the change in line from
+ * the node before, or 1 + KINDS + kind for one of the shared leaves and
+ * empty lists, which have none.  The kinds are Arena's.  After that an
+ * IntegerLiteral has its value, an identifier the index of its text in
+ * the identifier table and a list its length, then come the children in
+ * the order of the AST class's fields.  Signed numbers are zigzag
+ * encoded, so lines, which mostly go up by one, take a byte.
+ *
+ * Each class of the program starts counting lines from 0, so a file that
+ * is mapped can be read a class at a time with classDecl(); program()
+ * reads it all.  Change VERSION whenever the format, or what the parsers
+ * make of a source, changes, so that older files are not read.
+ */
+public final class ASTFile {
+
+	public static final int VERSION = 1;
+
+	private static final byte[] MAGIC = { 'M', 'J', 'A', 'S', 'T', VERSION };
+
+	// node kinds, shared ones after the rest
+	private static final int KINDS = Arena.kindNames.length;
+
+	private final ByteBuffer in;
+	private final String[] strings;
+	private final int[] classes;
+	private final int nodes;
+
+	// reading state: the last line read and its position
+	private int line;
+	private Location pos;
+
+	private ASTFile(ByteBuffer in) throws IOException {
+		this.in = in;
+		try {
+			for ( byte m : MAGIC ) {
+				if ( in.get() != m ) throw new IOException("Not an AST file of version " + VERSION);
+			}
+			strings = new String[count()];
+			for ( int i = 0; i < strings.length; i++ ) {
+				byte[] b = new byte[count()];
+				in.get(b);
+				// pooled, as the scanner's are
+				strings[i] = NamePool.shared().intern(new String(b, StandardCharsets.UTF_8)).text;
+			}
+			classes = new int[count()];
+			for ( int i = 0; i < classes.length; i++ ) {
+				classes[i] = in.getInt();
+			}
+			nodes = in.position();
+		} catch ( BufferUnderflowException e ) {
+			throw new IOException("Truncated AST file");
+		}
+	}
+
+	/** Read the AST file in b, from its position. */
+	public static ASTFile of(ByteBuffer b) throws IOException {
+		return new ASTFile(b.slice());
+	}
+
+	/** Map file into memory and read it from there. */
+	public static ASTFile map(Path file) throws IOException {
+		try ( FileChannel c = FileChannel.open(file, StandardOpenOption.READ) ) {
+			return new ASTFile(c.map(FileChannel.MapMode.READ_ONLY, 0, c.size()));
+		}
+	}
+
+	// ---- reading ----------------------------------------------------------
+
+	/** The number of classes after the main class. */
+	public int classCount() {
+		return classes.length;
+	}
+
+	/** The whole program. */
+	public Program program() throws IOException {
+		return (Program)read(nodes);
+	}
+
+	/** Class i after the main class, read on its own. */
+	public ClassDecl classDecl(int i) throws IOException {
+		return (ClassDecl)read(nodes + classes[i]);
+	}
+
+	private ASTNode read(int at) throws IOException {
+		try {
+			in.position(at);
+			line = 0;
+			pos = null;
+			return node();
+		} catch ( BufferUnderflowException | ClassCastException | IllegalArgumentException
+				  | IllegalStateException | IndexOutOfBoundsException e ) {
+			throw new IOException("Bad AST file: " + e);
+		}
+	}
+
+	private int count() throws IOException {
+		int n = varint();
+		if ( n < 0 || n > in.remaining() ) throw new IOException("Bad AST file");
+		return n;
+	}
+
+	private int varint() {
+		int v = 0;
+		for ( int shift = 0; ; shift += 7 ) {
+			byte b = in.get();
+			v |= (b & 0x7f) << shift;
+			if ( b >= 0 ) return v;
+		}
+	}
+
+	private int zigzag() {
+		int v = varint();
+		return (v >>> 1) ^ -(v & 1);
+	}
+
+	// the nodes are read with a stack of their own rather than by
+	// recursion, so that any depth of expression will do
+	private ASTNode node() throws IOException {
+		// nodes whose children are being read: kind, position, how many
+		// children and where their objects start in made
+		int[] kind = new int[64], want = new int[64], base = new int[64];
+		Location[] at = new Location[64];
+		int depth = 0;
+		ASTNode[] made = new ASTNode[64];
+		int count = 0;
+
+		for ( ;; ) {
+			ASTNode done;
+			int code = varint();
+			int k = code - 1;
+			if ( code == 0 ) {
+				done = null;
+			}
+			else if ( k >= KINDS ) {
+				done = Arena.shared(k - KINDS);
+			}
+			else {
+				int d = zigzag();
+				if ( pos == null || d != 0 ) {
+					line += d;
+					pos = new Location(line, 1);
+				}
+				int m, v = 0;
+				String s = null;
+				if ( k == Arena.INTEGER_LITERAL ) {
+					v = zigzag();
+					m = 0;
+				}
+				else if ( k == Arena.IDENTIFIER || k == Arena.IDENTIFIER_EXP || k == Arena.IDENTIFIER_TYPE ) {
+					s = string();
+					m = 0;
+				}
+				else {
+					m = Arena.isList(k) ? count() : Arena.arity[k];
+				}
+				if ( m > 0 ) {
+					if ( depth == kind.length ) {
+						kind = Arrays.copyOf(kind, depth * 2);
+						want = Arrays.copyOf(want, depth * 2);
+						base = Arrays.copyOf(base, depth * 2);
+						at = Arrays.copyOf(at, depth * 2);
+					}
+					kind[depth] = k;
+					want[depth] = m;
+					base[depth] = count;
+					at[depth++] = pos;
+					// each class counts lines from 0
+					if ( k == Arena.CLASS_DECL_LIST ) {
+						line = 0;
+						pos = null;
+					}
+					continue;
+				}
+				done = Arena.object(k, pos, v, s, made, count, 0);
+			}
+
+			if ( count == made.length ) made = Arrays.copyOf(made, count * 2);
+			made[count++] = done;
+			// make the nodes whose last child that was
+			while ( depth > 0 && count - base[depth - 1] == want[depth - 1] ) {
+				--depth;
+				count = base[depth];
+				ASTNode o = Arena.object(kind[depth], at[depth], 0, null, made, count, want[depth]);
+				Arrays.fill(made, count, count + want[depth], null);
+				at[depth] = null;
+				made[count++] = o;
+			}
+			if ( depth == 0 ) {
+				return made[0];
+			}
+			if ( kind[depth - 1] == Arena.CLASS_DECL_LIST ) {
+				line = 0;
+				pos = null;
+			}
+		}
+	}
+
+	private String string() {
+		return strings[varint()];
+	}
+
+	// ---- writing ----------------------------------------------------------
+
+	/** The AST file for p. */
+	public static byte[] write(Program p) {
+		Arena a = new Arena();
+		int root = a.add(p);
+		Writer w = new Writer(a);
+		w.node(root);
+
+		Writer file = new Writer(null);
+		file.bytes(MAGIC, MAGIC.length);
+		file.varint(w.stringCount);
+		for ( int i = 0; i < w.stringCount; i++ ) {
+			byte[] b = w.strings[i].getBytes(StandardCharsets.UTF_8);
+			file.varint(b.length);
+			file.bytes(b, b.length);
+		}
+		file.varint(w.classCount);
+		for ( int i = 0; i < w.classCount; i++ ) {
+			file.int32(w.classes[i]);
+		}
+		file.bytes(w.out, w.size);
+		return Arrays.copyOf(file.out, file.size);
+	}
+
+	private static final class Writer {
+		final Arena a;
+		byte[] out = new byte[1 << 12];
+		int size = 0;
+		int line = 0;
+
+		// identifier table index by Name id, less one
+		int[] index = new int[256];
+		String[] strings = new String[64];
+		int stringCount = 0;
+
+		int[] classes = new int[16];
+		int classCount = 0;
+
+		Writer(Arena a) {
+			this.a = a;
+		}
+
+		// the nodes are written with a stack of their own rather than by
+		// recursion, so that any depth of expression will do
+		void node(int root) {
+			// nodes still to write, the next on top, and which of them
+			// start a class
+			int[] work = new int[64];
+			boolean[] starts = new boolean[64];
+			int top = 0;
+			work[top++] = root;
+			while ( top > 0 ) {
+				int n = work[--top];
+				if ( starts[top] ) {
+					if ( classCount == classes.length ) classes = Arrays.copyOf(classes, classCount * 2);
+					classes[classCount++] = size;
+					line = 0;
+					starts[top] = false;
+				}
+				if ( n == Arena.NONE ) {
+					varint(0);
+					continue;
+				}
+				int k = a.kind(n);
+				if ( a.line(n) == ASTNode.NO_LINE ) {
+					varint(1 + KINDS + k);
+					continue;
+				}
+				varint(1 + k);
+				int d = a.line(n) - line;
+				varint((d << 1) ^ (d >> 31));
+				line = a.line(n);
+
+				switch ( k ) {
+				case Arena.INTEGER_LITERAL:
+					int v = a.value(n);
+					varint((v << 1) ^ (v >> 31));
+					break;
+				case Arena.IDENTIFIER: case Arena.IDENTIFIER_EXP: case Arena.IDENTIFIER_TYPE:
+					varint(string(a.name(n)));
+					break;
+				default:
+					int m = Arena.isList(k) ? a.length(n) : a.children(n);
+					if ( top + m > work.length ) {
+						work = Arrays.copyOf(work, Math.max(work.length * 2, top + m));
+						starts = Arrays.copyOf(starts, work.length);
+					}
+					if ( Arena.isList(k) ) {
+						varint(m);
+						int i = top + m;
+						for ( int e = a.first(n); e != Arena.NONE; e = a.next(e) ) {
+							work[--i] = e;
+							starts[i] = k == Arena.CLASS_DECL_LIST;
+						}
+					}
+					else {
+						for ( int i = 0; i < m; i++ ) work[top + m - 1 - i] = a.child(n, i);
+					}
+					top += m;
+				}
+			}
+		}
+
+		int string(Name s) {
+			if ( s.id >= index.length ) index = Arrays.copyOf(index, Math.max(index.length * 2, s.id + 1));
+			if ( index[s.id] == 0 ) {
+				if ( stringCount == strings.length ) strings = Arrays.copyOf(strings, stringCount * 2);
+				strings[stringCount++] = s.text;
+				index[s.id] = stringCount;
+			}
+			return index[s.id] - 1;
+		}
+
+		void varint(int v) {
+			if ( size + 5 > out.length ) out = Arrays.copyOf(out, out.length * 2);
+			while ( (v & ~0x7f) != 0 ) {
+				out[size++] = (byte)(v | 0x80);
+				v >>>= 7;
+			}
+			out[size++] = (byte)v;
+		}
+
+		void int32(int v) {
+			bytes(new byte[] { (byte)(v >>> 24), (byte)(v >>> 16), (byte)(v >>> 8), (byte)v }, 4);
+		}
+
+		void bytes(byte[] b, int n) {
+			if ( size + n > out.length ) out = Arrays.copyOf(out, Math.max(out.length * 2, size + n));
+			System.arraycopy(b, 0, out, size, n);
+			size += n;
+		}
+	}
+}
@@ -5,6 +5,9 @@ import AST.Visitor.Visitor;
 import java_cup.runtime.ComplexSymbolFactory.Location;
 
 abstract public class ASTNode {
+  // Line number of a shared node, which is in many places at once.
+  public static final int NO_LINE = -1;
+
   // Line number in source file.
   private final int line_number;
   private ASTNode parent = null;
@@ -13,13 +16,29 @@ abstract public class ASTNode {
   public ASTNode(Location pos) {
     this.line_number = pos.getLine();
   }
-  
+
+  // Constructor for the shared leaves and empty lists, such as
+  // IntegerType.shared and VarDeclList.empty.  They have no line or
+  // parent of their own; the line is their parent's.
+  protected ASTNode() {
+    this.line_number = NO_LINE;
+  }
+
+  public boolean isShared() {
+	  return line_number == NO_LINE;
+  }
+
   public int getLineNo() {
 	  return line_number;
   }
+
+  // The line of this node as a child of parent: parent's for a shared node.
+  public int getLineNo(ASTNode parent) {
+	  return line_number == NO_LINE ? parent.getLineNo() : line_number;
+  }
   
   public void setParent(ASTNode p)  {
-	  parent = p;
+	  if ( line_number != NO_LINE ) parent = p;
   }
   
   public ASTNode getParent() {
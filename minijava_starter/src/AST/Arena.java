@@ -0,0 +1,747 @@
+package AST;
+
+import java.util.Arrays;
+
+import Symtab.Name;
+import Symtab.NamePool;
+import java_cup.runtime.ComplexSymbolFactory.Location;
+
+/**
+ * A whole AST in a few primitive arrays instead of one object per node.
+ * A node is an int, its index in the arrays, which hold its kind, its
+ * line, where its children start in a shared array of child indices (or
+ * its value, for a node without children) and the next node in the list
+ * it is in.  A program of a
+ * million nodes is about a dozen arrays rather than a million objects
+ * with headers, parent pointers and ArrayLists, and its nodes sit in the
+ * order they were made, children before parents as a parser makes them.
+ *
+ * The builder methods take the children's indices and return the new
+ * node's, children first as a parser makes them, e.g. for
+ * "Expression:arg1 PLUS Expression:arg2"
+ *
+ *     RESULT = arena.node(Arena.PLUS, arg1xleft.getLine(), arg1, arg2);
+ *
+ * but no parser builds into an arena, and the one pass that reads one is
+ * ASTFile.write, which walks it to write the parse cache (-X:astcache).
+ * The passes after parsing are written for the AST classes, so a parser
+ * has to make those anyway.  DescentParser was tried building both
+ * through node indices, into an arena or into objects by the same
+ * grammar code, and its first parse of a 20,000-line program went from
+ * about 64 to 87 ms, a cost every compile would pay for a form only the
+ * cache uses.  An arena is filled from a finished Program by add()
+ * instead, so it is a copy made alongside the tree and does not lower
+ * what a compile takes at its peak.  It is smaller than the tree only
+ * once the tree is dropped, which TestArena measures.
+ *
+ * Lists are made empty by list() and grow by add(), like ClassDeclList
+ * and the rest.  A missing child, the class list of a program with only
+ * a main class or the else of an if without one, is NONE.
+ *
+ * The value of an IntegerLiteral is the literal; of an Identifier,
+ * IdentifierExp or IdentifierType it is the id of the Name in
+ * NamePool.shared().  The shared leaves and empty lists, IntegerType.shared,
+ * VarDeclList.empty and the rest, are at line ASTNode.NO_LINE.  Walk the
+ * nodes with a Cursor, or by child(), first() and next().
+ */
+public final class Arena {
+
+	// node kinds, in the order of the Visitor methods
+	public static final int DISPLAY = 0, PROGRAM = 1, MAIN_CLASS = 2, CLASS_DECL_SIMPLE = 3,
+		CLASS_DECL_EXTENDS = 4, VAR_DECL = 5, METHOD_DECL = 6, FORMAL = 7, INT_ARRAY_TYPE = 8,
+		BOOLEAN_TYPE = 9, INTEGER_TYPE = 10, IDENTIFIER_TYPE = 11, BLOCK = 12, IF = 13, WHILE = 14,
+		PRINT = 15, ASSIGN = 16, ARRAY_ASSIGN = 17, AND = 18, LESS_THAN = 19, PLUS = 20,
+		MINUS = 21, TIMES = 22, ARRAY_LOOKUP = 23, ARRAY_LENGTH = 24, CALL = 25,
+		INTEGER_LITERAL = 26, TRUE = 27, FALSE = 28, IDENTIFIER_EXP = 29, THIS = 30,
+		NEW_ARRAY = 31, NEW_OBJECT = 32, NOT = 33, IDENTIFIER = 34,
+		CLASS_DECL_LIST = 35, VAR_DECL_LIST = 36, METHOD_DECL_LIST = 37, FORMAL_LIST = 38,
+		STATEMENT_LIST = 39, EXP_LIST = 40;
+
+	public static final String[] kindNames = {
+		"Display", "Program", "MainClass", "ClassDeclSimple", "ClassDeclExtends", "VarDecl",
+		"MethodDecl", "Formal", "IntArrayType", "BooleanType", "IntegerType", "IdentifierType",
+		"Block", "If", "While", "Print", "Assign", "ArrayAssign", "And", "LessThan", "Plus",
+		"Minus", "Times", "ArrayLookup", "ArrayLength", "Call", "IntegerLiteral", "True",
+		"False", "IdentifierExp", "This", "NewArray", "NewObject", "Not", "Identifier",
+		"ClassDeclList", "VarDeclList", "MethodDeclList", "FormalList", "StatementList", "ExpList",
+	};
+
+	/** Children of each kind of node, in the order of the AST class's fields. */
+	static final byte[] arity = {
+		1, 2, 3, 3, 4, 2, 6, 2, 0, 0, 0, 0, 1, 3, 2, 1, 2, 3, 2, 2, 2, 2, 2, 2, 1, 3, 0, 0, 0, 0,
+		0, 1, 1, 1, 0,
+		// a list's slots are its first and last elements and its length
+		3, 3, 3, 3, 3, 3,
+	};
+
+	/** No node. */
+	public static final int NONE = -1;
+
+	private byte[] kind;
+	private int[] line;
+	// where the children start, or the value of a node without any
+	private int[] kids;
+	private int[] next;
+	private int size = 0;
+
+	private int[] children;
+	private int childCount = 0;
+
+	public Arena() {
+		this(1024);
+	}
+
+	public Arena(int capacity) {
+		capacity = Math.max(capacity, 16);
+		kind = new byte[capacity];
+		line = new int[capacity];
+		kids = new int[capacity];
+		next = new int[capacity];
+		children = new int[capacity];
+	}
+
+	public static boolean isList(int kind) {
+		return kind >= CLASS_DECL_LIST;
+	}
+
+	// ---- building ---------------------------------------------------------
+
+	private int make(int k, int ln, int v) {
+		if ( size == kind.length ) {
+			int n = size * 2;
+			kind = Arrays.copyOf(kind, n);
+			line = Arrays.copyOf(line, n);
+			kids = Arrays.copyOf(kids, n);
+			next = Arrays.copyOf(next, n);
+		}
+		int a = arity[k];
+		if ( childCount + a > children.length ) {
+			children = Arrays.copyOf(children, Math.max(children.length * 2, childCount + a));
+		}
+		kind[size] = (byte)k;
+		line[size] = ln;
+		kids[size] = a == 0 ? v : childCount;
+		next[size] = NONE;
+		childCount += a;
+		return size++;
+	}
+
+	/** A node with no children. */
+	public int node(int k, int ln) {
+		return make(k, ln, 0);
+	}
+
+	public int node(int k, int ln, int c0) {
+		int n = make(k, ln, 0);
+		children[kids[n]] = c0;
+		return n;
+	}
+
+	public int node(int k, int ln, int c0, int c1) {
+		int n = make(k, ln, 0);
+		children[kids[n]] = c0;
+		children[kids[n] + 1] = c1;
+		return n;
+	}
+
+	public int node(int k, int ln, int c0, int c1, int c2) {
+		int n = make(k, ln, 0);
+		int at = kids[n];
+		children[at] = c0;
+		children[at + 1] = c1;
+		children[at + 2] = c2;
+		return n;
+	}
+
+	/** A node with more children: ClassDeclExtends and MethodDecl. */
+	public int node(int k, int ln, int... c) {
+		if ( c.length != arity[k] ) {
+			throw new IllegalArgumentException(kindNames[k] + " has " + arity[k] + " children");
+		}
+		int n = make(k, ln, 0);
+		System.arraycopy(c, 0, children, kids[n], c.length);
+		return n;
+	}
+
+	public int integerLiteral(int i, int ln) {
+		return make(INTEGER_LITERAL, ln, i);
+	}
+
+	/** An Identifier, IdentifierExp or IdentifierType. */
+	public int name(int k, Name s, int ln) {
+		return make(k, ln, s.id);
+	}
+
+	/** An empty list of one of the list kinds. */
+	public int list(int k, int ln) {
+		int n = make(k, ln, 0);
+		children[kids[n]] = NONE;
+		children[kids[n] + 1] = NONE;
+		children[kids[n] + 2] = 0;
+		return n;
+	}
+
+	/** Add item at the end of list, which it must not be in already. */
+	public void add(int list, int item) {
+		int at = kids[list];
+		int last = children[at + 1];
+		if ( last == NONE ) children[at] = item;
+		else next[last] = item;
+		children[at + 1] = item;
+		++children[at + 2];
+	}
+
+	/**
+	 * Cut the arrays down to what the nodes use, once the tree is
+	 * built.  More nodes can still be added, at the cost of growing them
+	 * again.
+	 */
+	public void trim() {
+		kind = Arrays.copyOf(kind, Math.max(size, 16));
+		line = Arrays.copyOf(line, kind.length);
+		kids = Arrays.copyOf(kids, kind.length);
+		next = Arrays.copyOf(next, kind.length);
+		children = Arrays.copyOf(children, Math.max(childCount, 16));
+	}
+
+	// ---- reading ----------------------------------------------------------
+
+	/** The number of nodes, list nodes included. */
+	public int size() {
+		return size;
+	}
+
+	public int kind(int n) {
+		return kind[n];
+	}
+
+	public int line(int n) {
+		return line[n];
+	}
+
+	/** An IntegerLiteral's value or the id of an identifier's Name. */
+	public int value(int n) {
+		return kids[n];
+	}
+
+	public Name name(int n) {
+		return NamePool.shared().get(kids[n]);
+	}
+
+	/** Child i of a node that isn't a list, or NONE. */
+	public int child(int n, int i) {
+		return children[kids[n] + i];
+	}
+
+	/** The number of children of a node that isn't a list. */
+	public int children(int n) {
+		return arity[kind[n]];
+	}
+
+	/** The number of elements in a list. */
+	public int length(int list) {
+		return children[kids[list] + 2];
+	}
+
+	/** The first element of a list, or NONE. */
+	public int first(int list) {
+		return children[kids[list]];
+	}
+
+	/** The element after n in its list, or NONE. */
+	public int next(int n) {
+		return next[n];
+	}
+
+	/** Bytes in the arrays as allocated. */
+	public long footprint() {
+		return kind.length + 4L * (line.length + kids.length + next.length + children.length);
+	}
+
+	/** A cursor over the subtree at root. */
+	public Cursor cursor(int root) {
+		return new Cursor(root);
+	}
+
+	/**
+	 * Walks a subtree in order, stopping at each node twice, on the way
+	 * down and on the way back up, with no recursion:
+	 *
+	 *     for ( Arena.Cursor c = arena.cursor(root); c.next(); ) {
+	 *         if ( c.entering() ) ... c.node() ... c.depth() ...
+	 *     }
+	 *
+	 * Children are visited in field order and list elements in order;
+	 * missing children are skipped.
+	 */
+	public final class Cursor {
+		// per level: the node, and the next child slot or list element
+		private int[] nodes = new int[64];
+		private int[] pos = new int[64];
+		private int depth = -1;
+		private int node;
+		private boolean entering;
+		private int root;
+
+		Cursor(int root) {
+			this.root = root;
+		}
+
+		/** Move to the next stop; false when the walk is over. */
+		public boolean next() {
+			if ( root != NONE ) {
+				enter(root);
+				root = NONE;
+				return true;
+			}
+			while ( depth >= 0 ) {
+				int n = nodes[depth];
+				int c = NONE;
+				if ( isList(kind[n]) ) {
+					c = pos[depth];
+					if ( c != NONE ) pos[depth] = next[c];
+				}
+				else {
+					int end = kids[n] + arity[kind[n]];
+					while ( pos[depth] < end && c == NONE ) {
+						c = children[pos[depth]++];
+					}
+				}
+				if ( c != NONE ) {
+					enter(c);
+					return true;
+				}
+				node = n;
+				entering = false;
+				--depth;
+				return true;
+			}
+			return false;
+		}
+
+		private void enter(int n) {
+			if ( ++depth == nodes.length ) {
+				nodes = Arrays.copyOf(nodes, depth * 2);
+				pos = Arrays.copyOf(pos, depth * 2);
+			}
+			nodes[depth] = n;
+			pos[depth] = isList(kind[n]) ? children[kids[n]] : kids[n];
+			node = n;
+			entering = true;
+		}
+
+		/** Don't go into the children of the node just entered. */
+		public void skip() {
+			if ( entering ) {
+				pos[depth] = isList(kind[node]) ? NONE : kids[node] + arity[kind[node]];
+			}
+		}
+
+		/** True on the way down to a node, false on the way back up. */
+		public boolean entering() {
+			return entering;
+		}
+
+		public int node() {
+			return node;
+		}
+
+		public int kind() {
+			return kind[node];
+		}
+
+		public int line() {
+			return line[node];
+		}
+
+		/** How deep the node is below the root, which is at 0. */
+		public int depth() {
+			return entering ? depth : depth + 1;
+		}
+	}
+
+	// ---- to and from objects ----------------------------------------------
+	//
+	// Both ways go through the tree with a stack of their own rather than
+	// by recursion, so that any depth of expression will do, as with
+	// AST.Visitor.Walk.
+
+	/** Add the tree at p to the arena, children first, and return its root. */
+	public int add(Program p) {
+		// nodes still to add, last first, with -1 or, once their children
+		// are to be added first, how many there are; and the indices of
+		// the nodes added, which the next node up takes
+		ASTNode[] work = new ASTNode[64];
+		int[] want = new int[64];
+		int top = 0;
+		int[] made = new int[64];
+		int count = 0;
+
+		work[top] = p;
+		want[top++] = -1;
+		while ( top > 0 ) {
+			ASTNode a = work[--top];
+			int m = want[top];
+			work[top] = null;
+			if ( count == made.length ) made = Arrays.copyOf(made, count * 2);
+			if ( a == null ) {
+				made[count++] = NONE;
+				continue;
+			}
+			int k = kindOf(a);
+			if ( m < 0 ) {
+				ASTNode[] c = parts(a, k);
+				if ( c.length > 0 ) {
+					if ( top + 1 + c.length > work.length ) {
+						work = Arrays.copyOf(work, Math.max(work.length * 2, top + 1 + c.length));
+						want = Arrays.copyOf(want, work.length);
+					}
+					work[top] = a;
+					want[top++] = c.length;
+					for ( int i = c.length - 1; i >= 0; i-- ) {
+						work[top] = c[i];
+						want[top++] = -1;
+					}
+					continue;
+				}
+				m = 0;
+			}
+			count -= m;
+			made[count] = copy(a, k, made, count, m);
+			++count;
+		}
+		return made[0];
+	}
+
+	// the node for a of kind k, whose children are c[at] to c[at+m-1]
+	private int copy(ASTNode a, int k, int[] c, int at, int m) {
+		int ln = a.getLineNo();
+		switch ( k ) {
+		case INTEGER_LITERAL: return integerLiteral(((IntegerLiteral)a).i, ln);
+		case IDENTIFIER_TYPE: return name(k, Name.of(((IdentifierType)a).s), ln);
+		case IDENTIFIER_EXP: return name(k, Name.of(((IdentifierExp)a).s), ln);
+		case IDENTIFIER: return name(k, Name.of(((Identifier)a).s), ln);
+		}
+		if ( isList(k) ) {
+			int list = list(k, ln);
+			for ( int i = 0; i < m; i++ ) {
+				if ( c[at + i] != NONE ) add(list, c[at + i]);
+			}
+			return list;
+		}
+		int n = make(k, ln, 0);
+		System.arraycopy(c, at, children, kids[n], m);
+		return n;
+	}
+
+	// the kind of a
+	private static int kindOf(ASTNode a) {
+		if ( a instanceof Program ) return PROGRAM;
+		if ( a instanceof MainClass ) return MAIN_CLASS;
+		if ( a instanceof ClassDeclSimple ) return CLASS_DECL_SIMPLE;
+		if ( a instanceof ClassDeclExtends ) return CLASS_DECL_EXTENDS;
+		if ( a instanceof VarDecl ) return VAR_DECL;
+		if ( a instanceof MethodDecl ) return METHOD_DECL;
+		if ( a instanceof Formal ) return FORMAL;
+		if ( a instanceof IntArrayType ) return INT_ARRAY_TYPE;
+		if ( a instanceof BooleanType ) return BOOLEAN_TYPE;
+		if ( a instanceof IntegerType ) return INTEGER_TYPE;
+		if ( a instanceof IdentifierType ) return IDENTIFIER_TYPE;
+		if ( a instanceof Block ) return BLOCK;
+		if ( a instanceof If ) return IF;
+		if ( a instanceof While ) return WHILE;
+		if ( a instanceof Print ) return PRINT;
+		if ( a instanceof Display ) return DISPLAY;
+		if ( a instanceof Assign ) return ASSIGN;
+		if ( a instanceof ArrayAssign ) return ARRAY_ASSIGN;
+		if ( a instanceof And ) return AND;
+		if ( a instanceof LessThan ) return LESS_THAN;
+		if ( a instanceof Plus ) return PLUS;
+		if ( a instanceof Minus ) return MINUS;
+		if ( a instanceof Times ) return TIMES;
+		if ( a instanceof ArrayLookup ) return ARRAY_LOOKUP;
+		if ( a instanceof ArrayLength ) return ARRAY_LENGTH;
+		if ( a instanceof Call ) return CALL;
+		if ( a instanceof IntegerLiteral ) return INTEGER_LITERAL;
+		if ( a instanceof True ) return TRUE;
+		if ( a instanceof False ) return FALSE;
+		if ( a instanceof IdentifierExp ) return IDENTIFIER_EXP;
+		if ( a instanceof This ) return THIS;
+		if ( a instanceof NewArray ) return NEW_ARRAY;
+		if ( a instanceof NewObject ) return NEW_OBJECT;
+		if ( a instanceof Not ) return NOT;
+		if ( a instanceof Identifier ) return IDENTIFIER;
+		if ( a instanceof ClassDeclList ) return CLASS_DECL_LIST;
+		if ( a instanceof VarDeclList ) return VAR_DECL_LIST;
+		if ( a instanceof MethodDeclList ) return METHOD_DECL_LIST;
+		if ( a instanceof FormalList ) return FORMAL_LIST;
+		if ( a instanceof StatementList ) return STATEMENT_LIST;
+		if ( a instanceof ExpList ) return EXP_LIST;
+		throw new IllegalArgumentException("Unknown AST node " + a.getClass().getName());
+	}
+
+	private static final ASTNode[] NO_PARTS = {};
+
+	// the children of a, of kind k, in field order, or a list's elements
+	private static ASTNode[] parts(ASTNode a, int k) {
+		switch ( k ) {
+		case PROGRAM: return new ASTNode[] { ((Program)a).m, ((Program)a).cl };
+		case MAIN_CLASS: {
+			MainClass n = (MainClass)a;
+			return new ASTNode[] { n.i1, n.i2, n.s };
+		}
+		case CLASS_DECL_SIMPLE: {
+			ClassDeclSimple n = (ClassDeclSimple)a;
+			return new ASTNode[] { n.i, n.vl, n.ml };
+		}
+		case CLASS_DECL_EXTENDS: {
+			ClassDeclExtends n = (ClassDeclExtends)a;
+			return new ASTNode[] { n.i, n.j, n.vl, n.ml };
+		}
+		case VAR_DECL: return new ASTNode[] { ((VarDecl)a).t, ((VarDecl)a).i };
+		case METHOD_DECL: {
+			MethodDecl n = (MethodDecl)a;
+			return new ASTNode[] { n.t, n.i, n.fl, n.vl, n.sl, n.e };
+		}
+		case FORMAL: return new ASTNode[] { ((Formal)a).t, ((Formal)a).i };
+		case BLOCK: return new ASTNode[] { ((Block)a).sl };
+		case IF: return new ASTNode[] { ((If)a).e, ((If)a).s1, ((If)a).s2 };
+		case WHILE: return new ASTNode[] { ((While)a).e, ((While)a).s };
+		case PRINT: return new ASTNode[] { ((Print)a).e };
+		case DISPLAY: return new ASTNode[] { ((Display)a).e };
+		case ASSIGN: return new ASTNode[] { ((Assign)a).i, ((Assign)a).e };
+		case ARRAY_ASSIGN: {
+			ArrayAssign n = (ArrayAssign)a;
+			return new ASTNode[] { n.i, n.e1, n.e2 };
+		}
+		case AND: return new ASTNode[] { ((And)a).e1, ((And)a).e2 };
+		case LESS_THAN: return new ASTNode[] { ((LessThan)a).e1, ((LessThan)a).e2 };
+		case PLUS: return new ASTNode[] { ((Plus)a).e1, ((Plus)a).e2 };
+		case MINUS: return new ASTNode[] { ((Minus)a).e1, ((Minus)a).e2 };
+		case TIMES: return new ASTNode[] { ((Times)a).e1, ((Times)a).e2 };
+		case ARRAY_LOOKUP: return new ASTNode[] { ((ArrayLookup)a).e1, ((ArrayLookup)a).e2 };
+		case ARRAY_LENGTH: return new ASTNode[] { ((ArrayLength)a).e };
+		case CALL: return new ASTNode[] { ((Call)a).e, ((Call)a).i, ((Call)a).el };
+		case NEW_ARRAY: return new ASTNode[] { ((NewArray)a).e };
+		case NEW_OBJECT: return new ASTNode[] { ((NewObject)a).i };
+		case NOT: return new ASTNode[] { ((Not)a).e };
+		case CLASS_DECL_LIST: {
+			ClassDeclList l = (ClassDeclList)a;
+			ASTNode[] c = new ASTNode[l.size()];
+			for ( int i = 0; i < c.length; i++ ) c[i] = l.get(i);
+			return c;
+		}
+		case VAR_DECL_LIST: {
+			VarDeclList l = (VarDeclList)a;
+			ASTNode[] c = new ASTNode[l.size()];
+			for ( int i = 0; i < c.length; i++ ) c[i] = l.get(i);
+			return c;
+		}
+		case METHOD_DECL_LIST: {
+			MethodDeclList l = (MethodDeclList)a;
+			ASTNode[] c = new ASTNode[l.size()];
+			for ( int i = 0; i < c.length; i++ ) c[i] = l.get(i);
+			return c;
+		}
+		case FORMAL_LIST: {
+			FormalList l = (FormalList)a;
+			ASTNode[] c = new ASTNode[l.size()];
+			for ( int i = 0; i < c.length; i++ ) c[i] = l.get(i);
+			return c;
+		}
+		case STATEMENT_LIST: {
+			StatementList l = (StatementList)a;
+			ASTNode[] c = new ASTNode[l.size()];
+			for ( int i = 0; i < c.length; i++ ) c[i] = l.get(i);
+			return c;
+		}
+		case EXP_LIST: {
+			ExpList l = (ExpList)a;
+			ASTNode[] c = new ASTNode[l.size()];
+			for ( int i = 0; i < c.length; i++ ) c[i] = l.get(i);
+			return c;
+		}
+		default:
+			return NO_PARTS;
+		}
+	}
+
+	/** The AST objects for the program at root, as the parser would make them. */
+	public Program program(int root) {
+		return program(root, true);
+	}
+
+	/**
+	 * The AST objects for the program at root.  If share is false, a node
+	 * that was one of the shared leaves or empty lists, with no line of
+	 * its own, gets an object of its own at its parent's line instead.
+	 */
+	public Program program(int root, boolean share) {
+		// nodes still to make objects of, last first, with -1 and their
+		// parent's position or, once their children are to be made first,
+		// how many there are and their own position; and the objects made,
+		// which the next node up takes
+		int[] work = new int[64];
+		int[] want = new int[64];
+		Location[] at = new Location[64];
+		int top = 0;
+		ASTNode[] made = new ASTNode[64];
+		int count = 0;
+
+		work[top] = root;
+		want[top++] = -1;
+		while ( top > 0 ) {
+			int n = work[--top];
+			int m = want[top];
+			Location pos = at[top];
+			at[top] = null;
+			if ( count == made.length ) made = Arrays.copyOf(made, count * 2);
+			if ( n == NONE ) {
+				made[count++] = null;
+				continue;
+			}
+			if ( m < 0 ) {
+				if ( line[n] == ASTNode.NO_LINE && share ) {
+					made[count++] = shared(kind[n]);
+					continue;
+				}
+				if ( line[n] != ASTNode.NO_LINE ) pos = new Location(line[n], 1);
+				m = isList(kind[n]) ? length(n) : arity[kind[n]];
+				if ( m > 0 ) {
+					if ( top + 1 + m > work.length ) {
+						work = Arrays.copyOf(work, Math.max(work.length * 2, top + 1 + m));
+						want = Arrays.copyOf(want, work.length);
+						at = Arrays.copyOf(at, work.length);
+					}
+					work[top] = n;
+					want[top] = m;
+					at[top++] = pos;
+					// the children, the first on top
+					if ( isList(kind[n]) ) {
+						int i = top + m;
+						for ( int e = first(n); e != NONE; e = next[e] ) work[--i] = e;
+					}
+					else {
+						for ( int i = 0; i < m; i++ ) work[top + m - 1 - i] = children[kids[n] + i];
+					}
+					for ( int i = top; i < top + m; i++ ) {
+						want[i] = -1;
+						at[i] = pos;
+					}
+					top += m;
+					continue;
+				}
+			}
+			count -= m;
+			String s = kind[n] == IDENTIFIER || kind[n] == IDENTIFIER_EXP || kind[n] == IDENTIFIER_TYPE
+				? name(n).text : null;
+			ASTNode o = object(kind[n], pos, kids[n], s, made, count, m);
+			Arrays.fill(made, count, count + m, null);
+			made[count++] = o;
+		}
+		return (Program)made[0];
+	}
+
+	/**
+	 * The AST object of kind k at pos, with children c[at] to c[at+m-1] in
+	 * the order of the AST class's fields, or for a list its elements.  v
+	 * is an IntegerLiteral's value and s an identifier's text.
+	 */
+	static ASTNode object(int k, Location pos, int v, String s, ASTNode[] c, int at, int m) {
+		switch ( k ) {
+		case DISPLAY: return new Display((Exp)c[at], pos);
+		case PROGRAM: return new Program((MainClass)c[at], (ClassDeclList)c[at + 1], pos);
+		case MAIN_CLASS:
+			return new MainClass((Identifier)c[at], (Identifier)c[at + 1], (Statement)c[at + 2], pos);
+		case CLASS_DECL_SIMPLE:
+			return new ClassDeclSimple((Identifier)c[at], (VarDeclList)c[at + 1],
+									   (MethodDeclList)c[at + 2], pos);
+		case CLASS_DECL_EXTENDS:
+			return new ClassDeclExtends((Identifier)c[at], (Identifier)c[at + 1],
+										(VarDeclList)c[at + 2], (MethodDeclList)c[at + 3], pos);
+		case VAR_DECL: return new VarDecl((Type)c[at], (Identifier)c[at + 1], pos);
+		case METHOD_DECL:
+			return new MethodDecl((Type)c[at], (Identifier)c[at + 1], (FormalList)c[at + 2],
+								  (VarDeclList)c[at + 3], (StatementList)c[at + 4], (Exp)c[at + 5], pos);
+		case FORMAL: return new Formal((Type)c[at], (Identifier)c[at + 1], pos);
+		case INT_ARRAY_TYPE: return new IntArrayType(pos);
+		case BOOLEAN_TYPE: return new BooleanType(pos);
+		case INTEGER_TYPE: return new IntegerType(pos);
+		case IDENTIFIER_TYPE: return new IdentifierType(s, pos);
+		case BLOCK: return new Block((StatementList)c[at], pos);
+		case IF: return new If((Exp)c[at], (Statement)c[at + 1], (Statement)c[at + 2], pos);
+		case WHILE: return new While((Exp)c[at], (Statement)c[at + 1], pos);
+		case PRINT: return new Print((Exp)c[at], pos);
+		case ASSIGN: return new Assign((Identifier)c[at], (Exp)c[at + 1], pos);
+		case ARRAY_ASSIGN: return new ArrayAssign((Identifier)c[at], (Exp)c[at + 1], (Exp)c[at + 2], pos);
+		case AND: return new And((Exp)c[at], (Exp)c[at + 1], pos);
+		case LESS_THAN: return new LessThan((Exp)c[at], (Exp)c[at + 1], pos);
+		case PLUS: return new Plus((Exp)c[at], (Exp)c[at + 1], pos);
+		case MINUS: return new Minus((Exp)c[at], (Exp)c[at + 1], pos);
+		case TIMES: return new Times((Exp)c[at], (Exp)c[at + 1], pos);
+		case ARRAY_LOOKUP: return new ArrayLookup((Exp)c[at], (Exp)c[at + 1], pos);
+		case ARRAY_LENGTH: return new ArrayLength((Exp)c[at], pos);
+		case CALL: return new Call((Exp)c[at], (Identifier)c[at + 1], (ExpList)c[at + 2], pos);
+		case INTEGER_LITERAL: return new IntegerLiteral(v, pos);
+		case TRUE: return new True(pos);
+		case FALSE: return new False(pos);
+		case IDENTIFIER_EXP: return new IdentifierExp(s, pos);
+		case THIS: return new This(pos);
+		case NEW_ARRAY: return new NewArray((Exp)c[at], pos);
+		case NEW_OBJECT: return new NewObject((Identifier)c[at], pos);
+		case NOT: return new Not((Exp)c[at], pos);
+		case IDENTIFIER: return new Identifier(s, pos);
+		case CLASS_DECL_LIST: {
+			ClassDeclList l = new ClassDeclList(pos);
+			for ( int i = 0; i < m; i++ ) l.add((ClassDecl)c[at + i]);
+			return l;
+		}
+		case VAR_DECL_LIST: {
+			VarDeclList l = new VarDeclList(pos);
+			for ( int i = 0; i < m; i++ ) l.add((VarDecl)c[at + i]);
+			return l;
+		}
+		case METHOD_DECL_LIST: {
+			MethodDeclList l = new MethodDeclList(pos);
+			for ( int i = 0; i < m; i++ ) l.add((MethodDecl)c[at + i]);
+			return l;
+		}
+		case FORMAL_LIST: {
+			FormalList l = new FormalList(pos);
+			for ( int i = 0; i < m; i++ ) l.add((Formal)c[at + i]);
+			return l;
+		}
+		case STATEMENT_LIST: {
+			StatementList l = new StatementList(pos);
+			for ( int i = 0; i < m; i++ ) l.add((Statement)c[at + i]);
+			return l;
+		}
+		case EXP_LIST: {
+			ExpList l = new ExpList(pos);
+			for ( int i = 0; i < m; i++ ) l.add((Exp)c[at + i]);
+			return l;
+		}
+		default:
+			throw new IllegalStateException("Bad node kind " + k);
+		}
+	}
+
+	// the shared node of kind k
+	static ASTNode shared(int k) {
+		switch ( k ) {
+		case INT_ARRAY_TYPE: return IntArrayType.shared;
+		case BOOLEAN_TYPE: return BooleanType.shared;
+		case INTEGER_TYPE: return IntegerType.shared;
+		case TRUE: return True.shared;
+		case FALSE: return False.shared;
+		case THIS: return This.shared;
+		case VAR_DECL_LIST: return VarDeclList.empty;
+		case METHOD_DECL_LIST: return MethodDeclList.empty;
+		case FORMAL_LIST: return FormalList.empty;
+		case STATEMENT_LIST: return StatementList.empty;
+		case EXP_LIST: return ExpList.empty;
+		default:
+			throw new IllegalStateException(kindNames[k] + " has no shared node");
+		}
+	}
+}
@@ -5,9 +5,14 @@ import AST.Visitor.Visitor;
 import java_cup.runtime.ComplexSymbolFactory.Location;
 
 public class BooleanType extends Type {
+  // the one "boolean" the parsers use everywhere
+  public static final BooleanType shared = new BooleanType();
+
   public BooleanType(Location pos) {
     super(pos);
   }
+  private BooleanType() {
+  }
   public void accept(Visitor v) {
     v.visit(this);
   }
@@ -3,11 +3,13 @@ package AST;
 import AST.Visitor.ObjectVisitor;
 import AST.Visitor.Visitor;
 import java_cup.runtime.ComplexSymbolFactory.Location;
+import Symtab.Binding;
 
 public class Call extends Exp {
   public Exp e;
   public Identifier i;
   public ExpList el;
+  public Binding binding; // the method, and the receiver's class; set by ResolveVisitor
   
   public Call(Exp ae, Identifier ai, ExpList ael, Location pos) {
     super(pos);
@@ -4,7 +4,7 @@ import AST.Visitor.ObjectVisitor;
 import AST.Visitor.Visitor;
 import java_cup.runtime.ComplexSymbolFactory.Location;
 
-public abstract class ClassDecl extends ASTNode{
+public abstract class ClassDecl extends ASTNode implements Visitable {
   public ClassDecl(Location pos) {
     super(pos);
   }
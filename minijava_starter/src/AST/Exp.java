@@ -4,10 +4,12 @@ import AST.Visitor.ObjectVisitor;
 import AST.Visitor.Visitor;
 import java_cup.runtime.ComplexSymbolFactory.Location;
 
-public abstract class Exp extends ASTNode {
+public abstract class Exp extends ASTNode implements Visitable {
     public Exp(Location pos) {
         super(pos);
     }
+    protected Exp() {
+    }
     public abstract void accept(Visitor v);
 
     public abstract Object accept(ObjectVisitor v);
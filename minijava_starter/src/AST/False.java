@@ -5,9 +5,14 @@ import AST.Visitor.Visitor;
 import java_cup.runtime.ComplexSymbolFactory.Location;
 
 public class False extends Exp {
+  // the one "false" the parsers use everywhere
+  public static final False shared = new False();
+
   public False(Location pos) {
     super(pos);
   }
+  private False() {
+  }
   public void accept(Visitor v) {
     v.visit(this);
   }
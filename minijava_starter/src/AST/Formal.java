@@ -4,7 +4,7 @@ import AST.Visitor.ObjectVisitor;
 import AST.Visitor.Visitor;
 import java_cup.runtime.ComplexSymbolFactory.Location;
 
-public class Formal extends ASTNode{
+public class Formal extends ASTNode implements Visitable {
   public Type t;
   public Identifier i;
  
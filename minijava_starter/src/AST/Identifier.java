@@ -3,9 +3,11 @@ package AST;
 import AST.Visitor.ObjectVisitor;
 import AST.Visitor.Visitor;
 import java_cup.runtime.ComplexSymbolFactory.Location;
+import Symtab.Binding;
 
-public class Identifier extends ASTNode {
+public class Identifier extends ASTNode implements Visitable {
   public String s;
+  public Binding binding; // set by ResolveVisitor
 
   public Identifier(String as, Location pos) { 
     super(pos);
@@ -3,9 +3,11 @@ package AST;
 import AST.Visitor.ObjectVisitor;
 import AST.Visitor.Visitor;
 import java_cup.runtime.ComplexSymbolFactory.Location;
+import Symtab.Binding;
 
 public class IdentifierExp extends Exp {
   public String s;
+  public Binding binding; // set by ResolveVisitor
   public IdentifierExp(String as, Location pos) { 
     super(pos);
     s=as;
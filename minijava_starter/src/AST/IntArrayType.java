@@ -5,9 +5,14 @@ import AST.Visitor.Visitor;
 import java_cup.runtime.ComplexSymbolFactory.Location;
 
 public class IntArrayType extends Type {
+  // the one "int[]" the parsers use everywhere
+  public static final IntArrayType shared = new IntArrayType();
+
   public IntArrayType(Location pos) {
     super(pos);
   }
+  private IntArrayType() {
+  }
   public void accept(Visitor v) {
     v.visit(this);
   }
@@ -5,9 +5,14 @@ import AST.Visitor.Visitor;
 import java_cup.runtime.ComplexSymbolFactory.Location;
 
 public class IntegerType extends Type {
+  // the one "int" the parsers use everywhere
+  public static final IntegerType shared = new IntegerType();
+
   public IntegerType(Location pos) {
     super(pos);
   }
+  private IntegerType() {
+  }
   public void accept(Visitor v) {
     v.visit(this);
   }
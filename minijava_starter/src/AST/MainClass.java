@@ -4,7 +4,7 @@ import AST.Visitor.Visitor;
 import AST.Visitor.ObjectVisitor;
 import java_cup.runtime.ComplexSymbolFactory.Location;
 
-public class MainClass extends ASTNode{
+public class MainClass extends ASTNode implements Visitable {
   public Identifier i1,i2;
   public Statement s;
 
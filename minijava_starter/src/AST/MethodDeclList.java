@@ -5,6 +5,7 @@ import java.util.List;
 import AST.Visitor.ObjectVisitor;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java_cup.runtime.ComplexSymbolFactory.Location;
 
 public class MethodDeclList extends ASTNode {
@@ -15,6 +16,13 @@ public class MethodDeclList extends ASTNode {
       list = new ArrayList<MethodDecl>();
    }
 
+   // the one empty list the parsers use everywhere; it can't be added to
+   public static final MethodDeclList empty = new MethodDeclList();
+
+   private MethodDeclList() {
+      list = Collections.emptyList();
+   }
+
    public void add(MethodDecl n) {
       list.add(n);
       if (n != null) n.setParent(this);
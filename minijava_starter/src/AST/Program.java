@@ -4,7 +4,7 @@ import AST.Visitor.ObjectVisitor;
 import AST.Visitor.Visitor;
 import java_cup.runtime.ComplexSymbolFactory.Location;
 
-public class Program extends ASTNode {
+public class Program extends ASTNode implements Visitable {
   public MainClass m;
   public ClassDeclList cl;
 
@@ -4,7 +4,7 @@ import AST.Visitor.ObjectVisitor;
 import AST.Visitor.Visitor;
 import java_cup.runtime.ComplexSymbolFactory.Location;
 
-public abstract class Statement extends ASTNode {
+public abstract class Statement extends ASTNode implements Visitable {
     public Statement(Location pos) {
         super(pos);
     }
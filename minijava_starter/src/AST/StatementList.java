@@ -2,6 +2,7 @@ package AST;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collections;
 import java_cup.runtime.ComplexSymbolFactory.Location;
 
 public class StatementList extends ASTNode {
@@ -12,6 +13,13 @@ public class StatementList extends ASTNode {
       list = new ArrayList<Statement>();
    }
 
+   // the one empty list the parsers use everywhere; it can't be added to
+   public static final StatementList empty = new StatementList();
+
+   private StatementList() {
+      list = Collections.emptyList();
+   }
+
    public void add(Statement n) {
       list.add(n);
       if (n != null) n.setParent(this);
@@ -5,9 +5,14 @@ import AST.Visitor.Visitor;
 import java_cup.runtime.ComplexSymbolFactory.Location;
 
 public class This extends Exp {
+  // the one "this" the parsers use everywhere
+  public static final This shared = new This();
+
   public This(Location pos) {
     super(pos);
   }
+  private This() {
+  }
   public void accept(Visitor v) {
     v.visit(this);
   }
@@ -5,9 +5,14 @@ import AST.Visitor.Visitor;
 import java_cup.runtime.ComplexSymbolFactory.Location;
 
 public class True extends Exp {
+  // the one "true" the parsers use everywhere
+  public static final True shared = new True();
+
   public True(Location pos) {
     super(pos);
   }
+  private True() {
+  }
   public void accept(Visitor v) {
     v.visit(this);
   }
@@ -4,10 +4,12 @@ import AST.Visitor.ObjectVisitor;
 import AST.Visitor.Visitor;
 import java_cup.runtime.ComplexSymbolFactory.Location;
 
-public abstract class Type extends ASTNode {
+public abstract class Type extends ASTNode implements Visitable {
     public Type(Location pos) {
         super(pos);
     }
+    protected Type() {
+    }
     public abstract void accept(Visitor v);
 
     public abstract Object accept(ObjectVisitor v);
@@ -5,6 +5,7 @@ import java.util.List;
 import AST.Visitor.ObjectVisitor;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java_cup.runtime.ComplexSymbolFactory.Location;
 
 public class VarDeclList extends ASTNode {
@@ -15,6 +16,13 @@ public class VarDeclList extends ASTNode {
       list = new ArrayList<VarDecl>();
    }
 
+   // the one empty list the parsers use everywhere; it can't be added to
+   public static final VarDeclList empty = new VarDeclList();
+
+   private VarDeclList() {
+      list = Collections.emptyList();
+   }
+
    public void add(VarDecl n) {
       list.add(n);
       if (n != null) n.setParent(this);
@@ -0,0 +1,17 @@
+package AST;
+
+import AST.Visitor.ObjectVisitor;
+import AST.Visitor.Visitor;
+
+/**
+ * A node that takes a visitor: every node but the lists, whose elements
+ * the visitors go through themselves.  AST.Visitor.Walk holds the nodes
+ * it is to visit as Visitables, so that a list given to it is a compile
+ * error.
+ */
+public interface Visitable {
+
+  public void accept(Visitor v);
+
+  public Object accept(ObjectVisitor v);
+}
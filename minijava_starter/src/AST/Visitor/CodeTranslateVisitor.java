@@ -1,45 +1,65 @@
 package AST.Visitor;
 
-import java.util.HashMap;
+import java.io.PrintStream;
 import java.util.Iterator;
 import java.util.ArrayList;
 
 import AST.*;
+import Codegen.*;
 import Symtab.*;
 
 public class CodeTranslateVisitor implements Visitor {
 
-	SymbolTable st = null;
+	FrozenSymbolTable st = null;
 	public int errors = 0;
 
+	// assembly is written to out, error messages to diag
+	private AsmEmitter out = null;
+	private PrintStream diag = System.out;
+
 	private int stack_mem = 0;
 	private boolean alignment = false;
 
-	private HashMap<String, String> objectIDType = new HashMap<String, String>();
-	public HashMap<VarSymbol, String> stack_table = new HashMap<VarSymbol, String>();
-	public HashMap<VarSymbol, String> object_table = new HashMap<VarSymbol, String>();
-	public int stack_pos = -8;
-	public int obj_pos = 8;
+	// the class being translated, for method labels and calls on this
+	private String classname = "";
+
 	public String call_regs[] = {"%rsi", "%rdx", "%rcx", "%r8", "%r9"};
 	public int args_pos = 0;
 	public int labelCount = 1;
 
-	public void setSymtab(SymbolTable s) { st = s; }
+	// the tree is gone through with a Walk, which keeps its own stack, so
+	// code is written in steps between the children
+	private final Walk walk = new Walk(this);
+
+	public void setSymtab(FrozenSymbolTable s) { st = s; }
+
+	public void setSymtab(SymbolTable s) { st = s.freeze(); }
+
+	public FrozenSymbolTable getSymtab() { return st; }
+
+	public void setOutput(AsmEmitter o) { out = o; }
 
-	public SymbolTable getSymtab() { return st; }
+	public void setOutput(PrintStream o) { out = new AsmEmitter(new StreamSink(o)); }
+
+	public void setDiagnostics(PrintStream d) { diag = d; }
 
 	public void report_error(int line, String msg) {
-		System.out.println(line + ": " + msg);
+		diag.println(line + ": " + msg);
 		++errors;
 	}
 
+	// C symbols carry a leading underscore on Windows and OS X
+	private static final String osPrefix;
+	static {
+		String os = System.getProperty("os.name");
+		osPrefix = (os.contains("Windows") || os.contains("OS X")) ? "_" : "";
+	}
+	private static final String callocLabel = osPrefix + "mjcalloc";
+	private static final String putLabel = osPrefix + "put";
+
 	public String getLabel(String class_name, String call_name) {
 		String label = !class_name.isEmpty() ? class_name+"$"+call_name : call_name;
-		String os = System.getProperty("os.name");
-		if (os.contains("Windows") || os.contains("OS X")) {
-			return "_"+label;
-		}
-		return label;
+		return osPrefix + label;
 	}
 
 	private void prologue() {
@@ -55,21 +75,60 @@ public class CodeTranslateVisitor implements Visitor {
 
 	// Display added for toy example language. Not used in regular MiniJava
 	public void visit(Display n) {
-		n.e.accept(this);
+		walk.visit(n.e);
 	}
 
 	// MainClass m;
 	// ClassDeclList cl;
 	public void visit(Program n) {
-		System.out.println("\t" + ".text");
-		String asmMainLabel = getLabel("","asm_main");
-		System.out.println("\t" + ".globl" + "\t" + asmMainLabel);
-		n.m.accept(this);
+		header();
+		walk.visit(n.m);
 		if (n.cl != null){
 			for (int i = 0; i < n.cl.size(); i++) {
-				n.cl.get(i).accept(this);
+				walk.visit(n.cl.get(i));
 			}
 		}
+		walk.then(() -> out.flush());
+	}
+
+	/**
+	 * The lines before the main class.  A program translated a class at a
+	 * time, by visitors of their own, starts with these and the main
+	 * class, and has the other classes after, in order.
+	 */
+	public void header() {
+		if (out == null) {
+			out = new AsmEmitter(new StreamSink(System.out));
+		}
+		gen("\t" + ".text");
+		String asmMainLabel = getLabel("","asm_main");
+		out.line("\t" + ".globl" + "\t", asmMainLabel);
+	}
+
+	/**
+	 * The number of labels translating n takes.  Parts of a program
+	 * translated apart set labelCount to 1 plus the labels of the parts
+	 * before, so the labels are those one visitor would have made.
+	 */
+	public static int labelsNeeded(Visitable n) {
+		LabelCounter c = new LabelCounter();
+		n.accept(c);
+		return c.labels;
+	}
+
+	// If and While each take two labels
+	private static final class LabelCounter extends NodeCountVisitor {
+		int labels = 0;
+
+		public void visit(If n) {
+			labels += 2;
+			super.visit(n);
+		}
+
+		public void visit(While n) {
+			labels += 2;
+			super.visit(n);
+		}
 	}
 
 	// Identifier i1,i2;
@@ -77,24 +136,56 @@ public class CodeTranslateVisitor implements Visitor {
 	public void visit(MainClass n) {
 		//n.i1.accept(this);
 		//n.i2.accept(this);
-		String mainLabel = getLabel("", "asm_main:");
-		gen(mainLabel);
+		String mainLabel = getLabel("", "asm_main");
+		out.label(mainLabel);
 		prologue();
-		n.s.accept(this);
-		epilogue();
+		walk.visit(n.s);
+		walk.then(() -> epilogue());
 	}
 
-	private void dispatchTable(String className, String parentName, int mem_needed){
+	// a variable's slot is in the frame below %rbp or in the object at
+	// %rdi; base is null for a variable with neither, whose operand is
+	// written "null"
+	private static String base(Binding b) {
+		if (b == null){
+			return null;
+		}
+		switch (b.getKind()) {
+		case FRAME: return "%rbp";
+		case FIELD: return "%rdi";
+		default:    return null;
+		}
+	}
 
+	private static int displacement(Binding b) {
+		return (b.getKind() == Binding.Kind.FRAME ? -8 : 8) * (b.getSlot() + 1);
+	}
+
+	// movq from a variable to a register
+	private void load(Binding b, String dst) {
+		String base = base(b);
+		if (base != null) out.insn("movq", displacement(b), base, dst);
+		else gen("movq", (String)null, dst);
+	}
+
+	// movq from a register to a variable
+	private void store(String src, Binding b) {
+		String base = base(b);
+		if (base != null) out.insn("movq", src, displacement(b), base);
+		else gen("movq", src, (String)null);
+	}
+
+	private void dispatchTable(Identifier classId, String parentName, int mem_needed){
+		String className = classId.s;
 
 		classConstructor(mem_needed, className, parentName);
 
 		//get method list from class symbol
-		Symbol tempSym = st.lookupSymbol(className);
+		Symbol tempSym = classId.binding.getSymbol();
 		ArrayList<MethodSymbol> mSyms = ((ClassSymbol) tempSym).getMethods();
 		int mCount = mSyms.size();
 
-		gen("\t" + ".data");
+		gen("\t.data");
 
 		//create class label for vtabel
 		String extClass;
@@ -104,29 +195,28 @@ public class CodeTranslateVisitor implements Visitor {
 		else {
 			genTLabel(className, parentName + "$$");
 		}
-		gen("\t" + ".quad " + className + "$" + className);
+		out.quad(className, className);
 		for(MethodSymbol ms : mSyms){
 			String mName = ms.getName();
-			gen("\t" + ".quad " + className + "$" + mName);
+			out.quad(className, mName);
 		}
 	}
 
 	//create the vtable label
 	private void genTLabel(String i, String j){
-		gen(i + "$$: .quad " + j);
+		out.dataLabel(i + "$$", j);
 	}
 
 	//create class constructors called by new object creation
 	private void classConstructor(int mem_size, String cName, String pName){
-		gen(cName + "$" + cName + ":");
+		out.label(cName, cName);
 		prologue();
 
 		pushq("%rdi");
 		gen("movq", mem_size, "%rdi");
 
 		align("%rax");
-		String temp = getLabel("","mjcalloc");
-		gen("call", temp);
+		gen("call", callocLabel);
 		undo("%rdx");
 		popq("%rdi");
 
@@ -143,27 +233,13 @@ public class CodeTranslateVisitor implements Visitor {
 	public void visit(ClassDeclSimple n) {
 		//n.i.accept(this);
 
-		int mem_needed = n.vl.size();
-		mem_needed += 8;
+		int mem_needed = n.vl.size() + 8;
 
-		st = st.enterScope(n.i.s, n);
-		obj_pos = 8;
-		for (int i = 0; i < n.vl.size(); i++) {
-			VarDecl n1 = n.vl.get(i);
-			String v1 = n1.i.s;
-			Symbol sym = st.lookupSymbol(v1);
-			if (sym != null && sym instanceof VarSymbol){
-				VarSymbol vs = (VarSymbol)sym;
-				String obj_loc = Integer.toString(obj_pos) + "(%rdi)";
-				obj_pos += 8;
-				object_table.put(vs, obj_loc);
-			}
-		}
+		classname = n.i.s;
 		for (int i = 0; i < n.ml.size(); i++) {
-			n.ml.get(i).accept(this);
+			walk.visit(n.ml.get(i));
 		}
-		dispatchTable(n.i.s,"0",mem_needed);
-		st = st.exitScope();
+		walk.then(() -> dispatchTable(n.i,"0",mem_needed));
 	}
 
 	// Identifier i;
@@ -171,13 +247,14 @@ public class CodeTranslateVisitor implements Visitor {
 	// VarDeclList vl;
 	// MethodDeclList ml;
 	public void visit(ClassDeclExtends n) {
-		n.i.accept(this);
-		n.j.accept(this);
+		classname = n.i.s;
+		walk.visit(n.i);
+		walk.visit(n.j);
 		for (int i = 0; i < n.vl.size(); i++) {
-			n.vl.get(i).accept(this);
+			walk.visit(n.vl.get(i));
 		}
 		for (int i = 0; i < n.ml.size(); i++) {
-			n.ml.get(i).accept(this);
+			walk.visit(n.ml.get(i));
 		}
 	}
 
@@ -185,26 +262,8 @@ public class CodeTranslateVisitor implements Visitor {
 	// Identifier i;
 	public void visit(VarDecl n) {
 		//n.t.accept(this);
-		String classname = "";
-		if (n.t instanceof IdentifierType){
-			classname = ((IdentifierType) n.t).s;
-		}
-		objectIDType.put(n.i.s,classname);
 		//n.i.accept(this);
-
-		//get current method scope to get method name
-		/*
-		ASTNode a1 = st.getScope();
-		MethodDecl m1 = (MethodDecl) a1;
-		String tableName = m1.i.s;
-		*/
-		Symbol sym = st.lookupSymbol(n.i.s);
-		if (sym != null && sym instanceof VarSymbol){
-			VarSymbol vs = (VarSymbol)sym;
-			String stack_loc = Integer.toString(stack_pos) + "(%rbp)";
-			stack_pos -= 8;
-			stack_table.put(vs, stack_loc);
-		}
+		// its frame slot is in n.i.binding
 	}
 
 	// Type t;
@@ -214,25 +273,11 @@ public class CodeTranslateVisitor implements Visitor {
 	// StatementList sl;
 	// Exp e;
 	public void visit(MethodDecl n) {
-
-		//get name of class that method belongs to
-		ASTNode classSym = st.getScope();
-		String classname = "";
-		if (classSym instanceof ClassDeclSimple){
-			classname = ((ClassDeclSimple) classSym).i.s;
-		}
-		if (classSym instanceof ClassDeclExtends){
-			classname = ((ClassDeclExtends) classSym).i.s;
-		}
-
-
-		st = st.enterScope(n.i.s, n);
-
 		int varSize = n.vl.size();
 		int formalSize = n.fl.size();
 		int totalSize = (8*(varSize+formalSize));
 
-		gen(classname + "$" + n.i.s + ":");
+		out.label(classname, n.i.s);
 		prologue();
 
 		gen("subq", totalSize, "%rsp");
@@ -242,25 +287,21 @@ public class CodeTranslateVisitor implements Visitor {
 
 		//n.t.accept(this);
 		//n.i.accept(this);
-		stack_table.clear();
 		args_pos = 0;
-		stack_pos = -8;
 		for (int i = 0; i < n.fl.size(); i++) {
-			n.fl.get(i).accept(this);
+			walk.visit(n.fl.get(i));
 		}
 		for (int i = 0; i < n.vl.size(); i++) {
-			n.vl.get(i).accept(this);
+			walk.visit(n.vl.get(i));
 		}
 		for (int i = 0; i < n.sl.size(); i++) {
-			n.sl.get(i).accept(this);
+			walk.visit(n.sl.get(i));
 		}
 
 		//undo("%rdx");
 		//stack_mem -= totalSize;
-		n.e.accept(this);
-		epilogue();
-
-		st = st.exitScope();
+		walk.visit(n.e);
+		walk.then(() -> epilogue());
 	}
 
 
@@ -269,13 +310,8 @@ public class CodeTranslateVisitor implements Visitor {
 	public void visit(Formal n) {
 		//n.t.accept(this);
 		//n.i.accept(this);
-		Symbol sym = st.lookupSymbol(n.i.s);
-		if (sym != null && sym instanceof VarSymbol){
-			VarSymbol vs = (VarSymbol)sym;
-			String stack_loc = Integer.toString(stack_pos) + "(%rbp)";
-			stack_pos -= 8;
-			stack_table.put(vs, stack_loc);
-			gen("movq", call_regs[args_pos++], stack_loc);
+		if (n.i.binding != null && n.i.binding.getKind() == Binding.Kind.FRAME){
+			store(call_regs[args_pos++], n.i.binding);
 		}
 	}
 
@@ -295,7 +331,7 @@ public class CodeTranslateVisitor implements Visitor {
 	// StatementList sl;
 	public void visit(Block n) {
 		for (int i = 0; i < n.sl.size(); i++) {
-			n.sl.get(i).accept(this);
+			walk.visit(n.sl.get(i));
 		}
 	}
 
@@ -303,53 +339,65 @@ public class CodeTranslateVisitor implements Visitor {
 	// Statement s1,s2;
 	public void visit(If n) {
 		//generate labels
-		String else_ = "L"+labelCount;
+		int else_ = labelCount;
 		labelCount++;
-		String done_ = "L"+labelCount;
+		int done_ = labelCount;
 		labelCount++;
 
-		n.e.accept(this);
-		gen("cmpq", 0, "%rax");
-		gen("je", else_);
+		walk.visit(n.e);
+		walk.then(() -> {
+			gen("cmpq", 0, "%rax");
+			out.jump("je", else_);
+		});
 
-		n.s1.accept(this);
-		gen("jmp", done_);
+		walk.visit(n.s1);
+		walk.then(() -> {
+			out.jump("jmp", done_);
 
-		gen(else_ + ":");
-		n.s2.accept(this);
+			out.label(else_);
+		});
+		walk.visit(n.s2);
 
-		gen(done_ + ":");
+		walk.then(() -> out.label(done_));
 	}
 
 	// Exp e;
 	// Statement s;
 	public void visit(While n) {
-		String test_ = "L"+labelCount;
+		int test_ = labelCount;
 		labelCount++;
-		String done_ = "L"+labelCount;
+		int done_ = labelCount;
 		labelCount++;
 
-		gen(test_ + ":");
-		n.e.accept(this);
-		gen("cmpq", 0, "%rax");
-		gen("je", done_);
+		out.label(test_);
+		walk.visit(n.e);
+		walk.then(() -> {
+			gen("cmpq", 0, "%rax");
+			out.jump("je", done_);
+		});
 
-		n.s.accept(this);
-		gen("jmp", test_);
+		walk.visit(n.s);
+		walk.then(() -> {
+			out.jump("jmp", test_);
 
-		gen(done_ + ":");
+			out.label(done_);
+		});
 	}
 
 	// Exp e;
 	public void visit(Print n) {
-		n.e.accept(this);
+		walk.visit(n.e);
+		walk.then(() -> print());
+	}
+
+	// the rest of visit(Print), with the value in %rax
+	private void print() {
 		pushq("%rdi");
 		gen("movq", "%rax", "%rdi");
 		align("%rax");
-		String temp = getLabel("","put");
 		gen("movq", "%rsp", "%r12");
-		gen("andq $-16,%rsp");
-		gen("call", temp);
+		out.insn("andq $-16,%rsp");
+		gen("call", putLabel);
 		gen("movq", "%r12", "%rsp");
 		undo("%rdx");
 		popq("%rdi");
@@ -359,46 +407,30 @@ public class CodeTranslateVisitor implements Visitor {
 	// Exp e;
 	public void visit(Assign n) {
 		//n.i.accept(this);
-		n.e.accept(this);
-		VarSymbol vs1 = (VarSymbol)st.lookupSymbol(n.i.s);
-		String location = stack_table.get(vs1);
-
-		if(location == null){
-			location = object_table.get(vs1);
-			gen("movq", "%rax", location);
-		}
-		else{
-			gen("movq", "%rax", location);
-		}
+		walk.visit(n.e);
+		walk.then(() -> store("%rax", n.i.binding));
 	}
 
 	// Identifier i;
 	// Exp e1,e2;
 	public void visit(ArrayAssign n) {
 		//get array location from variable -> store in %rcx
-		VarSymbol vs1 = (VarSymbol)st.lookupSymbol(n.i.s);
-		String location = stack_table.get(vs1);
-
-		if(location == null){
-			location = object_table.get(vs1);
-			gen("movq", location, "%rcx");
-		}
-		else{
-			gen("movq", location, "%rcx");
-		}
+		load(n.i.binding, "%rcx");
 		//n.i.accept(this);
 
 
-		n.e1.accept(this);
-		pushq("%rax");
-		n.e2.accept(this);
-		popq("%rdx");
+		walk.visit(n.e1);
+		walk.then(() -> pushq("%rax"));
+		walk.visit(n.e2);
+		walk.then(() -> {
+			popq("%rdx");
 
-		//array location in %rcx
-		//array index in %rdx
-		//value for assignment in %rax
+			//array location in %rcx
+			//array index in %rdx
+			//value for assignment in %rax
 
-		gen("movq", "%rax", "8(%rcx,%rdx,8)");
+			gen("movq", "%rax", "8(%rcx,%rdx,8)");
+		});
 
 	}
 
@@ -406,110 +438,110 @@ public class CodeTranslateVisitor implements Visitor {
 	public void visit(And n) {
 		gen("movq", 0, "%r8");
 		gen("movq", 1, "%r9");
-		n.e1.accept(this);
-		gen("movq", "%rax", "%r10");
-		n.e2.accept(this);
-		gen("movq", "%rax", "%rcx");
-		gen("movq", "%r10", "%rdx");
-		gen("movq", 0, "%rax");
-		gen("cmpq", 1, "%rdx");
-		gen("cmoveq", "%r9", "%rax");
-		gen("cmpq", 0, "%rcx");
-		gen("cmoveq", "%r8", "%rax");
+		walk.visit(n.e1);
+		walk.then(() -> gen("movq", "%rax", "%r10"));
+		walk.visit(n.e2);
+		walk.then(() -> {
+			gen("movq", "%rax", "%rcx");
+			gen("movq", "%r10", "%rdx");
+			gen("movq", 0, "%rax");
+			gen("cmpq", 1, "%rdx");
+			gen("cmoveq", "%r9", "%rax");
+			gen("cmpq", 0, "%rcx");
+			gen("cmoveq", "%r8", "%rax");
+		});
 
 	}
 
 	// Exp e1,e2;
 	public void visit(LessThan n) {
 		gen("movq", 1, "%r9");
-		n.e1.accept(this);
-		gen("movq", "%rax", "%r11");
-		n.e2.accept(this);
-		gen("movq", "%r11", "%rdx");
-		gen("movq", "%rax", "%rcx");
-		gen("movq", 0, "%rax");
-		gen("cmpq", "%rcx", "%rdx");
-		gen("cmovlq", "%r9", "%rax");
+		walk.visit(n.e1);
+		walk.then(() -> gen("movq", "%rax", "%r11"));
+		walk.visit(n.e2);
+		walk.then(() -> {
+			gen("movq", "%r11", "%rdx");
+			gen("movq", "%rax", "%rcx");
+			gen("movq", 0, "%rax");
+			gen("cmpq", "%rcx", "%rdx");
+			gen("cmovlq", "%r9", "%rax");
+		});
 
 	}
 
 	// Exp e1,e2;
 	public void visit(Plus n) {
-		n.e1.accept(this);
-		pushq("%rax");
-		n.e2.accept(this);
-		popq("%rdx");
-		gen("addq", "%rdx", "%rax");
+		walk.visit(n.e1);
+		walk.then(() -> pushq("%rax"));
+		walk.visit(n.e2);
+		walk.then(() -> {
+			popq("%rdx");
+			gen("addq", "%rdx", "%rax");
+		});
 	}
 
 	// Exp e1,e2;
 	public void visit(Minus n) {
-		n.e1.accept(this);
-		pushq("%rax");
-		n.e2.accept(this);
-		popq("%rdx");
-		gen("negq", "%rax");
-		gen("addq", "%rdx", "%rax");
+		walk.visit(n.e1);
+		walk.then(() -> pushq("%rax"));
+		walk.visit(n.e2);
+		walk.then(() -> {
+			popq("%rdx");
+			gen("negq", "%rax");
+			gen("addq", "%rdx", "%rax");
+		});
 	}
 
 	// Exp e1,e2;
 	public void visit(Times n) {
-		n.e1.accept(this);
-		pushq("%rax");
-		n.e2.accept(this);
-		popq("%rdx");
-		gen("imulq", "%rdx", "%rax");
+		walk.visit(n.e1);
+		walk.then(() -> pushq("%rax"));
+		walk.visit(n.e2);
+		walk.then(() -> {
+			popq("%rdx");
+			gen("imulq", "%rdx", "%rax");
+		});
 	}
 
 	// Exp e1,e2;
 	public void visit(ArrayLookup n) {
-		n.e1.accept(this);
-		pushq("%rax");
-		n.e2.accept(this);
-		popq("%rdx");
-		gen("movq", "8(%rdx,%rax,8)", "%rax");
+		walk.visit(n.e1);
+		walk.then(() -> pushq("%rax"));
+		walk.visit(n.e2);
+		walk.then(() -> {
+			popq("%rdx");
+			gen("movq", "8(%rdx,%rax,8)", "%rax");
+		});
 	}
 
 	// Exp e;
 	public void visit(ArrayLength n) {
-		n.e.accept(this);
-		gen("movq", "(%rax)", "%rax");
+		walk.visit(n.e);
+		walk.then(() -> gen("movq", "(%rax)", "%rax"));
 	}
 
 	// Exp e;
 	// Identifier i;
 	// ExpList el;
 	public void visit(Call n) {
-		final String c_regs[] = {"%rsi","%rdx","%rcx","%r8","%r9"};
 		//version for this -> get parent to get class name
 		//if identifier -> get identifier name
 
 		//save current "this"
 		pushq("%rdi");
 
-		n.e.accept(this);
-		String classname = "";
-		String methodname = "";
-		String varname = "";
-		if(n.e instanceof This){
-			SymbolTable s = st.getParent();
-			ASTNode classSym = s.getScope();
-			if (classSym instanceof ClassDeclSimple){
-				classname = ((ClassDeclSimple) classSym).i.s;
-			}
-			if (classSym instanceof ClassDeclExtends){
-				classname = ((ClassDeclExtends) classSym).i.s;
-			}
-		}
-		else if(n.e instanceof NewObject){
-			classname = ((NewObject) n.e).i.s;
-		}
-		else{
-			varname = ((IdentifierExp) n.e).s;
-			classname = objectIDType.get(varname);
-		}
+		walk.visit(n.e);
+		walk.then(() -> call(n));
+	}
 
-		methodname = n.i.s;
+	// the rest of visit(Call), with the receiver in %rax
+	private void call(Call n) {
+		final String c_regs[] = {"%rsi","%rdx","%rcx","%r8","%r9"};
+		//the class of the receiver, as resolved; a call is only unbound
+		//if ResolveVisitor hasn't been run on the program
+		ClassSymbol receiver = (n.binding != null) ? n.binding.getOwner() : null;
+		String classname = (receiver != null) ? receiver.getName() : "";
+		String methodname = n.i.s;
 
 		//if not "this" store obj reference in rdi
 		if(!(n.e instanceof This)){
@@ -519,18 +551,20 @@ public class CodeTranslateVisitor implements Visitor {
 		//n.i.accept(this);
 
 		for (int i = 0; i < n.el.size(); i++) {
-			n.el.get(i).accept(this);
-			gen("pushq", "%rax");
+			walk.visit(n.el.get(i));
+			walk.then(() -> gen("pushq", "%rax"));
 		}
 
-		for (int i = n.el.size(); i >0; i--){
-			gen("popq", c_regs[i-1]);
-		}
+		walk.then(() -> {
+			for (int i = n.el.size(); i >0; i--){
+				gen("popq", c_regs[i-1]);
+			}
 
-		gen("call", classname + "$" + methodname);
+			out.call(classname, methodname);
 
 
-		popq("%rdi");
+			popq("%rdi");
+		});
 	}
 
 	/*
@@ -591,17 +625,7 @@ public class CodeTranslateVisitor implements Visitor {
 
 	// String s;
 	public void visit(IdentifierExp n) {
-		VarSymbol vs1 = (VarSymbol)st.lookupSymbol(n.s);
-		String location = stack_table.get(vs1);
-
-		//if null then ID refers to object field. get offset from objecttable
-		if(location == null){
-			location = object_table.get(vs1);
-			gen("movq", location, "%rax");
-		}
-		else{
-			gen("movq", location, "%rax");
-		}
+		load(n.binding, "%rax");
 	}
 
 	public void visit(This n) {
@@ -610,7 +634,12 @@ public class CodeTranslateVisitor implements Visitor {
 
 	// Exp e;
 	public void visit(NewArray n) {
-		n.e.accept(this);
+		walk.visit(n.e);
+		walk.then(() -> newArray());
+	}
+
+	// the rest of visit(NewArray), with the length in %rax
+	private void newArray() {
 
 		//store array length on stack
 		pushq("%rax");
@@ -621,8 +650,7 @@ public class CodeTranslateVisitor implements Visitor {
 		pushq("%rdi");
 		gen("movq", "%rax", "%rdi");
 		align("%rax");
-		String temp = getLabel("","mjcalloc");
-		gen("call", temp);
+		gen("call", callocLabel);
 		undo("%rdx");
 		popq("%rdi");
 
@@ -633,14 +661,14 @@ public class CodeTranslateVisitor implements Visitor {
 	// Identifier i;
 	public void visit(NewObject n) {
 		align("%rax");
-		gen("call", n.i.s + "$" + n.i.s);
+		out.call(n.i.s, n.i.s);
 		undo("%rdx");
 	}
 
 	// Exp e;
 	public void visit(Not n) {
-		n.e.accept(this);
-		gen("xorq", 1, "%rax");
+		walk.visit(n.e);
+		walk.then(() -> gen("xorq", 1, "%rax"));
 	}
 
 	// String s;
@@ -679,18 +707,18 @@ public class CodeTranslateVisitor implements Visitor {
 	//Genrates the assembly code print instructions
 
 	private void gen(String s) {
-		System.out.println(s);
+		out.line(s);
 	}
 
 	private void gen(String instruction, String i, String j){
-		gen("\t" + instruction + " " + i + "," + j);
+		out.insn(instruction, i, j);
 	}
 
 	private void gen(String instruction, int constant, String j){
-		gen("\t" + instruction + " " + "$" + constant + "," + j);
+		out.insn(instruction, constant, j);
 	}
 
 	private void gen(String instruction, String i){
-		gen("\t" + instruction + " " + i);
+		out.insn(instruction, i);
 	}
 }
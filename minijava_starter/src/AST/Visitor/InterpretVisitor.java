@@ -0,0 +1,378 @@
+package AST.Visitor;
+
+import java.io.PrintStream;
+import java.util.HashMap;
+
+import AST.*;
+
+// Runs a program straight from its AST, with the semantics of the code
+// CodeTranslateVisitor generates: an int is 64 bits wide, as are the
+// elements of an int[], && evaluates both of its operands, fields and
+// locals start out as 0, false or null, and calls are dispatched on the
+// class of the receiver.  Gives the expected output of a program without
+// going through the code generator.  It differs from java only where an
+// int overflows 32 bits or the right of an && has an effect, which the
+// sample programs and Synth.ProgramGenerator's don't do.
+//
+// Variables are looked up by name, locals before fields, so a field
+// redeclared in a subclass is shared with the superclass's methods.
+
+public class InterpretVisitor implements ObjectVisitor {
+
+	/** An object: its class and the values of all its fields. */
+	public static class Instance {
+		public final ClassDecl cls;
+		final HashMap<String, Object> fields = new HashMap<String, Object>();
+
+		Instance(ClassDecl c) {
+			cls = c;
+		}
+	}
+
+	private final PrintStream out;
+
+	private final HashMap<String, ClassDecl> classes = new HashMap<String, ClassDecl>();
+	// class name -> method name -> declaration, inherited methods included
+	private final HashMap<String, HashMap<String, MethodDecl>> methods =
+		new HashMap<String, HashMap<String, MethodDecl>>();
+
+	// the frame of the method being run
+	private HashMap<String, Object> locals = new HashMap<String, Object>();
+	private Instance self = null;
+
+	public InterpretVisitor(PrintStream o) {
+		out = o;
+	}
+
+	// ---- classes ----------------------------------------------------------
+
+	public static String nameOf(ClassDecl c) {
+		return c instanceof ClassDeclExtends ? ((ClassDeclExtends)c).i.s : ((ClassDeclSimple)c).i.s;
+	}
+
+	static String parentOf(ClassDecl c) {
+		return c instanceof ClassDeclExtends ? ((ClassDeclExtends)c).j.s : null;
+	}
+
+	static VarDeclList fieldsOf(ClassDecl c) {
+		return c instanceof ClassDeclExtends ? ((ClassDeclExtends)c).vl : ((ClassDeclSimple)c).vl;
+	}
+
+	static MethodDeclList methodsOf(ClassDecl c) {
+		return c instanceof ClassDeclExtends ? ((ClassDeclExtends)c).ml : ((ClassDeclSimple)c).ml;
+	}
+
+	/** Make a class available to new and to calls. */
+	public void define(ClassDecl c) {
+		classes.put(nameOf(c), c);
+		methods.clear();
+	}
+
+	/** Forget a class that won't be used any more. */
+	public void undefine(String name) {
+		classes.remove(name);
+		methods.clear();
+	}
+
+	ClassDecl lookupClass(String name) {
+		ClassDecl c = classes.get(name);
+		if ( c == null ) {
+			throw new IllegalStateException("Class " + name + " is not defined.");
+		}
+		return c;
+	}
+
+	HashMap<String, MethodDecl> dispatchTable(String name) {
+		HashMap<String, MethodDecl> table = methods.get(name);
+		if ( table == null ) {
+			ClassDecl c = lookupClass(name);
+			String parent = parentOf(c);
+			table = parent != null
+				? new HashMap<String, MethodDecl>(dispatchTable(parent))
+				: new HashMap<String, MethodDecl>();
+			MethodDeclList ml = methodsOf(c);
+			for (int i = 0; i < ml.size(); i++) {
+				table.put(ml.get(i).i.s, ml.get(i));
+			}
+			methods.put(name, table);
+		}
+		return table;
+	}
+
+	static Object initialValue(Type t) {
+		if ( t instanceof IntegerType ) return 0L;
+		if ( t instanceof BooleanType ) return false;
+		return null;
+	}
+
+	public Instance newInstance(String name) {
+		ClassDecl c = lookupClass(name);
+		Instance o = new Instance(c);
+		for (ClassDecl k = c; k != null; ) {
+			VarDeclList vl = fieldsOf(k);
+			for (int i = 0; i < vl.size(); i++) {
+				o.fields.putIfAbsent(vl.get(i).i.s, initialValue(vl.get(i).t));
+			}
+			String parent = parentOf(k);
+			k = parent != null ? lookupClass(parent) : null;
+		}
+		return o;
+	}
+
+	/** Call a method of an object and return its result. */
+	public Object invoke(Instance o, String name, Object... args) {
+		MethodDecl m = dispatchTable(nameOf(o.cls)).get(name);
+		if ( m == null ) {
+			throw new IllegalStateException("Method " + nameOf(o.cls) + "." + name + " is not defined.");
+		}
+
+		HashMap<String, Object> frame = new HashMap<String, Object>();
+		for (int i = 0; i < m.fl.size(); i++) {
+			frame.put(m.fl.get(i).i.s, args[i]);
+		}
+		for (int i = 0; i < m.vl.size(); i++) {
+			frame.put(m.vl.get(i).i.s, initialValue(m.vl.get(i).t));
+		}
+
+		HashMap<String, Object> callerLocals = locals;
+		Instance callerSelf = self;
+		locals = frame;
+		self = o;
+		try {
+			for (int i = 0; i < m.sl.size(); i++) {
+				m.sl.get(i).accept(this);
+			}
+			return m.e.accept(this);
+		} finally {
+			locals = callerLocals;
+			self = callerSelf;
+		}
+	}
+
+	// ---- variables --------------------------------------------------------
+
+	Object load(String name) {
+		if ( locals.containsKey(name) ) return locals.get(name);
+		if ( self != null && self.fields.containsKey(name) ) return self.fields.get(name);
+		throw new IllegalStateException("Variable " + name + " is not defined.");
+	}
+
+	void store(String name, Object value) {
+		if ( locals.containsKey(name) ) locals.put(name, value);
+		else if ( self != null && self.fields.containsKey(name) ) self.fields.put(name, value);
+		else throw new IllegalStateException("Variable " + name + " is not defined.");
+	}
+
+	long intValue(Exp e) {
+		return (Long)e.accept(this);
+	}
+
+	boolean boolValue(Exp e) {
+		return (Boolean)e.accept(this);
+	}
+
+	// Display added for toy example language. Not used in regular MiniJava
+	public Object visit(Display n) {
+		out.println(n.e.accept(this));
+		return null;
+	}
+
+	// MainClass m;
+	// ClassDeclList cl;
+	public Object visit(Program n) {
+		for (int i = 0; i < n.cl.size(); i++) {
+			define(n.cl.get(i));
+		}
+		n.m.accept(this);
+		return null;
+	}
+
+	// Identifier i1,i2;
+	// Statement s;
+	public Object visit(MainClass n) {
+		locals = new HashMap<String, Object>();
+		self = null;
+		n.s.accept(this);
+		return null;
+	}
+
+	// declarations are handled by define() and invoke()
+	public Object visit(ClassDeclSimple n) {
+		return null;
+	}
+
+	public Object visit(ClassDeclExtends n) {
+		return null;
+	}
+
+	public Object visit(VarDecl n) {
+		return null;
+	}
+
+	public Object visit(MethodDecl n) {
+		return null;
+	}
+
+	public Object visit(Formal n) {
+		return null;
+	}
+
+	public Object visit(IntArrayType n) {
+		return null;
+	}
+
+	public Object visit(BooleanType n) {
+		return null;
+	}
+
+	public Object visit(IntegerType n) {
+		return null;
+	}
+
+	public Object visit(IdentifierType n) {
+		return null;
+	}
+
+	// StatementList sl;
+	public Object visit(Block n) {
+		for (int i = 0; i < n.sl.size(); i++) {
+			n.sl.get(i).accept(this);
+		}
+		return null;
+	}
+
+	// Exp e;
+	// Statement s1,s2;
+	public Object visit(If n) {
+		if ( boolValue(n.e) )
+			n.s1.accept(this);
+		else if ( n.s2 != null )
+			n.s2.accept(this);
+		return null;
+	}
+
+	// Exp e;
+	// Statement s;
+	public Object visit(While n) {
+		while ( boolValue(n.e) ) {
+			n.s.accept(this);
+		}
+		return null;
+	}
+
+	// Exp e;
+	public Object visit(Print n) {
+		out.println(intValue(n.e));
+		return null;
+	}
+
+	// Identifier i;
+	// Exp e;
+	public Object visit(Assign n) {
+		store(n.i.s, n.e.accept(this));
+		return null;
+	}
+
+	// Identifier i;
+	// Exp e1,e2;
+	public Object visit(ArrayAssign n) {
+		long [] a = (long [])load(n.i.s);
+		int index = (int)intValue(n.e1);
+		a[index] = intValue(n.e2);
+		return null;
+	}
+
+	// Exp e1,e2;
+	public Object visit(And n) {
+		boolean left = boolValue(n.e1);
+		return boolValue(n.e2) & left;
+	}
+
+	// Exp e1,e2;
+	public Object visit(LessThan n) {
+		return intValue(n.e1) < intValue(n.e2);
+	}
+
+	// Exp e1,e2;
+	public Object visit(Plus n) {
+		return intValue(n.e1) + intValue(n.e2);
+	}
+
+	// Exp e1,e2;
+	public Object visit(Minus n) {
+		return intValue(n.e1) - intValue(n.e2);
+	}
+
+	// Exp e1,e2;
+	public Object visit(Times n) {
+		return intValue(n.e1) * intValue(n.e2);
+	}
+
+	// Exp e1,e2;
+	public Object visit(ArrayLookup n) {
+		long [] a = (long [])n.e1.accept(this);
+		return a[(int)intValue(n.e2)];
+	}
+
+	// Exp e;
+	public Object visit(ArrayLength n) {
+		return (long)((long [])n.e.accept(this)).length;
+	}
+
+	// Exp e;
+	// Identifier i;
+	// ExpList el;
+	public Object visit(Call n) {
+		Instance o = (Instance)n.e.accept(this);
+		if ( o == null ) {
+			throw new NullPointerException(n.getLineNo() + ": call of " + n.i.s + " on null");
+		}
+		Object [] args = new Object[n.el.size()];
+		for (int i = 0; i < n.el.size(); i++) {
+			args[i] = n.el.get(i).accept(this);
+		}
+		return invoke(o, n.i.s, args);
+	}
+
+	// int i;
+	public Object visit(IntegerLiteral n) {
+		return (long)n.i;
+	}
+
+	public Object visit(True n) {
+		return true;
+	}
+
+	public Object visit(False n) {
+		return false;
+	}
+
+	// String s;
+	public Object visit(IdentifierExp n) {
+		return load(n.s);
+	}
+
+	public Object visit(This n) {
+		return self;
+	}
+
+	// Exp e;
+	public Object visit(NewArray n) {
+		return new long[(int)intValue(n.e)];
+	}
+
+	// Identifier i;
+	public Object visit(NewObject n) {
+		return newInstance(n.i.s);
+	}
+
+	// Exp e;
+	public Object visit(Not n) {
+		return !boolValue(n.e);
+	}
+
+	// String s;
+	public Object visit(Identifier n) {
+		return load(n.s);
+	}
+}
@@ -0,0 +1,293 @@
+package AST.Visitor;
+
+import AST.*;
+
+// Counts the AST nodes of a program, including the list nodes
+// (ClassDeclList, StatementList, ...) that hold the children.  It goes
+// through the tree with a Walk, so any depth of expression will do.
+
+public class NodeCountVisitor implements Visitor {
+
+	public long count = 0;
+
+	private final Walk walk = new Walk(this);
+
+	private void list(ASTNode l) {
+		if ( l != null ) ++count;
+	}
+
+	// Display added for toy example language. Not used in regular MiniJava
+	public void visit(Display n) {
+		++count;
+		walk.visit(n.e);
+	}
+
+	// MainClass m;
+	// ClassDeclList cl;
+	public void visit(Program n) {
+		++count;
+		walk.visit(n.m);
+		list(n.cl);
+		if ( n.cl != null ) {
+			for (int i = 0; i < n.cl.size(); i++) {
+				walk.visit(n.cl.get(i));
+			}
+		}
+	}
+
+	// Identifier i1,i2;
+	// Statement s;
+	public void visit(MainClass n) {
+		++count;
+		walk.visit(n.i1);
+		walk.visit(n.i2);
+		walk.visit(n.s);
+	}
+
+	// Identifier i;
+	// VarDeclList vl;
+	// MethodDeclList ml;
+	public void visit(ClassDeclSimple n) {
+		++count;
+		walk.visit(n.i);
+		list(n.vl);
+		for (int i = 0; i < n.vl.size(); i++) {
+			walk.visit(n.vl.get(i));
+		}
+		list(n.ml);
+		for (int i = 0; i < n.ml.size(); i++) {
+			walk.visit(n.ml.get(i));
+		}
+	}
+
+	// Identifier i;
+	// Identifier j;
+	// VarDeclList vl;
+	// MethodDeclList ml;
+	public void visit(ClassDeclExtends n) {
+		++count;
+		walk.visit(n.i);
+		walk.visit(n.j);
+		list(n.vl);
+		for (int i = 0; i < n.vl.size(); i++) {
+			walk.visit(n.vl.get(i));
+		}
+		list(n.ml);
+		for (int i = 0; i < n.ml.size(); i++) {
+			walk.visit(n.ml.get(i));
+		}
+	}
+
+	// Type t;
+	// Identifier i;
+	public void visit(VarDecl n) {
+		++count;
+		walk.visit(n.t);
+		walk.visit(n.i);
+	}
+
+	// Type t;
+	// Identifier i;
+	// FormalList fl;
+	// VarDeclList vl;
+	// StatementList sl;
+	// Exp e;
+	public void visit(MethodDecl n) {
+		++count;
+		walk.visit(n.t);
+		walk.visit(n.i);
+		list(n.fl);
+		for (int i = 0; i < n.fl.size(); i++) {
+			walk.visit(n.fl.get(i));
+		}
+		list(n.vl);
+		for (int i = 0; i < n.vl.size(); i++) {
+			walk.visit(n.vl.get(i));
+		}
+		list(n.sl);
+		for (int i = 0; i < n.sl.size(); i++) {
+			walk.visit(n.sl.get(i));
+		}
+		walk.visit(n.e);
+	}
+
+	// Type t;
+	// Identifier i;
+	public void visit(Formal n) {
+		++count;
+		walk.visit(n.t);
+		walk.visit(n.i);
+	}
+
+	public void visit(IntArrayType n) {
+		++count;
+	}
+
+	public void visit(BooleanType n) {
+		++count;
+	}
+
+	public void visit(IntegerType n) {
+		++count;
+	}
+
+	// String s;
+	public void visit(IdentifierType n) {
+		++count;
+	}
+
+	// StatementList sl;
+	public void visit(Block n) {
+		++count;
+		list(n.sl);
+		for (int i = 0; i < n.sl.size(); i++) {
+			walk.visit(n.sl.get(i));
+		}
+	}
+
+	// Exp e;
+	// Statement s1,s2;
+	public void visit(If n) {
+		++count;
+		walk.visit(n.e);
+		walk.visit(n.s1);
+		if ( n.s2 != null ) walk.visit(n.s2);
+	}
+
+	// Exp e;
+	// Statement s;
+	public void visit(While n) {
+		++count;
+		walk.visit(n.e);
+		walk.visit(n.s);
+	}
+
+	// Exp e;
+	public void visit(Print n) {
+		++count;
+		walk.visit(n.e);
+	}
+
+	// Identifier i;
+	// Exp e;
+	public void visit(Assign n) {
+		++count;
+		walk.visit(n.i);
+		walk.visit(n.e);
+	}
+
+	// Identifier i;
+	// Exp e1,e2;
+	public void visit(ArrayAssign n) {
+		++count;
+		walk.visit(n.i);
+		walk.visit(n.e1);
+		walk.visit(n.e2);
+	}
+
+	// Exp e1,e2;
+	public void visit(And n) {
+		++count;
+		walk.visit(n.e1);
+		walk.visit(n.e2);
+	}
+
+	// Exp e1,e2;
+	public void visit(LessThan n) {
+		++count;
+		walk.visit(n.e1);
+		walk.visit(n.e2);
+	}
+
+	// Exp e1,e2;
+	public void visit(Plus n) {
+		++count;
+		walk.visit(n.e1);
+		walk.visit(n.e2);
+	}
+
+	// Exp e1,e2;
+	public void visit(Minus n) {
+		++count;
+		walk.visit(n.e1);
+		walk.visit(n.e2);
+	}
+
+	// Exp e1,e2;
+	public void visit(Times n) {
+		++count;
+		walk.visit(n.e1);
+		walk.visit(n.e2);
+	}
+
+	// Exp e1,e2;
+	public void visit(ArrayLookup n) {
+		++count;
+		walk.visit(n.e1);
+		walk.visit(n.e2);
+	}
+
+	// Exp e;
+	public void visit(ArrayLength n) {
+		++count;
+		walk.visit(n.e);
+	}
+
+	// Exp e;
+	// Identifier i;
+	// ExpList el;
+	public void visit(Call n) {
+		++count;
+		walk.visit(n.e);
+		walk.visit(n.i);
+		list(n.el);
+		for (int i = 0; i < n.el.size(); i++) {
+			walk.visit(n.el.get(i));
+		}
+	}
+
+	// int i;
+	public void visit(IntegerLiteral n) {
+		++count;
+	}
+
+	public void visit(True n) {
+		++count;
+	}
+
+	public void visit(False n) {
+		++count;
+	}
+
+	// String s;
+	public void visit(IdentifierExp n) {
+		++count;
+	}
+
+	public void visit(This n) {
+		++count;
+	}
+
+	// Exp e;
+	public void visit(NewArray n) {
+		++count;
+		walk.visit(n.e);
+	}
+
+	// Identifier i;
+	public void visit(NewObject n) {
+		++count;
+		walk.visit(n.i);
+	}
+
+	// Exp e;
+	public void visit(Not n) {
+		++count;
+		walk.visit(n.e);
+	}
+
+	// String s;
+	public void visit(Identifier n) {
+		++count;
+	}
+}
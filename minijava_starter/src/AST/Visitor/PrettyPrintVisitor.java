@@ -1,5 +1,7 @@
 package AST.Visitor;
 
+import java.io.PrintStream;
+
 import AST.*;
 
 
@@ -8,6 +10,19 @@ import AST.*;
 public class PrettyPrintVisitor implements Visitor {
 
 	int tabs = 0;
+	PrintStream out = System.out;
+
+	// the tree is gone through with a Walk, which keeps its own stack, so
+	// statements and expressions are printed in steps between the
+	// children; names and types are leaves, and are printed at once
+	private final Walk walk = new Walk(this);
+
+	public PrettyPrintVisitor() {
+	}
+
+	public PrettyPrintVisitor(PrintStream o) {
+		out = o;
+	}
 
 	public void incTab() {
 		tabs += 1;
@@ -23,24 +38,24 @@ public class PrettyPrintVisitor implements Visitor {
 		String spaces = "";
 		for (int i = 0; i < tabs * 4; i++)
 			spaces += " ";
-		System.out.print(spaces);
+		out.print(spaces);
 	}
 
 	// Display added for toy example language. Not used in regular MiniJava
 	public void visit(Display n) {
 		printTab();
-		System.out.print("display ");
-		n.e.accept(this);
-		System.out.println(";");
+		out.print("display ");
+		walk.visit(n.e);
+		walk.then(() -> out.println(";"));
 	}
 
 	// MainClass m;
 	// ClassDeclList cl;
 	public void visit(Program n) {
-		n.m.accept(this);
+		walk.visit(n.m);
 		for (int i = 0; i < n.cl.size(); i++) {
-			System.out.println();
-			n.cl.get(i).accept(this);
+			walk.then(() -> out.println());
+			walk.visit(n.cl.get(i));
 		}
 	}
 
@@ -48,22 +63,24 @@ public class PrettyPrintVisitor implements Visitor {
 	// Statement s;
 	public void visit(MainClass n) {
 		printTab();
-		System.out.print("class ");
+		out.print("class ");
 		n.i1.accept(this);
-		System.out.println(" {");
+		out.println(" {");
 		incTab();
 		printTab();
-		System.out.print("public static void main (String [] ");
+		out.print("public static void main (String [] ");
 		n.i2.accept(this);
-		System.out.println(") {");
+		out.println(") {");
 		incTab();
-		n.s.accept(this);
-		decTab();
-		printTab();
-		System.out.println("}");
-		decTab();
-		printTab();
-		System.out.println("}");
+		walk.visit(n.s);
+		walk.then(() -> {
+			decTab();
+			printTab();
+			out.println("}");
+			decTab();
+			printTab();
+			out.println("}");
+		});
 	}
 
 	// Identifier i;
@@ -71,20 +88,17 @@ public class PrettyPrintVisitor implements Visitor {
 	// MethodDeclList ml;
 	public void visit(ClassDeclSimple n) {
 		printTab();
-		System.out.print("class ");
+		out.print("class ");
 		n.i.accept(this);
-		System.out.println(" { ");
+		out.println(" { ");
 		incTab();
 		for (int i = 0; i < n.vl.size(); i++) {
-			n.vl.get(i).accept(this);
+			walk.visit(n.vl.get(i));
 		}
 		for (int i = 0; i < n.ml.size(); i++) {
-			n.ml.get(i).accept(this);
+			walk.visit(n.ml.get(i));
 		}
-		decTab();
-		System.out.println();
-		printTab();
-		System.out.println("}");
+		walk.then(() -> endClass());
 	}
 
 	// Identifier i;
@@ -92,23 +106,27 @@ public class PrettyPrintVisitor implements Visitor {
 	// VarDeclList vl;
 	// MethodDeclList ml;
 	public void visit(ClassDeclExtends n) {
-		System.out.print("class ");
+		out.print("class ");
 		n.i.accept(this);
-		System.out.println(" extends ");
+		out.println(" extends ");
 		n.j.accept(this);
-		System.out.println(" { ");
+		out.println(" { ");
 		incTab();
 		for (int i = 0; i < n.vl.size(); i++) {
-			n.vl.get(i).accept(this);
+			walk.visit(n.vl.get(i));
 		}
-		System.out.println();
+		walk.then(() -> out.println());
 		for (int i = 0; i < n.ml.size(); i++) {
-			n.ml.get(i).accept(this);
+			walk.visit(n.ml.get(i));
 		}
+		walk.then(() -> endClass());
+	}
+
+	private void endClass() {
 		decTab();
-		System.out.println();
+		out.println();
 		printTab();
-		System.out.println("}");
+		out.println("}");
 	}
 
 	// Type t;
@@ -116,9 +134,9 @@ public class PrettyPrintVisitor implements Visitor {
 	public void visit(VarDecl n) {
 		printTab();
 		n.t.accept(this);
-		System.out.print(" ");
+		out.print(" ");
 		n.i.accept(this);
-		System.out.println(";");
+		out.println(";");
 	}
 
 	// Type t;
@@ -128,118 +146,130 @@ public class PrettyPrintVisitor implements Visitor {
 	// StatementList sl;
 	// Exp e;
 	public void visit(MethodDecl n) {
-		System.out.println();
+		out.println();
 		printTab();
-		System.out.print("public ");
+		out.print("public ");
 		n.t.accept(this);
-		System.out.print(" ");
+		out.print(" ");
 		n.i.accept(this);
-		System.out.print(" (");
+		out.print(" (");
 		for (int i = 0; i < n.fl.size(); i++) {
 			n.fl.get(i).accept(this);
 			if (i + 1 < n.fl.size()) {
-				System.out.print(", ");
+				out.print(", ");
 			}
 		}
-		System.out.println(") { ");
+		out.println(") { ");
 		incTab();
 		for (int i = 0; i < n.vl.size(); i++) {
-			n.vl.get(i).accept(this);
+			walk.visit(n.vl.get(i));
 		}
-		System.out.println();
+		walk.then(() -> out.println());
 		for (int i = 0; i < n.sl.size(); i++) {
-			n.sl.get(i).accept(this);
+			walk.visit(n.sl.get(i));
 		}
-		System.out.println();
-		printTab();
-		System.out.print("return ");
-		n.e.accept(this);
-		System.out.println(";");
-		decTab();
-		printTab();
-		System.out.println("}");
+		walk.then(() -> {
+			out.println();
+			printTab();
+			out.print("return ");
+		});
+		walk.visit(n.e);
+		walk.then(() -> {
+			out.println(";");
+			decTab();
+			printTab();
+			out.println("}");
+		});
 	}
 
 	// Type t;
 	// Identifier i;
 	public void visit(Formal n) {
 		n.t.accept(this);
-		System.out.print(" ");
+		out.print(" ");
 		n.i.accept(this);
 	}
 
 	public void visit(IntArrayType n) {
-		System.out.print("int []");
+		out.print("int []");
 	}
 
 	public void visit(BooleanType n) {
-		System.out.print("boolean");
+		out.print("boolean");
 	}
 
 	public void visit(IntegerType n) {
-		System.out.print("int");
+		out.print("int");
 	}
 
 	// String s;
 	public void visit(IdentifierType n) {
-		System.out.print(n.s);
+		out.print(n.s);
 	}
 
 	// StatementList sl;
 	public void visit(Block n) {
-		System.out.println("{ ");
+		out.println("{ ");
 		incTab();
 		for (int i = 0; i < n.sl.size(); i++) {
-			n.sl.get(i).accept(this);
+			walk.visit(n.sl.get(i));
 		}
-		decTab();
-		printTab();
-		System.out.println("}");
+		walk.then(() -> {
+			decTab();
+			printTab();
+			out.println("}");
+		});
 	}
 
 	// Exp e;
 	// Statement s1,s2;
 	public void visit(If n) {
 		printTab();
-		System.out.print("if (");
-		n.e.accept(this);
-		System.out.print(") ");
-		if ((n.s1 instanceof Block) == false) {
-			System.out.println();
-			incTab();
-		}
-		n.s1.accept(this);
-		if ((n.s1 instanceof Block) == false) {
-			decTab();
-		}
-		printTab();
-		System.out.print("else ");
-		if ((n.s2 instanceof Block) == false) {
-			System.out.println();
-			incTab();
-		}
-		n.s2.accept(this);
-		if ((n.s2 instanceof Block) == false) {
-			decTab();
-		}
+		out.print("if (");
+		walk.visit(n.e);
+		walk.then(() -> {
+			out.print(") ");
+			if ((n.s1 instanceof Block) == false) {
+				out.println();
+				incTab();
+			}
+		});
+		walk.visit(n.s1);
+		walk.then(() -> {
+			if ((n.s1 instanceof Block) == false) {
+				decTab();
+			}
+			printTab();
+			out.print("else ");
+			if ((n.s2 instanceof Block) == false) {
+				out.println();
+				incTab();
+			}
+		});
+		walk.visit(n.s2);
+		walk.then(() -> {
+			if ((n.s2 instanceof Block) == false) {
+				decTab();
+			}
+		});
 	}
 
 	// Exp e;
 	// Statement s;
 	public void visit(While n) {
 		printTab();
-		System.out.print("while (");
-		n.e.accept(this);
-		System.out.print(") ");
-		n.s.accept(this);
+		out.print("while (");
+		walk.visit(n.e);
+		walk.then(() -> out.print(") "));
+		walk.visit(n.s);
 	}
 
 	// Exp e;
 	public void visit(Print n) {
 		printTab();
-		System.out.print("System.out.println(");
-		n.e.accept(this);
-		System.out.println(");");
+		out.print("System.out.println(");
+		walk.visit(n.e);
+		walk.then(() -> out.println(");"));
 	}
 
 	// Identifier i;
@@ -247,9 +277,9 @@ public class PrettyPrintVisitor implements Visitor {
 	public void visit(Assign n) {
 		printTab();
 		n.i.accept(this);
-		System.out.print(" = ");
-		n.e.accept(this);
-		System.out.println(";");
+		out.print(" = ");
+		walk.visit(n.e);
+		walk.then(() -> out.println(";"));
 	}
 
 	// Identifier i;
@@ -257,133 +287,124 @@ public class PrettyPrintVisitor implements Visitor {
 	public void visit(ArrayAssign n) {
 		printTab();
 		n.i.accept(this);
-		System.out.print("[");
-		n.e1.accept(this);
-		System.out.print("] = ");
-		n.e2.accept(this);
-		System.out.println(";");
+		out.print("[");
+		walk.visit(n.e1);
+		walk.then(() -> out.print("] = "));
+		walk.visit(n.e2);
+		walk.then(() -> out.println(";"));
 	}
 
 	// Exp e1,e2;
 	public void visit(And n) {
-		System.out.print("(");
-		n.e1.accept(this);
-		System.out.print(" && ");
-		n.e2.accept(this);
-		System.out.print(")");
+		binary(n.e1, " && ", n.e2);
 	}
 
 	// Exp e1,e2;
 	public void visit(LessThan n) {
-		System.out.print("(");
-		n.e1.accept(this);
-		System.out.print(" < ");
-		n.e2.accept(this);
-		System.out.print(")");
+		binary(n.e1, " < ", n.e2);
 	}
 
 	// Exp e1,e2;
 	public void visit(Plus n) {
-		System.out.print("(");
-		n.e1.accept(this);
-		System.out.print(" + ");
-		n.e2.accept(this);
-		System.out.print(")");
+		binary(n.e1, " + ", n.e2);
 	}
 
 	// Exp e1,e2;
 	public void visit(Minus n) {
-		System.out.print("(");
-		n.e1.accept(this);
-		System.out.print(" - ");
-		n.e2.accept(this);
-		System.out.print(")");
+		binary(n.e1, " - ", n.e2);
 	}
 
 	// Exp e1,e2;
 	public void visit(Times n) {
-		System.out.print("(");
-		n.e1.accept(this);
-		System.out.print(" * ");
-		n.e2.accept(this);
-		System.out.print(")");
+		binary(n.e1, " * ", n.e2);
+	}
+
+	// (e1 op e2)
+	private void binary(Exp e1, String op, Exp e2) {
+		out.print("(");
+		walk.visit(e1);
+		walk.then(() -> out.print(op));
+		walk.visit(e2);
+		walk.then(() -> out.print(")"));
 	}
 
 	// Exp e1,e2;
 	public void visit(ArrayLookup n) {
-		n.e1.accept(this);
-		System.out.print("[");
-		n.e2.accept(this);
-		System.out.print("]");
+		walk.visit(n.e1);
+		walk.then(() -> out.print("["));
+		walk.visit(n.e2);
+		walk.then(() -> out.print("]"));
 	}
 
 	// Exp e;
 	public void visit(ArrayLength n) {
-		n.e.accept(this);
-		System.out.print(".length");
+		walk.visit(n.e);
+		walk.then(() -> out.print(".length"));
 	}
 
 	// Exp e;
 	// Identifier i;
 	// ExpList el;
 	public void visit(Call n) {
-		n.e.accept(this);
-		System.out.print(".");
-		n.i.accept(this);
-		System.out.print("(");
+		walk.visit(n.e);
+		walk.then(() -> {
+			out.print(".");
+			n.i.accept(this);
+			out.print("(");
+		});
 		for (int i = 0; i < n.el.size(); i++) {
-			n.el.get(i).accept(this);
+			walk.visit(n.el.get(i));
 			if (i + 1 < n.el.size()) {
-				System.out.print(", ");
+				walk.then(() -> out.print(", "));
 			}
 		}
-		System.out.print(")");
+		walk.then(() -> out.print(")"));
 	}
 
 	// int i;
 	public void visit(IntegerLiteral n) {
-		System.out.print(n.i);
+		out.print(n.i);
 	}
 
 	public void visit(True n) {
-		System.out.print("true");
+		out.print("true");
 	}
 
 	public void visit(False n) {
-		System.out.print("false");
+		out.print("false");
 	}
 
 	// String s;
 	public void visit(IdentifierExp n) {
-		System.out.print(n.s);
+		out.print(n.s);
 	}
 
 	public void visit(This n) {
-		System.out.print("this");
+		out.print("this");
 	}
 
 	// Exp e;
 	public void visit(NewArray n) {
-		System.out.print("new int [");
-		n.e.accept(this);
-		System.out.print("]");
+		out.print("new int [");
+		walk.visit(n.e);
+		walk.then(() -> out.print("]"));
 	}
 
 	// Identifier i;
 	public void visit(NewObject n) {
-		System.out.print("new ");
-		System.out.print(n.i.s);
-		System.out.print("()");
+		out.print("new ");
+		out.print(n.i.s);
+		out.print("()");
 	}
 
 	// Exp e;
 	public void visit(Not n) {
-		System.out.print("!");
-		n.e.accept(this);
+		out.print("!");
+		walk.visit(n.e);
 	}
 
 	// String s;
 	public void visit(Identifier n) {
-		System.out.print(n.s);
+		out.print(n.s);
 	}
 }
@@ -0,0 +1,419 @@
+package AST.Visitor;
+
+import java.util.IdentityHashMap;
+
+import AST.*;
+import Symtab.*;
+
+/**
+ * Looks up every name in the program once, after the symbol table is
+ * built, and leaves a Binding on the IdentifierExp, Identifier and Call
+ * nodes.  SemanticAnalysisVisitor and CodeTranslateVisitor read these
+ * instead of looking the names up again.
+ *
+ * Names are found in the scopes the semantic checker uses, with the
+ * superclass's fields after the class's own.  A formal or local's frame
+ * slot is its slot in the method's scope, and a field's object slot is its
+ * offset in the ClassSymbol.  A call is bound
+ * to the method of the class of its receiver, when that class can be told
+ * from the receiver: a variable, this, new C() or another such call.
+ *
+ * A name that isn't declared is left without a Binding; reporting it is
+ * the semantic checker's job.  A method's name in its declaration is
+ * bound too, and each variable and method bound has its type looked up
+ * as a Name (Symbol.resolveType), so the checker compares class types by
+ * name id.
+ */
+public class ResolveVisitor implements Visitor {
+
+	SymbolTable st = null;
+
+	// the tree is gone through with a Walk, which keeps its own stack
+	private final Walk walk = new Walk(this);
+
+	// the class being resolved, and its symbol; null in main
+	private String className = null;
+	private ClassSymbol classSymbol = null;
+
+	// bindings of the current method's formals and locals, of every
+	// field so far, and of everything else; by symbol, not by equal
+	// symbols, as fields of two classes can be equal
+	private IdentityHashMap<Symbol, Binding> frame = new IdentityHashMap<Symbol, Binding>();
+	private IdentityHashMap<Symbol, Binding> fields = new IdentityHashMap<Symbol, Binding>();
+	private IdentityHashMap<Symbol, Binding> others = new IdentityHashMap<Symbol, Binding>();
+
+	public void setSymtab(SymbolTable s) { st = s; }
+
+	public SymbolTable getSymtab() { return st; }
+
+	// the binding of a name in the current scope, or null
+	private Binding resolve(String name, ASTNode node) {
+		Symbol s = st.lookupSymbol(name);
+		if ( s == null ) {
+			// a field of the superclass
+			ASTNode p = node;
+			while ( p != null && !(p instanceof ClassDecl) ) {
+				p = p.getParent();
+			}
+			if ( p instanceof ClassDeclExtends ) {
+				Symbol c = st.lookupSymbol(((ClassDeclExtends)p).j.s);
+				if ( c instanceof ClassSymbol ) {
+					s = ((ClassSymbol)c).getVariable(name);
+				}
+			}
+		}
+		return bind(s);
+	}
+
+	private Binding bind(Symbol s) {
+		if ( s == null ) return null;
+		Binding b = frame.get(s);
+		if ( b == null ) b = fields.get(s);
+		if ( b == null ) b = others.get(s);
+		if ( b == null ) {
+			Binding.Kind k = s instanceof ClassSymbol ? Binding.Kind.CLASS
+				: s instanceof MethodSymbol ? Binding.Kind.METHOD : Binding.Kind.VAR;
+			b = new Binding(k, s, null, Binding.NO_SLOT);
+			if ( k != Binding.Kind.CLASS ) s.resolveType();
+			others.put(s, b);
+		}
+		return b;
+	}
+
+	// look up the types of a method and its parameters as names
+	private static void resolveTypes(MethodSymbol m) {
+		m.resolveType();
+		for ( Symbol p : m.getParameters() ) p.resolveType();
+	}
+
+	// the class called name, seen from the current scope, or null
+	private ClassSymbol classNamed(String name) {
+		Symbol s = ( name != null ) ? st.lookupSymbol(name) : null;
+		return ( s instanceof ClassSymbol ) ? (ClassSymbol)s : null;
+	}
+
+	// the class of a receiver that has been resolved, or null
+	private ClassSymbol classOf(Exp e) {
+		if ( e instanceof IdentifierExp ) {
+			Binding b = ((IdentifierExp)e).binding;
+			return ( b != null ) ? classNamed(b.getSymbol().getType()) : null;
+		}
+		else if ( e instanceof This ) {
+			return classNamed(className);
+		}
+		else if ( e instanceof NewObject ) {
+			return classNamed(((NewObject)e).i.s);
+		}
+		else if ( e instanceof Call ) {
+			Symbol m = ((Call)e).binding.getSymbol();
+			return ( m != null ) ? classNamed(m.getType()) : null;
+		}
+		else if ( e instanceof Not ) {
+			return classOf(((Not)e).e);
+		}
+		return null;
+	}
+
+	// bind the fields of a class to their offsets in the ClassSymbol
+	private void fields(VarDeclList vl) {
+		for (int i = 0; i < vl.size(); i++) {
+			if ( vl.get(i) == null ) continue;
+			Identifier v = vl.get(i).i;
+			VarSymbol s = declaredHere(v.s);
+			if ( s != null && s.getOffset() >= 0 ) {
+				s.resolveType();
+				v.binding = new Binding(Binding.Kind.FIELD, s, classSymbol, s.getOffset());
+				fields.put(s, v.binding);
+			}
+		}
+	}
+
+	// the variable called name declared in the current scope itself, or
+	// null; an outer one with the name is in another scope's slots
+	private VarSymbol declaredHere(String name) {
+		Symbol s = st.lookupSymbol(name);
+		if ( s instanceof VarSymbol && ((VarSymbol)s).getDepth() == st.getDepth() ) {
+			return (VarSymbol)s;
+		}
+		return null;
+	}
+
+	// Display added for toy example language. Not used in regular MiniJava
+	public void visit(Display n) {
+		if ( n.e != null ) walk.visit(n.e);
+	}
+
+	// MainClass m;
+	// ClassDeclList cl;
+	public void visit(Program n) {
+		if ( n.m != null ) walk.visit(n.m);
+		for (int i = 0; i < n.cl.size(); i++) {
+			if ( n.cl.get(i) != null ) walk.visit(n.cl.get(i));
+		}
+	}
+
+	// Identifier i1,i2;
+	// Statement s;
+	public void visit(MainClass n) {
+		if ( n.i1 != null ) walk.visit(n.i1);
+		walk.then(() -> {
+			className = null;
+			classSymbol = null;
+			frame.clear();
+			st = st.findScope(n.i1.s);
+			st = st.findScope("main");
+		});
+		if ( n.s != null ) walk.visit(n.s);
+		walk.then(() -> st = st.exitScope().exitScope());
+	}
+
+	// Identifier i;
+	// VarDeclList vl;
+	// MethodDeclList ml;
+	public void visit(ClassDeclSimple n) {
+		if ( n.i != null ) walk.visit(n.i);
+		walk.then(() -> {
+			enterClass(n.i);
+			fields(n.vl);
+			methods(n.ml);
+		});
+	}
+
+	// Identifier i;
+	// Identifier j;
+	// VarDeclList vl;
+	// MethodDeclList ml;
+	public void visit(ClassDeclExtends n) {
+		if ( n.i != null ) walk.visit(n.i);
+		if ( n.j != null ) walk.visit(n.j);
+		walk.then(() -> {
+			enterClass(n.i);
+			fields(n.vl);
+			methods(n.ml);
+		});
+	}
+
+	private void methods(MethodDeclList ml) {
+		for (int i = 0; i < ml.size(); i++) {
+			if ( ml.get(i) != null ) walk.visit(ml.get(i));
+		}
+		walk.then(() -> st = st.exitScope());
+	}
+
+	private void enterClass(Identifier i) {
+		className = i.s;
+		Symbol c = ( i.binding != null ) ? i.binding.getSymbol() : null;
+		classSymbol = ( c instanceof ClassSymbol ) ? (ClassSymbol)c : null;
+		st = st.findScope(i.s);
+	}
+
+	// Type t;
+	// Identifier i;
+	public void visit(VarDecl n) {
+		frameSlot(n.i);
+	}
+
+	// Type t;
+	// Identifier i;
+	// FormalList fl;
+	// VarDeclList vl;
+	// StatementList sl;
+	// Exp e;
+	public void visit(MethodDecl n) {
+		Symbol m = st.lookupMethod(n.i.s);
+		if ( m instanceof MethodSymbol ) {
+			resolveTypes((MethodSymbol)m);
+			n.i.binding = new Binding(Binding.Kind.METHOD, m, classSymbol, Binding.NO_SLOT);
+		}
+		st = st.findScope(n.i.s);
+		frame.clear();
+		for (int i = 0; i < n.fl.size(); i++) {
+			if ( n.fl.get(i) != null ) walk.visit(n.fl.get(i));
+		}
+		for (int i = 0; i < n.vl.size(); i++) {
+			if ( n.vl.get(i) != null ) walk.visit(n.vl.get(i));
+		}
+		for (int i = 0; i < n.sl.size(); i++) {
+			if ( n.sl.get(i) != null ) walk.visit(n.sl.get(i));
+		}
+		if ( n.e != null ) walk.visit(n.e);
+		walk.then(() -> st = st.exitScope());
+	}
+
+	// Type t;
+	// Identifier i;
+	public void visit(Formal n) {
+		frameSlot(n.i);
+	}
+
+	// bind a formal or local to its slot in the frame
+	private void frameSlot(Identifier v) {
+		VarSymbol s = declaredHere(v.s);
+		if ( s != null ) {
+			s.resolveType();
+			v.binding = new Binding(Binding.Kind.FRAME, s, classSymbol, s.getSlot());
+			frame.put(s, v.binding);
+		}
+	}
+
+	public void visit(IntArrayType n) {
+	}
+
+	public void visit(BooleanType n) {
+	}
+
+	public void visit(IntegerType n) {
+	}
+
+	// String s;
+	public void visit(IdentifierType n) {
+	}
+
+	// StatementList sl;
+	public void visit(Block n) {
+		for (int i = 0; i < n.sl.size(); i++) {
+			if ( n.sl.get(i) != null ) walk.visit(n.sl.get(i));
+		}
+	}
+
+	// Exp e;
+	// Statement s1,s2;
+	public void visit(If n) {
+		if ( n.e != null ) walk.visit(n.e);
+		if ( n.s1 != null ) walk.visit(n.s1);
+		if ( n.s2 != null ) walk.visit(n.s2);
+	}
+
+	// Exp e;
+	// Statement s;
+	public void visit(While n) {
+		if ( n.e != null ) walk.visit(n.e);
+		if ( n.s != null ) walk.visit(n.s);
+	}
+
+	// Exp e;
+	public void visit(Print n) {
+		if ( n.e != null ) walk.visit(n.e);
+	}
+
+	// Identifier i;
+	// Exp e;
+	public void visit(Assign n) {
+		if ( n.i != null ) walk.visit(n.i);
+		if ( n.e != null ) walk.visit(n.e);
+	}
+
+	// Identifier i;
+	// Exp e1,e2;
+	public void visit(ArrayAssign n) {
+		if ( n.i != null ) walk.visit(n.i);
+		if ( n.e1 != null ) walk.visit(n.e1);
+		if ( n.e2 != null ) walk.visit(n.e2);
+	}
+
+	// Exp e1,e2;
+	public void visit(And n) {
+		if ( n.e1 != null ) walk.visit(n.e1);
+		if ( n.e2 != null ) walk.visit(n.e2);
+	}
+
+	// Exp e1,e2;
+	public void visit(LessThan n) {
+		if ( n.e1 != null ) walk.visit(n.e1);
+		if ( n.e2 != null ) walk.visit(n.e2);
+	}
+
+	// Exp e1,e2;
+	public void visit(Plus n) {
+		if ( n.e1 != null ) walk.visit(n.e1);
+		if ( n.e2 != null ) walk.visit(n.e2);
+	}
+
+	// Exp e1,e2;
+	public void visit(Minus n) {
+		if ( n.e1 != null ) walk.visit(n.e1);
+		if ( n.e2 != null ) walk.visit(n.e2);
+	}
+
+	// Exp e1,e2;
+	public void visit(Times n) {
+		if ( n.e1 != null ) walk.visit(n.e1);
+		if ( n.e2 != null ) walk.visit(n.e2);
+	}
+
+	// Exp e1,e2;
+	public void visit(ArrayLookup n) {
+		if ( n.e1 != null ) walk.visit(n.e1);
+		if ( n.e2 != null ) walk.visit(n.e2);
+	}
+
+	// Exp e;
+	public void visit(ArrayLength n) {
+		if ( n.e != null ) walk.visit(n.e);
+	}
+
+	// Exp e;
+	// Identifier i;
+	// ExpList el;
+	public void visit(Call n) {
+		if ( n.e != null ) walk.visit(n.e);
+		walk.then(() -> bindCall(n));
+	}
+
+	// the rest of visit(Call), after its receiver
+	private void bindCall(Call n) {
+		ClassSymbol c = classOf(n.e);
+		Symbol m;
+		if ( c != null ) {
+			m = c.getMethod(n.i.s);
+		}
+		else {
+			// a method of the enclosing classes, as the checker falls back to
+			Symbol s = st.lookupSymbol(n.i.s);
+			m = ( s instanceof MethodSymbol ) ? s : null;
+		}
+		if ( m != null ) resolveTypes((MethodSymbol)m);
+		n.binding = new Binding(Binding.Kind.METHOD, m, c, Binding.NO_SLOT);
+		for (int i = 0; i < n.el.size(); i++) {
+			if ( n.el.get(i) != null ) walk.visit(n.el.get(i));
+		}
+	}
+
+	// int i;
+	public void visit(IntegerLiteral n) {
+	}
+
+	public void visit(True n) {
+	}
+
+	public void visit(False n) {
+	}
+
+	// String s;
+	public void visit(IdentifierExp n) {
+		n.binding = resolve(n.s, n);
+	}
+
+	public void visit(This n) {
+	}
+
+	// Exp e;
+	public void visit(NewArray n) {
+		if ( n.e != null ) walk.visit(n.e);
+	}
+
+	// Identifier i;
+	public void visit(NewObject n) {
+		if ( n.i != null ) walk.visit(n.i);
+	}
+
+	// Exp e;
+	public void visit(Not n) {
+		if ( n.e != null ) walk.visit(n.e);
+	}
+
+	// String s;
+	public void visit(Identifier n) {
+		n.binding = resolve(n.s, n);
+	}
+}
@@ -1,26 +1,66 @@
 package AST.Visitor;
 
+import java.io.PrintStream;
+
 import AST.*;
 import Symtab.*;
 
 public class SemanticAnalysisVisitor implements ObjectVisitor {
 
-	SymbolTable st = null;
+	// the table is only read, so the visitor keeps the scope it is in
+	// itself, and visitors on different classes can share one table
+	FrozenSymbolTable st = null;
+	private int scope = FrozenSymbolTable.ROOT;
 	public int errors = 0;
+
+	// the line of the statement or expression being checked, for the
+	// shared leaves, which have none of their own
+	private int line = 0;
+
+	// the class being checked, as bound by ResolveVisitor; null in main
+	private Name thisClass = null;
+
+	// error messages are written to diag
+	private PrintStream diag = System.out;
+
+	// children are planned on walk rather than visited recursively; a
+	// visit that plans any ends with a step that takes their types and
+	// gives its own
+	private final Walk walk = new Walk(this);
 	
-	public void setSymtab(SymbolTable s)
+	public void setSymtab(FrozenSymbolTable s)
 	{
 		st = s;
 	}
 
-	public SymbolTable getSymtab()
+	public void setSymtab(SymbolTable s)
+	{
+		st = s.freeze();
+	}
+
+	public FrozenSymbolTable getSymtab()
 	{
 		return st;
 	}
 
+	public void setDiagnostics(PrintStream d)
+	{
+		diag = d;
+	}
+
+	/**
+	 * Check the main class or one class of a program, as visit(Program)
+	 * does, so that classes can be checked apart by visitors of their own.
+	 */
+	public void check(Visitable c)
+	{
+		walk.visit(c);
+		walk.take();
+	}
+
 	public void report_error(int line, String msg)
 	{
-		System.out.println(line+": "+msg);
+		diag.println(line+": "+msg);
 		++errors;
 	}
 	
@@ -33,94 +73,115 @@ public class SemanticAnalysisVisitor implements ObjectVisitor {
 		return null;
 	}
 	
+	// the symbol ResolveVisitor bound node to, or null
 	public Symbol getSymbol(ASTNode node) 
 	{
-		String name = null;
-		
-		if ( node == null ) {
-			return null;
+		Binding b = null;
+		if ( node instanceof IdentifierExp ) {
+			b = ((IdentifierExp)node).binding;
 		}
-		else if ( node instanceof IdentifierExp ) {
-			IdentifierExp i = (IdentifierExp)node;
-			name = i.s;
+		else if ( node instanceof Identifier ) {
+			b = ((Identifier)node).binding;
 		}
-		else if  ( node instanceof Identifier ) {
-			Identifier i = (Identifier)node;
-			name = i.s;		
+		return ( b != null ) ? b.getSymbol() : null;
+	}
+
+	// the interned type of e, by the bindings ResolveVisitor left, or null
+	// if it can't be told from them or is a type no identifier has
+	private Name typeKey(Exp e)
+	{
+		if ( e instanceof IdentifierExp || e instanceof Call ) {
+			Binding b = ( e instanceof Call ) ? ((Call)e).binding : ((IdentifierExp)e).binding;
+			Symbol s = ( b != null ) ? b.getSymbol() : null;
+			return ( s != null && !(s instanceof ClassSymbol) ) ? s.getTypeKey() : null;
 		}
-		
-		// symbol was found
-		Symbol s = st.lookupSymbol(name);	
-		if ( s != null ) {
-			return s;
+		else if ( e instanceof NewObject ) {
+			Symbol s = getSymbol(((NewObject)e).i);
+			return ( s instanceof ClassSymbol ) ? s.getKey() : null;
 		}
-
-		// get the parent class
-		ASTNode p = node;
-		while ( p != null && !(p instanceof ClassDecl) ) {
-			p = p.getParent();
+		else if ( e instanceof This ) {
+			return thisClass;
 		}
-
-		// check if the parent class is extended
-		if ( p != null && p instanceof ClassDeclExtends ) {
-			ClassDeclExtends c = (ClassDeclExtends)p;
-			ClassSymbol cs = (ClassSymbol)st.lookupSymbol(c.j.s);			
-			if ( cs != null ) {
-				return cs.getVariable(name);
-			}
+		else if ( e instanceof Not ) {
+			return typeKey(((Not)e).e);
 		}
-		
 		return null;
 	}
+
+	// whether a value of type a, interned as ak, can be used where type b,
+	// interned as bk, is expected; by name id when both were interned, and
+	// by the types' text otherwise
+	private boolean isSubtype(Object a, Name ak, Object b, Name bk)
+	{
+		if ( a == null || b == null ) return false;
+		if ( ak != null && bk != null ) return st.getHierarchy().isSubtype(ak, bk);
+		return st.getHierarchy().isSubtype((String)a, (String)b);
+	}
 	
 	// Display added for toy example language. Not used in regular MiniJava
 	public Object visit(Display n) {
-		if ( n.e != null ) n.e.accept(this);
+		line = n.getLineNo();
+		walk.visit(n.e);
+		walk.then(() -> {
+			walk.take();
+			walk.result(null);
+		});
 		return null;
 	}
 	
 	// MainClass m;
 	// ClassDeclList cl;
 	public Object visit(Program n) {
-		if ( n.m != null ) n.m.accept(this);
+		walk.visit(n.m);
 		for (int i = 0; i < n.cl.size(); i++) {
-			n.cl.get(i).accept(this);
+			walk.visit(n.cl.get(i));
 		}
+		walk.then(() -> {
+			for (int i = 0; i < n.cl.size(); i++) {
+				walk.take();
+			}
+			walk.take();
+			walk.result(null);
+		});
 		return null;
 	}
 
 	// Identifier i1,i2;
 	// Statement s;
 	public Object visit(MainClass n) {
-		Object o = ( n.i1 != null ) ? n.i1.accept(this) : null;
+		walk.visit(n.i1);
 		//n.i2.accept(this); // i2 is the String[] a argument declaration
-		st = st.findScope(n.i1.toString());
-		st = st.findScope("main");
-		if ( n.s != null ) n.s.accept(this);
-		st = st.exitScope();
-		st = st.exitScope();
-		return n.i1.toString();
+		walk.then(() -> {
+			scope = st.findScope(scope, n.i1.toString());
+			scope = st.findScope(scope, "main");
+			thisClass = null;
+		});
+		walk.visit(n.s);
+		walk.then(() -> {
+			walk.take();
+			walk.take();
+			scope = st.getParent(st.getParent(scope));
+			walk.result(n.i1.toString());
+		});
+		return null;
 	}
 
 	// Identifier i;
 	// VarDeclList vl;
 	// MethodDeclList ml;
 	public Object visit(ClassDeclSimple n) {
-		Object o = ( n.i != null ) ? n.i.accept(this) : null;
-		st = st.findScope(n.i.toString());				
-		if ( n.vl != null ) {
-			for (int i = 0; i < n.vl.size(); i++) {
-				if ( n.vl.get(i) != null ) n.vl.get(i).accept(this);
+		walk.visit(n.i);
+		walk.then(() -> enterClass(n.i));
+		int k = members(n.vl, n.ml);
+		walk.then(() -> {
+			for (int i = 0; i < k; i++) {
+				walk.take();
 			}
-		}
-		
-		if ( n.ml != null ) {
-			for (int i = 0; i < n.ml.size(); i++) {
-				if ( n.ml.get(i) != null ) n.ml.get(i).accept(this);
-			}
-		}
-		st = st.exitScope();
-		return o;
+			Object o = walk.take();
+			scope = st.getParent(scope);
+			walk.result(o);
+		});
+		return null;
 	}
 
 	// Identifier i;
@@ -128,25 +189,49 @@ public class SemanticAnalysisVisitor implements ObjectVisitor {
 	// VarDeclList vl;
 	// MethodDeclList ml;
 	public Object visit(ClassDeclExtends n) {
-		Object o = ( n.i != null ) ? n.i.accept(this) : null;
-		if ( n.j != null ) n.j.accept(this);
-		
-		st = st.findScope(n.i.toString());		
-		
-		if ( n.vl != null ) {
-			for (int i = 0; i < n.vl.size(); i++) {
-				if ( n.vl.get(i) != null ) n.vl.get(i).accept(this);
+		walk.visit(n.i);
+		walk.visit(n.j);
+		walk.then(() -> enterClass(n.i));
+		int k = members(n.vl, n.ml);
+		walk.then(() -> {
+			for (int i = 0; i < k; i++) {
+				walk.take();
+			}
+			walk.take();
+			Object o = walk.take();
+			scope = st.getParent(scope);
+			walk.result(o);
+		});
+		return null;
+	}
+
+	private void enterClass(Identifier i) {
+		scope = st.findScope(scope, i.toString());
+		Symbol c = getSymbol(i);
+		thisClass = ( c instanceof ClassSymbol ) ? c.getKey() : null;
+	}
+
+	// plan the fields and methods of a class; returns how many
+	private int members(VarDeclList vl, MethodDeclList ml) {
+		int k = 0;
+		if ( vl != null ) {
+			for (int i = 0; i < vl.size(); i++) {
+				if ( vl.get(i) != null ) {
+					walk.visit(vl.get(i));
+					++k;
+				}
 			}
 		}
 		
-		if ( n.ml != null ) {
-			for (int i = 0; i < n.ml.size(); i++) {
-				if ( n.ml.get(i) != null ) n.ml.get(i).accept(this);
+		if ( ml != null ) {
+			for (int i = 0; i < ml.size(); i++) {
+				if ( ml.get(i) != null ) {
+					walk.visit(ml.get(i));
+					++k;
+				}
 			}
 		}
-		
-		st = st.exitScope();
-		return o;
+		return k;
 	}
 
 	// Type t;
@@ -163,36 +248,59 @@ public class SemanticAnalysisVisitor implements ObjectVisitor {
 	// StatementList sl;
 	// Exp e;
 	public Object visit(MethodDecl n) {
+		line = n.getLineNo();
+		// a type plans nothing, so it is visited directly
 		Object o = ( n.t != null ) ? n.t.accept(this) : null;
 		//if ( n.i != null ) n.i.accept(this);  // method name
-		st = st.findScope(n.i.toString());		
+		scope = st.findScope(scope, n.i.toString());
 		
+		int k = 0;
 		if ( n.fl != null ) {
 			for (int i = 0; i < n.fl.size(); i++) {
-				if ( n.fl.get(i) != null ) n.fl.get(i).accept(this);
+				if ( n.fl.get(i) != null ) {
+					walk.visit(n.fl.get(i));
+					++k;
+				}
 			}
 		}
 		
 		if ( n.vl != null ) {
 			for (int i = 0; i < n.vl.size(); i++) {
-				if ( n.vl.get(i) != null ) n.vl.get(i).accept(this);
+				if ( n.vl.get(i) != null ) {
+					walk.visit(n.vl.get(i));
+					++k;
+				}
 			}
 		}
 		
 		if ( n.sl != null ) {
 			for (int i = 0; i < n.sl.size(); i++) {
-				if ( n.sl.get(i) != null ) n.sl.get(i).accept(this);
+				if ( n.sl.get(i) != null ) {
+					walk.visit(n.sl.get(i));
+					++k;
+				}
 			}
 		}
 		
-		Object r = ( n.e != null ) ? n.e.accept(this) : null;
-		if ( r != null && !r.equals(o) ) {
-			report_error(n.getLineNo(), "Mismatched function call return type for \""+n.i.toString()+"\".");			
-		}
-		
-		st = st.exitScope();
-		
-		return o;
+		walk.visit(n.e);
+		int children = k;
+		walk.then(() -> {
+			Object r = walk.take();
+			for (int i = 0; i < children; i++) {
+				walk.take();
+			}
+			// the declared type, interned, if the method bound is this one
+			Symbol m = getSymbol(n.i);
+			Name ok = ( m != null && m.getType().equals(o) ) ? m.getTypeKey() : null;
+			if ( r != null && !isSubtype(r, typeKey(n.e), o, ok) ) {
+				report_error(n.getLineNo(), "Mismatched function call return type for \""+n.i.toString()+"\".");			
+			}
+			
+			scope = st.getParent(scope);
+			
+			walk.result(o);
+		});
+		return null;
 	}
 
 	// Type t;
@@ -223,266 +331,342 @@ public class SemanticAnalysisVisitor implements ObjectVisitor {
 	// StatementList sl;
 	public Object visit(Block n) {
 		for (int i = 0; i < n.sl.size(); i++) {
-			n.sl.get(i).accept(this);
+			walk.visit(n.sl.get(i));
 		}
+		walk.then(() -> {
+			for (int i = 0; i < n.sl.size(); i++) {
+				walk.take();
+			}
+			walk.result(null);
+		});
 		return null;
 	}
 
 	// Exp e;
 	// Statement s1,s2;
 	public Object visit(If n) {
-		Object o = ( n.e != null ) ? n.e.accept(this) : null;
-		Object o1 = ( n.s1 != null ) ? n.s1.accept(this) : null;
-		Object o2 = (n.s2 != null) ? n.s2.accept(this) : null;
-
-		if ( o == null || 
-			!(o instanceof String) ||
-			!((String)o).equals("Boolean") )
-		{
-			report_error(n.getLineNo(), "Expecting boolean type for if condition.");
-		}
+		line = n.getLineNo();
+		walk.visit(n.e);
+		walk.visit(n.s1);
+		walk.visit(n.s2);
+		walk.then(() -> {
+			walk.take();
+			walk.take();
+			Object o = walk.take();
+
+			if ( o == null || 
+				!(o instanceof String) ||
+				!((String)o).equals("Boolean") )
+			{
+				report_error(n.getLineNo(), "Expecting boolean type for if condition.");
+			}
 
+			walk.result(null);
+		});
 		return null;
 	}
 
 	// Exp e;
 	// Statement s;
 	public Object visit(While n) {
-		Object o1 = ( n.e != null ) ? n.e.accept(this) : null;
-		Object o2 = ( n.s != null ) ? n.s.accept(this) : null;
-		
-		if ( o1 == null || 
-			!(o1 instanceof String) ||
-			!((String)o1).equals("Boolean") )
-		{
-			report_error(n.getLineNo(), "Expecting boolean type for while loop condition.");
-		}
+		line = n.getLineNo();
+		walk.visit(n.e);
+		walk.visit(n.s);
+		walk.then(() -> {
+			walk.take();
+			Object o1 = walk.take();
+		
+			if ( o1 == null || 
+				!(o1 instanceof String) ||
+				!((String)o1).equals("Boolean") )
+			{
+				report_error(n.getLineNo(), "Expecting boolean type for while loop condition.");
+			}
 		
+			walk.result(null);
+		});
 		return null;
 	}
 
 	// Exp e;
 	public Object visit(Print n) {
-		Object o = ( n.e != null ) ? n.e.accept(this) : null;
-		// TODO
-		return "void";
+		line = n.getLineNo();
+		walk.visit(n.e);
+		walk.then(() -> {
+			walk.take();
+			// TODO
+			walk.result("void");
+		});
+		return null;
 	}
 
 	// Identifier i;
 	// Exp e;
 	public Object visit(Assign n) {
-		Object o1 = ( n.i != null ) ? n.i.accept(this) : null;
-		Object o2 = ( n.e != null ) ? n.e.accept(this) : null;
-
-		if ( o1 == null || o2 == null || !o1.equals(o2) ) 
-		{
-			report_error(n.getLineNo(), "Mismatched lhs & rhs in assignment statement.");
-		}
+		line = n.getLineNo();
+		walk.visit(n.i);
+		walk.visit(n.e);
+		walk.then(() -> {
+			Object o2 = walk.take();
+			Object o1 = walk.take();
+
+			// an object of a subclass can be assigned to a variable of its class
+			Symbol s = getSymbol(n.i);
+			if ( !isSubtype(o2, typeKey(n.e), o1, ( s != null ) ? s.getTypeKey() : null) ) 
+			{
+				report_error(n.getLineNo(), "Mismatched lhs & rhs in assignment statement.");
+			}
 		
-		return o1;
+			walk.result(o1);
+		});
+		return null;
 	}
 
 	// Identifier i;
 	// Exp e1,e2;
 	public Object  visit(ArrayAssign n) {
+		line = n.getLineNo();
 		// i[e1] = e2;
-		Object o = ( n.i != null ) ? n.i.accept(this) : null;
-		Object o1 = ( n.e1 != null ) ? n.e1.accept(this) : null;
-		Object o2 = ( n.e2 != null ) ? n.e2.accept(this) : null;
-
-		String t = (o != null && o instanceof String) ? (String)o : null;
-		if ( t == null || t != "int[]" )
-		{
-			report_error(n.getLineNo(), "Undefined array type.");
-		}
-		else
-		{
-			t = t.replaceAll("\\[\\]", "");
-		}
+		walk.visit(n.i);
+		walk.visit(n.e1);
+		walk.visit(n.e2);
+		walk.then(() -> {
+			Object o2 = walk.take();
+			Object o1 = walk.take();
+			Object o = walk.take();
+
+			String t = (o != null && o instanceof String) ? (String)o : null;
+			if ( t == null || t != "int[]" )
+			{
+				report_error(n.getLineNo(), "Undefined array type.");
+			}
+			else
+			{
+				t = t.replaceAll("\\[\\]", "");
+			}
 		
-		if ( o1 == null || 
-			!(o1 instanceof String) ||
-			!((String)o1).equals("int") )
-		{
-			report_error(n.getLineNo(), "Expecting int type for array index.");
-		}
+			if ( o1 == null || 
+				!(o1 instanceof String) ||
+				!((String)o1).equals("int") )
+			{
+				report_error(n.getLineNo(), "Expecting int type for array index.");
+			}
 		
-		if ( t == null || o2 == null || !t.equals(o2) ) 
-		{
-			report_error(n.getLineNo(), "Mismatched lhs & rhs in array assignment statement.");
-		}
+			if ( t == null || o2 == null || !t.equals(o2) ) 
+			{
+				report_error(n.getLineNo(), "Mismatched lhs & rhs in array assignment statement.");
+			}
 		
-		return o;
+			walk.result(o);
+		});
+		return null;
 	}
 
 	// Exp e1,e2;
 	public Object visit(And n) {
-		Object o1 = ( n.e1 != null ) ? n.e1.accept(this) : null;
-		Object o2 = ( n.e2 != null ) ? n.e2.accept(this) : null;
-		
-		String s1 = (o1 != null && o1 instanceof String) ? (String)o1 : "";
-		String s2 = (o2 != null && o2 instanceof String) ? (String)o2 : "";
+		line = n.getLineNo();
+		walk.visit(n.e1);
+		walk.visit(n.e2);
+		walk.then(() -> {
+			Object o2 = walk.take();
+			Object o1 = walk.take();
+		
+			String s1 = (o1 != null && o1 instanceof String) ? (String)o1 : "";
+			String s2 = (o2 != null && o2 instanceof String) ? (String)o2 : "";
+		
+			if ( s1 != s2 || s1 != "Boolean") {
+				report_error(n.getLineNo(), "Expecting boolean operand types in and operation.");
+				walk.result(null);
+				return;
+			}
 		
-		if ( s1 != s2 || s1 != "Boolean") {
-			report_error(n.getLineNo(), "Expecting boolean operand types in and operation.");
-			return null;
+			walk.result(s1);
+		});
+		return null;
+	}
+
+	// check the int operands of n, the last two values on the walk, and
+	// give result if they are ints
+	private void intOperands(Exp n, String operation, String result) {
+		String s2 = checkIntType(walk.take());
+		String s1 = checkIntType(walk.take());
+		if ( s1 != s2 || s1 != "int") {
+			report_error(n.getLineNo(), "Expecting int operand types in "+operation+" operation.");
+			walk.result(null);
+			return;
 		}
 		
-		return s1;
+		walk.result(result);
 	}
 
 	// Exp e1,e2;
 	public Object visit(LessThan n) {
-		String s1 = checkIntType(( n.e1 != null ) ? n.e1.accept(this) : null);
-		String s2 = checkIntType(( n.e2 != null ) ? n.e2.accept(this) : null);
-		if ( s1 != s2 || s1 != "int") {
-			report_error(n.getLineNo(), "Expecting int operand types in compare operation.");
-			return null;
-		}
-		
-		return "Boolean";
+		line = n.getLineNo();
+		walk.visit(n.e1);
+		walk.visit(n.e2);
+		walk.then(() -> intOperands(n, "compare", "Boolean"));
+		return null;
 	}
 
 	// Exp e1,e2;
 	public Object visit(Plus n) {
-		String s1 = checkIntType(( n.e1 != null ) ? n.e1.accept(this) : null);
-		String s2 = checkIntType(( n.e2 != null ) ? n.e2.accept(this) : null);
-		if ( s1 != s2 || s1 != "int") {
-			report_error(n.getLineNo(), "Expecting int operand types in add operation.");
-			return null;
-		}
-		
-		return s1;
+		line = n.getLineNo();
+		walk.visit(n.e1);
+		walk.visit(n.e2);
+		walk.then(() -> intOperands(n, "add", "int"));
+		return null;
 	}
 
 	// Exp e1,e2;
 	public Object visit(Minus n) {
-		String s1 = checkIntType(( n.e1 != null ) ? n.e1.accept(this) : null);
-		String s2 = checkIntType(( n.e2 != null ) ? n.e2.accept(this) : null);
-		if ( s1 != s2 || s1 != "int") {
-			report_error(n.getLineNo(), "Expecting int operand types in subtract operation.");
-			return null;
-		}
-		
-		return s1;
+		line = n.getLineNo();
+		walk.visit(n.e1);
+		walk.visit(n.e2);
+		walk.then(() -> intOperands(n, "subtract", "int"));
+		return null;
 	}
 
 	// Exp e1,e2;
 	public Object visit(Times n) {
-		String s1 = checkIntType(( n.e1 != null ) ? n.e1.accept(this) : null);
-		String s2 = checkIntType(( n.e2 != null ) ? n.e2.accept(this) : null);
-		if ( s1 != s2 || s1 != "int") {
-			report_error(n.getLineNo(), "Expecting int operand types in multiply operation.");
-			return null;
-		}
-		
-		return s1;
+		line = n.getLineNo();
+		walk.visit(n.e1);
+		walk.visit(n.e2);
+		walk.then(() -> intOperands(n, "multiply", "int"));
+		return null;
 	}
 
 	// Exp e1[e2];
 	public Object visit(ArrayLookup n) {
-		Object o1 = ( n.e1 != null ) ? n.e1.accept(this) : null;
-		
-		String t = (o1 != null && o1 instanceof String) ? (String)o1 : null;
-		if ( t == null )
-		{
-			report_error(n.getLineNo(), "Undefined array type.");
-		}
-		else
-		{
-			t = t.replaceAll("\\[\\]", "");
-		}
-
-		Object o2 = ( n.e2 != null ) ? n.e2.accept(this) : null;
-		if ( o2 == null || 
-			!(o2 instanceof String) ||
-			!((String)o2).equals("int") )
-		{
-			report_error(n.getLineNo(), "Expecting int type for array index.");
-		}
+		line = n.getLineNo();
+		walk.visit(n.e1);
+		walk.then(() -> {
+			Object o1 = walk.take();
+		
+			String t = (o1 != null && o1 instanceof String) ? (String)o1 : null;
+			if ( t == null )
+			{
+				report_error(n.getLineNo(), "Undefined array type.");
+			}
+			else
+			{
+				t = t.replaceAll("\\[\\]", "");
+			}
+			// the element type, until the index is checked
+			walk.result(t);
+		});
+
+		walk.visit(n.e2);
+		walk.then(() -> {
+			Object o2 = walk.take();
+			Object t = walk.take();
+			if ( o2 == null || 
+				!(o2 instanceof String) ||
+				!((String)o2).equals("int") )
+			{
+				report_error(n.getLineNo(), "Expecting int type for array index.");
+			}
 		
-		return t;
+			walk.result(t);
+		});
+		return null;
 	}
 
 	// Exp e;
 	public Object visit(ArrayLength n) {
-		if ( n.e != null ) n.e.accept(this);
-		return "int";
+		line = n.getLineNo();
+		walk.visit(n.e);
+		walk.then(() -> {
+			walk.take();
+			walk.result("int");
+		});
+		return null;
 	}
 
 	// Exp e;
 	// Identifier i;
 	// ExpList el;
 	public Object visit(Call n) {
+		line = n.getLineNo();
 		
+		if ( n.e != null ) walk.visit(n.e);
+		walk.then(() -> call(n, (n.e != null) ? (String)walk.take() : ""));
+		return null;
+	}
+
+	// the rest of visit(Call), once the receiver's type c is known
+	private void call(Call n, String c) {
 		// obj.func() -- method call from object type
-		String c = (n.e != null) ? (String)n.e.accept(this) : "";
 		if ( c != null && c != "" ) {
-			Symbol s = st.lookupSymbol(c);
-			if ( s == null || !(s instanceof ClassSymbol) ) {
-				report_error(n.e.getLineNo(), "Class object \""+c+"\" is undefined.");
-				return null;
+			if ( n.binding.getOwner() == null ) {
+				report_error(n.e.getLineNo(n), "Class object \""+c+"\" is undefined.");
+				walk.result(null);
+				return;
 			}
 
-			ClassSymbol cs = (ClassSymbol)s;
-			MethodSymbol ms = cs.getMethod(n.i.s);
+			MethodSymbol ms = (MethodSymbol)n.binding.getSymbol();
 			if ( ms != null ) {
 				// call expression list
 				if ( ms.getParameters().size() != n.el.size() ) {
-					report_error(n.e.getLineNo(), "Function call \""+n.i.s+"\" expecting "+ms.getParameters().size()+" argument(s), but "+n.el.size()+" provided.");
+					report_error(n.e.getLineNo(n), "Function call \""+n.i.s+"\" expecting "+ms.getParameters().size()+" argument(s), but "+n.el.size()+" provided.");
 				}
 				else {
 					for (int i = 0; i < n.el.size(); i++) {
-						String argtype = ms.getParameters().get(i).getType();						
-						String param = (String)n.el.get(i).accept(this);
-						Symbol param_sym = ( param != null ) ? st.lookupSymbol(param) : null;
-
-						if ( param_sym != null && param_sym instanceof ClassSymbol ) {
-							String param_ext = param_sym.getType();
-							if ( !param.equals(argtype) && !param_ext.equals(argtype) ) {
-								report_error(n.e.getLineNo(), "Function call \""+n.i.s+"\" argument "+i+" expecting "+argtype+" type.");
+						int k = i;
+						walk.visit(n.el.get(i));
+						walk.then(() -> {
+							Symbol p = ms.getParameters().get(k);
+							String argtype = p.getType();
+							String param = (String)walk.take();
+
+							// an object of any subclass will do
+							if ( !isSubtype(param, typeKey(n.el.get(k)), argtype, p.getTypeKey()) ) {
+								report_error(n.e.getLineNo(n), "Function call \""+n.i.s+"\" argument "+k+" expecting "+argtype+" type.");
 							}
-						}
-						else if ( !param.equals(argtype) ) {
-							report_error(n.e.getLineNo(), "Function call \""+n.i.s+"\" argument "+i+" expecting "+argtype+" type.");
-						}		
+						});
 					}
 				}
 				
-				return ms.getType();
+				walk.then(() -> walk.result(ms.getType()));
+				return;
 			}
 
 			report_error(n.getLineNo(), "Function call \""+n.i.s+"\" is undefined.");
-			return null;
+			walk.result(null);
+			return;
 		}
 		
 		// func() -- method call with no object
 		//n.i.accept(this); i is the function name
-		Symbol s = st.lookupSymbol(n.i.s);
+		Symbol s = n.binding.getSymbol();
 		if ( s != null && s instanceof MethodSymbol ) {
 			MethodSymbol ms = (MethodSymbol)s;
 			
 			// call expression list
 			if ( ms.getParameters().size() != n.el.size() ) {
-				report_error(n.e.getLineNo(), "Function call \""+n.i.s+"\" expecting "+ms.getParameters().size()+" arguments, but only "+n.el.size()+" were provided.");
+				report_error(n.e.getLineNo(n), "Function call \""+n.i.s+"\" expecting "+ms.getParameters().size()+" arguments, but only "+n.el.size()+" were provided.");
 			}
 			else {
 				for (int i = 0; i < n.el.size(); i++) {
-					Object o = n.el.get(i).accept(this);
-					String argtype = ms.getParameters().get(i).getType();
-					if ( !o.equals(argtype) ) {
-						report_error(n.e.getLineNo(), "Function call \""+n.i.s+"\" argument "+i+" expecting "+argtype+" type.");
-					}
+					int k = i;
+					walk.visit(n.el.get(i));
+					walk.then(() -> {
+						Object o = walk.take();
+						Symbol p = ms.getParameters().get(k);
+						String argtype = p.getType();
+						if ( !isSubtype(o, typeKey(n.el.get(k)), argtype, p.getTypeKey()) ) {
+							report_error(n.e.getLineNo(n), "Function call \""+n.i.s+"\" argument "+k+" expecting "+argtype+" type.");
+						}
+					});
 				}
 			}
 			
-			return ms.getType();
+			walk.then(() -> walk.result(ms.getType()));
+			return;
 		}
 
 		report_error(n.getLineNo(), "Function call \""+n.i.s+"\" is undefined.");
-		return null;
+		walk.result(null);
 	}
-
 	// int i;
 	public Object visit(IntegerLiteral n) {
 		return "int";
@@ -510,7 +694,7 @@ public class SemanticAnalysisVisitor implements ObjectVisitor {
 	public Object visit(This n) {
 		
 		// get the current scope
-		ASTNode a = st.getScope();
+		ASTNode a = st.getScope(scope);
 
 		// Get the parent class
 		while ( a != null && !(a instanceof ClassDecl) ) {
@@ -526,18 +710,23 @@ public class SemanticAnalysisVisitor implements ObjectVisitor {
 			return c.i.toString();
 		}
 		
-		report_error(n.getLineNo(), "Unable to determine \"this\" reference.");
+		report_error(line, "Unable to determine \"this\" reference.");
 		return null;
 	}
 
 	// Exp e;
 	public Object visit(NewArray n) {
+		line = n.getLineNo();
 		// new int[e]
-		Object o = ( n.e != null ) ? n.e.accept(this) : null;
-		if ( o == null || !(o instanceof String) || !((String)o).equals("int") ) {
-			report_error(n.getLineNo(), "New array expecting integer size.");
-		}
-		return "int[]";
+		walk.visit(n.e);
+		walk.then(() -> {
+			Object o = walk.take();
+			if ( o == null || !(o instanceof String) || !((String)o).equals("int") ) {
+				report_error(n.getLineNo(), "New array expecting integer size.");
+			}
+			walk.result("int[]");
+		});
+		return null;
 	}
 
 	// Identifier i;
@@ -552,7 +741,11 @@ public class SemanticAnalysisVisitor implements ObjectVisitor {
 
 	// Exp e;
 	public Object visit(Not n) {
-		return ( n.e != null ) ? n.e.accept(this) : null;
+		line = n.getLineNo();
+		// its type is the operand's, which the walk keeps as this node's
+		walk.visit(n.e);
+		walk.then(() -> {});
+		return null;
 	}
 
 	// String s;
@@ -1,7 +1,6 @@
 package AST.Visitor;
 
-import java.util.HashMap;
-import java.util.Iterator;
+import java.io.PrintStream;
 
 import AST.*;
 import Symtab.*;
@@ -12,15 +11,31 @@ public class SymTableVisitor implements Visitor {
 	SymbolTable st = new SymbolTable();
 	public int errors = 0;
 
+	// children are visited through walk, not recursively, so that
+	// expressions can be nested to any depth
+	private final Walk walk = new Walk(this);
+
+	// error messages are written to diag
+	private PrintStream diag = System.out;
+
 	public SymbolTable getSymtab() {
 		return st;
 	}
 
+	public void setDiagnostics(PrintStream d) {
+		diag = d;
+	}
+
 	public void print()
 	{
 		st.print(0);
 	}
 
+	public void print(PrintStream out)
+	{
+		st.print(0, out);
+	}
+
 	public String getTypeString(Type t) {
 		if ( t == null )
 			return "";
@@ -41,22 +56,22 @@ public class SymTableVisitor implements Visitor {
 
 	public void report_error(int line, String msg)
 	{
-		System.out.println(line+": "+msg);
+		diag.println(line+": "+msg);
 		++errors;
 	}
 
 	// Display added for toy example language. Not used in regular MiniJava
 	public void visit(Display n) {
-		if ( n.e != null ) n.e.accept(this);
+		if ( n.e != null ) walk.visit(n.e);
 	}
 
 	// MainClass m;
 	// ClassDeclList cl;
 	public void visit(Program n) {
-		if ( n.m != null ) n.m.accept(this);
+		if ( n.m != null ) walk.visit(n.m);
 		if (n.cl != null){
 			for (int i = 0; i < n.cl.size(); i++) {
-				n.cl.get(i).accept(this);
+				walk.visit(n.cl.get(i));
 			}
 		}
 	}
@@ -72,22 +87,25 @@ public class SymTableVisitor implements Visitor {
 		st.addSymbol(s);
 		st = st.enterScope("main", n);
 		st.addSymbol(new VarSymbol(n.i2.toString(), "String[]"));
-		if ( n.s != null ) n.s.accept(this);
+		if ( n.s != null ) walk.visit(n.s);
+		walk.then(() -> endMain(c));
+	}
+
+	// the rest of visit(MainClass), after its statement
+	private void endMain(ClassSymbol c) {
 		st = st.exitScope();
 
-		for ( Iterator<String> i = st.getMethodTable().keySet().iterator(); i.hasNext(); ) {
-            String id = (String)i.next();
-            Symbol sym = st.getMethodTable().get(id);
-            if ( sym instanceof MethodSymbol ) {
+		for ( int i = 0; i < st.size(); i++ ) {
+			Symbol sym = st.getSymbol(i);
+			if ( sym instanceof MethodSymbol ) {
 				c.addMethod((MethodSymbol)sym);
 			}
 		}
 
-		for ( Iterator<String> i = st.getVarTable().keySet().iterator(); i.hasNext(); ) {
-            String id = (String)i.next();
-            Symbol sym = st.getVarTable().get(id);
-            if ( sym instanceof VarSymbol ) {
-            	c.addVariable((VarSymbol)sym);
+		for ( int i = 0; i < st.size(); i++ ) {
+			Symbol sym = st.getSymbol(i);
+			if ( sym instanceof VarSymbol ) {
+				c.addVariable((VarSymbol)sym);
 			}
 		}
 
@@ -106,26 +124,28 @@ public class SymTableVisitor implements Visitor {
 		for (int i = 0; i < n.vl.size(); i++) {
 			VarDecl v = n.vl.get(i);
 			if ( v == null ) continue;
-			v.accept(this);
-
-			Symbol sym = st.getVarTable().get(v.i.s);
-            if ( sym instanceof VarSymbol ) {
-            	c.addVariable((VarSymbol)sym);
-			}
+			walk.visit(v);
+			walk.then(() -> {
+				Symbol sym = st.getVariable(Name.of(v.i.s));
+				if ( sym instanceof VarSymbol ) {
+					c.addVariable((VarSymbol)sym);
+				}
+			});
 		}
 
 		for (int i = 0; i < n.ml.size(); i++) {
 			MethodDecl m = n.ml.get(i);
 			if ( m == null ) continue;
-			m.accept(this);
-
-            Symbol sym = st.getMethodTable().get(m.i.s);
-            if ( sym instanceof MethodSymbol ) {
-            	c.addMethod((MethodSymbol)sym);
-			}
+			walk.visit(m);
+			walk.then(() -> {
+				Symbol sym = st.getMethod(Name.of(m.i.s));
+				if ( sym instanceof MethodSymbol ) {
+					c.addMethod((MethodSymbol)sym);
+				}
+			});
 		}
 
-		st = st.exitScope();
+		walk.then(() -> st = st.exitScope());
 	}
 
 	// Identifier i;
@@ -155,32 +175,34 @@ public class SymTableVisitor implements Visitor {
 		for (int i = 0; i < n.vl.size(); i++) {
 			VarDecl v = n.vl.get(i);
 			if ( v == null ) continue;
-			v.accept(this);
-
-			Symbol sym = st.getVarTable().get(v.i.s);
-            if ( sym instanceof VarSymbol ) {
-            	c.addVariable((VarSymbol)sym);
-			}
+			walk.visit(v);
+			walk.then(() -> {
+				Symbol sym = st.getVariable(Name.of(v.i.s));
+				if ( sym instanceof VarSymbol ) {
+					c.addVariable((VarSymbol)sym);
+				}
+			});
 		}
 
 		for (int i = 0; i < n.ml.size(); i++) {
 			MethodDecl m = n.ml.get(i);
 			if ( m == null ) continue;
-			m.accept(this);
-
-            Symbol sym = st.getMethodTable().get(m.i.s);
-            if ( sym instanceof MethodSymbol ) {
-            	MethodSymbol ms = (MethodSymbol)sym;
-            	// check if the method is overriding a method from the extend class
-            	MethodSymbol ms_ext = c.getMethod(ms.getName());
-            	if ( ms_ext != null && !ms_ext.equals(ms) ) {
-            		report_error(m.getLineNo(), "Method override for \""+ms.getName()+"\" does not match previous definition.");
-            	}
-            	else c.addMethod(ms);
-			}
+			walk.visit(m);
+			walk.then(() -> {
+				Symbol sym = st.getMethod(Name.of(m.i.s));
+				if ( sym instanceof MethodSymbol ) {
+					MethodSymbol ms = (MethodSymbol)sym;
+					// check if the method is overriding a method from the extend class
+					MethodSymbol ms_ext = c.getMethod(ms.getKey());
+					if ( ms_ext != null && !ms_ext.sameSignature(ms) ) {
+						report_error(m.getLineNo(), "Method override for \""+ms.getName()+"\" does not match previous definition.");
+					}
+					else c.addMethod(ms);
+				}
+			});
 		}
 
-		st = st.exitScope();
+		walk.then(() -> st = st.exitScope());
 	}
 
 	// Type t;
@@ -202,7 +224,7 @@ public class SymTableVisitor implements Visitor {
 	// StatementList sl;
 	// Exp e;
 	public void visit(MethodDecl n) {
-		Symbol s = st.lookupSymbol(n.i.toString(), "MethodSymbol");
+		Symbol s = st.lookupMethod(n.i.toString());
 		if ( s != null && s instanceof MethodSymbol )
 		{
 			report_error(n.getLineNo(), "Method "+n.i.toString()+" has already been declared.");
@@ -213,6 +235,13 @@ public class SymTableVisitor implements Visitor {
 		for (int i = 0; i < n.fl.size(); i++) {
 			Formal f = n.fl.get(i);
 			if ( f != null ) {
+				for (int j = 0; j < i; j++) {
+					Formal g = n.fl.get(j);
+					if ( g != null && g.i.toString().equals(f.i.toString()) ) {
+						report_error(f.getLineNo(), "Symbol "+f.i.toString()+" has already been declared.");
+						break;
+					}
+				}
 				m.addParameter(new VarSymbol(f.i.toString(), getTypeString(f.t)));
 			}
 		}
@@ -220,15 +249,15 @@ public class SymTableVisitor implements Visitor {
 		st.addSymbol(m);
 		st = st.enterScope(n.i.toString(), n);
 		for (int i = 0; i < n.fl.size(); i++) {
-			n.fl.get(i).accept(this);
+			walk.visit(n.fl.get(i));
 		}
 		for (int i = 0; i < n.vl.size(); i++) {
-			n.vl.get(i).accept(this);
+			walk.visit(n.vl.get(i));
 		}
 		for (int i = 0; i < n.sl.size(); i++) {
-			n.sl.get(i).accept(this);
+			walk.visit(n.sl.get(i));
 		}
-		st = st.exitScope();
+		walk.then(() -> st = st.exitScope());
 	}
 
 	// Type t;
@@ -260,93 +289,93 @@ public class SymTableVisitor implements Visitor {
 	// StatementList sl;
 	public void visit(Block n) {
 		for (int i = 0; i < n.sl.size(); i++) {
-			n.sl.get(i).accept(this);
+			walk.visit(n.sl.get(i));
 		}
 	}
 
 	// Exp e;
 	// Statement s1,s2;
 	public void visit(If n) {
-		n.s1.accept(this);
-		if ( n.s2 != null ) n.s2.accept(this);
+		walk.visit(n.s1);
+		if ( n.s2 != null ) walk.visit(n.s2);
 	}
 
 	// Exp e;
 	// Statement s;
 	public void visit(While n) {
-		if ( n.s != null ) n.s.accept(this);
+		if ( n.s != null ) walk.visit(n.s);
 	}
 
 	// Exp e;
 	public void visit(Print n) {
-		if ( n.e != null ) n.e.accept(this);
+		if ( n.e != null ) walk.visit(n.e);
 	}
 
 
 	// Identifier i;
 	// Exp e;
 	public void visit(Assign n) {
-		if ( n.i != null ) n.i.accept(this);
-		if ( n.e != null ) n.e.accept(this);
+		if ( n.i != null ) walk.visit(n.i);
+		if ( n.e != null ) walk.visit(n.e);
 	}
 
 	// Identifier i;
 	// Exp e1,e2;
 	public void visit(ArrayAssign n) {
-		if ( n.i != null ) n.i.accept(this);
-		n.e1.accept(this);
-		n.e2.accept(this);
+		if ( n.i != null ) walk.visit(n.i);
+		walk.visit(n.e1);
+		walk.visit(n.e2);
 	}
 
 	// Exp e1,e2;
 	public void visit(And n) {
-		n.e1.accept(this);
-		n.e2.accept(this);
+		walk.visit(n.e1);
+		walk.visit(n.e2);
 	}
 
 	// Exp e1,e2;
 	public void visit(LessThan n) {
-		n.e1.accept(this);
-		n.e2.accept(this);
+		walk.visit(n.e1);
+		walk.visit(n.e2);
 	}
 
 	// Exp e1,e2;
 	public void visit(Plus n) {
-		n.e1.accept(this);
-		n.e2.accept(this);
+		walk.visit(n.e1);
+		walk.visit(n.e2);
 	}
 
 	// Exp e1,e2;
 	public void visit(Minus n) {
-		n.e1.accept(this);
-		n.e2.accept(this);
+		walk.visit(n.e1);
+		walk.visit(n.e2);
 	}
 
 	// Exp e1,e2;
 	public void visit(Times n) {
-		n.e1.accept(this);
-		n.e2.accept(this);
+		walk.visit(n.e1);
+		walk.visit(n.e2);
 	}
 
 	// Exp e1,e2;
 	public void visit(ArrayLookup n) {
-		n.e1.accept(this);
-		n.e2.accept(this);
+		walk.visit(n.e1);
+		walk.visit(n.e2);
 	}
 
 	// Exp e;
 	public void visit(ArrayLength n) {
-		if ( n.e != null ) n.e.accept(this);
+		if ( n.e != null ) walk.visit(n.e);
 	}
 
 	// Exp e;
 	// Identifier i;
 	// ExpList el;
 	public void visit(Call n) {
-		if ( n.e != null ) n.e.accept(this);
-		if ( n.i != null ) n.i.accept(this);
+		if ( n.e != null ) walk.visit(n.e);
+		if ( n.i != null ) walk.visit(n.i);
 		for (int i = 0; i < n.el.size(); i++) {
-			n.el.get(i).accept(this);
+			walk.visit(n.el.get(i));
 		}
 	}
 
@@ -365,17 +394,17 @@ public class SymTableVisitor implements Visitor {
 
 	// Exp e;
 	public void visit(NewArray n) {
-		if ( n.e != null ) n.e.accept(this);
+		if ( n.e != null ) walk.visit(n.e);
 	}
 
 	// Identifier i = new Identifier();
 	public void visit(NewObject n) {
-		if ( n.i != null ) n.i.accept(this);
+		if ( n.i != null ) walk.visit(n.i);
 	}
 
 	// Exp e;
 	public void visit(Not n) {
-		if ( n.e != null ) n.e.accept(this);
+		if ( n.e != null ) walk.visit(n.e);
 	}
 
 	// String s;
@@ -0,0 +1,165 @@
+package AST.Visitor;
+
+import java.util.Arrays;
+
+import AST.Visitable;
+
+/**
+ * A traversal with an explicit work stack, so that a visitor can go
+ * through statements and expressions of any depth without using the
+ * thread's stack for each level.
+ *
+ * A visit method doesn't call accept on a node's children.  It plans them
+ * instead, in the order they are to happen, with visit(child) for a child
+ * and then(...) for the work to be done between and after them:
+ *
+ *     public void visit(Plus n) {
+ *         walk.visit(n.e1);
+ *         walk.then(() -> pushq("%rax"));
+ *         walk.visit(n.e2);
+ *         walk.then(() -> { popq("%rdx"); gen("addq", "%rdx", "%rax"); });
+ *     }
+ *
+ * When the method returns, its plan goes on the stack, and the walk does
+ * it step by step.  A step can plan more steps in turn, which are done
+ * before the rest of what was planned before it.  So a visitor does its
+ * work in the order recursive calls would, and the stack grows with the
+ * depth of the tree without the thread's stack doing so.
+ *
+ * For an ObjectVisitor the walk also keeps the value of each node visited.
+ * A visit method that plans nothing returns its value as usual.  One that
+ * plans steps returns null, and its last step takes the values of the
+ * children it visited, last first, with take() and gives its own with
+ * result().  A null child counts as a child whose value is null.
+ *
+ * Called outside a walk, visit() does the whole walk from the node at
+ * once, keeping its value as usual, and then() does the work at once.
+ * This is how a walk starts: program.accept(v) calls v.visit(Program),
+ * which visits the main class and then each class, each in a walk of
+ * its own.
+ */
+public final class Walk {
+
+	// work to do, from the top: nodes to visit, Runnables to run, and
+	// NULL for a missing child
+	private Object[] work = new Object[64];
+	private int top = 0;
+
+	// what the step being done has planned so far
+	private Object[] plan = new Object[16];
+	private int planned = 0;
+
+	// values of the nodes visited, for an ObjectVisitor
+	private Object[] values = new Object[64];
+	private int count = 0;
+
+	private final Visitor visitor;
+	private final ObjectVisitor objectVisitor;
+	private boolean running = false;
+
+	private static final Object NULL = new Object();
+
+	public Walk(Visitor v) {
+		visitor = v;
+		objectVisitor = null;
+	}
+
+	public Walk(ObjectVisitor v) {
+		visitor = null;
+		objectVisitor = v;
+	}
+
+	/** Visit n, after what has been planned so far; n may be null. */
+	public void visit(Visitable n) {
+		if ( running ) {
+			add(n == null ? NULL : n);
+		}
+		else {
+			Object v = run(n);
+			if ( objectVisitor != null ) result(v);
+		}
+	}
+
+	/** Run r, after what has been planned so far. */
+	public void then(Runnable r) {
+		if ( running ) {
+			add(r);
+		}
+		else {
+			r.run();
+		}
+	}
+
+	/** The value of the last child visited and not yet taken. */
+	public Object take() {
+		Object v = values[--count];
+		values[count] = null;
+		return v;
+	}
+
+	/** Give the value of the node whose last step this is. */
+	public void result(Object v) {
+		if ( count == values.length ) values = Arrays.copyOf(values, count * 2);
+		values[count++] = v;
+	}
+
+	/**
+	 * Walk the tree from n to the end and return n's value, or null for
+	 * a Visitor.
+	 */
+	public Object run(Visitable n) {
+		if ( running ) {
+			throw new IllegalStateException("walk already running");
+		}
+		int base = count;
+		running = true;
+		try {
+			push(n == null ? NULL : n);
+			while ( top > 0 ) {
+				Object w = work[--top];
+				work[top] = null;
+				if ( w instanceof Visitable ) {
+					Visitable node = (Visitable)w;
+					if ( objectVisitor != null ) {
+						Object v = node.accept(objectVisitor);
+						if ( planned == 0 ) result(v);
+					}
+					else {
+						node.accept(visitor);
+					}
+				}
+				else if ( w == NULL ) {
+					if ( objectVisitor != null ) result(null);
+				}
+				else {
+					((Runnable)w).run();
+				}
+				// the plan goes on the stack last step first
+				while ( planned > 0 ) {
+					push(plan[--planned]);
+					plan[planned] = null;
+				}
+			}
+			return ( count > base ) ? take() : null;
+		} finally {
+			// after an exception, leave nothing behind for the next walk
+			running = false;
+			Arrays.fill(work, 0, top, null);
+			top = 0;
+			Arrays.fill(plan, 0, planned, null);
+			planned = 0;
+			Arrays.fill(values, base, Math.max(base, count), null);
+			count = Math.min(count, base);
+		}
+	}
+
+	private void add(Object w) {
+		if ( planned == plan.length ) plan = Arrays.copyOf(plan, planned * 2);
+		plan[planned++] = w;
+	}
+
+	private void push(Object w) {
+		if ( top == work.length ) work = Arrays.copyOf(work, top * 2);
+		work[top++] = w;
+	}
+}
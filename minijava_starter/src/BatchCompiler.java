@@ -0,0 +1,165 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import Codegen.AsmEmitter;
+import Codegen.FileChannelSink;
+
+/**
+ * Batch mode for the -C option.  Compiles every source in a directory
+ * (or in a list of files) inside one JVM, so the cost of starting the JVM
+ * and initializing the CUP tables is paid once instead of once per file.
+ * Each source is compiled on a work-stealing pool and its assembly is
+ * written next to it, with the .java suffix replaced by .s.
+ */
+public class BatchCompiler {
+
+	/**
+	 * True if the -C arguments name more than one source, a directory,
+	 * or an @list_file instead of a single source file.
+	 */
+	public static boolean isBatch(String [] args)
+	{
+		if ( args.length > 2 )
+			return true;
+		return args[1].startsWith("@") || new File(args[1]).isDirectory();
+	}
+
+	/** Outcome of compiling one source file. */
+	static class Result {
+		String source;
+		String asm;
+		int errors;
+		long nanos;
+		long bytes;
+		String messages;
+		Throwable failure;
+		PhaseStats stats;
+	}
+
+	public static int run(String [] args, CompileOptions options)
+	{
+		List<String> sources = new ArrayList<String>();
+		try {
+			for ( int i = 1; i < args.length; i++ ) {
+				collect(args[i], sources);
+			}
+		} catch (IOException e) {
+			System.err.println("Unable to read batch input: " + e.toString());
+			return 1;
+		}
+
+		if ( sources.isEmpty() ) {
+			System.err.println("No source files found.");
+			return 1;
+		}
+
+		long start = System.nanoTime();
+		List<Future<Result>> pending = new ArrayList<Future<Result>>();
+		ExecutorService pool = Executors.newWorkStealingPool();
+		for ( String source : sources ) {
+			pending.add(pool.submit(() -> compile(source, options)));
+		}
+
+		// report in input order, as each file completes
+		int failed = 0;
+		long bytes = 0;
+		for ( Future<Result> f : pending ) {
+			Result r;
+			try {
+				r = f.get();
+			} catch (Exception e) {
+				// compile() catches everything, so this is a bug
+				System.err.println("Unexpected internal compiler error: " + e.toString());
+				++failed;
+				continue;
+			}
+			bytes += r.bytes;
+			if ( r.failure == null && r.errors == 0 ) {
+				System.out.printf("ok    %s -> %s (%.1f ms)%n", r.source, r.asm, r.nanos / 1e6);
+			}
+			else {
+				++failed;
+				if ( r.failure != null )
+					System.out.printf("FAIL  %s: %s%n", r.source, r.failure.toString());
+				else
+					System.out.printf("FAIL  %s: %d errors%n", r.source, r.errors);
+			}
+			if ( !r.messages.isEmpty() )
+				System.out.print(r.messages);
+			if ( r.stats != null )
+				System.err.println(r.stats.toJson());
+		}
+		pool.shutdown();
+
+		double secs = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%nCompiled %d files (%d failed) in %.3f s: %.1f files/s, %.1f KB/s on %d threads%n",
+				sources.size(), failed, secs, sources.size() / secs, bytes / 1024.0 / secs,
+				Runtime.getRuntime().availableProcessors());
+
+		return failed == 0 ? 0 : 1;
+	}
+
+	/**
+	 * Add the sources named by one argument: every .java file under a
+	 * directory, every line of an @list_file, or the file itself.
+	 */
+	static void collect(String arg, List<String> sources) throws IOException
+	{
+		if ( arg.startsWith("@") ) {
+			for ( String line : Files.readAllLines(Paths.get(arg.substring(1))) ) {
+				line = line.trim();
+				if ( !line.isEmpty() ) collect(line, sources);
+			}
+		}
+		else if ( new File(arg).isDirectory() ) {
+			try ( Stream<Path> walk = Files.walk(Paths.get(arg)) ) {
+				walk.filter(p -> p.toString().endsWith(".java") && Files.isRegularFile(p))
+					.sorted()
+					.forEach(p -> sources.add(p.toString()));
+			}
+		}
+		else {
+			sources.add(arg);
+		}
+	}
+
+	static String asmFileName(String source)
+	{
+		if ( source.endsWith(".java") )
+			return source.substring(0, source.length() - ".java".length()) + ".s";
+		return source + ".s";
+	}
+
+	static Result compile(String source, CompileOptions options)
+	{
+		Result r = new Result();
+		r.source = source;
+		r.asm = asmFileName(source);
+		r.stats = options.stats ? new PhaseStats(source, "-C") : null;
+		ByteArrayOutputStream messages = new ByteArrayOutputStream();
+		long start = System.nanoTime();
+		try ( Reader in = options.openSource(source);
+			  PrintStream diag = new PrintStream(messages) ) {
+			r.bytes = new File(source).length();
+			AsmEmitter asm = new AsmEmitter(new FileChannelSink(Paths.get(r.asm)));
+			try {
+				r.errors = MiniJava.CodeGen(in, asm, diag, options, r.stats);
+			} finally {
+				asm.close();
+			}
+		} catch (Throwable e) {
+			r.failure = e;
+			// don't leave a truncated .s behind for the build to pick up
+			new File(r.asm).delete();
+		}
+		r.nanos = System.nanoTime() - start;
+		r.messages = messages.toString();
+		return r;
+	}
+}
@@ -0,0 +1,280 @@
+package Codegen;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered writer for x86-64 assembly text.  Instructions, labels and
+ * immediates are copied straight into one reusable byte buffer, which is
+ * handed to the sink whenever it fills up, so generating code does not
+ * build a String per line.  Output is plain ASCII text with \n line ends.
+ *
+ * Not thread safe; use one emitter per compile.
+ */
+public class AsmEmitter {
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final AsmSink sink;
+	private final byte[] buf;
+	private int pos = 0;
+
+	// counts for -X:stats
+	private long instructions = 0, labels = 0;
+
+	// scratch space for formatting integers
+	private final byte[] digits = new byte[11];
+
+	public AsmEmitter(AsmSink s) {
+		this(s, BUFFER_SIZE);
+	}
+
+	public AsmEmitter(AsmSink s, int bufferSize) {
+		sink = s;
+		buf = new byte[Math.max(bufferSize, 64)];
+	}
+
+	public AsmSink getSink() {
+		return sink;
+	}
+
+	public long getInstructionCount() {
+		return instructions;
+	}
+
+	public long getLabelCount() {
+		return labels;
+	}
+
+	// ---- lines ----------------------------------------------------------
+
+	/** A line of raw text: a label, directive or preformatted instruction. */
+	public void line(String s) {
+		put(s);
+		newline();
+	}
+
+	public void line(String a, String b) {
+		put(a); put(b);
+		newline();
+	}
+
+	public void line(String a, String b, String c) {
+		put(a); put(b); put(c);
+		newline();
+	}
+
+	public void line(String a, String b, String c, String d) {
+		put(a); put(b); put(c); put(d);
+		newline();
+	}
+
+	/** The numbered local label "L<n>:". */
+	public void label(int n) {
+		++labels;
+		put('L'); put(n); put(':');
+		newline();
+	}
+
+	/** "name:" */
+	public void label(String name) {
+		++labels;
+		put(name); put(':');
+		newline();
+	}
+
+	/** "cls$method:" */
+	public void label(String cls, String method) {
+		++labels;
+		put(cls); put('$'); put(method); put(':');
+		newline();
+	}
+
+	/** "name: .quad value", a label on a data word. */
+	public void dataLabel(String name, String value) {
+		++labels;
+		put(name); put(": .quad "); put(value);
+		newline();
+	}
+
+	// ---- instructions ---------------------------------------------------
+
+	/** A preformatted instruction, written as is. */
+	public void insn(String text) {
+		++instructions;
+		put(text);
+		newline();
+	}
+
+	/** "\top a" */
+	public void insn(String op, String a) {
+		++instructions;
+		put('\t'); put(op); put(' '); put(a);
+		newline();
+	}
+
+	/** "\top a,b" */
+	public void insn(String op, String a, String b) {
+		++instructions;
+		put('\t'); put(op); put(' '); put(a); put(','); put(b);
+		newline();
+	}
+
+	/** "\top $imm,b" */
+	public void insn(String op, int imm, String b) {
+		++instructions;
+		put('\t'); put(op); put(' '); put('$'); put(imm); put(','); put(b);
+		newline();
+	}
+
+	/** "\top disp(base),dst", a load from memory. */
+	public void insn(String op, int disp, String base, String dst) {
+		++instructions;
+		put('\t'); put(op); put(' '); put(disp); put('('); put(base); put(')'); put(','); put(dst);
+		newline();
+	}
+
+	/** "\top src,disp(base)", a store to memory. */
+	public void insn(String op, String src, int disp, String base) {
+		++instructions;
+		put('\t'); put(op); put(' '); put(src); put(','); put(disp); put('('); put(base); put(')');
+		newline();
+	}
+
+	/** "\top L<n>", a jump to a numbered local label. */
+	public void jump(String op, int label) {
+		++instructions;
+		put('\t'); put(op); put(' '); put('L'); put(label);
+		newline();
+	}
+
+	/** "\tcall cls$method" */
+	public void call(String cls, String method) {
+		++instructions;
+		put('\t'); put("call"); put(' '); put(cls); put('$'); put(method);
+		newline();
+	}
+
+	/** "\t.quad cls$method", a vtable entry. */
+	public void quad(String cls, String method) {
+		put('\t'); put(".quad "); put(cls); put('$'); put(method);
+		newline();
+	}
+
+	// ---- buffer management ----------------------------------------------
+
+	/** Hand everything written so far to the sink. */
+	public void flush() {
+		try {
+			drain();
+			sink.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public void close() {
+		try {
+			drain();
+			sink.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Write what part has written, which went to a MemorySink, after what
+	 * this emitter has, and count part's instructions and labels here.
+	 * For putting together a program translated a class at a time.
+	 */
+	public void append(AsmEmitter part) {
+		part.flush();
+		instructions += part.instructions;
+		labels += part.labels;
+		try {
+			drain();
+			((MemorySink)part.sink).writeTo(sink);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void drain() throws IOException {
+		if ( pos > 0 ) {
+			sink.write(buf, 0, pos);
+			pos = 0;
+		}
+	}
+
+	private void ensure(int n) {
+		if ( pos + n > buf.length ) {
+			try {
+				drain();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	private void newline() {
+		put('\n');
+	}
+
+	private void put(char c) {
+		ensure(1);
+		buf[pos++] = (byte)c;
+	}
+
+	private void put(String s) {
+		if ( s == null ) {
+			// same as string concatenation would print
+			s = "null";
+		}
+		int n = s.length();
+		if ( n > buf.length ) {
+			putLarge(s);
+			return;
+		}
+		ensure(n);
+		for ( int i = 0; i < n; i++ ) {
+			char c = s.charAt(i);
+			if ( c >= 0x80 ) {
+				// not expected in assembly, but don't mangle it
+				putLarge(s);
+				return;
+			}
+			buf[pos + i] = (byte)c;
+		}
+		pos += n;
+	}
+
+	private void putLarge(String s) {
+		byte[] b = s.getBytes(StandardCharsets.UTF_8);
+		try {
+			drain();
+			sink.write(b, 0, b.length);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void put(int v) {
+		ensure(11);
+		if ( v == Integer.MIN_VALUE ) {
+			put("-2147483648");
+			return;
+		}
+		if ( v < 0 ) {
+			buf[pos++] = '-';
+			v = -v;
+		}
+		int n = 0;
+		do {
+			digits[n++] = (byte)('0' + v % 10);
+			v /= 10;
+		} while ( v != 0 );
+		while ( n > 0 ) {
+			buf[pos++] = digits[--n];
+		}
+	}
+}
@@ -0,0 +1,13 @@
+package Codegen;
+
+import java.io.IOException;
+
+/**
+ * Destination for the bytes produced by an AsmEmitter.  The emitter
+ * hands over whole buffers, so implementations see few, large writes.
+ */
+public interface AsmSink {
+	public void write(byte[] b, int off, int len) throws IOException;
+	public void flush() throws IOException;
+	public void close() throws IOException;
+}
@@ -0,0 +1,35 @@
+package Codegen;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/** Writes assembly straight to a file channel. */
+public class FileChannelSink implements AsmSink {
+	private final FileChannel channel;
+
+	public FileChannelSink(FileChannel c) {
+		channel = c;
+	}
+
+	public FileChannelSink(Path p) throws IOException {
+		this(FileChannel.open(p, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+							  StandardOpenOption.TRUNCATE_EXISTING));
+	}
+
+	public void write(byte[] b, int off, int len) throws IOException {
+		ByteBuffer bb = ByteBuffer.wrap(b, off, len);
+		while ( bb.hasRemaining() ) {
+			channel.write(bb);
+		}
+	}
+
+	public void flush() throws IOException {
+	}
+
+	public void close() throws IOException {
+		channel.close();
+	}
+}
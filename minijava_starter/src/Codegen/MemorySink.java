@@ -0,0 +1,59 @@
+package Codegen;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/** Collects assembly in a growable in-memory byte array. */
+public class MemorySink implements AsmSink {
+	private byte[] data;
+	private int size = 0;
+
+	public MemorySink() {
+		this(1 << 16);
+	}
+
+	public MemorySink(int capacity) {
+		data = new byte[capacity];
+	}
+
+	public void write(byte[] b, int off, int len) {
+		if ( size + len > data.length ) {
+			data = Arrays.copyOf(data, Math.max(data.length * 2, size + len));
+		}
+		System.arraycopy(b, off, data, size, len);
+		size += len;
+	}
+
+	public void flush() {
+	}
+
+	public void close() {
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/** Forget the contents but keep the storage for the next compile. */
+	public void reset() {
+		size = 0;
+	}
+
+	public byte[] toByteArray() {
+		return Arrays.copyOf(data, size);
+	}
+
+	public void writeTo(OutputStream out) throws IOException {
+		out.write(data, 0, size);
+	}
+
+	public void writeTo(AsmSink out) throws IOException {
+		out.write(data, 0, size);
+	}
+
+	public String toString() {
+		return new String(data, 0, size, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,28 @@
+package Codegen;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes assembly to an OutputStream such as System.out.  Closing the sink
+ * only flushes the stream, since it is usually not ours to close.
+ */
+public class StreamSink implements AsmSink {
+	private final OutputStream out;
+
+	public StreamSink(OutputStream o) {
+		out = o;
+	}
+
+	public void write(byte[] b, int off, int len) throws IOException {
+		out.write(b, off, len);
+	}
+
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	public void close() throws IOException {
+		out.flush();
+	}
+}
@@ -0,0 +1,104 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import AST.ASTCache;
+import Scanner.MappedSource;
+
+/**
+ * The -X: options that may be given along with any MiniJava mode, e.g.
+ *
+ *     java MiniJava -X:stats -C Factorial.java
+ */
+public class CompileOptions {
+
+	public static final String help =
+		"Options (any mode):\n" +
+		"  -X:stats    print per-phase times and counters as JSON on stderr\n" +
+		"  -X:mmap     scan ASCII source files straight from a memory mapping\n" +
+		"  -X:tokenbuffer  scan into int arrays before printing or parsing\n" +
+		"  -X:descent  parse with the hand-written parser instead of CUP's\n" +
+		"  -X:parallelparse  scan and parse the classes on several threads\n" +
+		"  -X:pipeline  scan on a second thread while parsing\n" +
+		"  -X:parallelclasses  check and translate the classes on several threads\n" +
+		"  -X:astcache[=dir]  load the ASTs of sources parsed before from dir\n" +
+		"              (default: minijava-ast-<user> in the temporary directory)\n";
+
+	/** -X:stats: report per-phase times and counters as JSON */
+	public boolean stats = false;
+
+	/** -X:mmap: map source files and scan their bytes, see Scanner.MappedSource */
+	public boolean mmap = false;
+
+	/** -X:tokenbuffer: scan the whole source into a TokenBuffer first */
+	public boolean tokenBuffer = false;
+
+	/** -X:descent: parse with Parser.DescentParser (scans into a TokenBuffer) */
+	public boolean descent = false;
+
+	/** -X:parallelparse: parse the classes with Parser.ParallelParser */
+	public boolean parallelParse = false;
+
+	/** -X:pipeline: scan on a thread of its own, through Scanner.TokenPipeline */
+	public boolean pipeline = false;
+
+	/** -X:parallelclasses: check and translate the classes with ParallelClasses */
+	public boolean parallelClasses = false;
+
+	/** -X:astcache: where parsed programs are kept by source hash, or null */
+	public ASTCache astCache = null;
+
+	public static boolean isOption(String arg)
+	{
+		return arg.startsWith("-X:");
+	}
+
+	/**
+	 * Set the options found in args and return the remaining arguments.
+	 *
+	 * @throws IllegalArgumentException for an unknown -X: option
+	 */
+	public String [] parse(String [] args)
+	{
+		List<String> rest = new ArrayList<String>();
+		for ( String arg : args ) {
+			if ( isOption(arg) )
+				set(arg);
+			else
+				rest.add(arg);
+		}
+		return rest.toArray(new String[0]);
+	}
+
+	public void set(String option)
+	{
+		if ( option.startsWith("-X:astcache=") ) {
+			astCache = new ASTCache(Paths.get(option.substring("-X:astcache=".length())));
+			return;
+		}
+		switch ( option ) {
+		case "-X:stats": stats = true; break;
+		case "-X:mmap": mmap = true; break;
+		case "-X:tokenbuffer": tokenBuffer = true; break;
+		case "-X:descent": descent = true; break;
+		case "-X:parallelparse": parallelParse = true; break;
+		case "-X:pipeline": pipeline = true; break;
+		case "-X:parallelclasses": parallelClasses = true; break;
+		case "-X:astcache": astCache = ASTCache.inTempDir(); break;
+		default:
+			throw new IllegalArgumentException("Unknown option " + option);
+		}
+	}
+
+	/** Open a source file for the scanner. */
+	public Reader openSource(String file) throws IOException
+	{
+		if ( mmap )
+			return MappedSource.open(Paths.get(file));
+		return new BufferedReader(new FileReader(file));
+	}
+}
@@ -0,0 +1,288 @@
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import AST.ASTCache;
+import Symtab.NamePool;
+
+/**
+ * Resident compile server for the -D option.  Keeps one JVM (and its JIT
+ * compiled scanner and parser loops) alive and answers compile requests
+ * on a localhost port or a Unix domain socket.
+ *
+ * Each request is a header line followed by the source text:
+ *
+ *     [-X:option...] <phase> <source_length>\n<source bytes>
+ *
+ * where phase is one of -S, -P, -T, -A or -C.  The reply is
+ *
+ *     <status> <output_length> <diagnostics_length>\n<output bytes><diagnostics bytes>
+ *
+ * with status 0 on success, 1 if errors were found and 2 for a malformed
+ * request or an internal compiler error.  Lengths are in bytes and text
+ * is UTF-8.  A connection may send any number of requests.  With
+ * -X:stats the JSON report is the last line of the diagnostics.
+ *
+ * A request may only give the options in REQUEST_OPTIONS; any other is
+ * refused with status 2.  Options that name a path are for the server's
+ * own command line: -X:astcache in a request uses the cache given with
+ * -D, or the default one, and never a directory a client chose.
+ *
+ * A source is read whole before it is compiled, so a request for more
+ * than MAX_SOURCE_LENGTH bytes, or with a header longer than
+ * MAX_HEADER_LENGTH, is refused with status 2 and the connection closed.
+ *
+ * The identifiers of every request are interned in the shared NamePool.
+ * Once it holds more than MAX_NAMES the pool is started over, after the
+ * compiles running then have finished and before any more start.
+ */
+public class CompileServer {
+
+	/** The longest source a request may send, in bytes. */
+	public static final int MAX_SOURCE_LENGTH = 64 << 20;
+
+	/** The longest header line a request may send, in characters. */
+	public static final int MAX_HEADER_LENGTH = 4096;
+
+	/** The number of names the shared NamePool may grow to between compiles. */
+	public static final int MAX_NAMES = 1 << 18;
+
+	/** The -X: options a request may give. */
+	public static final Set<String> REQUEST_OPTIONS = Set.of(
+		"-X:stats", "-X:tokenbuffer", "-X:descent", "-X:parallelparse", "-X:pipeline",
+		"-X:parallelclasses", "-X:astcache");
+
+	// what -X:astcache in a request uses, fixed when the server starts
+	private static ASTCache astCache = ASTCache.inTempDir();
+
+	// held for reading by each compile and for writing to clear the names;
+	// fair, so that clearing waits only for the compiles already running
+	private static final ReadWriteLock names = new ReentrantReadWriteLock(true);
+
+	/**
+	 * Serve on address until the server fails.  -X:astcache in a request
+	 * uses the cache of options, if it has one.
+	 */
+	public static int run(String address, CompileOptions options)
+	{
+		if ( options.astCache != null )
+			astCache = options.astCache;
+
+		ServerSocketChannel server;
+		try {
+			server = open(address);
+		} catch (IOException | IllegalArgumentException e) {
+			System.err.println("Unable to listen on " + address + ": " + e.toString());
+			return 1;
+		}
+
+		System.err.println("MiniJava compile server listening on " + address);
+		ExecutorService workers = newWorkers();
+		try {
+			while ( true ) {
+				SocketChannel client = server.accept();
+				workers.execute(() -> serve(client));
+			}
+		} catch (IOException e) {
+			System.err.println("Compile server stopped: " + e.toString());
+			return 1;
+		} finally {
+			workers.shutdown();
+		}
+	}
+
+	/**
+	 * Listen on "unix:<path>" or on a port number of the loopback
+	 * interface.
+	 */
+	static ServerSocketChannel open(String address) throws IOException
+	{
+		SocketAddress where;
+		ServerSocketChannel server;
+		if ( address.startsWith("unix:") ) {
+			Path path = Path.of(address.substring("unix:".length()));
+			Files.deleteIfExists(path);
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				try { Files.deleteIfExists(path); } catch (IOException e) { }
+			}));
+			where = UnixDomainSocketAddress.of(path);
+			server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+		}
+		else {
+			where = new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(address));
+			server = ServerSocketChannel.open();
+		}
+		server.bind(where);
+		return server;
+	}
+
+	/**
+	 * One virtual thread per connection where the JDK has them (21+),
+	 * otherwise a cached pool of platform threads.
+	 */
+	static ExecutorService newWorkers()
+	{
+		try {
+			return (ExecutorService)Executors.class
+				.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool(r -> {
+				Thread t = new Thread(r, "minijava-compile");
+				t.setDaemon(true);
+				return t;
+			});
+		}
+	}
+
+	static void serve(SocketChannel client)
+	{
+		try ( SocketChannel c = client ) {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(c)));
+			OutputStream out = new BufferedOutputStream(Channels.newOutputStream(c));
+			String header;
+			while ( (header = readLine(in)) != null ) {
+				handle(header, in, out);
+				out.flush();
+				// after the reply, so that the client doesn't wait for it
+				trimNames();
+			}
+		} catch (IOException e) {
+			// client went away in the middle of a request
+		}
+	}
+
+	static void handle(String header, DataInputStream in, OutputStream reply) throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ByteArrayOutputStream diag = new ByteArrayOutputStream();
+		int status;
+
+		CompileOptions options = new CompileOptions();
+		String [] fields;
+		String refused = null;
+		int length;
+		try {
+			List<String> rest = new ArrayList<String>();
+			for ( String word : header.trim().split(" +") ) {
+				if ( !CompileOptions.isOption(word) )
+					rest.add(word);
+				else if ( !REQUEST_OPTIONS.contains(word) )
+					refused = word;
+				else if ( word.equals("-X:astcache") )
+					options.astCache = astCache;
+				else
+					options.set(word);
+			}
+			fields = rest.toArray(new String[0]);
+			length = fields.length == 2 ? Integer.parseInt(fields[1]) : -1;
+		} catch (IllegalArgumentException e) {
+			fields = null;
+			length = -1;
+		}
+
+		if ( length > MAX_SOURCE_LENGTH ) {
+			diag.write(("Request too large: " + length + " bytes, at most " + MAX_SOURCE_LENGTH
+						+ " allowed\n").getBytes(StandardCharsets.UTF_8));
+			status = 2;
+			// not read, so the rest of the stream can't be framed either
+			writeReply(reply, status, out, diag);
+			reply.flush();
+			throw new EOFException();
+		}
+		if ( length < 0 ) {
+			diag.write(("Malformed request header: " + header + "\n").getBytes(StandardCharsets.UTF_8));
+			status = 2;
+			// the rest of the stream can't be framed any more
+			writeReply(reply, status, out, diag);
+			reply.flush();
+			throw new EOFException();
+		}
+
+		byte [] source = new byte[length];
+		in.readFully(source);
+
+		if ( refused != null ) {
+			diag.write(("Option not allowed in a request: " + refused + "\n").getBytes(StandardCharsets.UTF_8));
+			writeReply(reply, 2, out, diag);
+			return;
+		}
+
+		try ( PrintStream o = new PrintStream(out, false, "UTF-8");
+			  PrintStream d = new PrintStream(diag, false, "UTF-8") ) {
+			names.readLock().lock();
+			try {
+				Reader r = new InputStreamReader(new ByteArrayInputStream(source), StandardCharsets.UTF_8);
+				PhaseStats stats = options.stats ? new PhaseStats("<request>", fields[0]) : null;
+				status = MiniJava.Compile(fields[0], r, o, d, options, stats) == 0 ? 0 : 1;
+				if ( stats != null ) d.println(stats.toJson());
+			} catch (Throwable e) {
+				d.println("Unexpected internal compiler error: " + e.toString());
+				status = 2;
+			} finally {
+				names.readLock().unlock();
+			}
+		}
+
+		writeReply(reply, status, out, diag);
+	}
+
+	/** Start the names over if there are more than MAX_NAMES. */
+	static void trimNames()
+	{
+		if ( NamePool.shared().size() <= MAX_NAMES )
+			return;
+		names.writeLock().lock();
+		try {
+			// another request may have done it while this one waited
+			if ( NamePool.shared().size() > MAX_NAMES )
+				NamePool.clearShared();
+		} finally {
+			names.writeLock().unlock();
+		}
+	}
+
+	static void writeReply(OutputStream reply, int status, ByteArrayOutputStream out,
+						   ByteArrayOutputStream diag) throws IOException
+	{
+		String header = status + " " + out.size() + " " + diag.size() + "\n";
+		reply.write(header.getBytes(StandardCharsets.UTF_8));
+		out.writeTo(reply);
+		diag.writeTo(reply);
+	}
+
+	/**
+	 * Read a \n terminated header line, or null at end of stream.  A line
+	 * longer than MAX_HEADER_LENGTH is cut short there, which makes it a
+	 * malformed header.
+	 */
+	static String readLine(InputStream in) throws IOException
+	{
+		StringBuilder line = new StringBuilder();
+		int c = in.read();
+		if ( c < 0 )
+			return null;
+		while ( c >= 0 && c != '\n' ) {
+			if ( line.length() == MAX_HEADER_LENGTH )
+				return line.append(" ...").toString();
+			line.append((char)c);
+			c = in.read();
+		}
+		return line.toString();
+	}
+}
@@ -1,9 +1,13 @@
 import Scanner.*;
 import Parser.parser;
+import Parser.DescentParser;
+import Parser.ParallelParser;
+import Parser.SyntaxError;
 import Parser.sym;
 import java_cup.runtime.Symbol;
 import java_cup.runtime.ComplexSymbolFactory;
 import java.io.*;
+import java.util.ArrayList;
 import java.util.List;
 
 import AST.*;
@@ -12,10 +16,18 @@ import AST.Program;
 import AST.Visitor.PrettyPrintVisitor;
 import AST.Visitor.SemanticAnalysisVisitor;
 import AST.Visitor.SymTableVisitor;
+import AST.Visitor.ResolveVisitor;
 import AST.Visitor.CodeTranslateVisitor;
+import Codegen.AsmEmitter;
+import Codegen.StreamSink;
+import Symtab.FrozenSymbolTable;
+import Symtab.SymbolTable;
 
 public class MiniJava {
 
+	// -X: options given on the command line
+	static CompileOptions options = new CompileOptions();
+
     public static void main(String [] args)
     {
     	int status = 0;
@@ -23,7 +35,18 @@ public class MiniJava {
 				  	  "  java MiniJava -S <source_file>\n" +
 				  	  "  java MiniJava -P <source_file>\n" +
 				  	  "  java MiniJava -T <source_file>\n" +
-				  	  "  java MiniJava -A <source_file>\n";
+				  	  "  java MiniJava -A <source_file>\n" +
+				  	  "  java MiniJava -C <source_file>\n" +
+				  	  "  java MiniJava -C <directory | source_file... | @list_file>\n" +
+				  	  "  java MiniJava -D <port | unix:socket_path>\n" +
+				  	  CompileOptions.help;
+
+		try {
+			args = options.parse(args);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage() + "\n" + help);
+			System.exit(1);
+		}
 
     	if ( args.length == 1 && (args[0].equals("-h") || args[0].equals("-H")) )
     	{
@@ -50,11 +73,21 @@ public class MiniJava {
         	// run the parser & semantic analysis on the source file
         	status = FileSemanticAnalysis( args[1] );
     	}
+			else if ( args.length >= 2 && args[0].equals("-C") && BatchCompiler.isBatch(args) )
+			{
+				// compile a directory or list of files, one .s per input
+				status = BatchCompiler.run( args, options );
+			}
 			else if ( args.length == 2 && args[0].equals("-C"))
 			{
 				//run the parser, generate symbol table & generate code
 				status = FileCodeGen( args[1] );
 			}
+			else if ( args.length == 2 && args[0].equals("-D"))
+			{
+				// stay resident and serve compile requests
+				status = CompileServer.run( args[1], options );
+			}
     	else
     	{
     		System.err.println("Invalid program arguments.\n" + help);
@@ -65,56 +98,42 @@ public class MiniJava {
 
 	public static int FileScanner(String source_file)
 	{
-		int errors = 0;
+		return FileCompile("-S", source_file);
+	}
 
-	    try {
-	        // create a scanner on the input file
-	        ComplexSymbolFactory sf = new ComplexSymbolFactory();
-	        Reader in = new BufferedReader(new FileReader(source_file));
-	        scanner s = new scanner(in, sf);
-	        Symbol t = s.next_token();
-	        while (t.sym != sym.EOF){
-	        	if ( t.sym == sym.error ) ++errors;
-
-	            // print each token that we scanned
-        		System.out.print(s.symbolToString(t) + "\n");
-	            t = s.next_token();
-	        }
-
-	        System.out.println("\nLexical analysis completed");
-	        System.out.println(errors + " errors were found.");
+	public static int FileParser(String source_file)
+	{
+		return FileCompile("-P", source_file);
+	}
 
-	    } catch (Exception e) {
-	        // yuck: some kind of error in the compiler implementation
-	        // that we're not expecting (a bug!)
-	        System.err.println("Unexpected internal compiler error: " +
-	                    e.toString());
-	        // print out a stack dump
-	        e.printStackTrace();
-	    }
+	public static int FileSymbolTable(String source_file)
+	{
+		return FileCompile("-T", source_file);
+	}
 
-	    return errors == 0 ? 0 : 1;
+	public static int FileSemanticAnalysis(String source_file)
+	{
+		return FileCompile("-A", source_file);
 	}
 
-	public static int FileParser(String source_file)
+	public static int FileCodeGen(String source_file)
+	{
+		return FileCompile("-C", source_file);
+	}
+
+	/**
+	 * Run one phase option (-S, -P, -T, -A or -C) on a source file,
+	 * printing results and errors on System.out.
+	 */
+	static int FileCompile(String phase, String source_file)
 	{
 		int errors = 0;
+		PhaseStats stats = options.stats ? new PhaseStats(source_file, phase) : null;
 
 	    try {
-	        // create a parser on the input file
-            ComplexSymbolFactory sf = new ComplexSymbolFactory();
-	        Reader in = new BufferedReader(new FileReader(source_file));
-            scanner s = new scanner(in, sf);
-            parser p = new parser(s, sf);
-            Symbol root;
-		    // replace p.parse() with p.debug_parse() in next line to see trace of
-		    // parser shift/reduce actions during parse
-            root = p.parse();
-            Program program = (Program)root.value;
-            program.accept( new PrettyPrintVisitor() );
-
-	        System.out.println("\nParsing completed");
-	        System.out.println(errors + " errors were found.");
+	        Reader in = options.openSource(source_file);
+	        errors = Compile(phase, in, System.out, System.out, options, stats);
+	        if ( stats != null ) System.err.println(stats.toJson());
 	    } catch (Exception e) {
 	        // yuck: some kind of error in the compiler implementation
 	        // that we're not expecting (a bug!)
@@ -127,125 +146,467 @@ public class MiniJava {
 	    return errors == 0 ? 0 : 1;
 	}
 
-	public static int FileSymbolTable(String source_file)
+	/**
+	 * Run the phases selected by a -S/-P/-T/-A/-C option on one source.
+	 * Everything the phase prints goes to out and error messages go to
+	 * diag, so several compiles can run at once without sharing
+	 * System.out.
+	 *
+	 * @return the number of errors found
+	 */
+	public static int Compile(String phase, Reader in, PrintStream out, PrintStream diag) throws Exception
+	{
+		return Compile(phase, in, out, diag, new CompileOptions(), null);
+	}
+
+	/**
+	 * Same as above with the given -X: options, also recording phase
+	 * times and counters in stats unless it is null.
+	 */
+	public static int Compile(String phase, Reader in, PrintStream out, PrintStream diag,
+			CompileOptions options, PhaseStats stats) throws Exception
+	{
+		switch ( phase ) {
+		case "-S": return Scan(in, out, diag, options, stats);
+		case "-P": return Parse(in, out, diag, options, stats);
+		case "-T": return SymbolTable(in, out, diag, options, stats);
+		case "-A": return SemanticAnalysis(in, out, diag, options, stats);
+		case "-C": return CodeGen(in, new AsmEmitter(new StreamSink(out)), diag, options, stats);
+		default:
+			throw new IllegalArgumentException("Unknown phase option " + phase);
+		}
+	}
+
+	public static int Scan(Reader in, PrintStream out, PrintStream diag, CompileOptions options,
+			PhaseStats stats) throws Exception
 	{
 		int errors = 0;
+		long tokens = 0;
 
-	    try {
-	        // create a parser on the input file
-            ComplexSymbolFactory sf = new ComplexSymbolFactory();
-	        Reader in = new BufferedReader(new FileReader(source_file));
-            scanner s = new scanner(in, sf);
-            parser p = new parser(s, sf);
-            Symbol root;
-		    // replace p.parse() with p.debug_parse() in next line to see trace of
-		    // parser shift/reduce actions during parse
-            root = p.parse();
-            Program program = (Program)root.value;
-            //program.accept( new PrettyPrintVisitor() );
-
-            SymTableVisitor st = new SymTableVisitor();
-            program.accept( st );
-            st.print();
-
-	        System.out.println("\nParsing completed");
-	        System.out.println(errors + " errors were found.");
-	    } catch (Exception e) {
-	        // yuck: some kind of error in the compiler implementation
-	        // that we're not expecting (a bug!)
-	        System.err.println("Unexpected internal compiler error: " +
-	                    e.toString());
-	        // print out a stack dump
-	        e.printStackTrace();
-	    }
+        if ( stats != null ) stats.begin("scan");
+        // create a scanner on the input
+        ComplexSymbolFactory sf = new ComplexSymbolFactory();
+        scanner s = new scanner(in, sf);
+        s.setDiagnostics(diag);
+        TokenBuffer mapped = in instanceof MappedSource ? ((MappedSource)in).scan() : null;
+        if ( mapped != null ) {
+        	// scanned from the bytes, so there were no errors
+        	for ( int i = 0; mapped.kind(i) != sym.EOF; i++ ) {
+        		++tokens;
+        		out.print(mapped.toString(i) + "\n");
+        	}
+        }
+        else if ( options.tokenBuffer ) {
+        	// print straight from the buffer, no symbols needed
+        	TokenBuffer b = new TokenBuffer();
+        	for ( int i = 0; s.scanToken(b) != sym.EOF; i++ ) {
+        		if ( b.kind(i) == sym.error ) ++errors;
+        		++tokens;
+        		out.print(b.toString(i) + "\n");
+        	}
+        }
+        else {
+        	Symbol t = s.next_token();
+        	while (t.sym != sym.EOF){
+        		if ( t.sym == sym.error ) ++errors;
+        		++tokens;
 
-	    return errors == 0 ? 0 : 1;
+        		// print each token that we scanned
+        		out.print(s.symbolToString(t) + "\n");
+        		t = s.next_token();
+        	}
+        }
+        if ( stats != null ) {
+        	stats.end();
+        	stats.count("tokens", tokens);
+        }
+
+        out.println("\nLexical analysis completed");
+        out.println(errors + " errors were found.");
+
+        return errors;
 	}
 
-	public static int FileSemanticAnalysis(String source_file)
+	/**
+	 * Scan and parse one source.
+	 *
+	 * @return the root of the AST, or null if there is a syntax error,
+	 *         which the parser has reported on diag
+	 */
+	static Program ParseProgram(Reader in, PrintStream diag, CompileOptions options,
+			PhaseStats stats) throws Exception
+	{
+        ASTCache cache = options.astCache;
+        if ( cache == null )
+        	return ParseOrReport(in, diag, options, stats);
+
+        // look for the source's AST by its hash
+        if ( stats != null ) stats.begin("cache");
+        char [] text = ParallelParser.read(in);
+        String key = ASTCache.key(text);
+        Program program = cache.load(key);
+        if ( stats != null ) {
+        	stats.end();
+        	stats.count("ast_cache_hit", program != null ? 1 : 0);
+        }
+        if ( program != null ) {
+        	if ( stats != null ) stats.countProgram(program);
+        	return program;
+        }
+
+        // a program with errors isn't stored
+        program = ParseOrReport(new CharArrayReader(text), diag, options, stats);
+        if ( program == null )
+        	return null;
+        if ( stats != null ) stats.begin("cache");
+        cache.store(key, program);
+        if ( stats != null ) stats.end();
+        return program;
+	}
+
+	// the program, or null after a syntax error
+	static Program ParseOrReport(Reader in, PrintStream diag, CompileOptions options,
+			PhaseStats stats) throws Exception
+	{
+        try {
+        	return ParseSource(in, diag, options, stats);
+        } catch (SyntaxError e) {
+        	// reported by the parser; it stopped in the middle of a phase
+        	if ( stats != null ) stats.end();
+        	return null;
+        }
+	}
+
+	static Program ParseSource(Reader in, PrintStream diag, CompileOptions options,
+			PhaseStats stats) throws Exception
+	{
+        if ( options.parallelParse ) {
+        	// scanning is part of each piece's parse, so there is one phase
+        	if ( stats != null ) stats.begin("parse");
+        	char [] text = ParallelParser.read(in);
+        	ParallelParser pp = new ParallelParser(text);
+        	Program program = pp.parse();
+        	if ( stats != null ) stats.end();
+        	if ( program != null ) {
+        		if ( stats != null ) {
+        			stats.count("parse_pieces", pp.pieces());
+        			stats.countProgram(program);
+        		}
+        		return program;
+        	}
+        	// parse it again in one piece, which reports any errors
+        	in = new CharArrayReader(text);
+        }
+
+        // create a parser on the input
+        ComplexSymbolFactory sf = new ComplexSymbolFactory();
+        scanner s = new scanner(in, sf);
+        s.setDiagnostics(diag);
+        java_cup.runtime.Scanner tokens = s;
+
+        if ( options.descent ) {
+        	// the hand-written parser reads the arrays itself
+        	if ( stats != null ) stats.begin("scan");
+        	TokenBuffer b = ScanAll(in, s);
+        	if ( stats != null ) {
+        		stats.end();
+        		stats.count("tokens", b.size() - 1);
+        		stats.begin("parse");
+        	}
+        	DescentParser p = new DescentParser(b);
+        	p.setDiagnostics(diag);
+        	Program program = p.parse();
+        	if ( stats != null ) {
+        		stats.end();
+        		stats.countProgram(program);
+        	}
+        	return program;
+        }
+
+        TokenPipeline pipeline = null;
+        if ( options.pipeline && !(in instanceof MappedSource) ) {
+        	// scanning overlaps parsing, so there is one phase for both
+        	if ( stats != null ) stats.begin("parse");
+        	pipeline = TokenPipeline.start(s, sf, diag);
+        	tokens = pipeline;
+        }
+        else if ( options.tokenBuffer || in instanceof MappedSource ) {
+        	// scan into arrays; symbols are made as the parser asks
+        	if ( stats != null ) stats.begin("scan");
+        	TokenBuffer b = ScanAll(in, s);
+        	tokens = b.cursor(sf);
+        	if ( stats != null ) {
+        		stats.end();
+        		stats.count("tokens", b.size() - 1);
+        		stats.begin("parse");
+        	}
+        }
+        else if ( stats != null ) {
+        	// scan everything up front so scanning and parsing can be
+        	// timed separately
+        	stats.begin("scan");
+        	ScannedTokens st = new ScannedTokens(s);
+        	stats.end();
+        	stats.count("tokens", st.size() - 1);
+        	tokens = st;
+        	stats.begin("parse");
+        }
+
+        parser p = new parser(tokens, sf);
+        p.setDiagnostics(diag);
+        Symbol root;
+	    // replace p.parse() with p.debug_parse() in next line to see trace of
+	    // parser shift/reduce actions during parse
+        try {
+        	root = p.parse();
+        } finally {
+        	if ( pipeline != null ) pipeline.close();
+        }
+        Program program = (Program)root.value;
+
+        if ( stats != null ) {
+        	stats.end();
+        	if ( pipeline != null ) stats.countPipeline(pipeline);
+        	stats.countProgram(program);
+        }
+        return program;
+	}
+
+	/**
+	 * All the tokens of in, straight from its bytes if it is a
+	 * MappedSource that can be scanned so, otherwise by s.
+	 */
+	static TokenBuffer ScanAll(Reader in, scanner s) throws IOException
+	{
+		if ( in instanceof MappedSource ) {
+			TokenBuffer b = ((MappedSource)in).scan();
+			if ( b != null )
+				return b;
+		}
+		return s.scan(new TokenBuffer());
+	}
+
+	/** Tokens scanned ahead of time and handed to the parser in order. */
+	static class ScannedTokens implements java_cup.runtime.Scanner
+	{
+		private final scanner s;
+		private final List<Symbol> tokens = new ArrayList<Symbol>();
+		private int next = 0;
+
+		ScannedTokens(scanner s) throws IOException
+		{
+			this.s = s;
+			Symbol t;
+			do {
+				t = s.next_token();
+				tokens.add(t);
+			} while ( t.sym != sym.EOF );
+		}
+
+		int size()
+		{
+			return tokens.size();
+		}
+
+		public Symbol next_token() throws IOException
+		{
+			if ( next < tokens.size() )
+				return tokens.get(next++);
+			// past the end the scanner hands out a fresh EOF each time
+			return s.next_token();
+		}
+	}
+
+	public static int Parse(Reader in, PrintStream out, PrintStream diag, CompileOptions options,
+			PhaseStats stats) throws Exception
 	{
 		int errors = 0;
 
-	    try {
-	        // create a parser on the input file
-            ComplexSymbolFactory sf = new ComplexSymbolFactory();
-	        Reader in = new BufferedReader(new FileReader(source_file));
-            scanner s = new scanner(in, sf);
-            parser p = new parser(s, sf);
-            Symbol root;
-		    // replace p.parse() with p.debug_parse() in next line to see trace of
-		    // parser shift/reduce actions during parse
-            root = p.parse();
-            Program program = (Program)root.value;
-            //program.accept( new PrettyPrintVisitor() );
-
-            SymTableVisitor st = new SymTableVisitor();
-            program.accept( st );
-            //st.print();
-            errors += st.errors;
-
-            //if ( errors == 0 ) // comment out to exit on symbol table errors
-            {
-	            SemanticAnalysisVisitor sa = new SemanticAnalysisVisitor();
-	            sa.setSymtab(st.getSymtab());
-	            program.accept( sa );
-	            errors += sa.errors;
+        Program program = ParseProgram(in, diag, options, stats);
+        if ( program != null )
+        	program.accept( new PrettyPrintVisitor(out) );
+        else
+        	++errors;
+
+        out.println("\nParsing completed");
+        out.println(errors + " errors were found.");
+
+        return errors;
+	}
+
+	public static int SymbolTable(Reader in, PrintStream out, PrintStream diag, CompileOptions options,
+			PhaseStats stats) throws Exception
+	{
+		int errors = 0;
+
+        Program program = ParseProgram(in, diag, options, stats);
+        if ( program == null )
+        	return NotParsed(out, "Parsing completed");
+        //program.accept( new PrettyPrintVisitor() );
+
+        SymTableVisitor st = BuildSymbolTable(program, diag, stats);
+        st.print(out);
+        if ( stats != null ) stats.countSymtab(st.getSymtab());
+
+        out.println("\nParsing completed");
+        out.println(errors + " errors were found.");
+
+        return errors;
+	}
+
+	public static int SemanticAnalysis(Reader in, PrintStream out, PrintStream diag, CompileOptions options,
+			PhaseStats stats) throws Exception
+	{
+		int errors = 0;
+
+        Program program = ParseProgram(in, diag, options, stats);
+        if ( program == null )
+        	return NotParsed(out, "Compiler completed");
+        //program.accept( new PrettyPrintVisitor() );
+
+        SymTableVisitor st = BuildSymbolTable(program, diag, stats);
+        //st.print();
+        errors += st.errors;
+        ResolveNames(program, st.getSymtab(), stats);
+
+        FrozenSymbolTable symtab = FreezeSymbolTable(st.getSymtab(), stats);
+
+        //if ( errors == 0 ) // comment out to exit on symbol table errors
+        if ( options.parallelClasses ) {
+            ParallelClasses pc = new ParallelClasses(program, symtab);
+            if ( stats != null ) stats.begin("semantic");
+            errors += pc.check(diag);
+            if ( stats != null ) {
+            	stats.end();
+            	stats.count("class_runs", pc.runs());
             }
+        }
+        else {
+            SemanticAnalysisVisitor sa = new SemanticAnalysisVisitor();
+            sa.setSymtab(symtab);
+            sa.setDiagnostics(diag);
+            if ( stats != null ) stats.begin("semantic");
+            program.accept( sa );
+            if ( stats != null ) stats.end();
+            errors += sa.errors;
+        }
+        if ( stats != null ) stats.countSymtab(st.getSymtab(), symtab);
 
-	        System.out.println("\nCompiler completed");
-	        System.out.println(errors + " errors were found.");
-	    } catch (Exception e) {
-	        // yuck: some kind of error in the compiler implementation
-	        // that we're not expecting (a bug!)
-	        System.err.println("Unexpected internal compiler error: " +
-	                    e.toString());
-	        // print out a stack dump
-	        e.printStackTrace();
-	    }
+        out.println("\nCompiler completed");
+        out.println(errors + " errors were found.");
 
-	    return errors == 0 ? 0 : 1;
+        return errors;
 	}
-	public static int FileCodeGen(String source_file)
+
+	/**
+	 * End a phase on a source that didn't parse: its syntax error, reported
+	 * by the parser, is the one error found.
+	 */
+	static int NotParsed(PrintStream out, String completed)
+	{
+        out.println("\n" + completed);
+        out.println(1 + " errors were found.");
+        return 1;
+	}
+
+	static SymTableVisitor BuildSymbolTable(Program program, PrintStream diag, PhaseStats stats)
+	{
+        SymTableVisitor st = new SymTableVisitor();
+        st.setDiagnostics(diag);
+        if ( stats != null ) stats.begin("symtab");
+        program.accept( st );
+        if ( stats != null ) stats.end();
+        return st;
+	}
+
+	/**
+	 * The symbol table as it stays, for the passes after resolution,
+	 * which may share it between threads.
+	 */
+	static FrozenSymbolTable FreezeSymbolTable(SymbolTable symtab, PhaseStats stats)
+	{
+        if ( stats != null ) stats.begin("freeze");
+        FrozenSymbolTable frozen = symtab.freeze();
+        if ( stats != null ) stats.end();
+        return frozen;
+	}
+
+	/** Bind the names in program to their symbols, for the passes after. */
+	static void ResolveNames(Program program, SymbolTable symtab, PhaseStats stats)
+	{
+        ResolveVisitor rv = new ResolveVisitor();
+        rv.setSymtab(symtab);
+        if ( stats != null ) stats.begin("resolve");
+        program.accept( rv );
+        if ( stats != null ) stats.end();
+	}
+
+	/**
+	 * Run the scan, parse, symbol table and code generation pipeline on
+	 * one source.  Assembly goes to asm and error messages to diag.
+	 *
+	 * @return the number of errors found
+	 */
+	public static int CodeGen(Reader in, PrintStream asm, PrintStream diag) throws Exception
+	{
+		return CodeGen(in, new AsmEmitter(new StreamSink(asm)), diag, new CompileOptions(), null);
+	}
+
+	public static int CodeGen(Reader in, AsmEmitter asm, PrintStream diag, CompileOptions options,
+			PhaseStats stats) throws Exception
 	{
 		int errors = 0;
 
-	    try {
-	        // create a parser on the input file
-            ComplexSymbolFactory sf = new ComplexSymbolFactory();
-	        Reader in = new BufferedReader(new FileReader(source_file));
-            scanner s = new scanner(in, sf);
-            parser p = new parser(s, sf);
-            Symbol root;
-		    // replace p.parse() with p.debug_parse() in next line to see trace of
-		    // parser shift/reduce actions during parse
-            root = p.parse();
-            Program program = (Program)root.value;
-            //program.accept( new PrettyPrintVisitor() );
-
-            SymTableVisitor st = new SymTableVisitor();
-            program.accept( st );
-            //st.print();
-            errors += st.errors;
-
-            //if ( errors == 0 ) // comment out to exit on symbol table errors
-            {
-	            CodeTranslateVisitor ctv = new CodeTranslateVisitor();
-	            ctv.setSymtab(st.getSymtab());
-	            program.accept( ctv );
-	            errors += ctv.errors;
+        Program program = ParseProgram(in, diag, options, stats);
+        if ( program == null )
+        	return 1;   // the syntax error
+        //program.accept( new PrettyPrintVisitor() );
+
+        SymTableVisitor st = BuildSymbolTable(program, diag, stats);
+        //st.print();
+        errors += st.errors;
+        ResolveNames(program, st.getSymtab(), stats);
+
+        FrozenSymbolTable symtab = FreezeSymbolTable(st.getSymtab(), stats);
+
+        //if ( errors == 0 ) // comment out to exit on symbol table errors
+        if ( options.parallelClasses ) {
+            ParallelClasses pc = new ParallelClasses(program, symtab);
+            if ( stats != null ) stats.begin("codegen");
+            try {
+                errors += pc.translate(asm, diag);
+            } finally {
+                asm.flush();
             }
+            if ( stats != null ) {
+            	stats.end();
+            	stats.count("class_runs", pc.runs());
+            	stats.countEmitter(asm);
+            }
+        }
+        else {
+            CodeTranslateVisitor ctv = new CodeTranslateVisitor();
+            ctv.setSymtab(symtab);
+            ctv.setOutput(asm);
+            ctv.setDiagnostics(diag);
+            if ( stats != null ) stats.begin("codegen");
+            try {
+                program.accept( ctv );
+            } finally {
+                // keep whatever was generated before a failure
+                asm.flush();
+            }
+            if ( stats != null ) {
+            	stats.end();
+            	stats.countEmitter(asm);
+            }
+            errors += ctv.errors;
+        }
+        if ( stats != null ) stats.countSymtab(st.getSymtab(), symtab);
 
-	        //System.out.println("\nCompiler completed");
-	        //System.out.println(errors + " errors were found.");
-	    } catch (Exception e) {
-	        // yuck: some kind of error in the compiler implementation
-	        // that we're not expecting (a bug!)
-	        System.err.println("Unexpected internal compiler error: " +
-	                    e.toString());
-	        // print out a stack dump
-	        e.printStackTrace();
-	    }
+	    //System.out.println("\nCompiler completed");
+	    //System.out.println(errors + " errors were found.");
 
-	    return errors == 0 ? 0 : 1;
+        return errors;
 	}
 }
@@ -0,0 +1,193 @@
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import AST.Program;
+import AST.Visitor.CodeTranslateVisitor;
+import AST.Visitor.SemanticAnalysisVisitor;
+import Codegen.AsmEmitter;
+import Codegen.MemorySink;
+import Symtab.FrozenSymbolTable;
+
+/**
+ * Semantic analysis and code generation on several threads, for
+ * -X:parallelclasses.  Once names are resolved, checking or translating
+ * a class only reads the symbol table and the class's own nodes, so the
+ * classes after the main one are cut into runs of about equal number,
+ * and each run is done on the common fork/join pool by a visitor of its
+ * own, all sharing one FrozenSymbolTable.  The main class is done on the
+ * calling thread meanwhile.
+ *
+ * Each run's error messages and assembly are kept apart and written
+ * after those of the runs before it, and each run numbers its labels
+ * from where the runs before it end, so the output is the same as one
+ * visitor's.
+ */
+public class ParallelClasses {
+
+	/** Runs per thread, so that threads finishing early can take more. */
+	private static final int RUNS_PER_THREAD = 4;
+
+	private final Program program;
+	private final FrozenSymbolTable symtab;
+
+	// the first class of each run, and then the number of classes
+	private final int[] cuts;
+
+	public ParallelClasses(Program program, FrozenSymbolTable symtab) {
+		this.program = program;
+		this.symtab = symtab;
+		int classes = ( program.cl != null ) ? program.cl.size() : 0;
+		int threads = ForkJoinPool.getCommonPoolParallelism();
+		int runs = Math.min(classes, threads * RUNS_PER_THREAD);
+		cuts = new int[runs + 1];
+		for ( int r = 1; r <= runs; r++ ) {
+			cuts[r] = (int)((long)classes * r / runs);
+		}
+	}
+
+	/** The number of runs the classes are cut into. */
+	public int runs() {
+		return cuts.length - 1;
+	}
+
+	// what a run writes, until it can be written after the runs before
+	private static final class Part {
+		final ByteArrayOutputStream text = new ByteArrayOutputStream();
+		final PrintStream diag = new PrintStream(text, true);
+		AsmEmitter asm = null;
+		int errors = 0;
+	}
+
+	/**
+	 * Check the program, writing error messages to diag.
+	 *
+	 * @return the number of errors found
+	 */
+	public int check(PrintStream diag) throws Exception {
+		List<Future<Part>> pending = start(r -> {
+			Part p = new Part();
+			SemanticAnalysisVisitor sa = analyzer(p.diag);
+			for ( int c = cuts[r]; c < cuts[r + 1]; c++ ) {
+				sa.check(program.cl.get(c));
+			}
+			p.errors = sa.errors;
+			return p;
+		});
+		try {
+			SemanticAnalysisVisitor sa = analyzer(diag);
+			sa.check(program.m);
+			int errors = sa.errors;
+			for ( Future<Part> f : pending ) {
+				Part p = get(f);
+				p.text.writeTo(diag);
+				errors += p.errors;
+			}
+			return errors;
+		} finally {
+			for ( Future<Part> f : pending ) f.cancel(false);
+		}
+	}
+
+	/**
+	 * Translate the program, writing assembly to asm and error messages
+	 * to diag.
+	 *
+	 * @return the number of errors found
+	 */
+	public int translate(AsmEmitter asm, PrintStream diag) throws Exception {
+		// where each run's labels start; the labels are counted first, a
+		// run to a task, as the next run's depend on them
+		int[] labels = new int[runs() + 1];
+		List<Future<Integer>> counts = start(r -> {
+			int n = 0;
+			for ( int c = cuts[r]; c < cuts[r + 1]; c++ ) {
+				n += CodeTranslateVisitor.labelsNeeded(program.cl.get(c));
+			}
+			return n;
+		});
+		try {
+			labels[0] = 1 + CodeTranslateVisitor.labelsNeeded(program.m);
+			for ( int r = 0; r < runs(); r++ ) {
+				labels[r + 1] = labels[r] + get(counts.get(r));
+			}
+		} finally {
+			for ( Future<Integer> f : counts ) f.cancel(false);
+		}
+
+		List<Future<Part>> pending = start(r -> {
+			Part p = new Part();
+			p.asm = new AsmEmitter(new MemorySink());
+			CodeTranslateVisitor ctv = translator(p.asm, p.diag);
+			ctv.labelCount = labels[r];
+			for ( int c = cuts[r]; c < cuts[r + 1]; c++ ) {
+				program.cl.get(c).accept(ctv);
+			}
+			p.errors = ctv.errors;
+			return p;
+		});
+		try {
+			CodeTranslateVisitor ctv = translator(asm, diag);
+			ctv.header();
+			program.m.accept(ctv);
+			int errors = ctv.errors;
+			for ( Future<Part> f : pending ) {
+				Part p = get(f);
+				asm.append(p.asm);
+				p.text.writeTo(diag);
+				errors += p.errors;
+			}
+			asm.flush();
+			return errors;
+		} finally {
+			for ( Future<Part> f : pending ) f.cancel(false);
+		}
+	}
+
+	private SemanticAnalysisVisitor analyzer(PrintStream diag) {
+		SemanticAnalysisVisitor sa = new SemanticAnalysisVisitor();
+		sa.setSymtab(symtab);
+		sa.setDiagnostics(diag);
+		return sa;
+	}
+
+	private CodeTranslateVisitor translator(AsmEmitter asm, PrintStream diag) {
+		CodeTranslateVisitor ctv = new CodeTranslateVisitor();
+		ctv.setSymtab(symtab);
+		ctv.setOutput(asm);
+		ctv.setDiagnostics(diag);
+		return ctv;
+	}
+
+	// a task for each run, as run(r) does it
+	private interface RunTask<T> {
+		T run(int r) throws Exception;
+	}
+
+	private <T> List<Future<T>> start(RunTask<T> task) {
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		List<Future<T>> pending = new ArrayList<Future<T>>();
+		for ( int r = 0; r < runs(); r++ ) {
+			int run = r;
+			pending.add(pool.submit((Callable<T>)() -> task.run(run)));
+		}
+		return pending;
+	}
+
+	// the result of a task, or what it threw
+	private static <T> T get(Future<T> f) throws Exception {
+		try {
+			return f.get();
+		} catch ( ExecutionException e ) {
+			Throwable cause = e.getCause();
+			if ( cause instanceof Exception ) throw (Exception)cause;
+			if ( cause instanceof Error ) throw (Error)cause;
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,642 @@
+package Parser;
+
+import AST.*;
+import Scanner.TokenBuffer;
+import java.io.PrintStream;
+import java_cup.runtime.ComplexSymbolFactory;
+import java_cup.runtime.ComplexSymbolFactory.ComplexSymbol;
+import java_cup.runtime.ComplexSymbolFactory.Location;
+
+/**
+ * A hand-written parser for the grammar in minijava.cup, for -X:descent,
+ * straight from a TokenBuffer: there are no tables, no Symbols and no
+ * action switch.  Declarations are parsed by recursive descent, and
+ * statements and expressions each on a stack of their own, expressions
+ * by precedence climbing, so that however deeply they nest they don't
+ * use up the thread's.
+ *
+ * It builds the same AST as parser, down to the line numbers, and gives
+ * the same answer where the grammar is odd.  An operator binds as it
+ * would in CUP's tables: < tightest and nonassociative, then the
+ * method call ".", then !, *, + and -, and && loosest.  "[" has no
+ * precedence, so CUP reduces before it; an index applies to the whole
+ * expression to its left, "a + b[0]" being "(a + b)[0]".  A block needs
+ * at least one statement, and the program's class list is null when
+ * there are no classes after the main class.
+ *
+ * A syntax error is reported in lr_parser's words, on the diagnostics
+ * stream as parser reports it, and parse throws SyntaxError.  There is
+ * no error recovery, as there is none in the grammar.  The list of
+ * expected tokens is this parser's own; lr_parser works its list out
+ * from the tables and leaves some out.
+ */
+public class DescentParser {
+
+	// the precedence of a token that can follow an expression: higher
+	// binds tighter (from minijava.cup, "[" below everything)
+	private static final int TOP = -2, BRACKET = -1;
+	private static final int AND_ = 1, ADD = 2, MUL = 3, NOT_ = 4, DOT = 5, LESS = 7;
+	private static final int NO_OPERATOR = Integer.MIN_VALUE;
+
+	private final TokenBuffer tokens;
+	private int next = 0;
+
+	// AST nodes only keep the line of their position; by line from the
+	// first token's, which is not 1 for a piece of a larger source
+	private Location[] lines = new Location[256];
+	private final int firstLine;
+
+	private boolean reportErrors = true;
+	private PrintStream diagnostics = System.err;
+
+	public DescentParser(TokenBuffer b) {
+		tokens = b;
+		firstLine = b.line(0);
+	}
+
+	/** Where to report syntax errors, instead of System.err. */
+	public void setDiagnostics(PrintStream d) {
+		diagnostics = d;
+	}
+
+	/** Only throw on a syntax error, without printing anything. */
+	public void setReportErrors(boolean report) {
+		reportErrors = report;
+	}
+
+	/** Parse the tokens as a whole program. */
+	public Program parse() throws Exception {
+		int line = line();
+		MainClass m = mainClass();
+		ClassDeclList cl = null;
+		if ( kind() == sym.CLASS ) {
+			cl = new ClassDeclList(at(line()));
+			while ( kind() == sym.CLASS ) {
+				cl.add(classDecl());
+			}
+		}
+		expect(sym.EOF);
+		return new Program(m, cl, at(line));
+	}
+
+	/** Parse the tokens as a main class alone. */
+	public MainClass parseMainClass() throws Exception {
+		MainClass m = mainClass();
+		expect(sym.EOF);
+		return m;
+	}
+
+	/** Parse the tokens as a run of class declarations, and add them to cl. */
+	public void parseClasses(ClassDeclList cl) throws Exception {
+		while ( kind() != sym.EOF ) {
+			if ( kind() != sym.CLASS ) throw syntaxError(sym.CLASS, sym.EOF);
+			cl.add(classDecl());
+		}
+	}
+
+	// ---- tokens -----------------------------------------------------------
+
+	private int kind() {
+		return tokens.kind(next);
+	}
+
+	private int kind(int ahead) {
+		return tokens.kind(Math.min(next + ahead, tokens.size() - 1));
+	}
+
+	private int line() {
+		return tokens.line(next);
+	}
+
+	private void advance() {
+		// the EOF token stays current once it is reached
+		if ( next < tokens.size() - 1 ) ++next;
+	}
+
+	private void expect(int k) throws Exception {
+		if ( kind() != k ) throw syntaxError(k);
+		advance();
+	}
+
+	// an operator could also have come after an expression
+	private void expectAfterExpression(int k) throws Exception {
+		if ( kind() != k ) throw syntaxError(sym.AND, sym.LT, sym.PLUS, sym.MINUS, sym.MULT,
+											 sym.LBRACKET, sym.PERIOD, k);
+		advance();
+	}
+
+	private Location at(int line) {
+		int i = line - firstLine;
+		if ( i >= lines.length ) {
+			lines = java.util.Arrays.copyOf(lines, Math.max(i + 1, lines.length * 2));
+		}
+		Location l = lines[i];
+		if ( l == null ) l = lines[i] = new Location(line, 1);
+		return l;
+	}
+
+	/**
+	 * Report a syntax error at the current token the way lr_parser
+	 * does and make the exception it throws.
+	 */
+	private SyntaxError syntaxError(int... expected) {
+		ComplexSymbol s = (ComplexSymbol)tokens.symbol(next, new ComplexSymbolFactory());
+		String where = " for input symbol \"" + s.getName() + "\" spanning from "
+			+ s.getLeft() + " to " + s.getRight();
+		SyntaxError e = new SyntaxError();
+		if ( !reportErrors ) return e;
+		StringBuilder names = new StringBuilder();
+		for ( int k : expected ) {
+			if ( names.length() > 0 ) names.append(", ");
+			names.append(sym.terminalNames[k]);
+		}
+		diagnostics.println("Syntax error" + where);
+		diagnostics.println("instead expected token classes are [" + names + "]");
+		diagnostics.println("Couldn't repair and continue parse" + where);
+		return e;
+	}
+
+	// ---- declarations -----------------------------------------------------
+
+	private MainClass mainClass() throws Exception {
+		expect(sym.CLASS);
+		Identifier i1 = identifier();
+		expect(sym.LCURLYBRACKET);
+		expect(sym.PUBLIC);
+		expect(sym.STATIC);
+		expect(sym.VOID);
+		expect(sym.MAIN);
+		expect(sym.LPAREN);
+		expect(sym.STRING);
+		expect(sym.LBRACKET);
+		expect(sym.RBRACKET);
+		Identifier i2 = identifier();
+		expect(sym.RPAREN);
+		expect(sym.LCURLYBRACKET);
+		Statement s = statement();
+		expect(sym.RCURLYBRACKET);
+		expect(sym.RCURLYBRACKET);
+		return new MainClass(i1, i2, s, at(i1.getLineNo()));
+	}
+
+	private ClassDecl classDecl() throws Exception {
+		expect(sym.CLASS);
+		Identifier i = identifier();
+		Identifier j = null;
+		if ( kind() == sym.EXTENDS ) {
+			advance();
+			j = identifier();
+		}
+		expect(sym.LCURLYBRACKET);
+		Location pos = at(i.getLineNo());
+
+		VarDeclList vl = isType(kind()) ? new VarDeclList(at(line())) : VarDeclList.empty;
+		while ( isType(kind()) ) {
+			vl.add(varDecl());
+		}
+		MethodDeclList ml = kind() == sym.PUBLIC ? new MethodDeclList(at(line())) : MethodDeclList.empty;
+		while ( kind() == sym.PUBLIC ) {
+			ml.add(methodDecl());
+		}
+		if ( kind() != sym.RCURLYBRACKET ) {
+			throw ml.size() > 0 ? syntaxError(sym.PUBLIC, sym.RCURLYBRACKET)
+				: syntaxError(sym.PUBLIC, sym.INT, sym.BOOLEAN, sym.IDENTIFIER, sym.RCURLYBRACKET);
+		}
+		advance();
+
+		if ( j != null ) return new ClassDeclExtends(i, j, vl, ml, pos);
+		return new ClassDeclSimple(i, vl, ml, pos);
+	}
+
+	private static boolean isType(int k) {
+		return k == sym.INT || k == sym.BOOLEAN || k == sym.IDENTIFIER;
+	}
+
+	private VarDecl varDecl() throws Exception {
+		int line = line();
+		Type t = type();
+		Identifier i = identifier();
+		expect(sym.SEMICOLON);
+		return new VarDecl(t, i, at(line));
+	}
+
+	private MethodDecl methodDecl() throws Exception {
+		expect(sym.PUBLIC);
+		Location pos = at(line());
+		Type t = type();
+		Identifier i = identifier();
+		expect(sym.LPAREN);
+		FormalList fl = kind() == sym.RPAREN ? FormalList.empty : new FormalList(at(line()));
+		if ( kind() != sym.RPAREN ) {
+			fl.add(formal());
+			while ( kind() == sym.COMMA ) {
+				advance();
+				fl.add(formal());
+			}
+		}
+		expect(sym.RPAREN);
+		expect(sym.LCURLYBRACKET);
+
+		// a statement can start with an identifier too, but is never
+		// followed by another one
+		VarDeclList vl = startsVarDecl() ? new VarDeclList(at(line())) : VarDeclList.empty;
+		while ( startsVarDecl() ) {
+			vl.add(varDecl());
+		}
+		StatementList sl = kind() != sym.RETURN ? new StatementList(at(line())) : StatementList.empty;
+		while ( kind() != sym.RETURN ) {
+			sl.add(statement());
+		}
+		advance();
+		Exp e = expression();
+		expectAfterExpression(sym.SEMICOLON);
+		expect(sym.RCURLYBRACKET);
+		return new MethodDecl(t, i, fl, vl, sl, e, pos);
+	}
+
+	private boolean startsVarDecl() {
+		int k = kind();
+		return k == sym.INT || k == sym.BOOLEAN || (k == sym.IDENTIFIER && kind(1) == sym.IDENTIFIER);
+	}
+
+	private Formal formal() throws Exception {
+		int line = line();
+		Type t = type();
+		Identifier i = identifier();
+		return new Formal(t, i, at(line));
+	}
+
+	private Type type() throws Exception {
+		switch ( kind() ) {
+		case sym.INT:
+			advance();
+			if ( kind() == sym.LBRACKET ) {
+				advance();
+				expect(sym.RBRACKET);
+				return IntArrayType.shared;
+			}
+			return IntegerType.shared;
+		case sym.BOOLEAN:
+			advance();
+			return BooleanType.shared;
+		case sym.IDENTIFIER:
+			Location pos = at(line());
+			String s = tokens.text(next);
+			advance();
+			return new IdentifierType(s, pos);
+		default:
+			throw syntaxError(sym.INT, sym.BOOLEAN, sym.IDENTIFIER);
+		}
+	}
+
+	private Identifier identifier() throws Exception {
+		if ( kind() != sym.IDENTIFIER ) throw syntaxError(sym.IDENTIFIER);
+		Identifier i = new Identifier(tokens.text(next), at(line()));
+		advance();
+		return i;
+	}
+
+	// ---- statements -------------------------------------------------------
+
+	/**
+	 * A block, if or while waiting for a statement inside it, on the
+	 * stack statement keeps instead of recursing.  kind is the token that
+	 * opened it and pos its position; list is a block's statements so
+	 * far, cond the condition of an if or while, and then an if's first
+	 * statement once it has an else.
+	 */
+	private static final class Open {
+		int kind;
+		Location pos;
+		StatementList list;
+		Exp cond;
+		Statement then;
+	}
+
+	private Open[] open = new Open[16];
+	private int opened = 0;
+
+	private Open open(int kind, Location pos) {
+		if ( opened == open.length ) open = java.util.Arrays.copyOf(open, opened * 2);
+		Open o = open[opened];
+		if ( o == null ) o = open[opened] = new Open();
+		++opened;
+		o.kind = kind;
+		o.pos = pos;
+		o.list = null;
+		o.cond = null;
+		o.then = null;
+		return o;
+	}
+
+	/**
+	 * A statement, with the blocks, ifs and whiles in it kept on an
+	 * explicit stack: each one is opened when its first token is read and
+	 * closed when the statements it needs are done.
+	 */
+	private Statement statement() throws Exception {
+		opened = 0;
+		for ( ;; ) {
+			Statement s;
+			switch ( kind() ) {
+			case sym.LCURLYBRACKET: {
+				advance();
+				Location slpos = at(line());
+				open(sym.LCURLYBRACKET, slpos).list = new StatementList(slpos);
+				continue;
+			}
+			case sym.IF:
+			case sym.WHILE: {
+				int k = kind();
+				advance();
+				expect(sym.LPAREN);
+				Location epos = at(line());
+				Exp e = expression();
+				expectAfterExpression(sym.RPAREN);
+				open(k, epos).cond = e;
+				continue;
+			}
+			default:
+				s = simpleStatement();
+			}
+
+			// s is whole: hand it to the statements waiting for it, until
+			// one needs another
+			while ( s != null ) {
+				if ( opened == 0 ) return s;
+				Open o = open[opened - 1];
+				switch ( o.kind ) {
+				case sym.LCURLYBRACKET:
+					// a block needs at least one statement
+					o.list.add(s);
+					if ( kind() != sym.RCURLYBRACKET ) {
+						s = null;
+						continue;
+					}
+					advance();
+					s = new Block(o.list, o.pos);
+					break;
+				case sym.IF:
+					if ( o.then == null && kind() == sym.ELSE ) {
+						advance();
+						o.then = s;
+						s = null;
+						continue;
+					}
+					s = o.then == null ? new If(o.cond, s, null, o.pos) : new If(o.cond, o.then, s, o.pos);
+					break;
+				case sym.WHILE:
+					s = new While(o.cond, s, o.pos);
+					break;
+				}
+				--opened;
+			}
+		}
+	}
+
+	/** A statement with no statement inside it. */
+	private Statement simpleStatement() throws Exception {
+		Location pos = at(line());
+		switch ( kind() ) {
+		case sym.PRINTLN: {
+			advance();
+			expect(sym.LPAREN);
+			Location epos = at(line());
+			Exp e = expression();
+			expectAfterExpression(sym.RPAREN);
+			expect(sym.SEMICOLON);
+			return new Print(e, epos);
+		}
+		case sym.DISPLAY: {
+			advance();
+			Exp e = expression();
+			expectAfterExpression(sym.SEMICOLON);
+			return new Display(e, pos);
+		}
+		case sym.IDENTIFIER: {
+			Identifier i = identifier();
+			if ( kind() == sym.LBRACKET ) {
+				advance();
+				Exp index = expression();
+				expectAfterExpression(sym.RBRACKET);
+				expect(sym.BECOMES);
+				Exp e = expression();
+				expectAfterExpression(sym.SEMICOLON);
+				return new ArrayAssign(i, index, e, pos);
+			}
+			if ( kind() != sym.BECOMES ) throw syntaxError(sym.BECOMES, sym.LBRACKET);
+			advance();
+			Exp e = expression();
+			expectAfterExpression(sym.SEMICOLON);
+			return new Assign(i, e, pos);
+		}
+		default:
+			throw syntaxError(sym.LCURLYBRACKET, sym.IF, sym.WHILE, sym.PRINTLN, sym.DISPLAY,
+							  sym.IDENTIFIER);
+		}
+	}
+
+	// ---- expressions ------------------------------------------------------
+
+	private static int precedence(int k) {
+		switch ( k ) {
+		case sym.AND: return AND_;
+		case sym.PLUS:
+		case sym.MINUS: return ADD;
+		case sym.MULT: return MUL;
+		case sym.PERIOD: return DOT;
+		case sym.LT: return LESS;
+		case sym.LBRACKET: return BRACKET;
+		default: return NO_OPERATOR;
+		}
+	}
+
+	/**
+	 * An expression waiting for one inside it, on the stack expression
+	 * keeps instead of recursing.  kind is the token that opened the inner
+	 * expression, an operator or the "new", "!" or "(" of a primary, and
+	 * inner its precedence; prec and pos are those of the outer expression,
+	 * left the operand before an operator, name and args a call's so far,
+	 * and at the position of a "new int[" or "!".
+	 */
+	private static final class Frame {
+		int kind, prec, inner;
+		Location pos, at;
+		Exp left;
+		Identifier name;
+		ExpList args;
+	}
+
+	private Frame[] frames = new Frame[16];
+	private int depth = 0;
+
+	private Frame push(int kind, int prec, Location pos, int inner) {
+		if ( depth == frames.length ) frames = java.util.Arrays.copyOf(frames, depth * 2);
+		Frame f = frames[depth];
+		if ( f == null ) f = frames[depth] = new Frame();
+		++depth;
+		f.kind = kind;
+		f.prec = prec;
+		f.pos = pos;
+		f.inner = inner;
+		return f;
+	}
+
+	/**
+	 * An expression, by precedence climbing with an explicit stack, so
+	 * that nesting takes heap and not Java stack.  Each expression on the
+	 * stack is the operand of a production of precedence prec: the
+	 * operators after it are only taken into it while they bind tighter,
+	 * as CUP would shift them.  Operators of the same precedence are left
+	 * associative except <, which can't be chained.
+	 */
+	private Exp expression() throws Exception {
+		depth = 0;
+		int prec = TOP;
+		Location pos = null;
+		Exp e = null;
+		for ( ;; ) {
+			if ( e == null ) {
+				// the start of an expression: its first operand, or the
+				// frame of a primary with an expression inside
+				pos = at(line());
+				e = primary(prec, pos);
+				if ( e == null ) {
+					prec = frames[depth - 1].inner;
+					continue;
+				}
+			}
+
+			int k = kind();
+			int p = precedence(k);
+			if ( p != NO_OPERATOR && p > prec ) {
+				advance();
+				switch ( k ) {
+				case sym.PERIOD:
+					if ( kind() == sym.LENGTH ) {
+						advance();
+						e = new ArrayLength(e, pos);
+						continue;
+					}
+					Identifier i = identifier();
+					expect(sym.LPAREN);
+					if ( kind() == sym.RPAREN ) {
+						advance();
+						e = new Call(e, i, ExpList.empty, pos);
+						continue;
+					}
+					Frame f = push(k, prec, pos, TOP);
+					f.left = e;
+					f.name = i;
+					f.args = new ExpList(at(line()));
+					break;
+				default:
+					// a binary operator, or "[" and its index
+					push(k, prec, pos, k == sym.LBRACKET ? TOP : p).left = e;
+					break;
+				}
+				prec = frames[depth - 1].inner;
+				e = null;
+				continue;
+			}
+			if ( p == prec && p == LESS ) {
+				throw syntaxError(sym.AND, sym.PLUS, sym.MINUS, sym.MULT, sym.LBRACKET, sym.PERIOD);
+			}
+
+			// e is whole: hand it to the expression waiting for it
+			if ( depth == 0 ) return e;
+			Frame f = frames[--depth];
+			prec = f.prec;
+			pos = f.pos;
+			switch ( f.kind ) {
+			case sym.AND: e = new And(f.left, e, pos); break;
+			case sym.PLUS: e = new Plus(f.left, e, pos); break;
+			case sym.MINUS: e = new Minus(f.left, e, pos); break;
+			case sym.MULT: e = new Times(f.left, e, pos); break;
+			case sym.LT: e = new LessThan(f.left, e, pos); break;
+			case sym.LBRACKET:
+				expectAfterExpression(sym.RBRACKET);
+				e = new ArrayLookup(f.left, e, pos);
+				break;
+			case sym.PERIOD:
+				f.args.add(e);
+				if ( kind() == sym.COMMA ) {
+					advance();
+					++depth;
+					prec = TOP;
+					e = null;
+					break;
+				}
+				if ( kind() != sym.RPAREN ) {
+					throw syntaxError(sym.AND, sym.LT, sym.PLUS, sym.MINUS, sym.MULT, sym.LBRACKET,
+									  sym.PERIOD, sym.COMMA, sym.RPAREN);
+				}
+				advance();
+				e = new Call(f.left, f.name, f.args, pos);
+				break;
+			case sym.NEW:
+				expectAfterExpression(sym.RBRACKET);
+				e = new NewArray(e, f.at);
+				break;
+			case sym.NOT:
+				e = new Not(e, f.at);
+				break;
+			case sym.LPAREN:
+				expectAfterExpression(sym.RPAREN);
+				break;
+			}
+		}
+	}
+
+	/**
+	 * A primary, the first operand of an expression of precedence prec
+	 * at pos; or null when it has an expression inside, for which it has
+	 * pushed a frame.
+	 */
+	private Exp primary(int prec, Location pos) throws Exception {
+		switch ( kind() ) {
+		case sym.INTEGER_LITERAL: {
+			String s = tokens.text(next);
+			advance();
+			return new IntegerLiteral(Integer.parseInt(s), pos);
+		}
+		case sym.TRUE:
+			advance();
+			return True.shared;
+		case sym.FALSE:
+			advance();
+			return False.shared;
+		case sym.THIS:
+			advance();
+			return This.shared;
+		case sym.IDENTIFIER: {
+			String s = tokens.text(next);
+			advance();
+			return new IdentifierExp(s, pos);
+		}
+		case sym.NEW:
+			advance();
+			if ( kind() == sym.INT ) {
+				advance();
+				expect(sym.LBRACKET);
+				push(sym.NEW, prec, pos, TOP).at = at(line());
+				return null;
+			}
+			Identifier i = identifier();
+			expect(sym.LPAREN);
+			expect(sym.RPAREN);
+			return new NewObject(i, at(i.getLineNo()));
+		case sym.NOT:
+			advance();
+			push(sym.NOT, prec, pos, NOT_).at = at(line());
+			return null;
+		case sym.LPAREN:
+			advance();
+			push(sym.LPAREN, prec, pos, TOP);
+			return null;
+		default:
+			throw syntaxError(sym.INTEGER_LITERAL, sym.TRUE, sym.FALSE, sym.THIS, sym.IDENTIFIER,
+							  sym.NEW, sym.NOT, sym.LPAREN);
+		}
+	}
+}
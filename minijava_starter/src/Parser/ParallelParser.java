@@ -0,0 +1,235 @@
+package Parser;
+
+import java.io.CharArrayReader;
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import AST.ClassDeclList;
+import AST.MainClass;
+import AST.Program;
+import Scanner.TokenBuffer;
+import Scanner.scanner;
+import java_cup.runtime.ComplexSymbolFactory;
+import java_cup.runtime.ComplexSymbolFactory.Location;
+
+/**
+ * Parses the classes of a program on several threads, for
+ * -X:parallelparse.  A program is a main class and then classes that
+ * don't depend on each other syntactically, so the source is cut at each
+ * "class" outside all braces and comments, found by a pass over the
+ * characters that only counts braces.  The main class and runs of the
+ * other classes are each scanned and parsed by DescentParser on the
+ * common fork/join pool, with the scanner counting lines from where the
+ * piece starts, and the classes are put together in source order.
+ *
+ * Pieces are parsed quietly.  If any of them has an error, or the cuts
+ * can't be made, parse gives up and returns null, and the whole source
+ * should be parsed again by one parser, which reports the errors as
+ * usual.
+ */
+public class ParallelParser {
+
+	/** Pieces per thread, so that threads finishing early can take more. */
+	private static final int PIECES_PER_THREAD = 4;
+
+	private static final PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+
+	private final char[] source;
+
+	// where each top-level "class" starts
+	private int[] offset = new int[16], line = new int[16], column = new int[16];
+	private int classes = 0;
+
+	private int pieces = 0;
+
+	public ParallelParser(char[] source) {
+		this.source = source;
+	}
+
+	/** All the characters from in. */
+	public static char[] read(Reader in) throws IOException {
+		CharArrayWriter w = new CharArrayWriter(1 << 16);
+		char[] buf = new char[1 << 16];
+		for ( int n; (n = in.read(buf)) >= 0; ) {
+			w.write(buf, 0, n);
+		}
+		return w.toCharArray();
+	}
+
+	/** The number of pieces the source was parsed in, 0 if it wasn't cut. */
+	public int pieces() {
+		return pieces;
+	}
+
+	/**
+	 * Parse the source, or return null if it has to be parsed by one
+	 * parser instead.
+	 */
+	public Program parse() throws Exception {
+		if ( !findClasses() || classes < 2 ) return null;
+
+		// cut the classes after the main one into runs of about equal size
+		int threads = ForkJoinPool.getCommonPoolParallelism();
+		int runs = Math.min(classes - 1, threads * PIECES_PER_THREAD);
+		List<Integer> cuts = new ArrayList<Integer>();
+		cuts.add(1);
+		int rest = source.length - offset[1];
+		for ( int c = 2; c < classes; c++ ) {
+			int done = offset[c] - offset[1];
+			if ( (long)done * runs >= (long)rest * cuts.size() ) cuts.add(c);
+		}
+		pieces = cuts.size() + 1;
+
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		List<Future<ClassDeclList>> pending = new ArrayList<Future<ClassDeclList>>();
+		for ( int i = 0; i < cuts.size(); i++ ) {
+			int first = cuts.get(i);
+			int end = i + 1 < cuts.size() ? offset[cuts.get(i + 1)] : source.length;
+			pending.add(pool.submit(() -> {
+				ClassDeclList cl = new ClassDeclList(new Location(line[first], 1));
+				// the pool would wrap a checked exception in a RuntimeException,
+				// so a syntax error comes back as no classes
+				try {
+					parser(first, end).parseClasses(cl);
+				} catch ( SyntaxError e ) {
+					return null;
+				}
+				return cl;
+			}));
+		}
+		try {
+			// the main class, with anything before it, on this thread
+			MainClass m = parser(0, offset[1]).parseMainClass();
+			ClassDeclList first = pending.get(0).get();
+			if ( first == null ) throw new SyntaxError();
+			Program p = new Program(m, first, new Location(line[0], 1));
+			for ( int i = 1; i < pending.size(); i++ ) {
+				ClassDeclList cl = pending.get(i).get();
+				if ( cl == null ) throw new SyntaxError();
+				for ( int c = 0; c < cl.size(); c++ ) {
+					p.cl.add(cl.get(c));
+				}
+			}
+			return p;
+		} catch ( Exception | StackOverflowError e ) {
+			for ( Future<ClassDeclList> f : pending ) f.cancel(false);
+			// a piece that failed only means a syntax error somewhere; one
+			// that threw anything else is a bug
+			Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+			if ( cause instanceof RuntimeException ) throw (RuntimeException)cause;
+			if ( cause instanceof Error && !(cause instanceof StackOverflowError) ) throw (Error)cause;
+			return null;
+		}
+	}
+
+	/**
+	 * A quiet parser on the tokens of source[offset[c], end), or from 0
+	 * for the main class.
+	 */
+	private DescentParser parser(int c, int end) throws IOException {
+		int start = c == 0 ? 0 : offset[c];
+		scanner s = new scanner(new CharArrayReader(source, start, end - start),
+								new ComplexSymbolFactory());
+		if ( c != 0 ) s.setStart(line[c], column[c], start);
+		s.setDiagnostics(discard);
+		DescentParser p = new DescentParser(s.scan(new TokenBuffer()));
+		p.setReportErrors(false);
+		return p;
+	}
+
+	/**
+	 * Record where each "class" outside braces and comments starts,
+	 * counting lines and columns as the scanner does.  False if the
+	 * braces don't balance or a comment isn't closed.
+	 */
+	private boolean findClasses() {
+		final int CODE = 0, LINE_COMMENT = 1, BLOCK_COMMENT = 2;
+		char[] s = source;
+		int state = CODE, depth = 0, ln = 1, col = 1;
+		for ( int i = 0; i < s.length; ) {
+			char ch = s[i];
+			char next = i + 1 < s.length ? s[i + 1] : 0;
+			int len = 1;
+			switch ( state ) {
+			case CODE:
+				if ( ch == '/' && (next == '/' || next == '*') ) {
+					state = next == '/' ? LINE_COMMENT : BLOCK_COMMENT;
+					len = 2;
+				}
+				else if ( ch == '{' ) {
+					++depth;
+				}
+				else if ( ch == '}' ) {
+					if ( --depth < 0 ) return false;
+				}
+				else if ( depth == 0 && ch == 'c' && isClass(s, i) ) {
+					addClass(i, ln, col);
+				}
+				break;
+			case LINE_COMMENT:
+				// "." in the scanner's rule for it is anything but \n
+				if ( ch == '\n' ) state = CODE;
+				break;
+			case BLOCK_COMMENT:
+				if ( ch == '*' && next == '/' ) {
+					state = CODE;
+					len = 2;
+				}
+				break;
+			}
+
+			for ( int end = i + len; i < end; i++ ) {
+				switch ( s[i] ) {
+				case '\r': case '\u000B': case '\u000C': case '\u0085': case '\u2028': case '\u2029':
+					++ln;
+					col = 1;
+					break;
+				case '\n':
+					// \r\n is one line end
+					if ( i == 0 || s[i - 1] != '\r' ) {
+						++ln;
+						col = 1;
+					}
+					break;
+				default:
+					++col;
+				}
+			}
+		}
+		return depth == 0 && state != BLOCK_COMMENT;
+	}
+
+	private void addClass(int at, int ln, int col) {
+		if ( classes == offset.length ) {
+			offset = Arrays.copyOf(offset, classes * 2);
+			line = Arrays.copyOf(line, classes * 2);
+			column = Arrays.copyOf(column, classes * 2);
+		}
+		offset[classes] = at;
+		line[classes] = ln;
+		column[classes] = col;
+		++classes;
+	}
+
+	// the keyword "class" at s[i], not part of a longer identifier
+	private static boolean isClass(char[] s, int i) {
+		if ( i + 5 > s.length || s[i + 1] != 'l' || s[i + 2] != 'a' || s[i + 3] != 's'
+			 || s[i + 4] != 's' ) return false;
+		if ( i > 0 && isIdentifierPart(s[i - 1]) ) return false;
+		return i + 5 == s.length || !isIdentifierPart(s[i + 5]);
+	}
+
+	// as in the scanner's rule for identifiers
+	private static boolean isIdentifierPart(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+	}
+}
@@ -0,0 +1,113 @@
+package Parser;
+
+import java.util.Arrays;
+import java.util.EmptyStackException;
+import java.util.Stack;
+
+import java_cup.runtime.Symbol;
+
+/**
+ * The parse stack for parser.  It has to be a java.util.Stack, since
+ * lr_parser's error recovery and the generated actions take one, but the
+ * methods they use work on Vector's array directly instead of taking
+ * Vector's lock on every call.  The state of each symbol is kept in a
+ * parallel int array as it is pushed, so the parse loop reads the top
+ * state without a cast.
+ *
+ * Each thread keeps one stack between parses, so a parse only allocates
+ * when it goes deeper than any before it on that thread.
+ */
+@SuppressWarnings("serial")
+final class ParseStack extends Stack<Object> {
+
+	private static final ThreadLocal<ParseStack> idle = new ThreadLocal<ParseStack>();
+
+	private int[] states;
+
+	private ParseStack() {
+		super();
+		elementData = new Object[256];
+		states = new int[256];
+	}
+
+	/** A cleared stack for a parse on this thread. */
+	static ParseStack acquire() {
+		ParseStack s = idle.get();
+		if ( s == null ) return new ParseStack();
+		// taken out while in use, in case a parse starts another
+		idle.set(null);
+		return s;
+	}
+
+	/** Give s back to this thread for its next parse. */
+	static void release(ParseStack s) {
+		s.removeAllElements();
+		idle.set(s);
+	}
+
+	/** The parse state of the top symbol. */
+	int state() {
+		if ( elementCount == 0 ) throw new EmptyStackException();
+		return states[elementCount - 1];
+	}
+
+	/** Pop n symbols at once, as a reduce does. */
+	void drop(int n) {
+		if ( n > elementCount ) throw new EmptyStackException();
+		int top = elementCount;
+		elementCount -= n;
+		Arrays.fill(elementData, elementCount, top, null);
+	}
+
+	public Object push(Object item) {
+		if ( elementCount == elementData.length ) {
+			elementData = Arrays.copyOf(elementData, elementCount * 2);
+			states = Arrays.copyOf(states, elementCount * 2);
+		}
+		states[elementCount] = ((Symbol)item).parse_state;
+		elementData[elementCount++] = item;
+		return item;
+	}
+
+	public Object pop() {
+		if ( elementCount == 0 ) throw new EmptyStackException();
+		Object item = elementData[--elementCount];
+		elementData[elementCount] = null;
+		return item;
+	}
+
+	public Object peek() {
+		if ( elementCount == 0 ) throw new EmptyStackException();
+		return elementData[elementCount - 1];
+	}
+
+	public boolean empty() {
+		return elementCount == 0;
+	}
+
+	public boolean isEmpty() {
+		return elementCount == 0;
+	}
+
+	public int size() {
+		return elementCount;
+	}
+
+	public Object elementAt(int index) {
+		if ( index >= elementCount ) throw new ArrayIndexOutOfBoundsException(index);
+		return elementData[index];
+	}
+
+	public Object get(int index) {
+		return elementAt(index);
+	}
+
+	public void removeAllElements() {
+		Arrays.fill(elementData, 0, elementCount, null);
+		elementCount = 0;
+	}
+
+	public void clear() {
+		removeAllElements();
+	}
+}
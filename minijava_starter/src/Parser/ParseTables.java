@@ -0,0 +1,118 @@
+package Parser;
+
+import java.util.Arrays;
+
+/**
+ * CUP's parse tables spread out into flat arrays indexed directly by
+ * state and symbol.  lr_parser keeps one row of (symbol, entry) pairs
+ * per state and searches it on every shift, reduce and goto; here each
+ * lookup is one array access.  The tables are small (a few thousand
+ * shorts per state count) and built once per JVM, straight from the
+ * strings CUP packed its tables into: CUP's own short[][] rows are not
+ * unpacked for them, only by parser when it has a syntax error to
+ * recover from.
+ *
+ * Entries mean what they do in CUP: an action is state+1 for a shift,
+ * -(production+1) for a reduce and 0 for an error; a goto is the next
+ * state or -1.
+ */
+final class ParseTables {
+
+	/** The tables for parser's grammar. */
+	static final ParseTables grammar = new ParseTables(parser.packedTables(),
+		sym.terminalNames.length);
+
+	private final int terminals;
+	private final int nonterminals;
+
+	// [state * terminals + terminal]
+	private final short[] action;
+
+	// [state * nonterminals + nonterminal], the goto plus 1, so that a
+	// new array is all -1
+	private final short[] gotos;
+
+	// by production
+	private final short[] lhs;
+	private final short[] rhsSize;
+
+	/**
+	 * From the packed production, action and reduce tables, as
+	 * lr_parser.unpackFromStrings takes them: the strings are one run of
+	 * chars, with the number of rows and then each row's length in two
+	 * chars, high half first, and each entry plus 2 in one.
+	 */
+	ParseTables(String[][] packed, int terminals) {
+		this.terminals = terminals;
+
+		char[] c = chars(packed[0]);
+		int rows = c[0] << 16 | c[1];
+		lhs = new short[rows];
+		rhsSize = new short[rows];
+		int n = 0;
+		// each row is 2 chars of length and the lhs and size
+		for ( int p = 0, i = 4; p < rows; p++, i += 4 ) {
+			lhs[p] = (short)(c[i] - 2);
+			rhsSize[p] = (short)(c[i + 1] - 2);
+			n = Math.max(n, lhs[p] + 1);
+		}
+		nonterminals = n;
+
+		c = chars(packed[1]);
+		rows = c[0] << 16 | c[1];
+		action = new short[rows * terminals];
+		for ( int s = 0, i = 2; s < rows; s++ ) {
+			i = spread(c, i, action, s * terminals, terminals, 0);
+		}
+
+		c = chars(packed[2]);
+		rows = c[0] << 16 | c[1];
+		gotos = new short[rows * nonterminals];
+		for ( int s = 0, i = 2; s < rows; s++ ) {
+			i = spread(c, i, gotos, s * nonterminals, nonterminals, 1);
+		}
+	}
+
+	private static char[] chars(String[] strings) {
+		StringBuilder b = new StringBuilder();
+		for ( String s : strings ) b.append(s);
+		char[] c = new char[b.length()];
+		b.getChars(0, c.length, c, 0);
+		return c;
+	}
+
+	// the row at c[i], stored with bias added to its entries: (symbol,
+	// entry) pairs in symbol order, ending with (-1, default) if it has a
+	// default; returns where the next row starts
+	private static int spread(char[] c, int i, short[] to, int start, int width, int bias) {
+		int next = i + 2 + (c[i] << 16 | c[i + 1]);
+		int end = next;
+		// -1 packed is 1
+		if ( end - i > 3 && c[end - 2] == 1 ) {
+			end -= 2;
+			// which in CUP's tables is always what a new array holds
+			short d = (short)(c[end + 1] - 2 + bias);
+			if ( d != 0 ) Arrays.fill(to, start, start + width, d);
+		}
+		for ( i += 2; i < end; i += 2 ) {
+			to[start + c[i] - 2] = (short)(c[i + 1] - 2 + bias);
+		}
+		return next;
+	}
+
+	int action(int state, int terminal) {
+		return action[state * terminals + terminal];
+	}
+
+	int gotoState(int state, int nonterminal) {
+		return gotos[state * nonterminals + nonterminal] - 1;
+	}
+
+	int lhs(int production) {
+		return lhs[production];
+	}
+
+	int rhsSize(int production) {
+		return rhsSize[production];
+	}
+}
@@ -0,0 +1,16 @@
+package Parser;
+
+/**
+ * Thrown by parser and DescentParser on a syntax error they can't
+ * recover from, once it has been reported.  The message is the one
+ * lr_parser gives its own exception, and the compile counts the error
+ * like any other.
+ */
+public class SyntaxError extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	public SyntaxError() {
+		super("Can't recover from previous error(s)");
+	}
+}
@@ -418,6 +418,169 @@ public class parser extends java_cup.runtime.lr_parser {
   public int error_sym() {return 1;}
 
 
+
+  // CUP's static initializer unpacks each of its tables with
+  // unpackFromStrings, which the one below hides: it only makes the
+  // array of rows, and they are filled in by unpackTables the first time
+  // lr_parser needs them, which is on a syntax error, as the parse itself
+  // uses the flat ParseTables.  These have no initializers, which would
+  // run after the tables' and undo them.
+  private static String[][] packed;
+  private static short[][][] tables;
+  private static int count;
+  private static boolean unpacked;
+
+  /** The rows of a CUP table, empty until unpackTables. */
+  protected static short[][] unpackFromStrings(String[] sa)
+    {
+      if (packed == null)
+        {
+          packed = new String[3][];
+          tables = new short[3][][];
+        }
+      short[][] rows = new short[(sa[0].charAt(0) << 16) | sa[0].charAt(1)][];
+      packed[count] = sa;
+      tables[count++] = rows;
+      return rows;
+    }
+
+  /** Fill in the rows of the production, action and reduce tables. */
+  static synchronized void unpackTables()
+    {
+      if (unpacked)
+        return;
+      for (int i = 0; i < count; i++)
+        {
+          short[][] rows = lr_parser.unpackFromStrings(packed[i]);
+          System.arraycopy(rows, 0, tables[i], 0, rows.length);
+        }
+      unpacked = true;
+    }
+
+  /**
+   * The strings CUP packed the production, action and reduce tables into,
+   * for ParseTables to spread out.
+   */
+  static String[][] packedTables()
+    {
+      return packed;
+    }
+
+  // syntax errors are reported on diagnostics
+  private java.io.PrintStream diagnostics = System.err;
+
+  /** Where to report syntax errors, instead of System.err. */
+  public void setDiagnostics(java.io.PrintStream d)
+    {
+      diagnostics = d;
+    }
+
+  /** As in lr_parser, on diagnostics. */
+  public void report_error(String message, Object info)
+    {
+      if (info instanceof ComplexSymbolFactory.ComplexSymbol)
+        {
+          ComplexSymbolFactory.ComplexSymbol s = (ComplexSymbolFactory.ComplexSymbol)info;
+          diagnostics.println(message + " for input symbol \"" + s.getName()
+                              + "\" spanning from " + s.getLeft() + " to " + s.getRight());
+        }
+      else if (info instanceof Symbol && ((Symbol)info).left != -1)
+        diagnostics.println(message + " at character " + ((Symbol)info).left + " of input");
+      else
+        diagnostics.println(message);
+    }
+
+  protected void report_expected_token_ids()
+    {
+      List<String> names = new ArrayList<String>();
+      for (Integer id : expected_token_ids())
+        names.add(symbl_name_from_id(id));
+      diagnostics.println("instead expected token classes are " + names);
+    }
+
+  /** Report the error and throw SyntaxError, not a plain Exception. */
+  public void unrecovered_syntax_error(Symbol cur_token) throws SyntaxError
+    {
+      done_parsing();
+      report_error("Couldn't repair and continue parse", cur_token);
+      throw new SyntaxError();
+    }
+
+  /**
+   * The loop of lr_parser.parse, looking actions and gotos up in the flat
+   * ParseTables instead of searching CUP's rows, on this thread's
+   * ParseStack instead of a new synchronized Stack.  Syntax errors are
+   * still reported and recovered from by lr_parser, with its own tables,
+   * which are unpacked for that.
+   * Symbol.used_by_parser can't be set from here, so there is no check
+   * for a scanner that hands out the same symbol twice.
+   */
+  public Symbol parse() throws java.lang.Exception
+    {
+      ParseTables t = ParseTables.grammar;
+      ParseStack s = ParseStack.acquire();
+      Symbol lhs_sym = null;
+
+      production_tab = production_table();
+      action_tab     = action_table();
+      reduce_tab     = reduce_table();
+      init_actions();
+      user_init();
+
+      stack = s;
+      try
+        {
+          cur_token = scan();
+          s.push(getSymbolFactory().startSymbol("START", 0, start_state()));
+          tos = 0;
+
+          for (_done_parsing = false; !_done_parsing; )
+            {
+              int act = t.action(s.state(), cur_token.sym);
+              if (act > 0)
+                {
+                  // shift
+                  cur_token.parse_state = act-1;
+                  s.push(cur_token);
+                  tos++;
+                  cur_token = scan();
+                }
+              else if (act < 0)
+                {
+                  // reduce, then go to the state for the production's lhs
+                  int production = (-act)-1;
+                  int size = t.rhsSize(production);
+                  lhs_sym = do_action(production, this, s, tos);
+                  s.drop(size);
+                  tos -= size;
+                  lhs_sym.parse_state = t.gotoState(s.state(), t.lhs(production));
+                  s.push(lhs_sym);
+                  tos++;
+                }
+              else
+                {
+                  unpackTables();
+                  syntax_error(cur_token);
+                  if (!error_recovery(false))
+                    {
+                      unrecovered_syntax_error(cur_token);
+                      done_parsing();
+                    }
+                  else
+                    {
+                      lhs_sym = (Symbol)s.peek();
+                    }
+                }
+            }
+          return lhs_sym;
+        }
+      finally
+        {
+          ParseStack.release(s);
+        }
+    }
+
+
 /** Cup generated class to encapsulate user supplied action code.*/
 @SuppressWarnings({"rawtypes", "unchecked", "unused"})
 class CUP$parser$actions {
@@ -569,7 +732,7 @@ class CUP$parser$actions {
 		Location vlxleft = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).xleft;
 		Location vlxright = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).xright;
 		VarDeclList vl = (VarDeclList)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
-		 RESULT = new ClassDeclExtends(i, ei, vl, new MethodDeclList(ixleft), ixleft); 
+		 RESULT = new ClassDeclExtends(i, ei, vl, MethodDeclList.empty, ixleft); 
               CUP$parser$result = parser.getSymbolFactory().newSymbol("ClassDecl",3, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-6)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
@@ -587,7 +750,7 @@ class CUP$parser$actions {
 		Location mlxleft = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).xleft;
 		Location mlxright = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).xright;
 		MethodDeclList ml = (MethodDeclList)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
-		 RESULT = new ClassDeclExtends(i, ei, new VarDeclList(ixleft), ml, ixleft); 
+		 RESULT = new ClassDeclExtends(i, ei, VarDeclList.empty, ml, ixleft); 
               CUP$parser$result = parser.getSymbolFactory().newSymbol("ClassDecl",3, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-6)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
@@ -602,7 +765,7 @@ class CUP$parser$actions {
 		Location eixleft = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).xleft;
 		Location eixright = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).xright;
 		Identifier ei = (Identifier)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-2)).value;
-		 RESULT = new ClassDeclExtends(i, ei, new VarDeclList(ixleft), new MethodDeclList(ixleft), ixleft); 
+		 RESULT = new ClassDeclExtends(i, ei, VarDeclList.empty, MethodDeclList.empty, ixleft); 
               CUP$parser$result = parser.getSymbolFactory().newSymbol("ClassDecl",3, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-5)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
@@ -635,7 +798,7 @@ class CUP$parser$actions {
 		Location vlxleft = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).xleft;
 		Location vlxright = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).xright;
 		VarDeclList vl = (VarDeclList)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
-		 RESULT = new ClassDeclSimple(i, vl, new MethodDeclList(ixleft), ixleft); 
+		 RESULT = new ClassDeclSimple(i, vl, MethodDeclList.empty, ixleft); 
               CUP$parser$result = parser.getSymbolFactory().newSymbol("ClassDecl",3, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-4)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
@@ -650,7 +813,7 @@ class CUP$parser$actions {
 		Location mlxleft = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).xleft;
 		Location mlxright = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.elementAt(CUP$parser$top-1)).xright;
 		MethodDeclList ml = (MethodDeclList)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-1)).value;
-		 RESULT = new ClassDeclSimple(i, new VarDeclList(ixleft), ml, ixleft); 
+		 RESULT = new ClassDeclSimple(i, VarDeclList.empty, ml, ixleft); 
               CUP$parser$result = parser.getSymbolFactory().newSymbol("ClassDecl",3, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-4)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
@@ -662,7 +825,7 @@ class CUP$parser$actions {
 		Location ixleft = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).xleft;
 		Location ixright = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).xright;
 		Identifier i = (Identifier)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-2)).value;
-		 RESULT = new ClassDeclSimple(i, new VarDeclList(ixleft), new MethodDeclList(ixleft), ixleft); 
+		 RESULT = new ClassDeclSimple(i, VarDeclList.empty, MethodDeclList.empty, ixleft); 
               CUP$parser$result = parser.getSymbolFactory().newSymbol("ClassDecl",3, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-3)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
@@ -747,7 +910,7 @@ class CUP$parser$actions {
 		Location rexleft = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).xleft;
 		Location rexright = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).xright;
 		Exp re = (Exp)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-2)).value;
-		 RESULT = new MethodDecl(t, i, fl, vl, new StatementList(txleft), re, txleft); 
+		 RESULT = new MethodDecl(t, i, fl, vl, StatementList.empty, re, txleft); 
               CUP$parser$result = parser.getSymbolFactory().newSymbol("MethodDecl",5, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-11)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
@@ -771,7 +934,7 @@ class CUP$parser$actions {
 		Location rexleft = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).xleft;
 		Location rexright = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).xright;
 		Exp re = (Exp)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-2)).value;
-		 RESULT = new MethodDecl(t, i, fl, new VarDeclList(txleft), sl, re, txleft); 
+		 RESULT = new MethodDecl(t, i, fl, VarDeclList.empty, sl, re, txleft); 
               CUP$parser$result = parser.getSymbolFactory().newSymbol("MethodDecl",5, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-11)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
@@ -792,7 +955,7 @@ class CUP$parser$actions {
 		Location rexleft = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).xleft;
 		Location rexright = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).xright;
 		Exp re = (Exp)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-2)).value;
-		 RESULT = new MethodDecl(t, i, fl, new VarDeclList(txleft), new StatementList(txleft), re, txleft); 
+		 RESULT = new MethodDecl(t, i, fl, VarDeclList.empty, StatementList.empty, re, txleft); 
               CUP$parser$result = parser.getSymbolFactory().newSymbol("MethodDecl",5, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-10)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
@@ -816,7 +979,7 @@ class CUP$parser$actions {
 		Location rexleft = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).xleft;
 		Location rexright = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).xright;
 		Exp re = (Exp)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-2)).value;
-		 RESULT = new MethodDecl(t, i, new FormalList(txleft), vl, sl, re, txleft); 
+		 RESULT = new MethodDecl(t, i, FormalList.empty, vl, sl, re, txleft); 
               CUP$parser$result = parser.getSymbolFactory().newSymbol("MethodDecl",5, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-11)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
@@ -837,7 +1000,7 @@ class CUP$parser$actions {
 		Location rexleft = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).xleft;
 		Location rexright = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).xright;
 		Exp re = (Exp)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-2)).value;
-		 RESULT = new MethodDecl(t, i, new FormalList(txleft), vl, new StatementList(txleft), re, txleft); 
+		 RESULT = new MethodDecl(t, i, FormalList.empty, vl, StatementList.empty, re, txleft); 
               CUP$parser$result = parser.getSymbolFactory().newSymbol("MethodDecl",5, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-10)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
@@ -858,7 +1021,7 @@ class CUP$parser$actions {
 		Location rexleft = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).xleft;
 		Location rexright = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).xright;
 		Exp re = (Exp)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-2)).value;
-		 RESULT = new MethodDecl(t, i, new FormalList(txleft), new VarDeclList(txleft), sl, re, txleft); 
+		 RESULT = new MethodDecl(t, i, FormalList.empty, VarDeclList.empty, sl, re, txleft); 
               CUP$parser$result = parser.getSymbolFactory().newSymbol("MethodDecl",5, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-10)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
@@ -876,7 +1039,7 @@ class CUP$parser$actions {
 		Location rexleft = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).xleft;
 		Location rexright = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).xright;
 		Exp re = (Exp)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-2)).value;
-		 RESULT = new MethodDecl(t, i, new FormalList(txleft), new VarDeclList(txleft), new StatementList(txleft), re, txleft); 
+		 RESULT = new MethodDecl(t, i, FormalList.empty, VarDeclList.empty, StatementList.empty, re, txleft); 
               CUP$parser$result = parser.getSymbolFactory().newSymbol("MethodDecl",5, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-9)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
@@ -986,7 +1149,7 @@ class CUP$parser$actions {
 		Location ixleft = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).xleft;
 		Location ixright = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).xright;
 		Object i = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-2)).value;
-		 RESULT = new IntArrayType(ixleft); 
+		 RESULT = IntArrayType.shared; 
               CUP$parser$result = parser.getSymbolFactory().newSymbol("Type",10, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-2)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
@@ -998,7 +1161,7 @@ class CUP$parser$actions {
 		Location bxleft = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.peek()).xleft;
 		Location bxright = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.peek()).xright;
 		Object b = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.peek()).value;
-		 RESULT = new BooleanType(bxleft); 
+		 RESULT = BooleanType.shared; 
               CUP$parser$result = parser.getSymbolFactory().newSymbol("Type",10, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
@@ -1010,7 +1173,7 @@ class CUP$parser$actions {
 		Location ixleft = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.peek()).xleft;
 		Location ixright = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.peek()).xright;
 		Object i = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.peek()).value;
-		 RESULT = new IntegerType(ixleft); 
+		 RESULT = IntegerType.shared; 
               CUP$parser$result = parser.getSymbolFactory().newSymbol("Type",10, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
@@ -1429,7 +1592,7 @@ class CUP$parser$actions {
 		Location idxleft = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).xleft;
 		Location idxright = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.elementAt(CUP$parser$top-2)).xright;
 		Identifier id = (Identifier)((java_cup.runtime.Symbol) CUP$parser$stack.elementAt(CUP$parser$top-2)).value;
-		 RESULT = new Call(e, id, new ExpList(exleft), exleft); 
+		 RESULT = new Call(e, id, ExpList.empty, exleft); 
               CUP$parser$result = parser.getSymbolFactory().newSymbol("Expression",20, ((java_cup.runtime.Symbol)CUP$parser$stack.elementAt(CUP$parser$top-4)), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
@@ -1453,7 +1616,7 @@ class CUP$parser$actions {
 		Location txleft = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.peek()).xleft;
 		Location txright = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.peek()).xright;
 		Object t = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.peek()).value;
-		 RESULT = new True(txleft); 
+		 RESULT = True.shared; 
               CUP$parser$result = parser.getSymbolFactory().newSymbol("Expression",20, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
@@ -1465,7 +1628,7 @@ class CUP$parser$actions {
 		Location fxleft = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.peek()).xleft;
 		Location fxright = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.peek()).xright;
 		Object f = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.peek()).value;
-		 RESULT = new False(fxleft); 
+		 RESULT = False.shared; 
               CUP$parser$result = parser.getSymbolFactory().newSymbol("Expression",20, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
@@ -1489,7 +1652,7 @@ class CUP$parser$actions {
 		Location idxleft = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.peek()).xleft;
 		Location idxright = ((java_cup.runtime.ComplexSymbolFactory.ComplexSymbol)CUP$parser$stack.peek()).xright;
 		Object id = (Object)((java_cup.runtime.Symbol) CUP$parser$stack.peek()).value;
-		 RESULT = new This(idxleft); 
+		 RESULT = This.shared; 
               CUP$parser$result = parser.getSymbolFactory().newSymbol("Expression",20, ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), ((java_cup.runtime.Symbol)CUP$parser$stack.peek()), RESULT);
             }
           return CUP$parser$result;
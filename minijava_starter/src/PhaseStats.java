@@ -0,0 +1,162 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import AST.Program;
+import AST.Visitor.NodeCountVisitor;
+import Codegen.AsmEmitter;
+import Scanner.TokenPipeline;
+import Symtab.FrozenSymbolTable;
+import Symtab.SymbolTable;
+
+/**
+ * Per-phase wall time, CPU time and allocation, plus counters, for one
+ * compile under -X:stats.  Phases are measured on the calling thread, so
+ * begin() and end() must be called from the thread doing the work.
+ */
+public class PhaseStats {
+	private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+	private final String source;
+	private final String mode;
+
+	// phase name -> { wall ns, cpu ns, allocated bytes }
+	private final Map<String, long[]> phases = new LinkedHashMap<String, long[]>();
+	private final Map<String, Long> counters = new LinkedHashMap<String, Long>();
+
+	private String current = null;
+	private long wall0, cpu0, alloc0;
+
+	public PhaseStats(String source, String mode)
+	{
+		this.source = source;
+		this.mode = mode;
+	}
+
+	public void begin(String phase)
+	{
+		current = phase;
+		alloc0 = allocatedBytes();
+		cpu0 = cpuTime();
+		wall0 = System.nanoTime();
+	}
+
+	public void end()
+	{
+		long wall = System.nanoTime() - wall0;
+		long cpu = cpuTime() - cpu0;
+		long alloc = allocatedBytes() - alloc0;
+		long [] p = phases.get(current);
+		if ( p == null )
+			phases.put(current, new long [] { wall, cpu, alloc });
+		else {
+			p[0] += wall; p[1] += cpu; p[2] += alloc;
+		}
+		current = null;
+	}
+
+	public void count(String counter, long value)
+	{
+		counters.put(counter, value);
+	}
+
+	/** Count the nodes of a freshly parsed program. */
+	public void countProgram(Program program)
+	{
+		NodeCountVisitor nc = new NodeCountVisitor();
+		program.accept(nc);
+		count("ast_nodes", nc.count);
+	}
+
+	/** Count symbols, scopes and lookups in a symbol table. */
+	public void countSymtab(SymbolTable st)
+	{
+		count("symbols", st.countSymbols());
+		count("scopes", st.countScopes());
+		count("lookups", st.countLookups());
+		count("lookup_hops", st.countHops());
+	}
+
+	/** As countSymtab(st), with the lookups made on frozen, st frozen. */
+	public void countSymtab(SymbolTable st, FrozenSymbolTable frozen)
+	{
+		countSymtab(st);
+		count("lookups", st.countLookups() + frozen.countLookups());
+		count("lookup_hops", st.countHops() + frozen.countHops());
+	}
+
+	/** How far scanning and parsing overlapped under -X:pipeline. */
+	public void countPipeline(TokenPipeline p)
+	{
+		count("pipeline_batches", p.batches());
+		count("pipeline_scan_cpu_ns", p.scanCpu());
+		count("pipeline_scan_wait_ns", p.scanWait());
+		count("pipeline_parse_wait_ns", p.parseWait());
+		count("pipeline_overlap_ns", p.overlap());
+	}
+
+	public void countEmitter(AsmEmitter asm)
+	{
+		count("instructions", asm.getInstructionCount());
+		count("labels", asm.getLabelCount());
+	}
+
+	private static long cpuTime()
+	{
+		return threads.isCurrentThreadCpuTimeSupported() ? threads.getCurrentThreadCpuTime() : -1;
+	}
+
+	private static long allocatedBytes()
+	{
+		if ( threads instanceof com.sun.management.ThreadMXBean )
+			return ((com.sun.management.ThreadMXBean)threads).getCurrentThreadAllocatedBytes();
+		return -1;
+	}
+
+	/** One line of JSON with every phase and counter recorded so far. */
+	public String toJson()
+	{
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("{\"source\":");
+		quote(sb, source);
+		sb.append(",\"mode\":");
+		quote(sb, mode);
+		sb.append(",\"phases\":{");
+		boolean first = true;
+		for ( Map.Entry<String, long[]> e : phases.entrySet() ) {
+			if ( !first ) sb.append(',');
+			first = false;
+			long [] p = e.getValue();
+			quote(sb, e.getKey());
+			sb.append(":{\"wall_ns\":").append(p[0])
+			  .append(",\"cpu_ns\":").append(p[1])
+			  .append(",\"alloc_bytes\":").append(p[2]).append('}');
+		}
+		sb.append("},\"counters\":{");
+		first = true;
+		for ( Map.Entry<String, Long> e : counters.entrySet() ) {
+			if ( !first ) sb.append(',');
+			first = false;
+			quote(sb, e.getKey());
+			sb.append(':').append(e.getValue());
+		}
+		sb.append("}}");
+		return sb.toString();
+	}
+
+	private static void quote(StringBuilder sb, String s)
+	{
+		sb.append('"');
+		for ( int i = 0; i < s.length(); i++ ) {
+			char c = s.charAt(i);
+			if ( c == '"' || c == '\\' )
+				sb.append('\\').append(c);
+			else if ( c < 0x20 )
+				sb.append(String.format("\\u%04x", (int)c));
+			else
+				sb.append(c);
+		}
+		sb.append('"');
+	}
+}
@@ -0,0 +1,278 @@
+package Scanner;
+
+import java.nio.ByteBuffer;
+
+import Parser.sym;
+import Symtab.NamePool;
+
+/**
+ * Scans a source held as bytes straight into a TokenBuffer, for
+ * -X:mmap, without decoding it into chars first.  It only knows the
+ * common case: an ASCII source with no lexical errors.  At the first byte
+ * that isn't ASCII, or that the scanner would report as an error, it
+ * gives up, and the source has to be scanned by scanner, which decodes it
+ * and reports the errors as usual.
+ *
+ * The tokens, their offsets, lines and columns are the ones the scanner
+ * would record.  Lines are counted as JFlex counts them: \r\n, \r, \n,
+ * \u000B and \u000C each end one, though only \r and \n are whitespace;
+ * the other two can only appear inside block comments.
+ */
+public final class ByteScanner {
+
+	private final ByteBuffer in;
+	private final int end;
+	private final TokenBuffer tokens;
+
+	// in[base, base+filled), copied out a window at a time with a bulk get:
+	// reading a byte of a MappedByteBuffer one at a time costs a call until
+	// the JIT has inlined it, which is most of a one-shot compile
+	private static final int WINDOW = 1 << 12;
+	private final byte[] window;
+	private int base = 0, filled = 0;
+
+	// where the next character is, and its line and column from 1
+	private int pos = 0;
+	private int line = 1, column = 1;
+	// whether the last character was \r, so that a \n after it ends no line
+	private boolean cr = false;
+
+	// identifier and literal characters, for NamePool and the TokenBuffer
+	private char[] chars = new char[64];
+
+	private ByteScanner(ByteBuffer in, TokenBuffer b) {
+		this.in = in;
+		this.end = in.limit();
+		this.tokens = b;
+		this.window = new byte[Math.min(WINDOW, end)];
+	}
+
+	/**
+	 * Scan in[0, limit) into b, ending with an EOF token.  False if the
+	 * source isn't ASCII or has a lexical error, in which case b has been
+	 * cleared.
+	 */
+	public static boolean scan(ByteBuffer in, TokenBuffer b) {
+		if ( new ByteScanner(in, b).scan() ) return true;
+		b.clear();
+		return false;
+	}
+
+	private boolean scan() {
+		while ( pos < end ) {
+			if ( !next() ) return false;
+		}
+		tokens.add(sym.EOF, end, 0, line, column, null, 0);
+		return true;
+	}
+
+	/**
+	 * Scan the token, whitespace or comment at pos; false if the scanner
+	 * would report an error there or it isn't ASCII.  A method of its own,
+	 * called once a token, so that it is compiled as soon as the scanner's
+	 * next_token would be.
+	 */
+	private boolean next() {
+		int c = at(pos);
+		int start = pos;
+		// only a \n right after a \r is part of its line end
+		if ( c != '\n' ) cr = false;
+		if ( isLetter(c) ) {
+			// copied and hashed as String.hashCode would on the way
+			int len = 0, h = 0;
+			for ( ; pos < end && isIdentifierPart(c = at(pos)); ++pos ) {
+				if ( len == chars.length ) chars = java.util.Arrays.copyOf(chars, len * 2);
+				chars[len++] = (char)c;
+				h = 31 * h + c;
+			}
+			int k = keyword(len, h);
+			if ( k == sym.IDENTIFIER ) {
+				tokens.add(k, start, len, line, column, NamePool.shared().intern(chars, 0, len));
+			}
+			else {
+				if ( k == sym.PRINTLN ) pos = start + PRINTLN.length;
+				tokens.add(k, start, pos - start, line, column, null, 0);
+			}
+			column += pos - start;
+			return true;
+		}
+		if ( c >= '0' && c <= '9' ) {
+			int len = 0;
+			for ( ; pos < end && (c = at(pos)) >= '0' && c <= '9'; ++pos ) {
+				if ( len == chars.length ) chars = java.util.Arrays.copyOf(chars, len * 2);
+				chars[len++] = (char)c;
+			}
+			tokens.add(sym.INTEGER_LITERAL, start, len, line, column, chars, 0);
+			column += len;
+			return true;
+		}
+		int k;
+		switch ( c ) {
+		case ' ': case '\t': case '\r': case '\n':
+			count(c);
+			++pos;
+			return true;
+		case '/':
+			return skipComment();
+		case '&':
+			if ( pos + 1 == end || at(pos + 1) != '&' ) return false;
+			tokens.add(sym.AND, start, 2, line, column, null, 0);
+			pos += 2;
+			column += 2;
+			return true;
+		case '+': k = sym.PLUS; break;
+		case '-': k = sym.MINUS; break;
+		case '=': k = sym.BECOMES; break;
+		case '<': k = sym.LT; break;
+		case '*': k = sym.MULT; break;
+		case '!': k = sym.NOT; break;
+		case '(': k = sym.LPAREN; break;
+		case ')': k = sym.RPAREN; break;
+		case '[': k = sym.LBRACKET; break;
+		case ']': k = sym.RBRACKET; break;
+		case '{': k = sym.LCURLYBRACKET; break;
+		case '}': k = sym.RCURLYBRACKET; break;
+		case ';': k = sym.SEMICOLON; break;
+		case '.': k = sym.PERIOD; break;
+		case ',': k = sym.COMMA; break;
+		default:
+			// not ASCII, or an unexpected character
+			return false;
+		}
+		tokens.add(k, start, 1, line, column, null, 0);
+		++pos;
+		++column;
+		return true;
+	}
+
+	/**
+	 * Skip the comment at pos, counting its lines.  False if the "/" at
+	 * pos doesn't start one, or a block comment isn't closed.
+	 */
+	private boolean skipComment() {
+		int next = pos + 1 < end ? at(pos + 1) : -1;
+		if ( next == '/' ) {
+			// up to the line end, which the rule's "." doesn't take
+			for ( ; pos < end; ++pos ) {
+				int c = at(pos);
+				if ( c < 0 ) return false;
+				if ( c == '\n' || c == '\r' || c == '\u000B' || c == '\u000C' ) break;
+				count(c);
+			}
+			return true;
+		}
+		if ( next != '*' ) return false;
+		column += 2;
+		cr = false;
+		for ( pos += 2; pos < end; ++pos ) {
+			int c = at(pos);
+			if ( c < 0 ) return false;
+			if ( c == '*' && pos + 1 < end && at(pos + 1) == '/' ) {
+				pos += 2;
+				column += 2;
+				cr = false;
+				return true;
+			}
+			count(c);
+		}
+		return false;
+	}
+
+	// move the line and column past the character c
+	private void count(int c) {
+		switch ( c ) {
+		case '\r':
+			++line;
+			column = 1;
+			cr = true;
+			return;
+		case '\n':
+			if ( !cr ) {
+				++line;
+				column = 1;
+			}
+			break;
+		case '\u000B': case '\u000C':
+			++line;
+			column = 1;
+			break;
+		default:
+			++column;
+		}
+		cr = false;
+	}
+
+	/**
+	 * The byte at p, which is before end and never before pos, and at
+	 * most a token's lookahead after it.
+	 */
+	private int at(int p) {
+		int i = p - base;
+		if ( i >= filled ) {
+			base = pos;
+			filled = Math.min(window.length, end - pos);
+			in.get(base, window, 0, filled);
+			i = p - base;
+		}
+		return window[i];
+	}
+
+	private static final byte[] PRINTLN = { 'S', 'y', 's', 't', 'e', 'm', '.', 'o', 'u', 't', '.',
+											'p', 'r', 'i', 'n', 't', 'l', 'n' };
+
+	// the words with a token of their own, "System" standing for the start
+	// of "System.out.println", in an open hash table by String.hashCode
+	private static final String[] WORDS = {
+		"display", "class", "public", "static", "void", "main", "extends", "int", "boolean", "if",
+		"else", "while", "length", "true", "false", "this", "new", "return", "String", "System",
+	};
+	private static final int[] WORD_CODES = {
+		sym.DISPLAY, sym.CLASS, sym.PUBLIC, sym.STATIC, sym.VOID, sym.MAIN, sym.EXTENDS, sym.INT,
+		sym.BOOLEAN, sym.IF, sym.ELSE, sym.WHILE, sym.LENGTH, sym.TRUE, sym.FALSE, sym.THIS,
+		sym.NEW, sym.RETURN, sym.STRING, sym.PRINTLN,
+	};
+	private static final int TABLE = 64;
+	private static final String[] table = new String[TABLE];
+	private static final int[] tableCodes = new int[TABLE];
+
+	static {
+		for ( int w = 0; w < WORDS.length; w++ ) {
+			int i = WORDS[w].hashCode() & (TABLE - 1);
+			while ( table[i] != null ) i = (i + 1) & (TABLE - 1);
+			table[i] = WORDS[w];
+			tableCodes[i] = WORD_CODES[w];
+		}
+	}
+
+	/**
+	 * The token the word in chars[0, len), with hash h, starts at pos - len:
+	 * a keyword, PRINTLN for the "System" of "System.out.println", or
+	 * IDENTIFIER.
+	 */
+	private int keyword(int len, int h) {
+		for ( int i = h & (TABLE - 1); table[i] != null; i = (i + 1) & (TABLE - 1) ) {
+			String w = table[i];
+			if ( w.hashCode() != h || w.length() != len ) continue;
+			int j = 0;
+			while ( j < len && chars[j] == w.charAt(j) ) ++j;
+			if ( j < len ) continue;
+			if ( tableCodes[i] != sym.PRINTLN ) return tableCodes[i];
+			// "System" only starts the longer keyword if all of it follows
+			int start = pos - len;
+			if ( start + PRINTLN.length > end ) break;
+			for ( j = len; j < PRINTLN.length && at(start + j) == PRINTLN[j]; ++j ) {
+			}
+			if ( j == PRINTLN.length ) return sym.PRINTLN;
+			break;
+		}
+		return sym.IDENTIFIER;
+	}
+
+	private static boolean isLetter(int c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+	}
+
+	private static boolean isIdentifierPart(int c) {
+		return isLetter(c) || (c >= '0' && c <= '9') || c == '_';
+	}
+}
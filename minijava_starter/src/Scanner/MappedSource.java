@@ -0,0 +1,87 @@
+package Scanner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A source file mapped into memory with FileChannel.map, for -X:mmap.
+ * The compile scans it with scan, straight from the mapped bytes by a
+ * ByteScanner, and only reads it as a Reader when that can't be done:
+ * then its bytes are decoded with the default charset, as FileReader
+ * would, and scanned by scanner as any other source.
+ *
+ * The mapping is never copied onto the heap while it is scanned as
+ * bytes.  It stays valid after the file is closed, and is let go of when
+ * this is collected.
+ */
+public final class MappedSource extends Reader {
+
+	private final ByteBuffer bytes;
+	private Reader chars = null;
+
+	private MappedSource(ByteBuffer bytes) {
+		this.bytes = bytes;
+	}
+
+	/**
+	 * Map the file, or open it as FileReader would if it is too large to
+	 * map in one piece.
+	 */
+	public static Reader open(Path file) throws IOException {
+		try ( FileChannel ch = FileChannel.open(file, StandardOpenOption.READ) ) {
+			long size = ch.size();
+			if ( size > Integer.MAX_VALUE ) {
+				return new InputStreamReader(java.nio.file.Files.newInputStream(file),
+											 Charset.defaultCharset());
+			}
+			return new MappedSource(ch.map(FileChannel.MapMode.READ_ONLY, 0, size));
+		}
+	}
+
+	/**
+	 * Scan the whole source into a new TokenBuffer, or return null if it
+	 * has to be read and scanned as chars instead: it isn't ASCII, it has
+	 * a lexical error, or some of it has been read already.
+	 */
+	public TokenBuffer scan() {
+		if ( chars != null ) return null;
+		// sized for a token every 4 bytes, about what generated programs
+		// have, so that the arrays seldom grow
+		TokenBuffer b = new TokenBuffer(bytes.limit() / 4);
+		return ByteScanner.scan(bytes, b) ? b : null;
+	}
+
+	@Override
+	public int read(char[] buf, int off, int len) throws IOException {
+		if ( chars == null ) {
+			ByteBuffer in = bytes.duplicate();
+			chars = new InputStreamReader(new InputStream() {
+				@Override
+				public int read() {
+					return in.hasRemaining() ? in.get() & 0xff : -1;
+				}
+
+				@Override
+				public int read(byte[] b, int off, int len) {
+					if ( !in.hasRemaining() ) return len == 0 ? 0 : -1;
+					len = Math.min(len, in.remaining());
+					in.get(b, off, len);
+					return len;
+				}
+			}, Charset.defaultCharset());
+		}
+		return chars.read(buf, off, len);
+	}
+
+	@Override
+	public void close() throws IOException {
+		if ( chars != null ) chars.close();
+	}
+}
@@ -0,0 +1,180 @@
+package Scanner;
+
+import java.util.Arrays;
+
+import java_cup.runtime.ComplexSymbolFactory;
+import java_cup.runtime.ComplexSymbolFactory.Location;
+import java_cup.runtime.Symbol;
+import Parser.sym;
+import Symtab.Name;
+import Symtab.NamePool;
+
+/**
+ * All the tokens of one source, kept in parallel int arrays instead of
+ * as a ComplexSymbol and two Locations each.  Filled by
+ * scanner.scan(TokenBuffer) for -X:tokenbuffer.
+ *
+ * Only identifiers, integer literals and unexpected characters have
+ * text worth keeping.  Identifiers are kept as the number of their Name;
+ * the characters of the others are copied into one shared char array and
+ * only turned into a String when asked for.  Symbols for the
+ * parser are made one at a time by a Cursor, the same as the scanner
+ * would have made them.
+ */
+public class TokenBuffer {
+
+	private int size = 0;
+
+	// per token: sym code, source offset, length, line and column (from 1)
+	private int[] kind;
+	private int[] start;
+	private int[] length;
+	private int[] line;
+	private int[] column;
+
+	// per token: where its text starts in chars, -1 if it has none, or
+	// -2 - id for the Name numbered id
+	private int[] text;
+
+	private char[] chars;
+	private int charCount = 0;
+
+	public TokenBuffer() {
+		this(1024);
+	}
+
+	public TokenBuffer(int capacity) {
+		capacity = Math.max(capacity, 16);
+		kind = new int[capacity];
+		start = new int[capacity];
+		length = new int[capacity];
+		line = new int[capacity];
+		column = new int[capacity];
+		text = new int[capacity];
+		chars = new char[capacity * 4];
+	}
+
+	/** Forget all tokens but keep the arrays for the next source. */
+	public void clear() {
+		size = 0;
+		charCount = 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int kind(int i) {
+		return kind[i];
+	}
+
+	public int start(int i) {
+		return start[i];
+	}
+
+	public int length(int i) {
+		return length[i];
+	}
+
+	public int line(int i) {
+		return line[i];
+	}
+
+	public int column(int i) {
+		return column[i];
+	}
+
+	/**
+	 * Record a token.  Its text is copied from buf[off, off+length) if
+	 * buf isn't null.
+	 */
+	void add(int code, int offset, int len, int ln, int col, char[] buf, int off) {
+		if ( size == kind.length ) grow();
+		kind[size] = code;
+		start[size] = offset;
+		length[size] = len;
+		line[size] = ln;
+		column[size] = col;
+		if ( buf != null ) {
+			if ( charCount + len > chars.length )
+				chars = Arrays.copyOf(chars, Math.max(chars.length * 2, charCount + len));
+			System.arraycopy(buf, off, chars, charCount, len);
+			text[size] = charCount;
+			charCount += len;
+		}
+		else {
+			text[size] = -1;
+		}
+		++size;
+	}
+
+	/** Record an identifier token. */
+	void add(int code, int offset, int len, int ln, int col, Name n) {
+		add(code, offset, len, ln, col, null, 0);
+		text[size - 1] = -2 - n.id;
+	}
+
+	private void grow() {
+		int n = kind.length * 2;
+		kind = Arrays.copyOf(kind, n);
+		start = Arrays.copyOf(start, n);
+		length = Arrays.copyOf(length, n);
+		line = Arrays.copyOf(line, n);
+		column = Arrays.copyOf(column, n);
+		text = Arrays.copyOf(text, n);
+	}
+
+	/** The text of token i, or null for tokens that keep none. */
+	public String text(int i) {
+		int t = text[i];
+		if ( t >= 0 ) return new String(chars, t, length[i]);
+		return t == -1 ? null : NamePool.shared().get(-2 - t).text;
+	}
+
+	/** The name of identifier token i, or null for other tokens. */
+	public Name name(int i) {
+		int t = text[i];
+		return t < -1 ? NamePool.shared().get(-2 - t) : null;
+	}
+
+	/** Same as scanner.symbolToString for the symbol of token i. */
+	public String toString(int i) {
+		switch ( kind[i] ) {
+		case sym.IDENTIFIER: return "ID(" + text(i) + ")";
+		case sym.error: return "<UNEXPECTED(" + text(i) + ")>";
+		default: return sym.terminalNames[kind[i]];
+		}
+	}
+
+	/** Make the symbol the scanner would have returned for token i. */
+	public Symbol symbol(int i, ComplexSymbolFactory sf) {
+		int len = length[i];
+		Location left = new Location(line[i], column[i], start[i]);
+		Location right = new Location(line[i], column[i] + len - 1, start[i] + len);
+		String name = sym.terminalNames[kind[i]];
+		if ( text[i] == -1 )
+			return sf.newSymbol(name, kind[i], left, right);
+		return sf.newSymbol(name, kind[i], left, right, text(i));
+	}
+
+	/** Hands out the tokens in order as symbols made by sf. */
+	public Cursor cursor(ComplexSymbolFactory sf) {
+		return new Cursor(sf);
+	}
+
+	public class Cursor implements java_cup.runtime.Scanner {
+		private final ComplexSymbolFactory sf;
+		private int next = 0;
+
+		Cursor(ComplexSymbolFactory sf) {
+			this.sf = sf;
+		}
+
+		public Symbol next_token() {
+			// past the end, a fresh symbol for the final EOF each time
+			Symbol s = symbol(next, sf);
+			if ( next < size - 1 ) ++next;
+			return s;
+		}
+	}
+}
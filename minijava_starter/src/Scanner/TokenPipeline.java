@@ -0,0 +1,245 @@
+package Scanner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+import java_cup.runtime.ComplexSymbolFactory;
+import java_cup.runtime.Symbol;
+import Parser.sym;
+
+/**
+ * Runs a scanner on its own thread ahead of the parser, for -X:pipeline.
+ * The scanner thread fills TokenBuffers of BATCH tokens and passes them
+ * to the parser through a ring of SLOTS of them; the parser takes symbols
+ * from the batch at the head of the ring with next_token and gives each
+ * batch back for reuse once it has had all of its tokens.  With only one
+ * thread writing each end of the ring, two volatile counters are all the
+ * synchronization there is, and they are touched once per batch.
+ *
+ * Lexical errors are reported when the parser takes the token they were
+ * found at, the same place as when the parser calls the scanner itself,
+ * so the two threads' messages come out in the usual order.  An
+ * exception on the scanner thread is thrown by next_token after the
+ * tokens before it.
+ *
+ * A thread waiting on the other spins briefly and then parks for short
+ * intervals; close() stops the scanner thread if the parser finishes
+ * first, after a syntax error.
+ */
+public class TokenPipeline implements java_cup.runtime.Scanner {
+
+	/** Tokens per batch. */
+	public static final int BATCH = 512;
+
+	/** Batches in the ring, a power of two. */
+	private static final int SLOTS = 16;
+
+	private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+	private static final class Batch {
+		final TokenBuffer tokens = new TokenBuffer(BATCH);
+
+		// messages the scanner printed while scanning token noteAt[i]
+		int[] noteAt = new int[4];
+		String[] notes = new String[4];
+		int noteCount = 0;
+
+		// true if this is the last batch, ending with EOF or failure
+		boolean last;
+		Throwable failure;
+
+		void clear() {
+			tokens.clear();
+			for ( int i = 0; i < noteCount; i++ ) notes[i] = null;
+			noteCount = 0;
+			last = false;
+			failure = null;
+		}
+
+		void note(int token, String message) {
+			if ( noteCount == notes.length ) {
+				noteAt = Arrays.copyOf(noteAt, noteCount * 2);
+				notes = Arrays.copyOf(notes, noteCount * 2);
+			}
+			noteAt[noteCount] = token;
+			notes[noteCount++] = message;
+		}
+	}
+
+	private final Batch[] ring = new Batch[SLOTS];
+
+	// batches taken by the parser and filled by the scanner so far
+	private volatile long head = 0;
+	private volatile long tail = 0;
+
+	private volatile boolean closed = false;
+
+	private final scanner scanner;
+	private final ComplexSymbolFactory sf;
+	private final PrintStream diagnostics;
+	private final Thread thread;
+
+	// the parser's side
+	private Batch current = null;
+	private int next = 0;
+	private int nextNote = 0;
+
+	// measurements, in ns: each side's waits, and the CPU time and wall
+	// time from start to close
+	private volatile long scanWait = 0, scanCpu = 0;
+	private long parseWait = 0, parseCpu = 0, wall = 0;
+	private final long cpu0, wall0;
+	private volatile long batches = 0;
+
+	private TokenPipeline(scanner s, ComplexSymbolFactory sf, PrintStream diagnostics) {
+		for ( int i = 0; i < SLOTS; i++ ) ring[i] = new Batch();
+		scanner = s;
+		this.sf = sf;
+		this.diagnostics = diagnostics;
+		thread = new Thread(this::scan, "minijava-scanner");
+		thread.setDaemon(true);
+		wall0 = System.nanoTime();
+		cpu0 = cpuTime();
+	}
+
+	/**
+	 * Start scanning s on a new thread.  Its lexical errors are reported
+	 * on diagnostics when the parser gets to them.
+	 */
+	public static TokenPipeline start(scanner s, ComplexSymbolFactory sf, PrintStream diagnostics) {
+		TokenPipeline p = new TokenPipeline(s, sf, diagnostics);
+		p.thread.start();
+		return p;
+	}
+
+	// ---- the scanner thread -----------------------------------------------
+
+	private void scan() {
+		long t = tail;
+		ByteArrayOutputStream printed = new ByteArrayOutputStream();
+		scanner.setDiagnostics(new PrintStream(printed, true));
+		try {
+			for ( boolean done = false; !done; ) {
+				// wait for the parser to free a slot
+				if ( t - head == SLOTS ) {
+					long w = System.nanoTime();
+					for ( int round = 0; t - head == SLOTS; round++ ) {
+						if ( closed ) return;
+						pause(round);
+					}
+					scanWait += System.nanoTime() - w;
+				}
+
+				Batch b = ring[(int)t & (SLOTS - 1)];
+				b.clear();
+				try {
+					while ( b.tokens.size() < BATCH && !done ) {
+						done = scanner.scanToken(b.tokens) == sym.EOF;
+						if ( printed.size() > 0 ) {
+							b.note(b.tokens.size() - 1, printed.toString());
+							printed.reset();
+						}
+					}
+				} catch ( Throwable e ) {
+					b.failure = e;
+					done = true;
+				}
+				b.last = done;
+				tail = ++t;
+				++batches;
+			}
+		} finally {
+			scanCpu = cpuTime();
+		}
+	}
+
+	// ---- the parser's thread ----------------------------------------------
+
+	public Symbol next_token() throws Exception {
+		while ( current == null || next == current.tokens.size() ) {
+			if ( current != null ) {
+				if ( current.failure != null ) throw rethrow(current.failure);
+				if ( current.last ) {
+					// past the end, a fresh symbol for the final EOF each time
+					return current.tokens.symbol(next - 1, sf);
+				}
+				head = head + 1;
+				current = null;
+			}
+			long h = head;
+			if ( h == tail ) {
+				long w = System.nanoTime();
+				for ( int round = 0; h == tail; round++ ) pause(round);
+				parseWait += System.nanoTime() - w;
+			}
+			current = ring[(int)h & (SLOTS - 1)];
+			next = 0;
+			nextNote = 0;
+		}
+		if ( nextNote < current.noteCount && current.noteAt[nextNote] == next ) {
+			diagnostics.print(current.notes[nextNote++]);
+		}
+		return current.tokens.symbol(next++, sf);
+	}
+
+	private static Exception rethrow(Throwable t) {
+		if ( t instanceof Error ) throw (Error)t;
+		return (Exception)t;
+	}
+
+	// spin, then yield, then sleep a little at a time
+	private static void pause(int round) {
+		if ( round < 100 ) Thread.onSpinWait();
+		else if ( round < 200 ) Thread.yield();
+		else LockSupport.parkNanos(20_000);
+	}
+
+	/**
+	 * Stop the scanner thread, if it is still going, and finish the
+	 * measurements.  Call it on the parser's thread once parsing is done.
+	 */
+	public void close() throws InterruptedException {
+		parseCpu = cpuTime() - cpu0;
+		closed = true;
+		thread.join();
+		wall = System.nanoTime() - wall0;
+	}
+
+	private static long cpuTime() {
+		return threads.isCurrentThreadCpuTimeSupported() ? threads.getCurrentThreadCpuTime() : -1;
+	}
+
+	/** Batches the scanner filled. */
+	public long batches() {
+		return batches;
+	}
+
+	/** ns the scanner waited for the parser to free a batch. */
+	public long scanWait() {
+		return scanWait;
+	}
+
+	/** ns the parser waited for the scanner to fill a batch. */
+	public long parseWait() {
+		return parseWait;
+	}
+
+	/** CPU ns of the scanner thread. */
+	public long scanCpu() {
+		return scanCpu;
+	}
+
+	/**
+	 * ns that the scanner and the parser were running at the same time:
+	 * the CPU time the two threads used beyond the wall time they took.
+	 * 0 on one core, or if thread CPU time can't be measured.
+	 */
+	public long overlap() {
+		if ( scanCpu < 0 || parseCpu < 0 ) return 0;
+		return Math.max(0, scanCpu + parseCpu - wall);
+	}
+}
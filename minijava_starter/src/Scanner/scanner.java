@@ -14,6 +14,8 @@ import java_cup.runtime.ComplexSymbolFactory;
 import java_cup.runtime.ComplexSymbolFactory.ComplexSymbol;
 import java_cup.runtime.ComplexSymbolFactory.Location;
 import Parser.sym;
+import Symtab.Name;
+import Symtab.NamePool;
 
 
 /**
@@ -31,6 +33,7 @@ public final class scanner implements java_cup.runtime.Scanner {
 
   /** lexical states */
   public static final int YYINITIAL = 0;
+  public static final int COMMENT = 2;
 
   /**
    * ZZ_LEXSTATE[l] is the state in the DFA for the lexical state l
@@ -39,7 +42,7 @@ public final class scanner implements java_cup.runtime.Scanner {
    * l is of the form l = 2*k, k a non negative integer
    */
   private static final int ZZ_LEXSTATE[] = { 
-     0, 0
+     0,  0,  1, 1
   };
 
   /** 
@@ -65,17 +68,17 @@ public final class scanner implements java_cup.runtime.Scanner {
   private static final int [] ZZ_ACTION = zzUnpackAction();
 
   private static final String ZZ_ACTION_PACKED_0 =
-    "\1\0\1\1\1\2\1\3\1\4\1\1\1\5\17\2"+
+    "\2\0\1\1\1\2\1\3\1\4\1\1\1\5\17\2"+
     "\1\6\1\2\1\7\1\10\1\11\1\1\1\12\1\13"+
     "\1\14\1\15\1\16\1\17\1\20\1\21\1\22\1\23"+
-    "\1\24\1\0\2\2\1\25\21\2\1\26\1\0\1\2"+
-    "\1\27\11\2\1\30\7\2\1\31\6\2\1\32\1\33"+
-    "\1\34\1\35\1\36\12\2\1\37\2\2\1\40\1\41"+
-    "\4\2\1\42\1\43\1\44\3\2\1\45\1\46\1\47"+
-    "\1\50\1\51\13\0\1\52";
+    "\2\24\1\25\1\26\2\2\1\27\21\2\1\30\1\31"+
+    "\1\2\1\32\11\2\1\33\15\2\1\34\1\35\1\36"+
+    "\1\37\1\40\12\2\1\41\2\2\1\42\1\43\4\2"+
+    "\1\44\1\45\1\46\3\2\1\47\1\50\1\51\1\52"+
+    "\1\53\13\0\1\54";
 
   private static int [] zzUnpackAction() {
-    int [] result = new int[135];
+    int [] result = new int[137];
     int offset = 0;
     offset = zzUnpackAction(ZZ_ACTION_PACKED_0, offset, result);
     return result;
@@ -100,26 +103,27 @@ public final class scanner implements java_cup.runtime.Scanner {
   private static final int [] ZZ_ROWMAP = zzUnpackRowMap();
 
   private static final String ZZ_ROWMAP_PACKED_0 =
-    "\0\0\0\57\0\136\0\215\0\274\0\353\0\57\0\u011a"+
+    "\0\0\0\57\0\136\0\215\0\274\0\353\0\u011a\0\136"+
     "\0\u0149\0\u0178\0\u01a7\0\u01d6\0\u0205\0\u0234\0\u0263\0\u0292"+
-    "\0\u02c1\0\u02f0\0\u031f\0\u034e\0\u037d\0\u03ac\0\57\0\u03db"+
-    "\0\57\0\57\0\57\0\u040a\0\57\0\57\0\57\0\57"+
-    "\0\57\0\57\0\57\0\57\0\57\0\57\0\u0439\0\u0468"+
-    "\0\u0497\0\u04c6\0\136\0\u04f5\0\u0524\0\u0553\0\u0582\0\u05b1"+
-    "\0\u05e0\0\u060f\0\u063e\0\u066d\0\u069c\0\u06cb\0\u06fa\0\u0729"+
-    "\0\u0758\0\u0787\0\u07b6\0\u07e5\0\57\0\u0814\0\u0843\0\136"+
-    "\0\u0872\0\u08a1\0\u08d0\0\u08ff\0\u092e\0\u095d\0\u098c\0\u09bb"+
-    "\0\u09ea\0\136\0\u0a19\0\u0a48\0\u0a77\0\u0aa6\0\u0ad5\0\u0b04"+
-    "\0\u0b33\0\u0468\0\u0b62\0\u0b91\0\u0bc0\0\u0bef\0\u0c1e\0\u0c4d"+
-    "\0\136\0\136\0\136\0\136\0\136\0\u0c7c\0\u0cab\0\u0cda"+
-    "\0\u0d09\0\u0d38\0\u0d67\0\u0d96\0\u0dc5\0\u0df4\0\u0e23\0\136"+
-    "\0\u0e52\0\u0e81\0\136\0\136\0\u0eb0\0\u0edf\0\u0f0e\0\u0f3d"+
-    "\0\136\0\136\0\136\0\u0f6c\0\u0f9b\0\u0fca\0\136\0\136"+
-    "\0\136\0\136\0\136\0\u0ff9\0\u1028\0\u1057\0\u1086\0\u10b5"+
-    "\0\u10e4\0\u1113\0\u1142\0\u1171\0\u11a0\0\u11cf\0\57";
+    "\0\u02c1\0\u02f0\0\u031f\0\u034e\0\u037d\0\u03ac\0\u03db\0\136"+
+    "\0\u040a\0\136\0\136\0\136\0\u0439\0\136\0\136\0\136"+
+    "\0\136\0\136\0\136\0\136\0\136\0\136\0\136\0\u0468"+
+    "\0\u0497\0\u04c6\0\136\0\u04f5\0\u0524\0\215\0\u0553\0\u0582"+
+    "\0\u05b1\0\u05e0\0\u060f\0\u063e\0\u066d\0\u069c\0\u06cb\0\u06fa"+
+    "\0\u0729\0\u0758\0\u0787\0\u07b6\0\u07e5\0\u0814\0\u0843\0\136"+
+    "\0\136\0\u0872\0\215\0\u08a1\0\u08d0\0\u08ff\0\u092e\0\u095d"+
+    "\0\u098c\0\u09bb\0\u09ea\0\u0a19\0\215\0\u0a48\0\u0a77\0\u0aa6"+
+    "\0\u0ad5\0\u0b04\0\u0b33\0\u0b62\0\u0b91\0\u0bc0\0\u0bef\0\u0c1e"+
+    "\0\u0c4d\0\u0c7c\0\215\0\215\0\215\0\215\0\215\0\u0cab"+
+    "\0\u0cda\0\u0d09\0\u0d38\0\u0d67\0\u0d96\0\u0dc5\0\u0df4\0\u0e23"+
+    "\0\u0e52\0\215\0\u0e81\0\u0eb0\0\215\0\215\0\u0edf\0\u0f0e"+
+    "\0\u0f3d\0\u0f6c\0\215\0\215\0\215\0\u0f9b\0\u0fca\0\u0ff9"+
+    "\0\215\0\215\0\215\0\215\0\215\0\u1028\0\u1057\0\u1086"+
+    "\0\u10b5\0\u10e4\0\u1113\0\u1142\0\u1171\0\u11a0\0\u11cf\0\u11fe"+
+    "\0\136";
 
   private static int [] zzUnpackRowMap() {
-    int [] result = new int[135];
+    int [] result = new int[137];
     int offset = 0;
     offset = zzUnpackRowMap(ZZ_ROWMAP_PACKED_0, offset, result);
     return result;
@@ -142,118 +146,118 @@ public final class scanner implements java_cup.runtime.Scanner {
   private static final int [] ZZ_TRANS = zzUnpackTrans();
 
   private static final String ZZ_TRANS_PACKED_0 =
-    "\1\2\1\3\1\4\2\5\1\6\1\7\1\10\1\11"+
-    "\1\12\1\13\1\14\2\3\1\15\1\3\1\16\1\17"+
-    "\1\20\1\3\1\21\1\22\1\23\1\3\1\24\1\25"+
-    "\1\3\1\26\1\27\1\30\1\3\1\31\1\32\1\33"+
-    "\1\34\1\35\1\36\1\37\1\40\1\41\1\42\1\43"+
-    "\1\44\1\45\1\46\1\2\61\0\2\3\4\0\25\3"+
-    "\1\0\2\3\16\0\1\3\3\0\1\4\57\0\2\5"+
-    "\57\0\1\47\1\50\51\0\2\3\4\0\1\3\1\51"+
-    "\23\3\1\0\2\3\16\0\1\3\2\0\2\3\4\0"+
-    "\16\3\1\52\2\3\1\53\3\3\1\0\2\3\16\0"+
-    "\1\3\2\0\2\3\4\0\12\3\1\54\12\3\1\0"+
-    "\2\3\16\0\1\3\2\0\2\3\4\0\10\3\1\55"+
-    "\14\3\1\0\2\3\16\0\1\3\2\0\2\3\4\0"+
-    "\17\3\1\56\5\3\1\0\2\3\16\0\1\3\2\0"+
-    "\2\3\4\0\4\3\1\57\20\3\1\0\2\3\16\0"+
-    "\1\3\2\0\2\3\4\0\14\3\1\60\10\3\1\0"+
-    "\2\3\16\0\1\3\2\0\2\3\4\0\23\3\1\61"+
-    "\1\3\1\0\1\62\1\3\16\0\1\3\2\0\2\3"+
-    "\4\0\14\3\1\63\10\3\1\0\2\3\16\0\1\3"+
-    "\2\0\2\3\4\0\5\3\1\64\17\3\1\0\2\3"+
-    "\16\0\1\3\2\0\2\3\4\0\17\3\1\65\5\3"+
-    "\1\0\2\3\16\0\1\3\2\0\2\3\4\0\4\3"+
-    "\1\66\13\3\1\67\4\3\1\0\2\3\16\0\1\3"+
-    "\2\0\2\3\4\0\5\3\1\70\17\3\1\0\2\3"+
-    "\16\0\1\3\2\0\2\3\4\0\23\3\1\71\1\3"+
-    "\1\0\2\3\16\0\1\3\2\0\2\3\4\0\6\3"+
-    "\1\72\3\3\1\73\12\3\1\0\2\3\16\0\1\3"+
-    "\2\0\2\3\4\0\17\3\1\74\5\3\1\0\2\3"+
-    "\16\0\1\3\43\0\1\75\14\0\3\47\1\0\52\47"+
-    "\1\0\6\50\1\76\47\50\2\0\2\3\4\0\2\3"+
-    "\1\77\22\3\1\0\2\3\16\0\1\3\2\0\2\3"+
-    "\4\0\12\3\1\100\12\3\1\0\2\3\16\0\1\3"+
-    "\2\0\2\3\4\0\5\3\1\101\17\3\1\0\2\3"+
-    "\16\0\1\3\2\0\2\3\4\0\11\3\1\102\13\3"+
-    "\1\0\2\3\16\0\1\3\2\0\2\3\4\0\16\3"+
-    "\1\103\6\3\1\0\2\3\16\0\1\3\2\0\2\3"+
-    "\4\0\5\3\1\104\17\3\1\0\2\3\16\0\1\3"+
-    "\2\0\2\3\4\0\14\3\1\105\10\3\1\0\2\3"+
-    "\16\0\1\3\2\0\2\3\4\0\1\3\1\106\23\3"+
-    "\1\0\2\3\16\0\1\3\2\0\2\3\4\0\10\3"+
-    "\1\107\14\3\1\0\2\3\16\0\1\3\2\0\2\3"+
-    "\4\0\1\3\1\110\23\3\1\0\2\3\16\0\1\3"+
-    "\2\0\2\3\4\0\1\3\1\111\23\3\1\0\2\3"+
-    "\16\0\1\3\2\0\2\3\4\0\22\3\1\112\2\3"+
-    "\1\0\2\3\16\0\1\3\2\0\2\3\4\0\2\3"+
-    "\1\113\22\3\1\0\2\3\16\0\1\3\2\0\2\3"+
-    "\4\0\12\3\1\114\12\3\1\0\2\3\16\0\1\3"+
-    "\2\0\2\3\4\0\4\3\1\115\20\3\1\0\2\3"+
-    "\16\0\1\3\2\0\2\3\4\0\1\3\1\116\23\3"+
-    "\1\0\2\3\16\0\1\3\2\0\2\3\4\0\2\3"+
-    "\1\117\22\3\1\0\2\3\16\0\1\3\2\0\2\3"+
-    "\4\0\25\3\1\0\1\120\1\3\16\0\1\3\2\0"+
-    "\2\3\4\0\12\3\1\121\12\3\1\0\2\3\16\0"+
-    "\1\3\1\0\5\50\1\122\1\76\47\50\2\0\2\3"+
-    "\4\0\3\3\1\123\21\3\1\0\2\3\16\0\1\3"+
-    "\2\0\2\3\4\0\12\3\1\124\12\3\1\0\2\3"+
-    "\16\0\1\3\2\0\2\3\4\0\4\3\1\125\20\3"+
-    "\1\0\2\3\16\0\1\3\2\0\2\3\4\0\25\3"+
-    "\1\0\1\3\1\126\16\0\1\3\2\0\2\3\4\0"+
-    "\2\3\1\127\22\3\1\0\2\3\16\0\1\3\2\0"+
-    "\2\3\4\0\4\3\1\130\20\3\1\0\2\3\16\0"+
-    "\1\3\2\0\2\3\4\0\2\3\1\131\22\3\1\0"+
-    "\2\3\16\0\1\3\2\0\2\3\4\0\17\3\1\132"+
-    "\5\3\1\0\2\3\16\0\1\3\2\0\2\3\4\0"+
-    "\1\133\24\3\1\0\2\3\16\0\1\3\2\0\2\3"+
-    "\4\0\16\3\1\134\6\3\1\0\2\3\16\0\1\3"+
-    "\2\0\2\3\4\0\17\3\1\135\5\3\1\0\2\3"+
-    "\16\0\1\3\2\0\2\3\4\0\17\3\1\136\5\3"+
-    "\1\0\2\3\16\0\1\3\2\0\2\3\4\0\2\3"+
-    "\1\137\22\3\1\0\2\3\16\0\1\3\2\0\2\3"+
-    "\4\0\4\3\1\140\20\3\1\0\2\3\16\0\1\3"+
-    "\2\0\2\3\4\0\12\3\1\141\12\3\1\0\2\3"+
-    "\16\0\1\3\2\0\2\3\4\0\1\3\1\142\23\3"+
-    "\1\0\2\3\16\0\1\3\2\0\2\3\4\0\10\3"+
-    "\1\143\14\3\1\0\2\3\16\0\1\3\2\0\2\3"+
-    "\4\0\4\3\1\144\20\3\1\0\2\3\16\0\1\3"+
-    "\2\0\2\3\4\0\1\3\1\145\23\3\1\0\2\3"+
-    "\16\0\1\3\2\0\2\3\4\0\1\3\1\146\23\3"+
-    "\1\0\2\3\16\0\1\3\2\0\2\3\4\0\12\3"+
-    "\1\147\12\3\1\0\2\3\16\0\1\3\2\0\2\3"+
-    "\4\0\2\3\1\150\22\3\1\0\2\3\16\0\1\3"+
-    "\2\0\2\3\4\0\17\3\1\151\5\3\1\0\2\3"+
-    "\16\0\1\3\2\0\2\3\4\0\16\3\1\152\6\3"+
-    "\1\0\2\3\16\0\1\3\2\0\2\3\4\0\17\3"+
-    "\1\153\5\3\1\0\2\3\16\0\1\3\2\0\2\3"+
-    "\4\0\17\3\1\154\5\3\1\0\2\3\16\0\1\3"+
-    "\2\0\2\3\4\0\17\3\1\155\5\3\1\0\2\3"+
-    "\16\0\1\3\2\0\2\3\4\0\16\3\1\156\6\3"+
-    "\1\0\2\3\16\0\1\3\2\0\2\3\4\0\25\3"+
-    "\1\0\1\157\1\3\16\0\1\3\2\0\2\3\4\0"+
-    "\5\3\1\160\17\3\1\0\2\3\16\0\1\3\2\0"+
-    "\2\3\4\0\7\3\1\161\15\3\1\0\2\3\16\0"+
-    "\1\3\2\0\2\3\4\0\7\3\1\162\15\3\1\0"+
-    "\2\3\16\0\1\3\2\0\2\3\4\0\23\3\1\163"+
-    "\1\3\1\0\2\3\16\0\1\3\2\0\2\3\4\0"+
-    "\5\3\1\164\17\3\1\0\2\3\16\0\1\3\2\0"+
-    "\2\3\4\0\1\165\24\3\1\0\2\3\16\0\1\3"+
-    "\2\0\2\3\4\0\15\3\1\166\7\3\1\0\2\3"+
-    "\16\0\1\3\2\0\2\3\4\0\25\3\1\0\1\3"+
-    "\1\167\16\0\1\3\2\0\2\3\4\0\16\3\1\170"+
-    "\6\3\1\0\2\3\16\0\1\3\2\0\2\3\4\0"+
-    "\6\3\1\171\16\3\1\0\2\3\16\0\1\3\2\0"+
-    "\2\3\4\0\16\3\1\172\6\3\1\0\2\3\16\0"+
-    "\1\3\2\0\2\3\4\0\2\3\1\173\22\3\1\0"+
-    "\2\3\16\0\1\3\2\0\2\3\4\0\25\3\1\174"+
-    "\2\3\16\0\1\3\24\0\1\175\52\0\1\176\60\0"+
-    "\1\177\71\0\1\200\34\0\1\201\101\0\1\202\31\0"+
-    "\1\203\73\0\1\204\52\0\1\205\50\0\1\206\70\0"+
-    "\1\207\31\0";
+    "\1\3\1\4\1\5\2\6\1\7\1\10\1\11\1\12"+
+    "\1\13\1\14\1\15\2\4\1\16\1\4\1\17\1\20"+
+    "\1\21\1\4\1\22\1\23\1\24\1\4\1\25\1\26"+
+    "\1\4\1\27\1\30\1\31\1\4\1\32\1\33\1\34"+
+    "\1\35\1\36\1\37\1\40\1\41\1\42\1\43\1\44"+
+    "\1\45\1\46\1\47\1\3\1\0\6\50\1\51\50\50"+
+    "\60\0\2\4\4\0\25\4\1\0\2\4\16\0\1\4"+
+    "\3\0\1\5\57\0\2\6\57\0\1\52\1\53\51\0"+
+    "\2\4\4\0\1\4\1\54\23\4\1\0\2\4\16\0"+
+    "\1\4\2\0\2\4\4\0\16\4\1\55\2\4\1\56"+
+    "\3\4\1\0\2\4\16\0\1\4\2\0\2\4\4\0"+
+    "\12\4\1\57\12\4\1\0\2\4\16\0\1\4\2\0"+
+    "\2\4\4\0\10\4\1\60\14\4\1\0\2\4\16\0"+
+    "\1\4\2\0\2\4\4\0\17\4\1\61\5\4\1\0"+
+    "\2\4\16\0\1\4\2\0\2\4\4\0\4\4\1\62"+
+    "\20\4\1\0\2\4\16\0\1\4\2\0\2\4\4\0"+
+    "\14\4\1\63\10\4\1\0\2\4\16\0\1\4\2\0"+
+    "\2\4\4\0\23\4\1\64\1\4\1\0\1\65\1\4"+
+    "\16\0\1\4\2\0\2\4\4\0\14\4\1\66\10\4"+
+    "\1\0\2\4\16\0\1\4\2\0\2\4\4\0\5\4"+
+    "\1\67\17\4\1\0\2\4\16\0\1\4\2\0\2\4"+
+    "\4\0\17\4\1\70\5\4\1\0\2\4\16\0\1\4"+
+    "\2\0\2\4\4\0\4\4\1\71\13\4\1\72\4\4"+
+    "\1\0\2\4\16\0\1\4\2\0\2\4\4\0\5\4"+
+    "\1\73\17\4\1\0\2\4\16\0\1\4\2\0\2\4"+
+    "\4\0\23\4\1\74\1\4\1\0\2\4\16\0\1\4"+
+    "\2\0\2\4\4\0\6\4\1\75\3\4\1\76\12\4"+
+    "\1\0\2\4\16\0\1\4\2\0\2\4\4\0\17\4"+
+    "\1\77\5\4\1\0\2\4\16\0\1\4\43\0\1\100"+
+    "\14\0\6\50\1\0\50\50\5\0\1\101\51\0\3\52"+
+    "\1\0\52\52\2\0\2\4\4\0\2\4\1\102\22\4"+
+    "\1\0\2\4\16\0\1\4\2\0\2\4\4\0\12\4"+
+    "\1\103\12\4\1\0\2\4\16\0\1\4\2\0\2\4"+
+    "\4\0\5\4\1\104\17\4\1\0\2\4\16\0\1\4"+
+    "\2\0\2\4\4\0\11\4\1\105\13\4\1\0\2\4"+
+    "\16\0\1\4\2\0\2\4\4\0\16\4\1\106\6\4"+
+    "\1\0\2\4\16\0\1\4\2\0\2\4\4\0\5\4"+
+    "\1\107\17\4\1\0\2\4\16\0\1\4\2\0\2\4"+
+    "\4\0\14\4\1\110\10\4\1\0\2\4\16\0\1\4"+
+    "\2\0\2\4\4\0\1\4\1\111\23\4\1\0\2\4"+
+    "\16\0\1\4\2\0\2\4\4\0\10\4\1\112\14\4"+
+    "\1\0\2\4\16\0\1\4\2\0\2\4\4\0\1\4"+
+    "\1\113\23\4\1\0\2\4\16\0\1\4\2\0\2\4"+
+    "\4\0\1\4\1\114\23\4\1\0\2\4\16\0\1\4"+
+    "\2\0\2\4\4\0\22\4\1\115\2\4\1\0\2\4"+
+    "\16\0\1\4\2\0\2\4\4\0\2\4\1\116\22\4"+
+    "\1\0\2\4\16\0\1\4\2\0\2\4\4\0\12\4"+
+    "\1\117\12\4\1\0\2\4\16\0\1\4\2\0\2\4"+
+    "\4\0\4\4\1\120\20\4\1\0\2\4\16\0\1\4"+
+    "\2\0\2\4\4\0\1\4\1\121\23\4\1\0\2\4"+
+    "\16\0\1\4\2\0\2\4\4\0\2\4\1\122\22\4"+
+    "\1\0\2\4\16\0\1\4\2\0\2\4\4\0\25\4"+
+    "\1\0\1\123\1\4\16\0\1\4\2\0\2\4\4\0"+
+    "\12\4\1\124\12\4\1\0\2\4\16\0\1\4\2\0"+
+    "\2\4\4\0\3\4\1\125\21\4\1\0\2\4\16\0"+
+    "\1\4\2\0\2\4\4\0\12\4\1\126\12\4\1\0"+
+    "\2\4\16\0\1\4\2\0\2\4\4\0\4\4\1\127"+
+    "\20\4\1\0\2\4\16\0\1\4\2\0\2\4\4\0"+
+    "\25\4\1\0\1\4\1\130\16\0\1\4\2\0\2\4"+
+    "\4\0\2\4\1\131\22\4\1\0\2\4\16\0\1\4"+
+    "\2\0\2\4\4\0\4\4\1\132\20\4\1\0\2\4"+
+    "\16\0\1\4\2\0\2\4\4\0\2\4\1\133\22\4"+
+    "\1\0\2\4\16\0\1\4\2\0\2\4\4\0\17\4"+
+    "\1\134\5\4\1\0\2\4\16\0\1\4\2\0\2\4"+
+    "\4\0\1\135\24\4\1\0\2\4\16\0\1\4\2\0"+
+    "\2\4\4\0\16\4\1\136\6\4\1\0\2\4\16\0"+
+    "\1\4\2\0\2\4\4\0\17\4\1\137\5\4\1\0"+
+    "\2\4\16\0\1\4\2\0\2\4\4\0\17\4\1\140"+
+    "\5\4\1\0\2\4\16\0\1\4\2\0\2\4\4\0"+
+    "\2\4\1\141\22\4\1\0\2\4\16\0\1\4\2\0"+
+    "\2\4\4\0\4\4\1\142\20\4\1\0\2\4\16\0"+
+    "\1\4\2\0\2\4\4\0\12\4\1\143\12\4\1\0"+
+    "\2\4\16\0\1\4\2\0\2\4\4\0\1\4\1\144"+
+    "\23\4\1\0\2\4\16\0\1\4\2\0\2\4\4\0"+
+    "\10\4\1\145\14\4\1\0\2\4\16\0\1\4\2\0"+
+    "\2\4\4\0\4\4\1\146\20\4\1\0\2\4\16\0"+
+    "\1\4\2\0\2\4\4\0\1\4\1\147\23\4\1\0"+
+    "\2\4\16\0\1\4\2\0\2\4\4\0\1\4\1\150"+
+    "\23\4\1\0\2\4\16\0\1\4\2\0\2\4\4\0"+
+    "\12\4\1\151\12\4\1\0\2\4\16\0\1\4\2\0"+
+    "\2\4\4\0\2\4\1\152\22\4\1\0\2\4\16\0"+
+    "\1\4\2\0\2\4\4\0\17\4\1\153\5\4\1\0"+
+    "\2\4\16\0\1\4\2\0\2\4\4\0\16\4\1\154"+
+    "\6\4\1\0\2\4\16\0\1\4\2\0\2\4\4\0"+
+    "\17\4\1\155\5\4\1\0\2\4\16\0\1\4\2\0"+
+    "\2\4\4\0\17\4\1\156\5\4\1\0\2\4\16\0"+
+    "\1\4\2\0\2\4\4\0\17\4\1\157\5\4\1\0"+
+    "\2\4\16\0\1\4\2\0\2\4\4\0\16\4\1\160"+
+    "\6\4\1\0\2\4\16\0\1\4\2\0\2\4\4\0"+
+    "\25\4\1\0\1\161\1\4\16\0\1\4\2\0\2\4"+
+    "\4\0\5\4\1\162\17\4\1\0\2\4\16\0\1\4"+
+    "\2\0\2\4\4\0\7\4\1\163\15\4\1\0\2\4"+
+    "\16\0\1\4\2\0\2\4\4\0\7\4\1\164\15\4"+
+    "\1\0\2\4\16\0\1\4\2\0\2\4\4\0\23\4"+
+    "\1\165\1\4\1\0\2\4\16\0\1\4\2\0\2\4"+
+    "\4\0\5\4\1\166\17\4\1\0\2\4\16\0\1\4"+
+    "\2\0\2\4\4\0\1\167\24\4\1\0\2\4\16\0"+
+    "\1\4\2\0\2\4\4\0\15\4\1\170\7\4\1\0"+
+    "\2\4\16\0\1\4\2\0\2\4\4\0\25\4\1\0"+
+    "\1\4\1\171\16\0\1\4\2\0\2\4\4\0\16\4"+
+    "\1\172\6\4\1\0\2\4\16\0\1\4\2\0\2\4"+
+    "\4\0\6\4\1\173\16\4\1\0\2\4\16\0\1\4"+
+    "\2\0\2\4\4\0\16\4\1\174\6\4\1\0\2\4"+
+    "\16\0\1\4\2\0\2\4\4\0\2\4\1\175\22\4"+
+    "\1\0\2\4\16\0\1\4\2\0\2\4\4\0\25\4"+
+    "\1\176\2\4\16\0\1\4\24\0\1\177\52\0\1\200"+
+    "\60\0\1\201\71\0\1\202\34\0\1\203\101\0\1\204"+
+    "\31\0\1\205\73\0\1\206\52\0\1\207\50\0\1\210"+
+    "\70\0\1\211\31\0";
 
   private static int [] zzUnpackTrans() {
-    int [] result = new int[4606];
+    int [] result = new int[4653];
     int offset = 0;
     offset = zzUnpackTrans(ZZ_TRANS_PACKED_0, offset, result);
     return result;
@@ -291,12 +295,12 @@ public final class scanner implements java_cup.runtime.Scanner {
   private static final int [] ZZ_ATTRIBUTE = zzUnpackAttribute();
 
   private static final String ZZ_ATTRIBUTE_PACKED_0 =
-    "\1\0\1\11\4\1\1\11\17\1\1\11\1\1\3\11"+
-    "\1\1\12\11\1\1\1\0\24\1\1\11\1\0\75\1"+
-    "\13\0\1\11";
+    "\2\0\1\11\4\1\1\11\17\1\1\11\1\1\3\11"+
+    "\1\1\12\11\3\1\1\11\24\1\2\11\74\1\13\0"+
+    "\1\11";
 
   private static int [] zzUnpackAttribute() {
-    int [] result = new int[135];
+    int [] result = new int[137];
     int offset = 0;
     offset = zzUnpackAttribute(ZZ_ATTRIBUTE_PACKED_0, offset, result);
     return result;
@@ -375,12 +379,98 @@ public final class scanner implements java_cup.runtime.Scanner {
   /** The CUP symbol factory, typically shared with parser. */
   private ComplexSymbolFactory symbolFactory = new ComplexSymbolFactory();
 
+  /** Stream that lexical error messages are reported on. */
+  private java.io.PrintStream diagnostics = System.err;
+
+  /** While scan() runs, where tokens go instead of into new symbols. */
+  private TokenBuffer tokens = null;
+
+  /** Where the block comment being skipped started. */
+  private int commentLine, commentColumn, commentChar;
+
   /** Initialize scanner with input stream and a shared symbol factory. */
   public scanner(java.io.Reader in, ComplexSymbolFactory sf) {
     this(in);
     this.symbolFactory = sf;
   }
 
+  /**
+   * Count lines, columns and offsets from the given position instead of
+   * from the start, for a scanner given a piece of a larger source.  Call
+   * it before the first token is scanned.
+   *
+   * @param line     line of the first character, from 1
+   * @param column   column of the first character, from 1
+   * @param offset   offset of the first character, from 0
+   */
+  public void setStart(int line, int column, int offset) {
+    yyline = line - 1;
+    yycolumn = column - 1;
+    yychar = offset;
+  }
+
+  /** Report lexical errors on d instead of System.err. */
+  public void setDiagnostics(java.io.PrintStream d) {
+    this.diagnostics = d;
+  }
+
+  /**
+   * Scan the whole input into b instead of returning one symbol per
+   * token.  Lexical errors are reported as next_token() would.
+   *
+   * @return         b, ending with an EOF token
+   */
+  public TokenBuffer scan(TokenBuffer b) throws java.io.IOException {
+    while (scanToken(b) != sym.EOF) {
+    }
+    return b;
+  }
+
+  /**
+   * Scan the next token into b.
+   *
+   * @return         its code (i.e., sym.<TOKEN>)
+   */
+  public int scanToken(TokenBuffer b) throws java.io.IOException {
+    int n = b.size();
+    tokens = b;
+    try {
+      // actions for whitespace and comments record nothing
+      while (b.size() == n) {
+        next_token();
+      }
+    } finally {
+      tokens = null;
+    }
+    return b.kind(n);
+  }
+
+  /**
+   * Construct a symbol for a token whose text is its value, or only
+   * record the token and its text while scanning into a TokenBuffer.
+   */
+  private Symbol textSymbol(int code) {
+    if (tokens != null) {
+      tokens.add(code, yychar, yylength(), yyline + 1, yycolumn + 1, zzBuffer, zzStartRead);
+      return null;
+    }
+    return symbol(code, yytext());
+  }
+
+  /**
+   * Construct a symbol for an identifier, with its text as interned in
+   * NamePool.shared() as the value, or only record the token and its name
+   * while scanning into a TokenBuffer.
+   */
+  private Symbol nameSymbol(int code) {
+    Name n = NamePool.shared().intern(zzBuffer, zzStartRead, yylength());
+    if (tokens != null) {
+      tokens.add(code, yychar, yylength(), yyline + 1, yycolumn + 1, n);
+      return null;
+    }
+    return symbol(code, n.text);
+  }
+
   /**
    * Construct a symbol with a given lexical token, a given
    * user-controlled datum, and the matched source location.
@@ -410,6 +500,10 @@ public final class scanner implements java_cup.runtime.Scanner {
    * @return         a fresh symbol storing the above-desribed information
    */
   private Symbol symbol(int code) {
+    if (tokens != null) {
+      tokens.add(code, yychar, yylength(), yyline + 1, yycolumn + 1, null, 0);
+      return null;
+    }
     // Calculate symbol location
     int yylen = yylength();
     Location left = new Location(yyline + 1, yycolumn + 1, yychar);
@@ -420,6 +514,24 @@ public final class scanner implements java_cup.runtime.Scanner {
     return this.symbolFactory.newSymbol(name, code, left, right);
   }
 
+  /**
+   * Report a block comment that runs to the end of input, and construct
+   * an error symbol for its "/*".
+   */
+  private Symbol unterminatedComment() {
+    diagnostics.printf(
+      "%nUnterminated comment starting on line %d at column %d of input.%n",
+      commentLine, commentColumn
+    );
+    if (tokens != null) {
+      tokens.add(sym.error, commentChar, 2, commentLine, commentColumn, "/*".toCharArray(), 0);
+      return null;
+    }
+    Location left = new Location(commentLine, commentColumn, commentChar);
+    Location right = new Location(commentLine, commentColumn + 1, commentChar + 2);
+    return this.symbolFactory.newSymbol(sym.terminalNames[sym.error], sym.error, left, right, "/*");
+  }
+
   /**
    * Convert the symbol generated by this scanner into a string.
    *
@@ -702,6 +814,8 @@ public final class scanner implements java_cup.runtime.Scanner {
     while (true) {
       zzMarkedPosL = zzMarkedPos;
 
+      yychar+= zzMarkedPosL-zzStartRead;
+
       boolean zzR = false;
       int zzCh;
       int zzCharCount;
@@ -821,184 +935,203 @@ public final class scanner implements java_cup.runtime.Scanner {
       if (zzInput == YYEOF && zzStartRead == zzCurrentPos) {
         zzAtEOF = true;
             zzDoEOF();
+            switch (zzLexicalState) {
+            case COMMENT: {
+              yybegin(YYINITIAL); return unterminatedComment();
+            }
+            case 138: break;
+            default:
               {
                 return symbol(sym.EOF);
               }
+        }
       }
       else {
         switch (zzAction < 0 ? zzAction : ZZ_ACTION[zzAction]) {
           case 1: 
-            { System.err.printf(
+            { diagnostics.printf(
       "%nUnexpected character '%s' on line %d at column %d of input.%n",
       yytext(), yyline + 1, yycolumn + 1
     );
-    return symbol(sym.error, yytext());
+    return textSymbol(sym.error);
             }
-          case 43: break;
+          case 45: break;
           case 2: 
-            { return symbol(sym.IDENTIFIER, yytext());
+            { return nameSymbol(sym.IDENTIFIER);
             }
-          case 44: break;
+          case 46: break;
           case 3: 
-            { return symbol(sym.INTEGER_LITERAL, yytext());
+            { return textSymbol(sym.INTEGER_LITERAL);
             }
-          case 45: break;
+          case 47: break;
           case 4: 
             { /* ignore whitespace */
             }
-          case 46: break;
+          case 48: break;
           case 5: 
             { return symbol(sym.MULT);
             }
-          case 47: break;
+          case 49: break;
           case 6: 
             { return symbol(sym.PERIOD);
             }
-          case 48: break;
+          case 50: break;
           case 7: 
             { return symbol(sym.PLUS);
             }
-          case 49: break;
+          case 51: break;
           case 8: 
             { return symbol(sym.MINUS);
             }
-          case 50: break;
+          case 52: break;
           case 9: 
             { return symbol(sym.BECOMES);
             }
-          case 51: break;
+          case 53: break;
           case 10: 
             { return symbol(sym.LT);
             }
-          case 52: break;
+          case 54: break;
           case 11: 
             { return symbol(sym.NOT);
             }
-          case 53: break;
+          case 55: break;
           case 12: 
             { return symbol(sym.LPAREN);
             }
-          case 54: break;
+          case 56: break;
           case 13: 
             { return symbol(sym.RPAREN);
             }
-          case 55: break;
+          case 57: break;
           case 14: 
             { return symbol(sym.LBRACKET);
             }
-          case 56: break;
+          case 58: break;
           case 15: 
             { return symbol(sym.RBRACKET);
             }
-          case 57: break;
+          case 59: break;
           case 16: 
             { return symbol(sym.LCURLYBRACKET);
             }
-          case 58: break;
+          case 60: break;
           case 17: 
             { return symbol(sym.RCURLYBRACKET);
             }
-          case 59: break;
+          case 61: break;
           case 18: 
             { return symbol(sym.SEMICOLON);
             }
-          case 60: break;
+          case 62: break;
           case 19: 
             { return symbol(sym.COMMA);
             }
-          case 61: break;
+          case 63: break;
           case 20: 
-            { /* comment - ignore to end of line */
+            { /* ignore */
             }
-          case 62: break;
+          case 64: break;
           case 21: 
-            { return symbol(sym.IF);
+            { /* comment - ignore to end of line */
             }
-          case 63: break;
+          case 65: break;
           case 22: 
-            { return symbol(sym.AND);
+            { /* comment - skipped in the COMMENT state up to the first end */
+    commentLine = yyline + 1;
+    commentColumn = yycolumn + 1;
+    commentChar = yychar;
+    yybegin(COMMENT);
             }
-          case 64: break;
+          case 66: break;
           case 23: 
-            { return symbol(sym.INT);
+            { return symbol(sym.IF);
             }
-          case 65: break;
+          case 67: break;
           case 24: 
-            { return symbol(sym.NEW);
+            { return symbol(sym.AND);
             }
-          case 66: break;
+          case 68: break;
           case 25: 
-            { /* comment - ignore to end of comment block */
+            { yybegin(YYINITIAL);
             }
-          case 67: break;
+          case 69: break;
           case 26: 
-            { return symbol(sym.THIS);
+            { return symbol(sym.INT);
             }
-          case 68: break;
+          case 70: break;
           case 27: 
-            { return symbol(sym.TRUE);
+            { return symbol(sym.NEW);
             }
-          case 69: break;
+          case 71: break;
           case 28: 
-            { return symbol(sym.VOID);
+            { return symbol(sym.THIS);
             }
-          case 70: break;
+          case 72: break;
           case 29: 
-            { return symbol(sym.MAIN);
+            { return symbol(sym.TRUE);
             }
-          case 71: break;
+          case 73: break;
           case 30: 
-            { return symbol(sym.ELSE);
+            { return symbol(sym.VOID);
             }
-          case 72: break;
+          case 74: break;
           case 31: 
-            { return symbol(sym.CLASS);
+            { return symbol(sym.MAIN);
             }
-          case 73: break;
+          case 75: break;
           case 32: 
-            { return symbol(sym.FALSE);
+            { return symbol(sym.ELSE);
             }
-          case 74: break;
+          case 76: break;
           case 33: 
-            { return symbol(sym.WHILE);
+            { return symbol(sym.CLASS);
             }
-          case 75: break;
+          case 77: break;
           case 34: 
-            { return symbol(sym.STATIC);
+            { return symbol(sym.FALSE);
             }
-          case 76: break;
+          case 78: break;
           case 35: 
-            { return symbol(sym.PUBLIC);
+            { return symbol(sym.WHILE);
             }
-          case 77: break;
+          case 79: break;
           case 36: 
-            { return symbol(sym.LENGTH);
+            { return symbol(sym.STATIC);
             }
-          case 78: break;
+          case 80: break;
           case 37: 
-            { return symbol(sym.STRING);
+            { return symbol(sym.PUBLIC);
             }
-          case 79: break;
+          case 81: break;
           case 38: 
-            { return symbol(sym.RETURN);
+            { return symbol(sym.LENGTH);
             }
-          case 80: break;
+          case 82: break;
           case 39: 
-            { return symbol(sym.DISPLAY);
+            { return symbol(sym.STRING);
             }
-          case 81: break;
+          case 83: break;
           case 40: 
-            { return symbol(sym.BOOLEAN);
+            { return symbol(sym.RETURN);
             }
-          case 82: break;
+          case 84: break;
           case 41: 
-            { return symbol(sym.EXTENDS);
+            { return symbol(sym.DISPLAY);
             }
-          case 83: break;
+          case 85: break;
           case 42: 
+            { return symbol(sym.BOOLEAN);
+            }
+          case 86: break;
+          case 43: 
+            { return symbol(sym.EXTENDS);
+            }
+          case 87: break;
+          case 44: 
             { return symbol(sym.PRINTLN);
             }
-          case 84: break;
+          case 88: break;
           default:
             zzScanError(ZZ_NO_MATCH);
         }
@@ -0,0 +1,69 @@
+package Symtab;
+
+/**
+ * What a name in the AST refers to, as found once by
+ * AST.Visitor.ResolveVisitor: the symbol, the class it belongs to, and
+ * for a variable its slot in the method's frame or in the object.  The
+ * passes after resolution read these instead of looking names up.
+ *
+ * All the uses of one variable in a method share one Binding.
+ */
+public final class Binding {
+
+	public static final int NO_SLOT = -1;
+
+	public enum Kind {
+		/** a formal or local of the method, at slot in its frame */
+		FRAME,
+		/** a field, at slot in the object */
+		FIELD,
+		/** a variable with no slot, such as main's argument */
+		VAR,
+		/** a method, of owner */
+		METHOD,
+		/** a class */
+		CLASS,
+		/** a method call whose receiver's class isn't known */
+		NONE
+	}
+
+	private final Kind kind;
+	private final Symbol symbol;
+	private final ClassSymbol owner;
+	private final int slot;
+
+	public Binding(Kind kind, Symbol symbol, ClassSymbol owner, int slot) {
+		this.kind = kind;
+		this.symbol = symbol;
+		this.owner = owner;
+		this.slot = slot;
+	}
+
+	public Kind getKind() {
+		return kind;
+	}
+
+	/** The symbol the name refers to, or null. */
+	public Symbol getSymbol() {
+		return symbol;
+	}
+
+	/**
+	 * The class that declares a field or a method, or whose method a
+	 * formal or local is in; for a call, the class of the receiver.
+	 * Null if there is none.
+	 */
+	public ClassSymbol getOwner() {
+		return owner;
+	}
+
+	/** The frame or field slot, from 0, or NO_SLOT. */
+	public int getSlot() {
+		return slot;
+	}
+
+	public String toString() {
+		return kind + " " + symbol + (owner != null ? " of " + owner.getName() : "")
+			+ (slot != NO_SLOT ? " @" + slot : "");
+	}
+}
@@ -0,0 +1,172 @@
+package Symtab;
+
+import java.util.Arrays;
+
+/**
+ * The classes of a program and what extends what, numbered so that
+ * whether one class is a subclass of another takes two comparisons
+ * however deep the hierarchy is.  Made with the FrozenSymbolTable, from
+ * the classes it holds, and as unchanging as it is.
+ *
+ * Each class has an id, from 0 in the order declared.  With single
+ * inheritance the classes form trees, and going through them depth first
+ * gives each class a number before those of its subclasses, which all
+ * come before the next class that isn't one: a class's subclasses are
+ * the numbers from its own to last.  So a is a subclass of b when b's
+ * number <= a's <= b's last.  Unlike a display of each class's
+ * ancestors, this takes the same room for a chain of classes as for
+ * any other shape.
+ *
+ * A superclass is found by name, so a class declared twice is the one
+ * the table kept.  A class whose superclasses come back to it, which
+ * only such redeclaring can make, is taken to extend nothing.
+ */
+public final class ClassHierarchy {
+
+    /** No class. */
+    public static final int NONE = -1;
+
+    private final ClassSymbol[] classes;
+
+    // class id by name id
+    private final IntTable<Integer> ids = new IntTable<Integer>();
+
+    private final int[] superclass;
+    private final int[] depth;
+
+    // depth-first number of each class, and the last of its subclasses'
+    private final int[] number;
+    private final int[] last;
+
+    ClassHierarchy(ClassSymbol[] cs) {
+        classes = cs;
+        int n = cs.length;
+        for ( int c = 0; c < n; c++ ) {
+            ids.put(cs[c].getKey().id, c);
+        }
+
+        superclass = new int[n];
+        for ( int c = 0; c < n; c++ ) {
+            ClassSymbol s = cs[c].getSuperclass();
+            superclass[c] = ( s != null ) ? getId(s.getKey()) : NONE;
+        }
+        breakCycles();
+
+        // each class's subclasses, as a list through next
+        int[] first = new int[n], next = new int[n];
+        Arrays.fill(first, NONE);
+        for ( int c = n - 1; c >= 0; c-- ) {
+            if ( superclass[c] != NONE ) {
+                next[c] = first[superclass[c]];
+                first[superclass[c]] = c;
+            }
+        }
+
+        // number the trees from their roots, with a stack of classes to go
+        // back to; a class's depth is its place on the stack, and first is
+        // the subclass of each still to be numbered
+        depth = new int[n];
+        number = new int[n];
+        last = new int[n];
+        int[] stack = new int[n];
+        int count = 0;
+        for ( int root = 0; root < n; root++ ) {
+            if ( superclass[root] != NONE ) continue;
+            int top = 0;
+            stack[top++] = root;
+            depth[root] = 0;
+            number[root] = count++;
+            while ( top > 0 ) {
+                int c = stack[top - 1];
+                int s = first[c];
+                if ( s != NONE ) {
+                    first[c] = next[s];
+                    depth[s] = top;
+                    number[s] = count++;
+                    stack[top++] = s;
+                }
+                else {
+                    last[c] = count - 1;
+                    --top;
+                }
+            }
+        }
+    }
+
+    // find the cycles by following superclasses from each class, marking
+    // the classes on the way, and cut each one where it was entered
+    private void breakCycles() {
+        int n = superclass.length;
+        int[] seen = new int[n];
+        for ( int c = 0; c < n; c++ ) {
+            int s = c;
+            while ( s != NONE && seen[s] == 0 ) {
+                seen[s] = c + 1;
+                s = superclass[s];
+            }
+            if ( s != NONE && seen[s] == c + 1 ) {
+                superclass[s] = NONE;
+            }
+        }
+    }
+
+    /** The number of classes. */
+    public int size() {
+        return classes.length;
+    }
+
+    /** The id of the class called n, or NONE. */
+    public int getId(Name n) {
+        Integer id = ids.get(n.id);
+        return ( id != null ) ? id : NONE;
+    }
+
+    // the id of the class called s, or NONE; a type such as "int[]" isn't
+    // a name, and isn't made one
+    private int getId(String s) {
+        Name n = Name.find(s);
+        return ( n != null ) ? getId(n) : NONE;
+    }
+
+    public ClassSymbol getClassSymbol(int id) {
+        return classes[id];
+    }
+
+    /** The id of the class that id extends, or NONE. */
+    public int getSuperclass(int id) {
+        return superclass[id];
+    }
+
+    /** The number of superclasses above id: 0 for one that extends none. */
+    public int getDepth(int id) {
+        return depth[id];
+    }
+
+    /** Whether a is b or extends it, directly or not. */
+    public boolean isSubclass(int a, int b) {
+        return number[b] <= number[a] && number[a] <= last[b];
+    }
+
+    /**
+     * Whether a value of type a can be used where type b is expected: the
+     * types are the same, or are classes and a is a subclass of b.  Types
+     * are named as the checker names them, "int", "Boolean" or a class.
+     */
+    public boolean isSubtype(String a, String b) {
+        if ( a == null || b == null ) return false;
+        if ( a.equals(b) ) return true;
+        int i = getId(a), j = getId(b);
+        return i != NONE && j != NONE && isSubclass(i, j);
+    }
+
+    /**
+     * isSubtype for the types as interned, as Symbol.getTypeKey gives
+     * them: the classes are found by name id, without hashing the text.
+     */
+    public boolean isSubtype(Name a, Name b) {
+        if ( a == null || b == null ) return false;
+        if ( a == b ) return true;
+        int i = getId(a), j = getId(b);
+        return i != NONE && j != NONE && isSubclass(i, j);
+    }
+}
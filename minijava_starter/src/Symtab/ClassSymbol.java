@@ -2,11 +2,32 @@ package Symtab;
 
 import AST.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 
+/**
+ * A class and its members.  A class holds only the members it declares,
+ * indexed by name id, and finds the rest in its superclass, so extending a
+ * class copies nothing.  Every method has a vtable slot: a new method the
+ * next one after the superclass's, an override the slot of the method it
+ * overrides.  Every field has an offset, after the superclass's fields,
+ * hidden ones included.
+ *
+ * A class is extended before its own members are added, and the
+ * superclass is complete by then.
+ */
 public class ClassSymbol extends Symbol
 {
+    private ClassSymbol superclass = null;
+
+    // members declared in this class, in the order added, and by name id
     private ArrayList<MethodSymbol> methods;
     private ArrayList<VarSymbol> variables;
+    private IntTable<MethodSymbol> methodIndex = null;
+    private IntTable<VarSymbol> variableIndex = null;
+
+    // vtable slots and fields, with the superclass's
+    private int methodCount = 0;
+    private int fieldCount = 0;
 
     public ClassSymbol(String n)
     {
@@ -21,14 +42,16 @@ public class ClassSymbol extends Symbol
         methods = new ArrayList<MethodSymbol>();
         variables = new ArrayList<VarSymbol>();
     }
-    
+
     public Symbol copy() {
     	ClassSymbol c = new ClassSymbol(name, type);
+        ArrayList<VarSymbol> variables = getVariables();
         for(int i=0;i<variables.size();i++)
         {
             c.addVariable((VarSymbol)variables.get(i).copy());
         }
-  
+
+        ArrayList<MethodSymbol> methods = getMethods();
         for(int i=0;i<methods.size();i++)
         {
             c.addMethod((MethodSymbol)methods.get(i).copy());
@@ -37,90 +60,167 @@ public class ClassSymbol extends Symbol
     }
 
     public void addMethod(MethodSymbol m) {
-        for(int i=0;i<methods.size();i++) {
-        	if ( methods.get(i) == m || methods.get(i).getName() == m.getName() ) {
-        		return;
-        	}
+        MethodSymbol old = getMethod(m.getKey());
+        if ( old == m ) {
+            return;
+        }
+        if ( methodIndex == null ) methodIndex = new IntTable<MethodSymbol>();
+        if ( old != null ) {
+            // an override takes the place of the inherited method
+            m.setSlot(old.getSlot());
+            if ( methodIndex.get(m.getKey().id) == old ) {
+                methods.set(methods.indexOf(old), m);
+                methodIndex.put(m.getKey().id, m);
+                return;
+            }
+        }
+        else {
+            m.setSlot(methodCount++);
         }
-
         methods.add(m);
+        methodIndex.put(m.getKey().id, m);
     }
 
+    /**
+     * Add a field, after the others.  One with the name of a superclass's
+     * field hides it, and has an offset of its own.
+     */
     public void addVariable(VarSymbol v) {
-        for(int i=0;i<variables.size();i++) {
-        	if ( variables.get(i) == v || variables.get(i).getName() == v.getName() ) {
-        		return;
-        	}
+        if ( variableIndex == null ) variableIndex = new IntTable<VarSymbol>();
+        if ( variableIndex.get(v.getKey().id) != null ) {
+            return;
         }
+        v.setOffset(fieldCount++);
         variables.add(v);
+        variableIndex.put(v.getKey().id, v);
     }
-    
+
     public MethodSymbol getMethod(String n) {
-        for(int i=0;i<methods.size();i++) {
-        	MethodSymbol ms = methods.get(i);
-        	if ( ms.getName().equals(n) ) {
-        		return ms;
-        	}
+        return getMethod(Name.of(n));
+    }
+
+    public MethodSymbol getMethod(Name n) {
+        for ( ClassSymbol c = this; c != null; c = c.superclass ) {
+            MethodSymbol ms = ( c.methodIndex != null ) ? c.methodIndex.get(n.id) : null;
+            if ( ms != null ) {
+                return ms;
+            }
         }
     	return null;
     }
 
+    /** The methods of the class, inherited ones too, in vtable order. */
     public ArrayList<MethodSymbol> getMethods() {
-        return methods;
+        MethodSymbol[] vtable = new MethodSymbol[methodCount];
+        fill(vtable, true);
+        return new ArrayList<MethodSymbol>(Arrays.asList(vtable));
     }
 
     public VarSymbol getVariable(String n) {
-        for(int i=0;i<variables.size();i++) {
-        	VarSymbol vs = variables.get(i);
-        	if ( vs.getName().equals(n) ) {
-        		return vs;
-        	}
+        return getVariable(Name.of(n));
+    }
+
+    public VarSymbol getVariable(Name n) {
+        for ( ClassSymbol c = this; c != null; c = c.superclass ) {
+            VarSymbol vs = ( c.variableIndex != null ) ? c.variableIndex.get(n.id) : null;
+            if ( vs != null ) {
+                return vs;
+            }
         }
     	return null;
     }
 
+    /** The fields of the class, inherited ones too, in offset order. */
     public ArrayList<VarSymbol> getVariables() {
-        return variables;
+        VarSymbol[] fields = new VarSymbol[fieldCount];
+        fill(fields, false);
+        return new ArrayList<VarSymbol>(Arrays.asList(fields));
+    }
+
+    // put the members of this class and its superclasses in their slots,
+    // the superclass's first so that overrides take their place; the chain
+    // is walked into an array first, as it can be deeper than the stack
+    private void fill(Symbol[] table, boolean methods) {
+        int depth = 0;
+        for ( ClassSymbol c = this; c != null; c = c.superclass ) ++depth;
+        ClassSymbol[] chain = new ClassSymbol[depth];
+        for ( ClassSymbol c = this; c != null; c = c.superclass ) chain[--depth] = c;
+        for ( ClassSymbol c : chain ) {
+            if ( methods ) {
+                for ( MethodSymbol m : c.methods ) table[m.getSlot()] = m;
+            }
+            else {
+                for ( VarSymbol v : c.variables ) table[v.getOffset()] = v;
+            }
+        }
+    }
+
+    /** Number of vtable slots. */
+    public int getMethodCount() {
+        return methodCount;
+    }
+
+    /** Number of fields, inherited ones too. */
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    public ClassSymbol getSuperclass() {
+        return superclass;
     }
 
     public void extendsClass(ClassSymbol c) {
         type = c.name;
-        methods.addAll(c.methods);
-        variables.addAll(c.variables);
+        changed();
+        // a class redeclared to extend itself finds itself here
+        if ( c == this ) {
+            return;
+        }
+        superclass = c;
+        methodCount = c.methodCount;
+        fieldCount = c.fieldCount;
     }
 
     public String toString() {
-        String c = "{CLASS}";
+        ArrayList<VarSymbol> variables = getVariables();
+        ArrayList<MethodSymbol> methods = getMethods();
+        StringBuilder c = new StringBuilder("{CLASS}");
+        c.append("class ").append(name);
         if(type != null && !type.isEmpty() )
-            c += "class " + name + " extends " + type;
-        else
-            c += "class " + name;
+            c.append(" extends ").append(type);
 
         if ( variables.size() > 0 )
         {
-	        c += "\n    Variables:";
+	        c.append("\n    Variables:");
 	        for(int i=0;i<variables.size();i++)
 	        {
-	            c += "\n        "+variables.get(i).toString() ;
+	            c.append("\n        ").append(variables.get(i));
 	        }
         }
-        
+
         if ( methods.size() > 0 )
         {
-	        c += "\n    Methods:";
+	        c.append("\n    Methods:");
 	        for(int i=0;i<methods.size();i++)
 	        {
-	            c += "\n        "+methods.get(i).toString();
+	            c.append("\n        ");
+	            methods.get(i).appendTo(c);
 	        }
         }
-        return c;
+        return c.toString();
     }
-    
+
+    // same name and superclass, and equal fields and methods in the same
+    // places
     public boolean equals(Symbol s) {
-    	if ( s == null || !(s instanceof ClassSymbol) )
+    	if ( s == this )
+    		return true;
+    	if ( !sameHead(s) )
     		return false;
-    	
-    	ClassSymbol cs = (ClassSymbol)s;    	
-    	return cs.toString().equals(this.toString());
-    }    
-}
\ No newline at end of file
+
+    	ClassSymbol cs = (ClassSymbol)s;
+    	if ( cs.fieldCount != fieldCount || cs.methodCount != methodCount )
+    		return false;
+    	return cs.getVariables().equals(getVariables()) && cs.getMethods().equals(getMethods());
+    }
+}
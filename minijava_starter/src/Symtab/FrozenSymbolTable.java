@@ -0,0 +1,228 @@
+package Symtab;
+
+import AST.*;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A SymbolTable that can no longer change, made by SymbolTable.freeze()
+ * once the table is built, for the passes that only read it.  The scopes
+ * are numbered from ROOT, each before the scopes nested in it, and
+ * a pass keeps the number of the scope it is in instead of moving a
+ * cursor through the table, so passes on different classes can share
+ * one table from several threads.
+ *
+ * The whole table is a handful of arrays: the parent, depth and node of
+ * each scope, the symbols of all scopes one scope after another, and one
+ * open-addressed index keyed by scope, name id and kind, in which a kind
+ * of its own finds the nested scopes.  The arrays are final and never
+ * written after the constructor, so a table handed to another thread is
+ * seen whole.  The symbols in it are the table's own, and must not be
+ * changed while it is shared.
+ */
+public final class FrozenSymbolTable {
+
+    /** The outermost scope, which holds the classes. */
+    public static final int ROOT = 0;
+
+    /** No scope: the parent of ROOT. */
+    public static final int NONE = -1;
+
+    // kinds of entry, the first three as in SymbolTable
+    private static final int VAR = 0, METHOD = 1, CLASS = 2, SCOPE = 3;
+
+    private final int[] parent;
+    private final int[] depth;
+    private final ASTNode[] node;
+
+    // the symbols of scope s are symbols[first[s]] to symbols[first[s+1]-1],
+    // in the order they were declared
+    private final int[] first;
+    private final Symbol[] symbols;
+
+    // key of each entry, 0 where there is none, and the index of its
+    // symbol, or for SCOPE the number of the nested scope
+    private final long[] keys;
+    private final int[] values;
+
+    private final ClassHierarchy hierarchy;
+
+    // lookups made and parent links followed, for -X:stats
+    private final LongAdder lookups = new LongAdder(), hops = new LongAdder();
+
+    // scopes and symbols numbered so far, while the table is made
+    private int scopes = 0, count = 0;
+
+    FrozenSymbolTable(SymbolTable root) {
+        int n = (int)root.countScopes();
+        int m = (int)root.countSymbols();
+        parent = new int[n];
+        depth = new int[n];
+        node = new ASTNode[n];
+        first = new int[n + 1];
+        symbols = new Symbol[m];
+        int capacity = Integer.highestOneBit(Math.max(4, 2 * (m + n)) - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        add(root, NONE);
+        first[n] = m;
+
+        ClassSymbol[] classes = new ClassSymbol[size(ROOT)];
+        int c = 0;
+        for ( int i = 0; i < size(ROOT); i++ ) {
+            if ( getSymbol(ROOT, i) instanceof ClassSymbol ) {
+                classes[c++] = (ClassSymbol)getSymbol(ROOT, i);
+            }
+        }
+        hierarchy = new ClassHierarchy(Arrays.copyOf(classes, c));
+    }
+
+    // number st and the scopes in it, and index what they declare
+    private int add(SymbolTable st, int p) {
+        int s = scopes++;
+        parent[s] = p;
+        depth[s] = st.getDepth();
+        node[s] = st.getScope();
+        first[s] = count;
+        for ( int i = 0; i < st.size(); i++ ) {
+            symbols[count] = st.getSymbol(i);
+            put(key(s, st.keyAt(i)), count++);
+        }
+        for ( int i = 0; i < st.childCount(); i++ ) {
+            put(key(s, st.childKeyAt(i) << 2 | SCOPE), add(st.childAt(i), s));
+        }
+        return s;
+    }
+
+    private static long key(int scope, int nameAndKind) {
+        return (long)(scope + 1) << 32 | (nameAndKind & 0xffffffffL);
+    }
+
+    private void put(long key, int value) {
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while ( keys[i] != 0 && keys[i] != key ) i = (i + 1) & mask;
+        keys[i] = key;
+        values[i] = value;
+    }
+
+    private int get(long key) {
+        int mask = keys.length - 1;
+        for ( int i = hash(key) & mask; ; i = (i + 1) & mask ) {
+            long k = keys[i];
+            if ( k == key ) return values[i];
+            if ( k == 0 ) return -1;
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32));
+    }
+
+    private Symbol get(int scope, Name n, int kind) {
+        int i = get(key(scope, n.id << 2 | kind));
+        return ( i >= 0 ) ? symbols[i] : null;
+    }
+
+    /** The classes of the program and what extends what. */
+    public ClassHierarchy getHierarchy() {
+        return hierarchy;
+    }
+
+    /** The scope that holds scope, or NONE for ROOT. */
+    public int getParent(int scope) {
+        return parent[scope];
+    }
+
+    /** 0 for the root, 1 for a class, 2 for a method. */
+    public int getDepth(int scope) {
+        return depth[scope];
+    }
+
+    /** The class or method declaration of a scope; null for the root. */
+    public ASTNode getScope(int scope) {
+        return node[scope];
+    }
+
+    /** The scope called i nested in scope, or NONE. */
+    public int getChild(int scope, Name i) {
+        return get(key(scope, i.id << 2 | SCOPE));
+    }
+
+    /** The scope called i nested in scope, or scope if there is none. */
+    public int findScope(int scope, String i) {
+        int c = getChild(scope, Name.of(i));
+        return ( c != NONE ) ? c : scope;
+    }
+
+    /** The variable called i declared in scope, or null. */
+    public Symbol getVariable(int scope, Name i) {
+        return get(scope, i, VAR);
+    }
+
+    /** The method called i declared in scope, or null. */
+    public Symbol getMethod(int scope, Name i) {
+        return get(scope, i, METHOD);
+    }
+
+    /** The class called i declared in scope, or null. */
+    public Symbol getClassSymbol(int scope, Name i) {
+        return get(scope, i, CLASS);
+    }
+
+    /** Number of symbols declared in scope. */
+    public int size(int scope) {
+        return first[scope + 1] - first[scope];
+    }
+
+    /** The i'th symbol declared in scope, from 0. */
+    public Symbol getSymbol(int scope, int i) {
+        return symbols[first[scope] + i];
+    }
+
+    public Symbol lookupSymbol(int scope, String i) {
+        return lookupSymbol(scope, Name.of(i));
+    }
+
+    /**
+     * The variable, method or class called i, looked for in that order in
+     * scope and then in each scope around it; null if there is none.
+     */
+    public Symbol lookupSymbol(int scope, Name i) {
+        lookups.increment();
+        int h = 0;
+        for ( int s = scope; s != NONE; s = parent[s], h++ ) {
+            for ( int kind = VAR; kind <= CLASS; kind++ ) {
+                Symbol sym = get(s, i, kind);
+                if ( sym != null ) {
+                    if ( h > 0 ) hops.add(h);
+                    return sym;
+                }
+            }
+        }
+        hops.add(h);
+        return null;
+    }
+
+    /** Number of scopes. */
+    public long countScopes() {
+        return parent.length;
+    }
+
+    /** Number of symbols, in all scopes. */
+    public long countSymbols() {
+        return symbols.length;
+    }
+
+    /** Number of lookupSymbol calls made on this table. */
+    public long countLookups() {
+        return lookups.sum();
+    }
+
+    /** Number of parent links those lookups followed. */
+    public long countHops() {
+        return hops.sum();
+    }
+}
@@ -0,0 +1,84 @@
+package Symtab;
+
+import java.util.Arrays;
+
+/**
+ * A map from int keys to values, for the tables of a SymbolTable scope.
+ * The keys are made from Name ids, so there is no hashing of strings and
+ * no boxing.  The index is open addressed; the entries are kept in the
+ * order they were first put, which is the order they are listed in.
+ */
+final class IntTable<V>
+{
+    // entry number + 1 for each key, 0 where there is none
+    private int[] index = new int[8];
+    private int[] keys = new int[4];
+    private Object[] values = new Object[4];
+    private int size = 0;
+
+    int size()
+    {
+        return size;
+    }
+
+    int keyAt(int i)
+    {
+        return keys[i];
+    }
+
+    @SuppressWarnings("unchecked")
+    V valueAt(int i)
+    {
+        return (V)values[i];
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(int key)
+    {
+        int mask = index.length - 1;
+        for ( int i = hash(key) & mask; ; i = (i + 1) & mask ) {
+            int e = index[i];
+            if ( e == 0 ) return null;
+            if ( keys[e - 1] == key ) return (V)values[e - 1];
+        }
+    }
+
+    /** Put v under key, in the place of any value already there. */
+    void put(int key, V v)
+    {
+        int mask = index.length - 1;
+        int i = hash(key) & mask;
+        for ( ; index[i] != 0; i = (i + 1) & mask ) {
+            if ( keys[index[i] - 1] == key ) {
+                values[index[i] - 1] = v;
+                return;
+            }
+        }
+        if ( size == keys.length ) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        keys[size] = key;
+        values[size] = v;
+        index[i] = ++size;
+        if ( size * 2 > index.length ) rehash(index.length * 2);
+    }
+
+    private void rehash(int capacity)
+    {
+        index = new int[capacity];
+        int mask = capacity - 1;
+        for ( int e = 0; e < size; e++ ) {
+            int i = hash(keys[e]) & mask;
+            while ( index[i] != 0 ) i = (i + 1) & mask;
+            index[i] = e + 1;
+        }
+    }
+
+    // keys are small and dense, so spread them over the index
+    private static int hash(int key)
+    {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -7,12 +7,29 @@ public class MethodSymbol extends Symbol
 {
     private ArrayList<Symbol> parameters;
 
+    // its entry in the vtable of its class, shared by the methods that
+    // override it; -1 until it is added to a ClassSymbol
+    private int slot = -1;
+
+    // return and parameter types, hashed; 0 until computed.  Volatile, as
+    // threads sharing a FrozenSymbolTable may compute it at once
+    private volatile long signature = 0;
+
     public MethodSymbol(String n, String t)
     {
     	super(n, t);
         parameters = new ArrayList<Symbol>();
     }
 
+    void setSlot(int slot) {
+        this.slot = slot;
+    }
+
+    /** Its vtable slot, from 0, or -1 if it isn't a member of a class. */
+    public int getSlot() {
+        return slot;
+    }
+
     public Symbol copy() {
     	MethodSymbol m = new MethodSymbol(name, type);
         for(int i=0;i<parameters.size();i++)
@@ -24,13 +41,61 @@ public class MethodSymbol extends Symbol
         return m;
     }
     
+    // a parameter with the name of an earlier one is still a parameter:
+    // SymTableVisitor reports it, and calls must pass it
     public void addParameter(Symbol p) {
         for(int i=0;i<parameters.size();i++) {
-        	if ( parameters.get(i) == p || parameters.get(i).getName() == p.getName() ) {
+        	if ( parameters.get(i) == p ) {
         		return;
         	}
         }
         parameters.add(p);
+        signature = 0;
+        changed();
+    }
+
+    /**
+     * A hash of the return type and the parameter types, in order.
+     * Methods with different fingerprints have different signatures.
+     */
+    public long fingerprint() {
+        long f = signature;
+        if ( f == 0 ) {
+            f = 0xcbf29ce484222325L;
+            f = (f ^ String.valueOf(type).hashCode()) * 0x100000001b3L;
+            for ( int i = 0; i < parameters.size(); i++ ) {
+                f = (f ^ String.valueOf(parameters.get(i).getType()).hashCode()) * 0x100000001b3L;
+            }
+            f = (f ^ parameters.size()) * 0x100000001b3L;
+            if ( f == 0 ) f = 1;
+            signature = f;
+        }
+        return f;
+    }
+
+    /**
+     * Whether m has the same return and parameter types, so that one can
+     * override the other; parameter names don't matter.
+     */
+    public boolean sameSignature(MethodSymbol m) {
+        if ( m == this ) return true;
+        if ( m == null || m.fingerprint() != fingerprint()
+             || m.parameters.size() != parameters.size()
+             || !String.valueOf(m.type).equals(String.valueOf(type)) ) {
+            return false;
+        }
+        for ( int i = 0; i < parameters.size(); i++ ) {
+            if ( !String.valueOf(m.parameters.get(i).getType())
+                    .equals(String.valueOf(parameters.get(i).getType())) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected int hashMore() {
+        long f = fingerprint();
+        return (int)(f ^ (f >>> 32));
     }
 
     public ArrayList<Symbol> getParameters() {
@@ -38,20 +103,35 @@ public class MethodSymbol extends Symbol
     }
     
     public String toString() {
-        String s = "";
+        StringBuilder sb = new StringBuilder();
+        appendTo(sb);
+        return sb.toString();
+    }
+
+    void appendTo(StringBuilder sb) {
+        sb.append("{METHOD}").append(type).append(' ').append(name).append('(');
         for ( int i=0; i<parameters.size(); i++ ) 
         {
-        	s += ((i > 0) ? ", " : "") + parameters.get(i);
+        	if ( i > 0 ) sb.append(", ");
+        	sb.append(parameters.get(i));
         }
-
-        return "{METHOD}" + type + " " + name + "(" + s + ")";
+        sb.append(')');
     }
-    
+
+    // same name and signature, and the same parameter names
     public boolean equals(Symbol s) {
-    	if ( s == null || !(s instanceof MethodSymbol) )
+    	if ( s == this )
+    		return true;
+    	if ( !sameHead(s) )
+    		return false;
+
+    	MethodSymbol ms = (MethodSymbol)s;
+    	if ( ms.parameters.size() != parameters.size() )
     		return false;
-    	
-    	MethodSymbol ms = (MethodSymbol)s;    	
-    	return ms.toString().equals(this.toString());
+    	for ( int i=0; i<parameters.size(); i++ ) {
+    		if ( !parameters.get(i).equals(ms.parameters.get(i)) )
+    			return false;
+    	}
+    	return true;
     }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package Symtab;
+
+/**
+ * An identifier interned in a NamePool.  There is one Name per distinct
+ * identifier text, so names compare with == and hash without touching
+ * their characters.  The hash is the text's String hash.
+ */
+public final class Name
+{
+    public final String text;
+
+    /** Dense number given in order of interning, from 0. */
+    public final int id;
+
+    private final int hash;
+
+    Name(String text, int id, int hash)
+    {
+        this.text = text;
+        this.id = id;
+        this.hash = hash;
+    }
+
+    /** The name for s in the shared pool. */
+    public static Name of(String s)
+    {
+        return NamePool.shared().intern(s);
+    }
+
+    /** The name for s in the shared pool, or null if it isn't there. */
+    public static Name find(String s)
+    {
+        return NamePool.shared().find(s);
+    }
+
+    public int hashCode()
+    {
+        return hash;
+    }
+
+    public String toString()
+    {
+        return text;
+    }
+}
@@ -0,0 +1,168 @@
+package Symtab;
+
+import java.util.Arrays;
+
+/**
+ * Interns identifiers as Names.  The scanner interns every identifier it
+ * reads, so identifier strings in the AST are the pooled ones, and the
+ * symbol table and code generator key their tables on the Names.
+ *
+ * Meant to be shared by compiles running in parallel: finding a name
+ * that is already in the pool takes no lock, only adding one does.  The
+ * hash table is open addressed and is replaced, never changed, when it
+ * grows; a reader that misses because it raced with an insert looks
+ * again under the lock before adding.  Names only have final fields, so
+ * a reader that sees one in the table sees all of it.
+ *
+ * Names are never removed from a pool, which grows with the number of
+ * distinct identifiers it is given.  A process that compiles for a long
+ * time, the compile server, bounds that by starting the shared pool over
+ * with clearShared() once it has grown too big.
+ */
+public final class NamePool
+{
+    private static volatile NamePool shared = new NamePool();
+
+    /** The pool used by the scanner and Name.of. */
+    public static NamePool shared()
+    {
+        return shared;
+    }
+
+    /**
+     * Replace the shared pool with an empty one.  Names from the old pool
+     * are not the new pool's names for the same text, so this must only
+     * be done while no compile is running.
+     */
+    public static void clearShared()
+    {
+        shared = new NamePool();
+    }
+
+    private volatile Name[] table = new Name[1024];
+
+    // names by id; only grows under the lock
+    private volatile Name[] names = new Name[512];
+    private int size = 0;
+
+    /** The name with text s. */
+    public Name intern(String s)
+    {
+        int h = s.hashCode();
+        Name[] t = table;
+        int mask = t.length - 1;
+        for ( int i = spread(h) & mask; ; i = (i + 1) & mask ) {
+            Name n = t[i];
+            if ( n == null ) break;
+            if ( n.hashCode() == h && (n.text == s || n.text.equals(s)) ) return n;
+        }
+        return add(s.toCharArray(), 0, s.length(), h, s);
+    }
+
+    /**
+     * The name with text s if it has been interned, or null; s is not
+     * added.  A name being added by another thread at the same time may
+     * not be found.
+     */
+    public Name find(String s)
+    {
+        int h = s.hashCode();
+        Name[] t = table;
+        int mask = t.length - 1;
+        for ( int i = spread(h) & mask; ; i = (i + 1) & mask ) {
+            Name n = t[i];
+            if ( n == null ) return null;
+            if ( n.hashCode() == h && (n.text == s || n.text.equals(s)) ) return n;
+        }
+    }
+
+    /**
+     * The name with text buf[off, off+len), without making a String
+     * unless the name is new.
+     */
+    public Name intern(char[] buf, int off, int len)
+    {
+        int h = 0;
+        for ( int i = 0; i < len; i++ ) {
+            h = 31 * h + buf[off + i];
+        }
+        Name[] t = table;
+        int mask = t.length - 1;
+        for ( int i = spread(h) & mask; ; i = (i + 1) & mask ) {
+            Name n = t[i];
+            if ( n == null ) break;
+            if ( n.hashCode() == h && matches(n.text, buf, off, len) ) return n;
+        }
+        return add(buf, off, len, h, null);
+    }
+
+    private synchronized Name add(char[] buf, int off, int len, int h, String s)
+    {
+        Name[] t = table;
+        int mask = t.length - 1;
+        int i = spread(h) & mask;
+        for ( ; t[i] != null; i = (i + 1) & mask ) {
+            Name n = t[i];
+            if ( n.hashCode() == h && matches(n.text, buf, off, len) ) return n;
+        }
+
+        Name n = new Name(s != null ? s : new String(buf, off, len), size, h);
+        if ( size == names.length ) names = Arrays.copyOf(names, size * 2);
+        names[size++] = n;
+
+        if ( size * 2 > t.length ) {
+            table = rehash(t.length * 2);
+        }
+        else {
+            t[i] = n;
+        }
+        return n;
+    }
+
+    private Name[] rehash(int capacity)
+    {
+        Name[] t = new Name[capacity];
+        int mask = capacity - 1;
+        for ( int k = 0; k < size; k++ ) {
+            Name n = names[k];
+            int i = spread(n.hashCode()) & mask;
+            while ( t[i] != null ) i = (i + 1) & mask;
+            t[i] = n;
+        }
+        return t;
+    }
+
+    private static int spread(int h)
+    {
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(String text, char[] buf, int off, int len)
+    {
+        if ( text.length() != len ) return false;
+        for ( int i = 0; i < len; i++ ) {
+            if ( text.charAt(i) != buf[off + i] ) return false;
+        }
+        return true;
+    }
+
+    /** The name numbered id. */
+    public Name get(int id)
+    {
+        Name[] a = names;
+        Name n = id < a.length ? a[id] : null;
+        if ( n == null ) {
+            // raced with the add that gave out id
+            synchronized ( this ) {
+                n = names[id];
+            }
+        }
+        return n;
+    }
+
+    /** Number of names interned so far. */
+    public synchronized int size()
+    {
+        return size;
+    }
+}
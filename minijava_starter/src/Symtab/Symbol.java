@@ -1,16 +1,66 @@
 package Symtab;
 
 import AST.*;
+import java.util.Objects;
 
+/**
+ * A declared name.  Symbols are equal when they are the same kind of
+ * symbol and declare the same thing, as equals(Symbol) defines for each
+ * kind; tables that need one entry per declaration key on identity
+ * instead.  The hash code covers only the kind, name and type, and is
+ * kept until the symbol changes.
+ */
 public abstract class Symbol
 {
     protected String type;
     protected String name;
-	
+    protected Name key;
+
+    // the name the type is, once ResolveVisitor has looked it up; null if
+    // the type is one no identifier has, such as int
+    private Name typeKey = null;
+    private boolean typeResolved = false;
+
+    // 0 until computed, and again after a change
+    private int hash = 0;
+
     public Symbol(String n, String t) 
     {
     	this.type = t;
-    	this.name = n;
+    	this.key = Name.of(n);
+    	this.name = key.text;
+    }
+
+    /** Forget the hash code, after the name, type or signature changes. */
+    protected void changed() {
+        hash = 0;
+    }
+
+    public int hashCode() {
+        int h = hash;
+        if ( h == 0 ) {
+            h = 31 * (31 * getClass().getName().hashCode() + key.hashCode()) + Objects.hashCode(type);
+            h = 31 * h + hashMore();
+            if ( h == 0 ) h = 1;
+            hash = h;
+        }
+        return h;
+    }
+
+    /** What a kind of symbol adds to the hash code. */
+    protected int hashMore() {
+        return 0;
+    }
+
+    public final boolean equals(Object o) {
+        return o instanceof Symbol && equals((Symbol)o);
+    }
+
+    // the parts all symbols compare: kind, name and type, and the hash
+    // codes, which are kept
+    protected boolean sameHead(Symbol s) {
+        return s != null && s.getClass() == getClass() && s.key == key
+            && Objects.equals(s.type, type) && s.hashCode() == hashCode();
     }
 
     public String getType()
@@ -22,6 +72,31 @@ public abstract class Symbol
         return name;
     }
 
+    /** The name as interned, for use as a table key. */
+    public Name getKey() {
+        return key;
+    }
+
+    /**
+     * Look up the name the type is, once, for getTypeKey.  Done by
+     * ResolveVisitor for the variables and methods it binds, so that the
+     * checker compares class types by name.
+     */
+    public void resolveType() {
+        if ( !typeResolved ) {
+            typeKey = Name.find(type);
+            typeResolved = true;
+        }
+    }
+
+    /**
+     * The type as interned, if resolveType has looked it up, or null: for
+     * a type no identifier has, such as int, and before resolution.
+     */
+    public Name getTypeKey() {
+        return typeKey;
+    }
+
     public abstract String toString();
     
     public abstract Symbol copy();
@@ -2,96 +2,164 @@ package Symtab;
 
 import AST.*;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Stack;
+import java.io.PrintStream;
 
+/**
+ * A scope: the root holds the classes, a class scope its fields and
+ * methods, and a method scope its formals and locals.
+ *
+ * The symbols of a scope are in one table keyed by name id and kind, and
+ * its nested scopes in another keyed by name id.  Neither is made until
+ * something is put in it, so an empty scope is a few fields.  A variable
+ * is given its address as it is added: the depth of its scope and its
+ * slot there, numbered from 0 in the order the variables were added.
+ */
 public class SymbolTable {
 
-    private HashMap<String, Symbol> ctable, vtable, mtable;
-    private HashMap<String, SymbolTable> children;
+    // kinds of symbol, in the order a name is looked for in a scope
+    private static final int VAR = 0, METHOD = 1, CLASS = 2;
+
+    private IntTable<Symbol> symbols = null;
+    private IntTable<SymbolTable> children = null;
     private SymbolTable parent = null;
     private ASTNode scope = null;
+    private final int depth;
+    private int slots = 0;
+
+    // lookups started in this scope and parent links they followed
+    private long lookups = 0, hops = 0;
 
     public SymbolTable() {
-        ctable = new HashMap<String, Symbol>();
-        mtable = new HashMap<String, Symbol>();
-        vtable = new HashMap<String, Symbol>();
-        children = new HashMap<String, SymbolTable>();
-        parent = null;
-        scope = null;
+        depth = 0;
     }
 
     public SymbolTable(SymbolTable p, ASTNode n) {
-        ctable = new HashMap<String, Symbol>();
-        mtable = new HashMap<String, Symbol>();
-        vtable = new HashMap<String, Symbol>();
-        children = new HashMap<String, SymbolTable>();
         parent = p;
         scope = n;
+        depth = ( p != null ) ? p.depth + 1 : 0;
     }
-    
-    public HashMap<String, Symbol> getClassTable() {
-    	return ctable;    	
+
+    /** 0 for the root, 1 for a class, 2 for a method. */
+    public int getDepth() {
+        return depth;
     }
-    
-    public HashMap<String, Symbol> getMethodTable() {
-    	return mtable;    	
+
+    private static int key(Name n, int kind) {
+        return n.id << 2 | kind;
     }
-    
-    public HashMap<String, Symbol> getVarTable() {
-    	return vtable;    	
+
+    private static int kindOf(Symbol s) {
+        if ( s instanceof VarSymbol ) return VAR;
+        if ( s instanceof MethodSymbol ) return METHOD;
+        if ( s instanceof ClassSymbol ) return CLASS;
+        return -1;
     }
-    
+
+    /**
+     * Declare s here.  A symbol of the same kind and name already here is
+     * replaced.
+     */
     public void addSymbol(Symbol s) {
-    	if ( s instanceof ClassSymbol )
-    		//if ( !ctable.containsKey(s.getName()) )
-    			ctable.put(s.getName(), s);
-    	else if ( s instanceof MethodSymbol )
-    		//if ( !mtable.containsKey(s.getName()) )
-    			mtable.put(s.getName(), s);
-    	else if ( s instanceof VarSymbol )
-    		//if ( !vtable.containsKey(s.getName()) )
-				vtable.put(s.getName(), s);
-    }
-
-    Symbol getSymbol(String i) {
-        Symbol s = vtable.get(i);
+        int kind = kindOf(s);
+        if ( kind < 0 ) return;
+        if ( s instanceof VarSymbol ) {
+            ((VarSymbol)s).setAddress(depth, slots++);
+        }
+        if ( symbols == null ) symbols = new IntTable<Symbol>();
+        symbols.put(key(s.getKey(), kind), s);
+    }
+
+    private Symbol get(Name i, int kind) {
+        return ( symbols != null ) ? symbols.get(key(i, kind)) : null;
+    }
+
+    /** The variable called i declared in this scope, or null. */
+    public Symbol getVariable(Name i) {
+        return get(i, VAR);
+    }
+
+    /** The method called i declared in this scope, or null. */
+    public Symbol getMethod(Name i) {
+        return get(i, METHOD);
+    }
+
+    /** The class called i declared in this scope, or null. */
+    public Symbol getClassSymbol(Name i) {
+        return get(i, CLASS);
+    }
+
+    /**
+     * A copy of this table that can't change, for the passes after it is
+     * built; see FrozenSymbolTable.
+     */
+    public FrozenSymbolTable freeze() {
+        return new FrozenSymbolTable(this);
+    }
+
+    /** Number of symbols declared in this scope. */
+    public int size() {
+        return ( symbols != null ) ? symbols.size() : 0;
+    }
+
+    /** The i'th symbol declared in this scope, from 0. */
+    public Symbol getSymbol(int i) {
+        return symbols.valueAt(i);
+    }
+
+    // the key of the i'th symbol: its name id and kind
+    int keyAt(int i) {
+        return symbols.keyAt(i);
+    }
+
+    Symbol getSymbol(Name i) {
+        if ( symbols == null ) return null;
+        Symbol s = symbols.get(key(i, VAR));
         if ( s == null )
-        	s = mtable.get(i);
+        	s = symbols.get(key(i, METHOD));
         if ( s == null )
-        	s = ctable.get(i);
+        	s = symbols.get(key(i, CLASS));
         return s;
     }
 
     public Symbol lookupSymbol(String i) {
+        return lookupSymbol(Name.of(i));
+    }
+
+    public Symbol lookupSymbol(Name i) {
+        ++lookups;
         SymbolTable st = this;
         while ( st != null ) {
             Symbol s = st.getSymbol(i);
             if ( s != null ) return s;
             st = st.getParent();
+            ++hops;
         }
         return null;
     }
 
-    public Symbol lookupSymbol(String name, String type) {
+    /** The method called name in this scope or an enclosing one, or null. */
+    public Symbol lookupMethod(String name) {
+        return lookupSymbol(Name.of(name), METHOD);
+    }
+
+    private Symbol lookupSymbol(Name name, int kind) {
+        ++lookups;
+        int k = key(name, kind);
         SymbolTable st = this;
         while ( st != null ) {
-            Symbol s = null; 
-            if ( type == "VarSymbol" ) 
-            	s = st.vtable.get(name);
-            else if ( type == "ClassSymbol" )
-            	s = st.ctable.get(name);
-            else if ( type == "MethodSymbol" )
-            	s = st.mtable.get(name);
+            Symbol s = ( st.symbols != null ) ? st.symbols.get(k) : null;
             if ( s != null ) return s;
             st = st.getParent();
+            ++hops;
         }
         return null;
     }
 
     public SymbolTable enterScope(String i, ASTNode n) {
+        return enterScope(Name.of(i), n);
+    }
+
+    public SymbolTable enterScope(Name i, ASTNode n) {
         SymbolTable st = this.getChild(i);
         if ( st == null ) {
             st = new SymbolTable(this, n);
@@ -101,6 +169,10 @@ public class SymbolTable {
     }
 
     public SymbolTable findScope(String i) {
+        return findScope(Name.of(i));
+    }
+
+    public SymbolTable findScope(Name i) {
         SymbolTable st = this.getChild(i);
         if ( st != null ) {
         	return st;
@@ -113,18 +185,76 @@ public class SymbolTable {
     }
 
     public void addChild(String i, SymbolTable st) {
-        children.put(i, st);
+        addChild(Name.of(i), st);
+    }
+
+    public void addChild(Name i, SymbolTable st) {
+        if ( children == null ) children = new IntTable<SymbolTable>();
+        children.put(i.id, st);
         st.parent = this;
     }
 
     public SymbolTable getChild(String i) {
-        return children.get(i);
+        return getChild(Name.of(i));
+    }
+
+    public SymbolTable getChild(Name i) {
+        return ( children != null ) ? children.get(i.id) : null;
+    }
+
+    // the nested scopes, in the order they were made, and their name ids
+    int childCount() {
+        return ( children != null ) ? children.size() : 0;
+    }
+
+    int childKeyAt(int i) {
+        return children.keyAt(i);
+    }
+
+    SymbolTable childAt(int i) {
+        return children.valueAt(i);
     }
 
     public SymbolTable getParent() {
         return parent;
     }
 
+    /** Number of scopes in this table, including this one. */
+    public long countScopes() {
+        long n = 1;
+        for ( int i = 0; children != null && i < children.size(); i++ ) {
+            n += children.valueAt(i).countScopes();
+        }
+        return n;
+    }
+
+    /** Number of symbols declared in this scope and all nested scopes. */
+    public long countSymbols() {
+        long n = size();
+        for ( int i = 0; children != null && i < children.size(); i++ ) {
+            n += children.valueAt(i).countSymbols();
+        }
+        return n;
+    }
+
+    /** Number of lookupSymbol calls made on this scope and nested scopes. */
+    public long countLookups() {
+        long n = lookups;
+        for ( int i = 0; children != null && i < children.size(); i++ ) {
+            n += children.valueAt(i).countLookups();
+        }
+        return n;
+    }
+
+    /** Number of parent links those lookups followed. */
+    public long countHops() {
+        long n = hops;
+        for ( int i = 0; children != null && i < children.size(); i++ ) {
+            n += children.valueAt(i).countHops();
+        }
+        return n;
+    }
+
     public void setScope(ASTNode n) {
     	scope = n;
     }
@@ -134,40 +264,34 @@ public class SymbolTable {
     }
     
     public void printTabs(int tabs)
+    {
+        printTabs(tabs, System.out);
+    }
+
+    public void printTabs(int tabs, PrintStream out)
     {
         for ( int t=0; t<tabs*4; t++ ) {
-        	System.out.print(" ");
+        	out.print(" ");
         }
     }
 
     public void print(int level) {
-        for ( Iterator i = ctable.keySet().iterator(); i.hasNext(); ) {
-            String s = (String)i.next();
-            Symbol sym = ctable.get(s);
-            printTabs(level);
-            System.out.println(sym.toString());
-            SymbolTable child = children.get(s);
-            if ( child != null ) {
-            	child.print(level+1);
-            }
-        }
-    	
-        for ( Iterator<String> i = mtable.keySet().iterator(); i.hasNext(); ) {
-            String s = (String)i.next();
-            Symbol sym = mtable.get(s);
-            printTabs(level);
-            System.out.println(sym.toString());
-            SymbolTable child = children.get(s);
-            if ( child != null ) {
-            	child.print(level+1);
-            }
-        }
+        print(level, System.out);
+    }
 
-        for ( Iterator<String> i = vtable.keySet().iterator(); i.hasNext(); ) {
-            String s = (String)i.next();
-            Symbol sym = vtable.get(s);
-            printTabs(level);
-            System.out.println(sym.toString());
+    // classes, then methods, then variables, each in the order declared
+    public void print(int level, PrintStream out) {
+        for ( int kind = CLASS; kind >= VAR; kind-- ) {
+            for ( int i = 0; i < size(); i++ ) {
+                if ( (symbols.keyAt(i) & 3) != kind ) continue;
+                Symbol sym = symbols.valueAt(i);
+                printTabs(level, out);
+                out.println(sym.toString());
+                SymbolTable child = ( kind != VAR ) ? getChild(sym.getKey()) : null;
+                if ( child != null ) {
+                	child.print(level+1, out);
+                }
+            }
         }
     }
 }
\ No newline at end of file
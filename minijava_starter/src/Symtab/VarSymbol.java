@@ -3,9 +3,43 @@ package Symtab;
 import AST.*;
 
 public class VarSymbol extends Symbol {
+	// where the variable is declared: the depth of its scope in the
+	// SymbolTable and its slot there; -1 until it is added to a scope
+	private int depth = -1, slot = -1;
+
+	// for a field, its place in the objects of its class and subclasses
+	private int offset = -1;
+
 	public VarSymbol(String n, String t) {
 		super(n, t);
 	}
+
+	void setAddress(int depth, int slot) {
+		this.depth = depth;
+		this.slot = slot;
+	}
+
+	/** Depth of the scope it is declared in: 1 for a field, 2 for a formal or local. */
+	public int getDepth() {
+		return depth;
+	}
+
+	/** Its slot in that scope, from 0, in the order declared. */
+	public int getSlot() {
+		return slot;
+	}
+
+	void setOffset(int offset) {
+		this.offset = offset;
+	}
+
+	/**
+	 * For a field of a ClassSymbol, its offset in the object, in fields
+	 * from 0, after those of the superclass; otherwise -1.
+	 */
+	public int getOffset() {
+		return offset;
+	}
 	
 	public String toString() {
 		return "{VAR}" + getType() + " " + getName();
@@ -15,11 +49,8 @@ public class VarSymbol extends Symbol {
 		return new VarSymbol(name, type);
 	}
 	
+    // same name and type
     public boolean equals(Symbol s) {
-    	if ( s == null || !(s instanceof VarSymbol) )
-    		return false;
-    	
-    	VarSymbol vs = (VarSymbol)s;    	
-    	return vs.toString().equals(this.toString());
+    	return s == this || sameHead(s);
     }
 }
\ No newline at end of file
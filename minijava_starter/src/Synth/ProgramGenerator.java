@@ -0,0 +1,661 @@
+package Synth;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import AST.*;
+import AST.Visitor.InterpretVisitor;
+import java_cup.runtime.ComplexSymbolFactory.Location;
+
+/**
+ * Generates large, type-correct MiniJava programs of a chosen shape for
+ * scale testing the compiler, together with the output they print.
+ *
+ * A program is a main class, classes C0, C1, ... and a Driver whose Run
+ * method prints new Ck().Check() for every k.  Each class may extend one
+ * of the classes just before it, which makes inheritance chains up to
+ * the given depth, overrides Val() and calls methods of the classes
+ * before it.  Calls only go to earlier classes or to earlier methods of
+ * the same class, and a method may not call more than its cost budget,
+ * so every program terminates quickly whatever its size.
+ *
+ * Classes are written out as soon as they are generated and their
+ * Check() is run then with InterpretVisitor, so only the classes still
+ * in reach stay in memory and programs of millions of lines can be
+ * streamed.  The same seed and shape always give the same program.
+ */
+public class ProgramGenerator {
+
+	public static final String help =
+		"Use:\n" +
+		"  java Synth.ProgramGenerator [options] <output.java> [<expected_output>]\n" +
+		"Options:\n" +
+		"  -seed n      random seed (1)\n" +
+		"  -classes n   number of classes (10)\n" +
+		"  -lines n     keep adding classes until the source has n lines\n" +
+		"  -methods n   methods per class, besides Val and Check (4)\n" +
+		"  -fields n    int fields per class (2)\n" +
+		"  -depth n     longest inheritance chain (3)\n" +
+		"  -expr n      deepest expression (4)\n" +
+		"  -stmts n     statements per method body (10)\n" +
+		"  -locals n    int locals per method (8)\n" +
+		"  -window n    how many of the classes before it a class uses (8)\n" +
+		"  -budget n    most steps one method may take when run (500)\n";
+
+	public long seed = 1;
+	public int classes = 10;
+	public long lines = 0;
+	public int methods = 4;
+	public int fields = 2;
+	public int depth = 3;
+	public int exprDepth = 4;
+	public int statements = 10;
+	public int locals = 8;
+	public int window = 8;
+	public int budget = 500;
+
+	static final Location pos = new Location(0, 0);
+
+	// every method has a local int[] arr of this length, and loops run
+	// at most MAX_ITERATIONS times so their counters can index it
+	static final int ARRAY_LENGTH = 8;
+	static final int MAX_ITERATIONS = 4;
+	// most times a statement may run per call, through nested loops
+	static final int MAX_MULTIPLIER = 16;
+	// upper bound on the cost of any Val()
+	static final int VAL_COST = 6;
+
+	/**
+	 * Set the options found in args and return the remaining arguments.
+	 *
+	 * @throws IllegalArgumentException for an unknown option or a bad value
+	 */
+	public String [] parse(String [] args)
+	{
+		List<String> rest = new ArrayList<String>();
+		for ( int i = 0; i < args.length; i++ ) {
+			if ( !args[i].startsWith("-") ) {
+				rest.add(args[i]);
+				continue;
+			}
+			if ( i + 1 == args.length )
+				throw new IllegalArgumentException("Missing value for " + args[i]);
+			long v;
+			try {
+				v = Long.parseLong(args[i + 1]);
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Bad value for " + args[i] + ": " + args[i + 1]);
+			}
+			switch ( args[i] ) {
+			case "-seed": seed = v; break;
+			case "-classes": classes = (int)v; break;
+			case "-lines": lines = v; break;
+			case "-methods": methods = (int)v; break;
+			case "-fields": fields = (int)v; break;
+			case "-depth": depth = (int)v; break;
+			case "-expr": exprDepth = (int)v; break;
+			case "-stmts": statements = (int)v; break;
+			case "-locals": locals = (int)v; break;
+			case "-window": window = (int)v; break;
+			case "-budget": budget = (int)v; break;
+			default:
+				throw new IllegalArgumentException("Unknown option " + args[i]);
+			}
+			++i;
+		}
+		return rest.toArray(new String[0]);
+	}
+
+	public static void main(String [] args) throws Exception
+	{
+		ProgramGenerator g = new ProgramGenerator();
+		try {
+			args = g.parse(args);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage() + "\n" + help);
+			System.exit(1);
+		}
+		if ( args.length < 1 || args.length > 2 ) {
+			System.err.println(help);
+			System.exit(1);
+		}
+
+		try ( PrintWriter source = new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+				  new FileOutputStream(args[0]), StandardCharsets.US_ASCII), 1 << 16));
+			  PrintStream expected = args.length > 1
+				  ? new PrintStream(new BufferedOutputStream(new FileOutputStream(args[1]), 1 << 16))
+				  : null ) {
+			long lines = g.generate(source, expected);
+			System.err.println("Wrote " + lines + " lines to " + args[0]);
+		} catch (IOException e) {
+			System.err.println("Unable to write program: " + e.toString());
+			System.exit(1);
+		}
+	}
+
+	// ---- the program ------------------------------------------------------
+
+	static class MethodInfo {
+		final String name;
+		final int params;
+		int cost;
+
+		MethodInfo(String n, int p) {
+			name = n;
+			params = p;
+		}
+	}
+
+	static class ClassInfo {
+		final int index;
+		final String name;
+		final ClassInfo parent;
+		final int depth;
+		final List<MethodInfo> own = new ArrayList<MethodInfo>();
+		final List<String> fields = new ArrayList<String>();
+		// classes whose objects this one creates
+		final Set<ClassInfo> uses = new HashSet<ClassInfo>();
+		// lowest index of the classes this one needs to run
+		int reach;
+		ClassDecl decl;
+
+		ClassInfo(int k, ClassInfo p) {
+			index = k;
+			name = "C" + k;
+			parent = p;
+			depth = p == null ? 1 : p.depth + 1;
+		}
+
+		/** Methods an object of this class answers, other than Val and Check. */
+		List<MethodInfo> callable() {
+			List<MethodInfo> all = parent == null ? new ArrayList<MethodInfo>() : parent.callable();
+			all.addAll(own);
+			return all;
+		}
+
+		List<String> visibleFields() {
+			List<String> all = parent == null ? new ArrayList<String>() : parent.visibleFields();
+			all.addAll(fields);
+			return all;
+		}
+	}
+
+	private Random rng;
+
+	/**
+	 * Write the program to source and the output it prints to expected,
+	 * unless expected is null.
+	 *
+	 * @return the number of source lines written
+	 */
+	public long generate(PrintWriter source, PrintStream expected)
+	{
+		rng = new Random(seed);
+		SourceWriter w = new SourceWriter(source);
+		InterpretVisitor interp = expected != null ? new InterpretVisitor(expected) : null;
+
+		new MainClass(new Identifier("Synthetic", pos), new Identifier("a", pos),
+					  new Print(new Call(new NewObject(new Identifier("Driver", pos), pos),
+										 new Identifier("Run", pos), new ExpList(pos), pos), pos),
+					  pos).accept(w);
+
+		StatementList run = new StatementList(pos);
+		Deque<ClassInfo> recent = new ArrayDeque<ClassInfo>();
+		List<ClassInfo> defined = new ArrayList<ClassInfo>();
+		for ( int k = 0; lines > 0 ? w.getLineCount() < lines : k < classes; k++ ) {
+			ClassInfo c = newClass(k, new ArrayList<ClassInfo>(recent));
+			w.println();
+			c.decl.accept(w);
+
+			run.add(new Print(new Call(new NewObject(new Identifier(c.name, pos), pos),
+									   new Identifier("Check", pos), new ExpList(pos), pos), pos));
+			if ( interp != null ) {
+				interp.define(c.decl);
+				defined.add(c);
+				expected.println(interp.invoke(interp.newInstance(c.name), "Check"));
+			}
+
+			recent.addLast(c);
+			if ( recent.size() > window ) {
+				recent.removeFirst();
+				if ( interp != null ) forget(interp, recent, defined);
+			}
+		}
+
+		MethodDeclList ml = new MethodDeclList(pos);
+		ml.add(new MethodDecl(new IntegerType(pos), new Identifier("Run", pos), new FormalList(pos),
+							  new VarDeclList(pos), run, new IntegerLiteral(0, pos), pos));
+		w.println();
+		new ClassDeclSimple(new Identifier("Driver", pos), new VarDeclList(pos), ml, pos).accept(w);
+		if ( expected != null ) expected.println(0);
+
+		source.flush();
+		return w.getLineCount();
+	}
+
+	/** Drop the classes that can't be used any more from the interpreter. */
+	static void forget(InterpretVisitor interp, Deque<ClassInfo> recent, List<ClassInfo> defined)
+	{
+		Set<ClassInfo> live = new HashSet<ClassInfo>();
+		Deque<ClassInfo> work = new ArrayDeque<ClassInfo>(recent);
+		while ( !work.isEmpty() ) {
+			ClassInfo c = work.pop();
+			if ( live.add(c) ) {
+				if ( c.parent != null ) work.push(c.parent);
+				work.addAll(c.uses);
+			}
+		}
+		for ( int i = defined.size() - 1; i >= 0; i-- ) {
+			ClassInfo c = defined.get(i);
+			if ( !live.contains(c) ) {
+				interp.undefine(c.name);
+				defined.remove(i);
+			}
+		}
+	}
+
+	// ---- classes and methods ----------------------------------------------
+
+	// the class and method being generated
+	private ClassInfo cls;
+	private List<ClassInfo> others;
+	private int ownCallable;
+	private List<String> intVars, assignable, indexVars;
+	private ClassInfo objClass;
+	private long spent;
+	private int multiplier;
+
+	ClassInfo newClass(int k, List<ClassInfo> recent)
+	{
+		// A class only uses classes that need nothing older than window
+		// classes back, and only extends ones that need nothing older than
+		// window + depth back, so the classes in reach stay a bounded set.
+		//
+		// Extend the latest class that still has room below it, most of
+		// the time, so chains get as long as depth allows.
+		ClassInfo parent = null;
+		if ( rng.nextInt(4) != 0 ) {
+			for ( int i = recent.size() - 1; i >= 0 && parent == null; i-- ) {
+				ClassInfo p = recent.get(i);
+				if ( p.depth < depth && p.reach >= k - window - depth ) parent = p;
+			}
+		}
+
+		ClassInfo c = new ClassInfo(k, parent);
+		cls = c;
+		others = new ArrayList<ClassInfo>();
+		for ( ClassInfo q : recent ) {
+			if ( q.reach >= k - window ) others.add(q);
+		}
+
+		VarDeclList vl = new VarDeclList(pos);
+		for ( int i = 0; i < fields; i++ ) {
+			String f = "f" + k + "_" + i;
+			c.fields.add(f);
+			vl.add(new VarDecl(new IntegerType(pos), new Identifier(f, pos), pos));
+		}
+
+		MethodDeclList ml = new MethodDeclList(pos);
+		for ( int j = 0; j < methods; j++ ) {
+			MethodInfo m = new MethodInfo("m" + k + "_" + j, rng.nextInt(4));
+			ownCallable = j;
+			ml.add(method(m));
+			c.own.add(m);
+		}
+		ml.add(val());
+		ml.add(check());
+
+		c.reach = parent == null ? k : parent.reach;
+		for ( ClassInfo q : c.uses ) {
+			c.reach = Math.min(c.reach, q.reach);
+		}
+
+		c.decl = parent == null
+			? new ClassDeclSimple(new Identifier(c.name, pos), vl, ml, pos)
+			: new ClassDeclExtends(new Identifier(c.name, pos), new Identifier(parent.name, pos), vl, ml, pos);
+		return c;
+	}
+
+	MethodDecl method(MethodInfo m)
+	{
+		spent = 0;
+		multiplier = 1;
+		indexVars = new ArrayList<String>();
+		intVars = new ArrayList<String>();
+		assignable = new ArrayList<String>();
+
+		FormalList fl = new FormalList(pos);
+		for ( int i = 0; i < m.params; i++ ) {
+			fl.add(new Formal(new IntegerType(pos), new Identifier("p" + i, pos), pos));
+			intVars.add("p" + i);
+		}
+
+		VarDeclList vl = new VarDeclList(pos);
+		StatementList sl = new StatementList(pos);
+		for ( int i = 0; i < locals; i++ ) {
+			vl.add(new VarDecl(new IntegerType(pos), new Identifier("v" + i, pos), pos));
+		}
+		vl.add(new VarDecl(new BooleanType(pos), new Identifier("b", pos), pos));
+		vl.add(new VarDecl(new IntArrayType(pos), new Identifier("arr", pos), pos));
+		objClass = others.isEmpty() ? null : others.get(rng.nextInt(others.size()));
+		if ( objClass != null ) {
+			cls.uses.add(objClass);
+			vl.add(new VarDecl(new IdentifierType(objClass.name, pos), new Identifier("o", pos), pos));
+		}
+
+		// start every local off with a value
+		for ( int i = 0; i < locals; i++ ) {
+			Exp init = intVars.isEmpty() || rng.nextBoolean()
+				? new IntegerLiteral(rng.nextInt(100), pos)
+				: new IdentifierExp(intVars.get(rng.nextInt(intVars.size())), pos);
+			sl.add(assign("v" + i, init));
+		}
+		sl.add(assign("b", new False(pos)));
+		sl.add(assign("arr", new NewArray(new IntegerLiteral(ARRAY_LENGTH, pos), pos)));
+		if ( objClass != null )
+			sl.add(assign("o", new NewObject(new Identifier(objClass.name, pos), pos)));
+		spent += sl.size() + (objClass != null ? ARRAY_LENGTH : 0);
+
+		for ( int i = 0; i < locals; i++ ) {
+			intVars.add("v" + i);
+			assignable.add("v" + i);
+		}
+		intVars.addAll(cls.visibleFields());
+		assignable.addAll(cls.visibleFields());
+
+		statements(sl, statements);
+		Exp e = intExpr(exprDepth);
+		m.cost = (int)Math.min(spent, Integer.MAX_VALUE);
+
+		return new MethodDecl(new IntegerType(pos), new Identifier(m.name, pos), fl, vl, sl, e, pos);
+	}
+
+	/** int Val(int x), which every class overrides. */
+	MethodDecl val()
+	{
+		List<String> visible = cls.visibleFields();
+		Exp e = new Times(new IdentifierExp("x", pos), new IntegerLiteral(1 + rng.nextInt(9), pos), pos);
+		e = new Plus(e, visible.isEmpty()
+					 ? new IntegerLiteral(rng.nextInt(100), pos)
+					 : new IdentifierExp(visible.get(rng.nextInt(visible.size())), pos), pos);
+		FormalList fl = new FormalList(pos);
+		fl.add(new Formal(new IntegerType(pos), new Identifier("x", pos), pos));
+		return new MethodDecl(new IntegerType(pos), new Identifier("Val", pos), fl,
+							  new VarDeclList(pos), new StatementList(pos), e, pos);
+	}
+
+	/** int Check(), run by the driver: calls the last method and Val. */
+	MethodDecl check()
+	{
+		VarDeclList vl = new VarDeclList(pos);
+		vl.add(new VarDecl(new IntegerType(pos), new Identifier("r", pos), pos));
+		StatementList sl = new StatementList(pos);
+		Exp r = new IntegerLiteral(cls.index % 100, pos);
+		if ( !cls.own.isEmpty() ) {
+			MethodInfo m = cls.own.get(cls.own.size() - 1);
+			ExpList args = new ExpList(pos);
+			for ( int i = 0; i < m.params; i++ ) {
+				args.add(new IntegerLiteral(rng.nextInt(100), pos));
+			}
+			r = new Call(new This(pos), new Identifier(m.name, pos), args, pos);
+		}
+		sl.add(assign("r", r));
+		ExpList args = new ExpList(pos);
+		args.add(new IntegerLiteral(cls.index % 100, pos));
+		sl.add(assign("r", new Plus(new IdentifierExp("r", pos),
+									new Call(new This(pos), new Identifier("Val", pos), args, pos), pos)));
+		return new MethodDecl(new IntegerType(pos), new Identifier("Check", pos), new FormalList(pos),
+							  vl, sl, new IdentifierExp("r", pos), pos);
+	}
+
+	// ---- statements -------------------------------------------------------
+
+	static Assign assign(String name, Exp e)
+	{
+		return new Assign(new Identifier(name, pos), e, pos);
+	}
+
+	/** Add statements to sl, n of them counting the nested ones. */
+	void statements(StatementList sl, int n)
+	{
+		while ( n > 0 ) {
+			n -= statement(sl, n);
+		}
+	}
+
+	/** Add one statement to sl and return how many it counts for. */
+	int statement(StatementList sl, int room)
+	{
+		spent += multiplier;
+		int c = rng.nextInt(20);
+
+		if ( c < 3 && room >= 3 ) {
+			int a = 1 + rng.nextInt(Math.min(room - 2, 3));
+			int b = 1 + rng.nextInt(Math.min(room - 1 - a, 3));
+			Exp e = boolExpr(depthFor());
+			StatementList s1 = new StatementList(pos);
+			StatementList s2 = new StatementList(pos);
+			statements(s1, a);
+			statements(s2, b);
+			sl.add(new If(e, new Block(s1, pos), new Block(s2, pos), pos));
+			return 1 + a + b;
+		}
+
+		if ( c < 5 && room >= 3 ) {
+			int iterations = 1 + rng.nextInt(MAX_ITERATIONS);
+			if ( multiplier * iterations <= MAX_MULTIPLIER ) {
+				// the counter is a local the body can't assign
+				String v = null;
+				for ( String a : assignable ) {
+					if ( a.startsWith("v") && rng.nextInt(4) == 0 ) v = a;
+				}
+				if ( v != null ) return loop(sl, v, iterations, room);
+			}
+		}
+
+		if ( c >= 12 && c < 14 && !cls.visibleFields().isEmpty() ) {
+			List<String> f = cls.visibleFields();
+			sl.add(assign(f.get(rng.nextInt(f.size())), intExpr(depthFor())));
+		}
+		else if ( c >= 14 && c < 16 ) {
+			sl.add(new ArrayAssign(new Identifier("arr", pos), index(), intExpr(depthFor()), pos));
+		}
+		else if ( c >= 16 && c < 18 ) {
+			sl.add(assign("b", boolExpr(depthFor())));
+		}
+		else if ( c == 18 ) {
+			sl.add(new Print(intExpr(depthFor()), pos));
+		}
+		else if ( c == 19 && objClass != null ) {
+			sl.add(assign("o", new NewObject(new Identifier(objClass.name, pos), pos)));
+			spent += (long)ARRAY_LENGTH * multiplier;
+		}
+		else {
+			List<String> locals = new ArrayList<String>();
+			for ( String a : assignable ) {
+				if ( a.startsWith("v") ) locals.add(a);
+			}
+			String v = locals.isEmpty() ? "b" : locals.get(rng.nextInt(locals.size()));
+			sl.add(assign(v, v.equals("b") ? boolExpr(depthFor()) : intExpr(depthFor())));
+		}
+		return 1;
+	}
+
+	/** v = 0; while (v < iterations) { ...; v = v + 1; } */
+	int loop(StatementList sl, String v, int iterations, int room)
+	{
+		int n = 1 + rng.nextInt(Math.min(room - 2, 4));
+		sl.add(assign(v, new IntegerLiteral(0, pos)));
+
+		assignable.remove(v);
+		indexVars.add(v);
+		multiplier *= iterations;
+
+		StatementList body = new StatementList(pos);
+		statements(body, n);
+		body.add(assign(v, new Plus(new IdentifierExp(v, pos), new IntegerLiteral(1, pos), pos)));
+		spent += 4L * multiplier;
+
+		multiplier /= iterations;
+		indexVars.remove(v);
+		assignable.add(v);
+
+		sl.add(new While(new LessThan(new IdentifierExp(v, pos), new IntegerLiteral(iterations, pos), pos),
+						 new Block(body, pos), pos));
+		return 2 + n;
+	}
+
+	/** Mostly shallow expressions, with the occasional full depth one. */
+	int depthFor()
+	{
+		return rng.nextInt(8) == 0 ? exprDepth : 1 + rng.nextInt(Math.max(1, Math.min(exprDepth, 3)));
+	}
+
+	// ---- expressions ------------------------------------------------------
+
+	/** An int expression exactly d operators deep. */
+	Exp intExpr(int d)
+	{
+		spent += multiplier;
+		if ( d <= 0 )
+			return intLeaf();
+
+		if ( rng.nextInt(5) == 0 ) {
+			Exp call = call(d);
+			if ( call != null ) return call;
+		}
+
+		Exp deep = intExpr(d - 1);
+		Exp shallow = intExpr(rng.nextInt(Math.min(d, 2)));
+		Exp e1 = deep, e2 = shallow;
+		if ( rng.nextBoolean() ) {
+			e1 = shallow;
+			e2 = deep;
+		}
+		switch ( rng.nextInt(3) ) {
+		case 0: return new Plus(e1, e2, pos);
+		case 1: return new Minus(e1, e2, pos);
+		default: return new Times(e1, e2, pos);
+		}
+	}
+
+	Exp intLeaf()
+	{
+		switch ( rng.nextInt(6) ) {
+		case 0:
+		case 1:
+			return new IntegerLiteral(rng.nextInt(100), pos);
+		case 2:
+		case 3:
+			if ( !intVars.isEmpty() )
+				return new IdentifierExp(intVars.get(rng.nextInt(intVars.size())), pos);
+			return new IntegerLiteral(rng.nextInt(100), pos);
+		case 4:
+			return new ArrayLookup(new IdentifierExp("arr", pos), index(), pos);
+		default:
+			return new ArrayLength(new IdentifierExp("arr", pos), pos);
+		}
+	}
+
+	/** A constant or loop counter, always inside arr. */
+	Exp index()
+	{
+		if ( !indexVars.isEmpty() && rng.nextBoolean() )
+			return new IdentifierExp(indexVars.get(rng.nextInt(indexVars.size())), pos);
+		return new IntegerLiteral(rng.nextInt(ARRAY_LENGTH), pos);
+	}
+
+	/** A boolean expression exactly d operators deep. */
+	Exp boolExpr(int d)
+	{
+		spent += multiplier;
+		if ( d <= 0 ) {
+			switch ( rng.nextInt(4) ) {
+			case 0: return new True(pos);
+			case 1: return new False(pos);
+			case 2: return new IdentifierExp("b", pos);
+			default: return new LessThan(intLeaf(), intLeaf(), pos);
+			}
+		}
+
+		switch ( rng.nextInt(4) ) {
+		case 0:
+		case 1:
+			Exp deep = intExpr(d - 1);
+			Exp shallow = intExpr(rng.nextInt(Math.min(d, 2)));
+			return rng.nextBoolean() ? new LessThan(deep, shallow, pos) : new LessThan(shallow, deep, pos);
+		case 2:
+			return rng.nextBoolean()
+				? new And(boolExpr(d - 1), boolExpr(rng.nextInt(Math.min(d, 2))), pos)
+				: new And(boolExpr(rng.nextInt(Math.min(d, 2))), boolExpr(d - 1), pos);
+		default:
+			return new Not(boolExpr(d - 1), pos);
+		}
+	}
+
+	/**
+	 * A call that fits in what is left of the budget, or null: to an
+	 * earlier method of this class, an inherited method, Val, or a
+	 * method of one of the classes before this one.
+	 */
+	Exp call(int d)
+	{
+		Exp receiver;
+		String name;
+		int params, cost;
+
+		int c = rng.nextInt(4);
+		List<MethodInfo> targets;
+		if ( c == 0 ) {
+			// own earlier methods and inherited ones, through this
+			targets = cls.parent == null ? new ArrayList<MethodInfo>() : cls.parent.callable();
+			targets.addAll(cls.own.subList(0, ownCallable));
+			receiver = new This(pos);
+		}
+		else if ( c == 1 || others.isEmpty() ) {
+			receiver = new This(pos);
+			targets = null;
+		}
+		else if ( c == 2 && objClass != null ) {
+			targets = objClass.callable();
+			receiver = new IdentifierExp("o", pos);
+		}
+		else {
+			ClassInfo k = others.get(rng.nextInt(others.size()));
+			cls.uses.add(k);
+			targets = k.callable();
+			receiver = new NewObject(new Identifier(k.name, pos), pos);
+		}
+
+		if ( targets == null ) {
+			name = "Val";
+			params = 1;
+			cost = VAL_COST;
+		}
+		else {
+			if ( targets.isEmpty() )
+				return null;
+			MethodInfo m = targets.get(rng.nextInt(targets.size()));
+			name = m.name;
+			params = m.params;
+			cost = m.cost;
+		}
+		if ( receiver instanceof NewObject ) cost += ARRAY_LENGTH;
+		if ( spent + (long)cost * multiplier > budget )
+			return null;
+		spent += (long)cost * multiplier;
+
+		ExpList args = new ExpList(pos);
+		for ( int i = 0; i < params; i++ ) {
+			args.add(intExpr(Math.min(d - 1, 1)));
+		}
+		return new Call(receiver, new Identifier(name, pos), args, pos);
+	}
+}
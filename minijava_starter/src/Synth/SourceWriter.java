@@ -0,0 +1,383 @@
+package Synth;
+
+import java.io.PrintWriter;
+
+import AST.*;
+import AST.Visitor.Visitor;
+
+// Prints ASTs as MiniJava source that parses back to the same tree.
+// Unlike PrettyPrintVisitor, every operand that isn't a name or literal
+// is put in parentheses, since minijava.cup gives < and the binary
+// operators higher precedence than [ ], . and calls.  Counts the lines
+// written so the generator can stop at a target size.
+
+public class SourceWriter implements Visitor {
+
+	private final PrintWriter out;
+	private int tabs = 0;
+	private long lines = 0;
+
+	public SourceWriter(PrintWriter o) {
+		out = o;
+	}
+
+	public long getLineCount() {
+		return lines;
+	}
+
+	public void println() {
+		out.print('\n');
+		++lines;
+	}
+
+	void println(String s) {
+		out.print(s);
+		println();
+	}
+
+	void printTab() {
+		for (int i = 0; i < tabs; i++) {
+			out.print("    ");
+		}
+	}
+
+	static boolean isAtom(Exp e) {
+		return e instanceof IntegerLiteral || e instanceof IdentifierExp || e instanceof This
+			|| e instanceof True || e instanceof False || e instanceof NewObject;
+	}
+
+	void operand(Exp e) {
+		if ( isAtom(e) ) {
+			e.accept(this);
+		}
+		else {
+			out.print('(');
+			e.accept(this);
+			out.print(')');
+		}
+	}
+
+	void binary(Exp e1, String op, Exp e2) {
+		operand(e1);
+		out.print(op);
+		operand(e2);
+	}
+
+	// Display added for toy example language. Not used in regular MiniJava
+	public void visit(Display n) {
+		printTab();
+		out.print("display ");
+		n.e.accept(this);
+		println(";");
+	}
+
+	// MainClass m;
+	// ClassDeclList cl;
+	public void visit(Program n) {
+		n.m.accept(this);
+		for (int i = 0; i < n.cl.size(); i++) {
+			println();
+			n.cl.get(i).accept(this);
+		}
+	}
+
+	// Identifier i1,i2;
+	// Statement s;
+	public void visit(MainClass n) {
+		out.print("class ");
+		n.i1.accept(this);
+		println(" {");
+		out.print("    public static void main(String[] ");
+		n.i2.accept(this);
+		println(") {");
+		tabs = 2;
+		n.s.accept(this);
+		tabs = 0;
+		println("    }");
+		println("}");
+	}
+
+	// Identifier i;
+	// VarDeclList vl;
+	// MethodDeclList ml;
+	public void visit(ClassDeclSimple n) {
+		out.print("class ");
+		n.i.accept(this);
+		println(" {");
+		body(n.vl, n.ml);
+	}
+
+	// Identifier i;
+	// Identifier j;
+	// VarDeclList vl;
+	// MethodDeclList ml;
+	public void visit(ClassDeclExtends n) {
+		out.print("class ");
+		n.i.accept(this);
+		out.print(" extends ");
+		n.j.accept(this);
+		println(" {");
+		body(n.vl, n.ml);
+	}
+
+	void body(VarDeclList vl, MethodDeclList ml) {
+		tabs = 1;
+		for (int i = 0; i < vl.size(); i++) {
+			vl.get(i).accept(this);
+		}
+		for (int i = 0; i < ml.size(); i++) {
+			println();
+			ml.get(i).accept(this);
+		}
+		tabs = 0;
+		println("}");
+	}
+
+	// Type t;
+	// Identifier i;
+	public void visit(VarDecl n) {
+		printTab();
+		n.t.accept(this);
+		out.print(' ');
+		n.i.accept(this);
+		println(";");
+	}
+
+	// Type t;
+	// Identifier i;
+	// FormalList fl;
+	// VarDeclList vl;
+	// StatementList sl;
+	// Exp e;
+	public void visit(MethodDecl n) {
+		printTab();
+		out.print("public ");
+		n.t.accept(this);
+		out.print(' ');
+		n.i.accept(this);
+		out.print('(');
+		for (int i = 0; i < n.fl.size(); i++) {
+			if (i > 0) out.print(", ");
+			n.fl.get(i).accept(this);
+		}
+		println(") {");
+		++tabs;
+		for (int i = 0; i < n.vl.size(); i++) {
+			n.vl.get(i).accept(this);
+		}
+		for (int i = 0; i < n.sl.size(); i++) {
+			n.sl.get(i).accept(this);
+		}
+		printTab();
+		out.print("return ");
+		n.e.accept(this);
+		println(";");
+		--tabs;
+		printTab();
+		println("}");
+	}
+
+	// Type t;
+	// Identifier i;
+	public void visit(Formal n) {
+		n.t.accept(this);
+		out.print(' ');
+		n.i.accept(this);
+	}
+
+	public void visit(IntArrayType n) {
+		out.print("int[]");
+	}
+
+	public void visit(BooleanType n) {
+		out.print("boolean");
+	}
+
+	public void visit(IntegerType n) {
+		out.print("int");
+	}
+
+	// String s;
+	public void visit(IdentifierType n) {
+		out.print(n.s);
+	}
+
+	// StatementList sl;
+	// printed on the line of the if, else or while that owns it
+	public void visit(Block n) {
+		println("{");
+		++tabs;
+		for (int i = 0; i < n.sl.size(); i++) {
+			n.sl.get(i).accept(this);
+		}
+		--tabs;
+		printTab();
+		println("}");
+	}
+
+	void nested(Statement s) {
+		if ( s instanceof Block ) {
+			s.accept(this);
+		}
+		else {
+			println();
+			++tabs;
+			s.accept(this);
+			--tabs;
+		}
+	}
+
+	// Exp e;
+	// Statement s1,s2;
+	public void visit(If n) {
+		printTab();
+		out.print("if (");
+		n.e.accept(this);
+		out.print(") ");
+		nested(n.s1);
+		printTab();
+		out.print("else ");
+		nested(n.s2);
+	}
+
+	// Exp e;
+	// Statement s;
+	public void visit(While n) {
+		printTab();
+		out.print("while (");
+		n.e.accept(this);
+		out.print(") ");
+		nested(n.s);
+	}
+
+	// Exp e;
+	public void visit(Print n) {
+		printTab();
+		out.print("System.out.println(");
+		n.e.accept(this);
+		println(");");
+	}
+
+	// Identifier i;
+	// Exp e;
+	public void visit(Assign n) {
+		printTab();
+		n.i.accept(this);
+		out.print(" = ");
+		n.e.accept(this);
+		println(";");
+	}
+
+	// Identifier i;
+	// Exp e1,e2;
+	public void visit(ArrayAssign n) {
+		printTab();
+		n.i.accept(this);
+		out.print('[');
+		n.e1.accept(this);
+		out.print("] = ");
+		n.e2.accept(this);
+		println(";");
+	}
+
+	// Exp e1,e2;
+	public void visit(And n) {
+		binary(n.e1, " && ", n.e2);
+	}
+
+	// Exp e1,e2;
+	public void visit(LessThan n) {
+		binary(n.e1, " < ", n.e2);
+	}
+
+	// Exp e1,e2;
+	public void visit(Plus n) {
+		binary(n.e1, " + ", n.e2);
+	}
+
+	// Exp e1,e2;
+	public void visit(Minus n) {
+		binary(n.e1, " - ", n.e2);
+	}
+
+	// Exp e1,e2;
+	public void visit(Times n) {
+		binary(n.e1, " * ", n.e2);
+	}
+
+	// Exp e1,e2;
+	public void visit(ArrayLookup n) {
+		operand(n.e1);
+		out.print('[');
+		n.e2.accept(this);
+		out.print(']');
+	}
+
+	// Exp e;
+	public void visit(ArrayLength n) {
+		operand(n.e);
+		out.print(".length");
+	}
+
+	// Exp e;
+	// Identifier i;
+	// ExpList el;
+	public void visit(Call n) {
+		operand(n.e);
+		out.print('.');
+		n.i.accept(this);
+		out.print('(');
+		for (int i = 0; i < n.el.size(); i++) {
+			if (i > 0) out.print(", ");
+			n.el.get(i).accept(this);
+		}
+		out.print(')');
+	}
+
+	// int i;
+	public void visit(IntegerLiteral n) {
+		out.print(n.i);
+	}
+
+	public void visit(True n) {
+		out.print("true");
+	}
+
+	public void visit(False n) {
+		out.print("false");
+	}
+
+	// String s;
+	public void visit(IdentifierExp n) {
+		out.print(n.s);
+	}
+
+	public void visit(This n) {
+		out.print("this");
+	}
+
+	// Exp e;
+	public void visit(NewArray n) {
+		out.print("new int[");
+		n.e.accept(this);
+		out.print(']');
+	}
+
+	// Identifier i;
+	public void visit(NewObject n) {
+		out.print("new ");
+		n.i.accept(this);
+		out.print("()");
+	}
+
+	// Exp e;
+	public void visit(Not n) {
+		out.print('!');
+		operand(n.e);
+	}
+
+	// String s;
+	public void visit(Identifier n) {
+		out.print(n.s);
+	}
+}
@@ -0,0 +1,163 @@
+import Scanner.*;
+import Parser.*;
+import AST.*;
+import AST.Visitor.NodeCountVisitor;
+import Synth.ProgramGenerator;
+import java_cup.runtime.ComplexSymbolFactory;
+import java.io.*;
+import java.nio.ByteBuffer;
+
+/**
+ * Checks AST.Arena on the given source files and on programs made by
+ * Synth.ProgramGenerator: each program is parsed, copied into an arena,
+ * walked with a Cursor and turned back into objects, which must be the
+ * same tree as the parser made (compared as TestDescent does).  So must
+ * the program written as an AST.ASTFile and read back, whole and a class
+ * at a time.  Then
+ * reports how much heap a large program takes per node and per source
+ * line: as parsed; in an arena; and as copies made from the arena, one
+ * with an object for each leaf and empty list as the parsers used to make,
+ * and one with the shared ones as they make now.
+ *
+ *     java TestArena [-seeds n] [-lines n] [file.java ...]
+ */
+public class TestArena {
+
+    public static void main(String [] args) throws Exception {
+        int [] status = { 1 };
+        Thread t = new Thread(null, () -> status[0] = run(args), "test-arena", 1L << 30);
+        t.start();
+        t.join();
+        System.exit(status[0]);
+    }
+
+    static int run(String [] args) {
+        try {
+            int seeds = 10;
+            long lines = 100000;
+            int a = 0;
+            for ( ; a < args.length && args[a].startsWith("-"); a += 2 ) {
+                switch ( args[a] ) {
+                case "-seeds": seeds = Integer.parseInt(args[a + 1]); break;
+                case "-lines": lines = Long.parseLong(args[a + 1]); break;
+                default:
+                    System.err.println("Use: java TestArena [-seeds n] [-lines n] [file.java ...]");
+                    return 1;
+                }
+            }
+
+            int failures = 0;
+            for ( ; a < args.length; a++ ) {
+                if ( !check(args[a], parse(new FileReader(args[a]))) ) ++failures;
+            }
+            for ( int seed = 1; seed <= seeds; seed++ ) {
+                if ( !check("seed " + seed, parse(new StringReader(generate(seed, 0)))) ) ++failures;
+            }
+
+            // memory, on one large program
+            String source = generate(1, lines);
+            long lineCount = source.chars().filter(c -> c == '\n').count();
+            // parsed once first, so that the names are in NamePool.shared()
+            // before either is measured
+            parse(new StringReader(source));
+            long before = used();
+            Program program = parse(new StringReader(source));
+            long tree = used() - before;
+            before = used();
+            Arena arena = new Arena();
+            int root = arena.add(program);
+            arena.trim();
+            long arenaBytes = used() - before;
+            before = used();
+            Program unshared = arena.program(root, false);
+            long unsharedBytes = used() - before;
+            before = used();
+            Program shared = arena.program(root, true);
+            long sharedBytes = used() - before;
+            System.out.printf("%-10s %d lines, %d nodes%n", "memory", lineCount, arena.size());
+            report("parsed", tree, arena.size(), lineCount);
+            report("arena", arenaBytes, arena.size(), lineCount);
+            System.out.printf("%-10s %,12d bytes in arrays%n", "", arena.footprint());
+            report("unshared", unsharedBytes, arena.size(), lineCount);
+            report("shared", sharedBytes, arena.size(), lineCount);
+            // keep them all alive until measured
+            if ( program.m == null || unshared.m == null || shared.m == null
+                 || arena.kind(root) != Arena.PROGRAM ) ++failures;
+
+            if ( failures == 0 ) {
+                System.out.println("\nPASS");
+                return 0;
+            }
+            System.out.println("\n" + failures + " FAILED");
+            return 1;
+        } catch (Exception e) {
+            System.err.println("Unexpected internal compiler error: " + e.toString());
+            e.printStackTrace();
+            return 1;
+        }
+    }
+
+    static String generate(int seed, long lines) throws Exception {
+        ProgramGenerator g = new ProgramGenerator();
+        g.parse(new String [] { "-seed", "" + seed, "-lines", "" + lines, "-expr", "" + (2 + seed % 8) });
+        StringWriter source = new StringWriter();
+        try ( PrintWriter src = new PrintWriter(source) ) {
+            g.generate(src, new PrintStream(OutputStream.nullOutputStream()));
+        }
+        return source.toString();
+    }
+
+    static Program parse(Reader in) throws Exception {
+        ComplexSymbolFactory sf = new ComplexSymbolFactory();
+        return (Program)new parser(new scanner(in, sf), sf).parse().value;
+    }
+
+    static boolean check(String name, Program program) throws Exception {
+        Arena arena = new Arena();
+        int root = arena.add(program);
+
+        NodeCountVisitor nc = new NodeCountVisitor();
+        program.accept(nc);
+        long entered = 0, left = 0;
+        for ( Arena.Cursor c = arena.cursor(root); c.next(); ) {
+            if ( c.entering() ) ++entered;
+            else ++left;
+        }
+
+        String problem = null;
+        if ( arena.size() != nc.count || entered != nc.count || left != nc.count ) {
+            problem = nc.count + " nodes, " + arena.size() + " in the arena, cursor entered "
+                + entered + " and left " + left;
+        }
+        else {
+            problem = TestDescent.compare(program, arena.program(root), "Program");
+        }
+        if ( problem == null ) {
+            ASTFile file = ASTFile.of(ByteBuffer.wrap(ASTFile.write(program)));
+            problem = TestDescent.compare(program, file.program(), "ASTFile Program");
+            int n = program.cl == null ? 0 : program.cl.size();
+            if ( problem == null && file.classCount() != n ) {
+                problem = "ASTFile has " + file.classCount() + " classes, not " + n;
+            }
+            for ( int i = 0; problem == null && i < n; i++ ) {
+                problem = TestDescent.compare(program.cl.get(i), file.classDecl(i), "ASTFile class " + i);
+            }
+        }
+        if ( problem != null ) {
+            System.out.println("FAIL " + name + "\n  " + problem);
+            return false;
+        }
+        return true;
+    }
+
+    static void report(String what, long bytes, int nodes, long lines) {
+        System.out.printf("%-10s %,12d bytes  %6.1f per node  %6.1f per line%n", what,
+                          bytes, (double)bytes / nodes, (double)bytes / lines);
+    }
+
+    static long used() {
+        Runtime r = Runtime.getRuntime();
+        for ( int i = 0; i < 3; i++ ) System.gc();
+        return r.totalMemory() - r.freeMemory();
+    }
+}
@@ -0,0 +1,131 @@
+import Scanner.*;
+import Synth.ProgramGenerator;
+import java_cup.runtime.ComplexSymbolFactory;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Differential test of Scanner.ByteScanner (-X:mmap) against the JFlex
+ * scanner.  Each input is scanned both ways into a TokenBuffer; where
+ * ByteScanner scans it, every token must have the same kind, offset,
+ * length, line, column and text, and it may only give up on an input
+ * that isn't ASCII or that the scanner finds an error in.
+ *
+ * The inputs are the given source files, programs made by
+ * Synth.ProgramGenerator over a range of seeds, and random strings of
+ * tokens, line ends and comments, some with characters the scanner
+ * doesn't take.
+ *
+ *     java TestByteScanner [-seeds n] [-fuzz n] [file.java ...]
+ */
+public class TestByteScanner {
+
+    static int inputs = 0, scanned = 0, failures = 0;
+
+    public static void main(String [] args) throws Exception {
+        int seeds = 10, fuzz = 20000;
+        int a = 0;
+        for ( ; a < args.length && args[a].startsWith("-"); a += 2 ) {
+            switch ( args[a] ) {
+            case "-seeds": seeds = Integer.parseInt(args[a + 1]); break;
+            case "-fuzz": fuzz = Integer.parseInt(args[a + 1]); break;
+            default:
+                System.err.println("Use: java TestByteScanner [-seeds n] [-fuzz n] [file.java ...]");
+                System.exit(1);
+            }
+        }
+
+        for ( ; a < args.length; a++ ) {
+            check(args[a], java.nio.file.Files.readAllBytes(java.nio.file.Paths.get(args[a])));
+        }
+        for ( int seed = 1; seed <= seeds; seed++ ) {
+            ProgramGenerator g = new ProgramGenerator();
+            g.parse(new String [] { "-seed", "" + seed, "-classes", "" + (5 + seed % 10) });
+            StringWriter source = new StringWriter();
+            try ( PrintWriter src = new PrintWriter(source) ) {
+                g.generate(src, new PrintStream(OutputStream.nullOutputStream()));
+            }
+            check("seed " + seed, source.toString().getBytes(StandardCharsets.US_ASCII));
+        }
+        // line ends that only a block comment may hold
+        check("block comment", "class /* \u000B\r\u000C\n\u000B */ x\r\n y".getBytes(StandardCharsets.US_ASCII));
+        check("line comment", "class // x\r y /* \u000B */ z".getBytes(StandardCharsets.US_ASCII));
+
+        Random r = new Random(1);
+        for ( int n = 0; n < fuzz; n++ ) {
+            StringBuilder b = new StringBuilder();
+            for ( int i = 1 + r.nextInt(30); i > 0; i-- ) {
+                b.append(pieces[r.nextInt(n % 2 == 0 ? clean : pieces.length)]);
+            }
+            check("fuzz " + n + ": " + b, b.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        System.out.printf("%d inputs, %d scanned from bytes%n", inputs, scanned);
+        if ( failures == 0 ) {
+            System.out.println("\nPASS");
+            System.exit(0);
+        }
+        System.out.println("\n" + failures + " FAILED");
+        System.exit(1);
+    }
+
+    // the first clean ones are ASCII the scanner takes without an error
+    static final int clean = 34;
+    static final String [] pieces = {
+        " ", "\t", "\n", "\r", "\r\n", "x", "y1", "a_b", "123", "0", "class", "classy", "String",
+        "System", "System.out.println", "System.out.printlnx", "System.out", "&&", "+", "<",
+        "(", ")", "{", "}", "[", "]", ";", ".", ",", "// c\n", "// c\r", "// c\r\n", "/* \r\n * */",
+        "/* ** / */",
+        // errors, and characters that aren't ASCII; the line ends the
+        // scanner has no rule for outside block comments, like \u000B and
+        // \u2028, are left out, as it gives up on them with an Error
+        "&", "/", "_x", "#", "/* open", "\u00e9", "// \u00e9\n", "/* \u00e9 */", "x\u00e9",
+    };
+
+    static void check(String name, byte [] source) throws IOException {
+        ++inputs;
+        TokenBuffer bytes = new TokenBuffer();
+        boolean ok = ByteScanner.scan(ByteBuffer.wrap(source), bytes);
+
+        scanner s = new scanner(new InputStreamReader(new ByteArrayInputStream(source),
+                                                      StandardCharsets.UTF_8),
+                                new ComplexSymbolFactory());
+        s.setDiagnostics(new PrintStream(OutputStream.nullOutputStream()));
+        TokenBuffer chars = s.scan(new TokenBuffer());
+
+        boolean ascii = true, error = false;
+        for ( byte c : source ) ascii &= c >= 0;
+        for ( int i = 0; i < chars.size(); i++ ) error |= chars.kind(i) == Parser.sym.error;
+
+        String problem = null;
+        if ( !ok ) {
+            if ( ascii && !error ) problem = "gave up on a clean ASCII source";
+        }
+        else if ( !ascii || error ) {
+            problem = "scanned a source it should have given up on";
+        }
+        else {
+            ++scanned;
+            if ( bytes.size() != chars.size() ) problem = "tokens " + bytes.size() + " vs " + chars.size();
+            for ( int i = 0; problem == null && i < chars.size(); i++ ) {
+                if ( bytes.kind(i) != chars.kind(i) || bytes.start(i) != chars.start(i)
+                     || bytes.length(i) != chars.length(i) || bytes.line(i) != chars.line(i)
+                     || bytes.column(i) != chars.column(i)
+                     || !String.valueOf(bytes.text(i)).equals(String.valueOf(chars.text(i))) ) {
+                    problem = "token " + i + ": " + describe(bytes, i) + " vs " + describe(chars, i);
+                }
+            }
+        }
+        if ( problem != null ) {
+            ++failures;
+            System.out.println("FAIL " + name.replace("\r", "\\r").replace("\n", "\\n") + "\n  " + problem);
+        }
+    }
+
+    static String describe(TokenBuffer b, int i) {
+        return b.toString(i) + " '" + b.text(i) + "' at " + b.start(i) + "+" + b.length(i)
+            + " " + b.line(i) + ":" + b.column(i);
+    }
+}
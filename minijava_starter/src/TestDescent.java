@@ -0,0 +1,261 @@
+import Scanner.*;
+import Parser.*;
+import AST.*;
+import Synth.ProgramGenerator;
+import java_cup.runtime.ComplexSymbolFactory;
+import java.io.*;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Random;
+
+/**
+ * Differential test of Parser.DescentParser (-X:descent) against the CUP
+ * parser.  Each input is parsed by both; either both fail, reporting the
+ * syntax error at the same token, or both succeed with the same AST: the
+ * same node classes, fields and line numbers throughout.  The input is
+ * also parsed in pieces by Parser.ParallelParser (-X:parallelparse),
+ * which must give the same AST, or give up where the others fail.
+ *
+ * The inputs are the given source files, programs made by
+ * Synth.ProgramGenerator over a range of seeds, random expressions, and
+ * random token strings in expression and statement position, in the main
+ * class and in a later one, most of them wrong.
+ *
+ *     java TestDescent [-seeds n] [-fuzz n] [file.java ...]
+ */
+public class TestDescent {
+
+    static int seeds = 20;
+    static int fuzz = 20000;
+
+    static int inputs = 0, errors = 0, failures = 0;
+
+    public static void main(String [] args) throws Exception {
+        // both parsers and the comparison recurse as deep as the source nests
+        int [] status = { 1 };
+        Thread t = new Thread(null, () -> status[0] = run(args), "test-descent", 1L << 30);
+        t.start();
+        t.join();
+        System.exit(status[0]);
+    }
+
+    static int run(String [] args) {
+        try {
+            int a = 0;
+            for ( ; a < args.length && args[a].startsWith("-"); a += 2 ) {
+                switch ( args[a] ) {
+                case "-seeds": seeds = Integer.parseInt(args[a + 1]); break;
+                case "-fuzz": fuzz = Integer.parseInt(args[a + 1]); break;
+                default:
+                    System.err.println("Use: java TestDescent [-seeds n] [-fuzz n] [file.java ...]");
+                    return 1;
+                }
+            }
+
+            for ( ; a < args.length; a++ ) {
+                check(args[a], new String(java.nio.file.Files.readAllBytes(
+                    java.nio.file.Paths.get(args[a]))));
+            }
+            System.out.printf("%-10s %d inputs, %d with syntax errors%n", "files", inputs, errors);
+
+            int before = inputs;
+            for ( int seed = 1; seed <= seeds; seed++ ) {
+                ProgramGenerator g = new ProgramGenerator();
+                g.parse(new String [] { "-seed", "" + seed, "-classes", "" + (5 + seed % 10),
+                                        "-expr", "" + (2 + seed % 8) });
+                StringWriter source = new StringWriter();
+                try ( PrintWriter src = new PrintWriter(source) ) {
+                    g.generate(src, new PrintStream(OutputStream.nullOutputStream()));
+                }
+                check("seed " + seed, source.toString());
+            }
+            System.out.printf("%-10s %d inputs%n", "generated", inputs - before);
+
+            before = inputs;
+            int errorsBefore = errors;
+            Random r = new Random(1);
+            for ( int n = 0; n < fuzz; n++ ) {
+                String text;
+                switch ( n % 4 ) {
+                case 0: text = wrap("System.out.println(" + soup(r, expressionTokens, 1 + r.nextInt(14)) + ");"); break;
+                case 1: text = wrap(soup(r, statementTokens, 1 + r.nextInt(20))); break;
+                case 2: text = wrapLater(soup(r, statementTokens, 1 + r.nextInt(20))); break;
+                default: text = wrap("System.out.println(" + expression(r, 4) + ");"); break;
+                }
+                check("fuzz " + n + ": " + text, text);
+            }
+            System.out.printf("%-10s %d inputs, %d with syntax errors%n", "fuzz",
+                              inputs - before, errors - errorsBefore);
+
+            if ( failures == 0 ) {
+                System.out.println("\nPASS");
+                return 0;
+            }
+            System.out.println("\n" + failures + " FAILED");
+            return 1;
+        } catch (Exception e) {
+            System.err.println("Unexpected internal compiler error: " + e.toString());
+            e.printStackTrace();
+            return 1;
+        }
+    }
+
+    static final String [] expressionTokens = {
+        "a", "b", "1", "23", "true", "false", "this", "+", "-", "*", "&&", "<", "!",
+        "(", ")", "(", ")", "[", "]", ".", "length", "f", ",", "new", "int", "A", "a.f(", "b[",
+    };
+
+    static final String [] statementTokens = {
+        "x", "y", "=", "1", ";", "{", "}", "if", "(", ")", "else", "while", "x < 1", "true",
+        "System.out.println(", "display", "[", "]", "x + y", "x.g()", "!", "int",
+        "/* } class */", "// {\n", "\r\n",
+    };
+
+    static String soup(Random r, String [] vocabulary, int n) {
+        StringBuilder b = new StringBuilder();
+        for ( int i = 0; i < n; i++ ) {
+            // a few line breaks so line numbers are compared too
+            b.append(r.nextInt(5) == 0 ? '\n' : ' ');
+            b.append(vocabulary[r.nextInt(vocabulary.length)]);
+        }
+        return b.toString();
+    }
+
+    /** A random expression that always parses, though it may not check. */
+    static String expression(Random r, int depth) {
+        String [] operators = { " && ", " < ", " + ", " - ", " * " };
+        switch ( depth <= 0 ? r.nextInt(4) : r.nextInt(12) ) {
+        case 0: return "a";
+        case 1: return "" + r.nextInt(100);
+        case 2: return r.nextBoolean() ? "true" : "this";
+        case 3: return "new A()";
+        case 4: case 5: case 6:
+            return expression(r, depth - 1) + (r.nextInt(4) == 0 ? "\n" : "")
+                + operators[r.nextInt(operators.length)] + expression(r, depth - 1);
+        case 7: return "(" + expression(r, depth - 1) + ")";
+        case 8: return "!" + expression(r, depth - 1);
+        case 9: return expression(r, depth - 1) + "[" + expression(r, depth - 1) + "]";
+        case 10: return expression(r, depth - 1) + (r.nextBoolean() ? ".length" : ".f()");
+        default:
+            return expression(r, depth - 1) + ".f(" + expression(r, depth - 1) + ",\n"
+                + expression(r, depth - 1) + ")";
+        }
+    }
+
+    static String wrap(String statement) {
+        return "class M { public static void main(String [] a) {\n" + statement + "\n} }\n"
+            + "/* class X { */\r\nclass A { int x; // } class\r\n"
+            + "    public int f(int y) { return y; } }\n\nclass B extends A { }\n";
+    }
+
+    /**
+     * The statement in a method of a class after the main one, so that
+     * ParallelParser meets it on another thread.
+     */
+    static String wrapLater(String statement) {
+        return "class M { public static void main(String [] a) {\n"
+            + "System.out.println(1);\n} }\n"
+            + "class A { int x;\n    public int f(int y) {\n" + statement + "\n"
+            + "return y; } }\n\nclass B extends A { }\n";
+    }
+
+    /** Parse text with both parsers and compare what they make of it. */
+    static void check(String name, String text) throws Exception {
+        ++inputs;
+        // what each parser reports
+        ByteArrayOutputStream cupReport = new ByteArrayOutputStream();
+        ByteArrayOutputStream descentReport = new ByteArrayOutputStream();
+        Program cup = null, descent = null, parallel = null;
+        ParallelParser pp = new ParallelParser(text.toCharArray());
+
+        ComplexSymbolFactory sf = new ComplexSymbolFactory();
+        try {
+            PrintStream report = new PrintStream(cupReport, true);
+            scanner s = new scanner(new StringReader(text), sf);
+            s.setDiagnostics(report);
+            parser p = new parser(s, sf);
+            p.setDiagnostics(report);
+            cup = (Program)p.parse().value;
+        } catch (Exception e) {
+        }
+        try {
+            PrintStream report = new PrintStream(descentReport, true);
+            scanner s = new scanner(new StringReader(text), sf);
+            s.setDiagnostics(report);
+            DescentParser p = new DescentParser(s.scan(new TokenBuffer()));
+            p.setDiagnostics(report);
+            descent = p.parse();
+        } catch (Exception e) {
+        }
+        parallel = pp.parse();
+
+        String problem = null;
+        if ( cup == null || descent == null ) {
+            ++errors;
+            // the first line names the token where the error was found
+            String c = firstLine(cupReport), d = firstLine(descentReport);
+            if ( cup != null || descent != null || !c.equals(d) )
+                problem = "cup: " + (cup != null ? "ok" : c) + "\n  descent: " + (descent != null ? "ok" : d);
+        }
+        else {
+            problem = compare(cup, descent, "Program");
+        }
+        if ( problem == null && parallel != null ) {
+            problem = cup == null ? "parallel: ok where cup failed"
+                : compare(cup, parallel, "parallel Program");
+        }
+        else if ( problem == null && cup != null && pp.pieces() > 0 ) {
+            problem = "parallel: failed";
+        }
+        if ( problem != null ) {
+            ++failures;
+            System.out.println("FAIL " + name + "\n  " + problem);
+        }
+    }
+
+    static String firstLine(ByteArrayOutputStream b) {
+        String s = b.toString();
+        int nl = s.indexOf('\n');
+        return nl < 0 ? s : s.substring(0, nl);
+    }
+
+    /** Where the trees a and b first differ, or null if they don't. */
+    static String compare(Object a, Object b, String path) throws Exception {
+        if ( a == null || b == null ) {
+            return a == b ? null : path + ": " + a + " vs " + b;
+        }
+        if ( a.getClass() != b.getClass() ) {
+            return path + ": " + a.getClass().getSimpleName() + " vs " + b.getClass().getSimpleName();
+        }
+        if ( !(a instanceof ASTNode) ) {
+            return a.equals(b) ? null : path + ": " + a + " vs " + b;
+        }
+        ASTNode x = (ASTNode)a, y = (ASTNode)b;
+        if ( x.getLineNo() != y.getLineNo() ) {
+            return path + ": line " + x.getLineNo() + " vs " + y.getLineNo();
+        }
+
+        // the lists keep their elements private
+        try {
+            java.lang.reflect.Method size = a.getClass().getMethod("size");
+            java.lang.reflect.Method get = a.getClass().getMethod("get", int.class);
+            int n = (Integer)size.invoke(a);
+            if ( n != (Integer)size.invoke(b) ) {
+                return path + ": size " + n + " vs " + size.invoke(b);
+            }
+            for ( int i = 0; i < n; i++ ) {
+                String p = compare(get.invoke(a, i), get.invoke(b, i), path + "[" + i + "]");
+                if ( p != null ) return p;
+            }
+            return null;
+        } catch (NoSuchMethodException e) {
+        }
+
+        for ( Field f : a.getClass().getFields() ) {
+            if ( Modifier.isStatic(f.getModifiers()) ) continue;
+            String p = compare(f.get(a), f.get(b), path + "." + f.getName());
+            if ( p != null ) return p;
+        }
+        return null;
+    }
+}
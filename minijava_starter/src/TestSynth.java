@@ -0,0 +1,100 @@
+import Scanner.*;
+import Parser.*;
+import AST.*;
+import AST.Visitor.*;
+import Synth.ProgramGenerator;
+import java_cup.runtime.ComplexSymbolFactory;
+import java.io.*;
+import java.nio.file.*;
+import java.util.Arrays;
+
+/**
+ * Stress test on a generated program: generates one with
+ * Synth.ProgramGenerator (same options), runs the scanner, parser,
+ * symbol table and semantic analysis on it, checks that no errors are
+ * found and that running the parsed AST prints the expected output.
+ *
+ *     java TestSynth -lines 100000 -depth 20 -expr 40
+ */
+public class TestSynth {
+
+    public static void main(String [] args) throws Exception {
+        System.exit(run(args));
+    }
+
+    static int run(String [] args) {
+        ProgramGenerator g = new ProgramGenerator();
+        try {
+            if ( g.parse(args).length != 0 )
+                throw new IllegalArgumentException("Unexpected arguments");
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage() + "\n" + ProgramGenerator.help);
+            return 1;
+        }
+
+        Path source = null, expected = null;
+        try {
+            source = Files.createTempFile("synth", ".java");
+            expected = Files.createTempFile("synth", ".out");
+
+            long start = System.nanoTime();
+            long lines;
+            try ( PrintWriter src = new PrintWriter(Files.newBufferedWriter(source));
+                  PrintStream exp = new PrintStream(Files.newOutputStream(expected)) ) {
+                lines = g.generate(src, exp);
+            }
+            report("generate", start, lines + " lines, " + Files.size(source) + " bytes");
+
+            start = System.nanoTime();
+            ComplexSymbolFactory sf = new ComplexSymbolFactory();
+            scanner s = new scanner(Files.newBufferedReader(source), sf);
+            Program program = (Program)new parser(s, sf).parse().value;
+            report("parse", start, "");
+
+            start = System.nanoTime();
+            SymTableVisitor st = new SymTableVisitor();
+            program.accept(st);
+            ResolveVisitor rv = new ResolveVisitor();
+            rv.setSymtab(st.getSymtab());
+            program.accept(rv);
+            SemanticAnalysisVisitor sa = new SemanticAnalysisVisitor();
+            sa.setSymtab(st.getSymtab());
+            program.accept(sa);
+            int errors = st.errors + sa.errors;
+            report("check", start, errors + " errors");
+
+            start = System.nanoTime();
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            try ( PrintStream out = new PrintStream(output) ) {
+                program.accept(new InterpretVisitor(out));
+            }
+            boolean same = Arrays.equals(output.toByteArray(), Files.readAllBytes(expected));
+            report("run", start, same ? "output as expected" : "OUTPUT DIFFERS");
+
+            if ( errors == 0 && same ) {
+                System.out.println("\nPASS");
+                return 0;
+            }
+            System.out.println("\nFAIL");
+            return 1;
+        } catch (Exception e) {
+            // yuck: some kind of error in the compiler implementation
+            // that we're not expecting (a bug!)
+            System.err.println("Unexpected internal compiler error: " +
+                               e.toString());
+            // print out a stack dump
+            e.printStackTrace();
+            return 1;
+        } finally {
+            try {
+                if ( source != null ) Files.deleteIfExists(source);
+                if ( expected != null ) Files.deleteIfExists(expected);
+            } catch (IOException e) {
+            }
+        }
+    }
+
+    static void report(String phase, long start, String detail) {
+        System.out.printf("%-10s %9.1f ms  %s%n", phase, (System.nanoTime() - start) / 1e6, detail);
+    }
+}